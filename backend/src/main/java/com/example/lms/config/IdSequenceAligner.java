@@ -0,0 +1,72 @@
+package com.example.lms.config;
+
+import com.example.lms.entity.Enrollment;
+import com.example.lms.entity.Progress;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Moves the id sequences of Progress and Enrollment past the ids already in their tables.
+ *
+ * Both used IDENTITY columns before; when their sequences are created on an existing database
+ * they start at 1 and the first inserts would collide. Runs once at startup, after the schema
+ * migrations (hence the EntityManagerFactory dependency) and before any request or job.
+ * Sequences are only ever raised. MySQL has no sequences, so Hibernate keeps them in one-row
+ * tables (next_val); H2 has real sequences.
+ */
+@Component
+@Slf4j
+public class IdSequenceAligner {
+
+    private record IdSequence(String table, String sequence, int allocationSize) {}
+
+    private static final List<IdSequence> SEQUENCES = List.of(
+            new IdSequence("progress", "progress_seq", Progress.ID_ALLOCATION_SIZE),
+            new IdSequence("enrollments", "enrollment_seq", Enrollment.ID_ALLOCATION_SIZE));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public IdSequenceAligner(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void align() {
+        String database = jdbcTemplate.execute((ConnectionCallback<String>) c -> c.getMetaData().getDatabaseProductName());
+        for (IdSequence sequence : SEQUENCES) {
+            Long maxId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM " + sequence.table(), Long.class);
+            if (maxId == null) {
+                continue;
+            }
+            // A pooled block may start allocationSize below the stored value
+            long required = maxId + sequence.allocationSize() + 1;
+            if (raise(database, sequence.sequence(), required)) {
+                log.info("🔢 Advanced {} to {} past existing {} ids", sequence.sequence(), required, sequence.table());
+            }
+        }
+    }
+
+    private boolean raise(String database, String sequence, long required) {
+        if (database.contains("MySQL") || database.contains("MariaDB")) {
+            return jdbcTemplate.update("UPDATE " + sequence + " SET next_val = ? WHERE next_val < ?", required, required) > 0;
+        }
+        if (database.contains("H2")) {
+            Long current = jdbcTemplate.queryForObject(
+                    "SELECT BASE_VALUE FROM INFORMATION_SCHEMA.SEQUENCES WHERE SEQUENCE_NAME = ?",
+                    Long.class, sequence.toUpperCase());
+            if (current != null && current >= required) {
+                return false;
+            }
+            jdbcTemplate.execute("ALTER SEQUENCE " + sequence + " RESTART WITH " + required);
+            return true;
+        }
+        log.warn("⚠️ Cannot check {} on {}; make sure it is above the existing ids", sequence, database);
+        return false;
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.lms.config;
+
+import com.example.lms.service.LocalFileStorageService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Moves files from the old flat uploads/ directory into the sharded layout at startup.
+ * Enable once with storage.local.migrate-flat-files=true; unmigrated files stay readable meanwhile.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+@ConditionalOnProperty(name = "storage.local.migrate-flat-files", havingValue = "true")
+public class LocalStorageMigrator implements CommandLineRunner {
+
+    private final LocalFileStorageService localFileStorageService;
+
+    @Override
+    public void run(String... args) {
+        log.info("Migrating flat upload files to sharded layout...");
+        int moved = localFileStorageService.migrateFlatFiles();
+        log.info("✅ Upload migration complete. Files moved: {}", moved);
+    }
+}
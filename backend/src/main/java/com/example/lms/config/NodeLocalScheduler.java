@@ -0,0 +1,86 @@
+package com.example.lms.config;
+
+import com.example.lms.scheduler.TokenRevocationSyncJob;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.quartz.*;
+import org.quartz.impl.StdSchedulerFactory;
+import org.quartz.simpl.RAMJobStore;
+import org.quartz.spi.JobFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.AutowireCapableBeanFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+import java.util.Properties;
+import java.util.UUID;
+
+/**
+ * Quartz scheduler for jobs that keep node-local state up to date, so they must run on every node.
+ * It uses an in-memory job store and is never clustered, unlike the main scheduler whose JDBC job
+ * store fires each trigger on a single node in production (see {@link QuartzSchedulerConfig}).
+ */
+@Component
+@Slf4j
+public class NodeLocalScheduler {
+
+    static final JobKey TOKEN_REVOCATION_SYNC_JOB = JobKey.jobKey("tokenRevocationSyncJob");
+
+    private final Scheduler scheduler;
+    private final ObjectProvider<Scheduler> clusteredScheduler;
+
+    @Autowired
+    public NodeLocalScheduler(AutowireCapableBeanFactory beanFactory,
+                              ObjectProvider<Scheduler> clusteredScheduler,
+                              @Value("${security.jwt.revocation.sync-interval-seconds:30}") int syncIntervalSeconds) throws SchedulerException {
+        // Jobs are created like Spring's SpringBeanJobFactory does, with their dependencies injected
+        this((bundle, s) -> (Job) beanFactory.createBean(bundle.getJobDetail().getJobClass()),
+                clusteredScheduler, syncIntervalSeconds);
+    }
+
+    NodeLocalScheduler(JobFactory jobFactory, ObjectProvider<Scheduler> clusteredScheduler,
+                       int syncIntervalSeconds) throws SchedulerException {
+        this.clusteredScheduler = clusteredScheduler;
+        Properties props = new Properties();
+        // Schedulers are registered per JVM by name, so every instance (and test context) gets its own
+        props.put(StdSchedulerFactory.PROP_SCHED_INSTANCE_NAME, "lms-node-local-" + UUID.randomUUID());
+        props.put(StdSchedulerFactory.PROP_JOB_STORE_CLASS, RAMJobStore.class.getName());
+        props.put("org.quartz.threadPool.threadCount", "1");
+        props.put("org.quartz.scheduler.skipUpdateCheck", "true");
+        this.scheduler = new StdSchedulerFactory(props).getScheduler();
+        scheduler.setJobFactory(jobFactory);
+
+        scheduler.scheduleJob(JobBuilder.newJob(TokenRevocationSyncJob.class)
+                        .withIdentity(TOKEN_REVOCATION_SYNC_JOB)
+                        .withDescription("Load token revocations from other nodes and purge expired tokens")
+                        .build(),
+                TriggerBuilder.newTrigger()
+                        .withIdentity("tokenRevocationSyncTrigger")
+                        .withDescription("Trigger for token revocation sync job - runs on every node")
+                        .startAt(new Date(System.currentTimeMillis() + syncIntervalSeconds * 1000L))
+                        .withSchedule(SimpleScheduleBuilder.simpleSchedule()
+                                .withIntervalInSeconds(syncIntervalSeconds)
+                                .repeatForever()
+                                .withMisfireHandlingInstructionNextWithRemainingCount())
+                        .build());
+    }
+
+    @PostConstruct
+    public void start() throws SchedulerException {
+        // Older versions kept the sync job in the clustered store, where it ran on one node per interval
+        Scheduler clustered = clusteredScheduler.getIfAvailable();
+        if (clustered != null && clustered.deleteJob(TOKEN_REVOCATION_SYNC_JOB)) {
+            log.info("🧹 Removed token revocation sync job from the clustered job store");
+        }
+        scheduler.start();
+        log.info("✅ Node-local scheduler started");
+    }
+
+    @PreDestroy
+    public void shutdown() throws SchedulerException {
+        scheduler.shutdown(false);
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.lms.config;
+
+import com.example.lms.service.LoggingNotificationSender;
+import com.example.lms.service.NotificationSender;
+import com.example.lms.service.SmtpNotificationSender;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Emails go over SMTP when notifications.smtp.host is set, otherwise they are only logged
+ */
+@Configuration
+@Slf4j
+public class NotificationConfig {
+
+    @Value("${notifications.smtp.host:}")
+    private String host;
+
+    @Value("${notifications.smtp.port:587}")
+    private int port;
+
+    @Value("${notifications.smtp.username:}")
+    private String username;
+
+    @Value("${notifications.smtp.password:}")
+    private String password;
+
+    @Value("${notifications.smtp.starttls:true}")
+    private boolean startTls;
+
+    @Value("${notifications.smtp.pool-size:4}")
+    private int poolSize;
+
+    @Value("${notifications.smtp.timeout-ms:10000}")
+    private int timeoutMillis;
+
+    @Value("${notifications.smtp.idle-timeout-seconds:30}")
+    private long idleTimeoutSeconds;
+
+    @Value("${notifications.from:no-reply@lms.local}")
+    private String from;
+
+    @Bean
+    public NotificationSender notificationSender() {
+        if (host.isBlank()) {
+            log.info("📧 No SMTP host configured, notifications will only be logged");
+            return new LoggingNotificationSender();
+        }
+        log.info("📧 Sending notifications via SMTP {}:{} ({} pooled connections)", host, port, poolSize);
+        return new SmtpNotificationSender(host, port, username, password, startTls, from,
+                poolSize, timeoutMillis, idleTimeoutSeconds);
+    }
+}
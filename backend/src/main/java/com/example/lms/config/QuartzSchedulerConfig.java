@@ -1,13 +1,23 @@
 package com.example.lms.config;
 
+import com.example.lms.scheduler.CertificateQueueJob;
 import com.example.lms.scheduler.DailyReminderJob;
+import com.example.lms.scheduler.ProgressReconcileJob;
+import com.example.lms.scheduler.ReminderShardJob;
+import com.example.lms.scheduler.S3ReconcileJob;
+import com.example.lms.scheduler.StorageGcJob;
+import com.example.lms.scheduler.UploadSessionSweeperJob;
 import org.quartz.*;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 /**
  * Quartz Scheduler Configuration
- * Configures daily reminder job to run every day at 9:00 AM
+ * Configures daily reminder job to run every day at 9:00 AM.
+ * In production the job store is JDBC and clustered (see application-prod.properties),
+ * so every trigger fires on exactly one node. Jobs that maintain node-local state run on
+ * {@link NodeLocalScheduler} instead.
  */
 @Configuration
 public class QuartzSchedulerConfig {
@@ -21,6 +31,21 @@ public class QuartzSchedulerConfig {
                 .withIdentity("dailyReminderJob")
                 .withDescription("Send daily reminders to students about their courses")
                 .storeDurably()
+                .requestRecovery()
+                .build();
+    }
+
+    /**
+     * One id range of a reminder run; triggers are created per run by the daily reminder job.
+     * Recovery is requested so a shard left running on a failed node is re-run elsewhere.
+     */
+    @Bean
+    public JobDetail reminderShardJobDetail() {
+        return JobBuilder.newJob(ReminderShardJob.class)
+                .withIdentity(ReminderShardJob.JOB_KEY)
+                .withDescription("Send the reminders of one student id range")
+                .storeDurably()
+                .requestRecovery()
                 .build();
     }
 
@@ -43,6 +68,127 @@ public class QuartzSchedulerConfig {
                 .build();
     }
 
+    /**
+     * Migrates files written by the local fallback during an S3 outage back to S3
+     */
+    @Bean
+    public JobDetail s3ReconcileJobDetail() {
+        return JobBuilder.newJob(S3ReconcileJob.class)
+                .withIdentity("s3ReconcileJob")
+                .withDescription("Move locally stored fallback files to S3 once it recovers")
+                .storeDurably()
+                .build();
+    }
+
+    @Bean
+    public Trigger s3ReconcileTrigger(@Value("${aws.s3.reconcile.interval-minutes:5}") int intervalMinutes) {
+        return TriggerBuilder.newTrigger()
+                .forJob(s3ReconcileJobDetail())
+                .withIdentity("s3ReconcileTrigger")
+                .withDescription("Trigger for S3 reconciliation job")
+                .withSchedule(SimpleScheduleBuilder.simpleSchedule()
+                        .withIntervalInMinutes(intervalMinutes)
+                        .repeatForever()
+                        .withMisfireHandlingInstructionNextWithRemainingCount())
+                .build();
+    }
+
+    /**
+     * Expires abandoned resumable upload sessions
+     */
+    @Bean
+    public JobDetail uploadSessionSweeperJobDetail() {
+        return JobBuilder.newJob(UploadSessionSweeperJob.class)
+                .withIdentity("uploadSessionSweeperJob")
+                .withDescription("Discard expired resumable upload sessions")
+                .storeDurably()
+                .build();
+    }
+
+    @Bean
+    public Trigger uploadSessionSweeperTrigger() {
+        return TriggerBuilder.newTrigger()
+                .forJob(uploadSessionSweeperJobDetail())
+                .withIdentity("uploadSessionSweeperTrigger")
+                .withDescription("Trigger for upload session sweeper - runs every hour")
+                .withSchedule(SimpleScheduleBuilder.simpleSchedule()
+                        .withIntervalInHours(1)
+                        .repeatForever()
+                        .withMisfireHandlingInstructionNextWithRemainingCount())
+                .build();
+    }
+
+    /**
+     * Corrects cached enrollment progress that drifted as course content changed
+     */
+    @Bean
+    public JobDetail progressReconcileJobDetail() {
+        return JobBuilder.newJob(ProgressReconcileJob.class)
+                .withIdentity("progressReconcileJob")
+                .withDescription("Recompute drifted enrollment progress percentages")
+                .storeDurably()
+                .build();
+    }
+
+    @Bean
+    public Trigger progressReconcileTrigger(@Value("${progress.reconcile.cron:0 30 2 * * ?}") String cron) {
+        return TriggerBuilder.newTrigger()
+                .forJob(progressReconcileJobDetail())
+                .withIdentity("progressReconcileTrigger")
+                .withDescription("Trigger for progress reconciliation job - runs nightly")
+                .withSchedule(CronScheduleBuilder.cronSchedule(cron)
+                        .withMisfireHandlingInstructionFireAndProceed())
+                .build();
+    }
+
+    /**
+     * Deletes stored files that no content references any more
+     */
+    @Bean
+    public JobDetail storageGcJobDetail() {
+        return JobBuilder.newJob(StorageGcJob.class)
+                .withIdentity("storageGcJob")
+                .withDescription("Delete orphaned files from S3 and local storage")
+                .storeDurably()
+                .build();
+    }
+
+    @Bean
+    public Trigger storageGcTrigger(@Value("${storage.gc.cron:0 0 3 * * ?}") String cron) {
+        return TriggerBuilder.newTrigger()
+                .forJob(storageGcJobDetail())
+                .withIdentity("storageGcTrigger")
+                .withDescription("Trigger for storage garbage collection job - runs nightly")
+                .withSchedule(CronScheduleBuilder.cronSchedule(cron)
+                        .withMisfireHandlingInstructionDoNothing())
+                .build();
+    }
+
+    /**
+     * Feeds PENDING certificates to the generation pool
+     */
+    @Bean
+    public JobDetail certificateQueueJobDetail() {
+        return JobBuilder.newJob(CertificateQueueJob.class)
+                .withIdentity("certificateQueueJob")
+                .withDescription("Queue pending completion certificates for generation")
+                .storeDurably()
+                .build();
+    }
+
+    @Bean
+    public Trigger certificateQueueTrigger(@Value("${certificates.poll-interval-seconds:60}") int intervalSeconds) {
+        return TriggerBuilder.newTrigger()
+                .forJob(certificateQueueJobDetail())
+                .withIdentity("certificateQueueTrigger")
+                .withDescription("Trigger for certificate queue job")
+                .withSchedule(SimpleScheduleBuilder.simpleSchedule()
+                        .withIntervalInSeconds(intervalSeconds)
+                        .repeatForever()
+                        .withMisfireHandlingInstructionNextWithRemainingCount())
+                .build();
+    }
+
     /**
      * Alternative trigger for testing (runs every 5 minutes)
      * Uncomment this and comment the above trigger to test
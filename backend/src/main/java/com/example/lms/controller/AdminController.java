@@ -1,18 +1,29 @@
 package com.example.lms.controller;
 
+import com.example.lms.dto.BulkProvisioningResult;
 import com.example.lms.dto.UserDTO;
 import com.example.lms.dto.CourseDTO;
 import com.example.lms.dto.EnrollmentDTO;
 import com.example.lms.entity.Course;
 import com.example.lms.entity.Enrollment;
-import com.example.lms.entity.Role;
-import com.example.lms.entity.RoleName;
-import com.example.lms.entity.User;
-import com.example.lms.exception.ResourceNotFoundException;
+import com.example.lms.event.EnrollmentEventBus;
 import com.example.lms.mapper.EntityMapper;
-import com.example.lms.repository.RoleRepository;
+import com.example.lms.security.AdaptiveConcurrencyLimiter;
+import com.example.lms.security.PasswordHashingExecutor;
+import com.example.lms.security.RateLimiter;
+import com.example.lms.security.UserDetailsCache;
+import com.example.lms.security.VerifiedTokenCache;
+import com.example.lms.service.CertificateService;
 import com.example.lms.service.CourseService;
 import com.example.lms.service.EnrollmentService;
+import com.example.lms.service.HotFileCache;
+import com.example.lms.service.ProgressReconciliationService;
+import com.example.lms.service.ReminderDeliveryPipeline;
+import com.example.lms.service.ReminderService;
+import com.example.lms.service.S3DiskCache;
+import com.example.lms.service.StorageGarbageCollector;
+import com.example.lms.service.TokenRevocationService;
+import com.example.lms.service.UserProvisioningService;
 import com.example.lms.service.UserService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -20,11 +31,16 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import lombok.RequiredArgsConstructor;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 @RestController
@@ -36,9 +52,23 @@ import java.util.Set;
 public class AdminController {
 
     private final UserService userService;
+    private final UserProvisioningService userProvisioningService;
     private final CourseService courseService;
     private final EnrollmentService enrollmentService;
-    private final RoleRepository roleRepository;
+    private final HotFileCache hotFileCache;
+    private final S3DiskCache s3DiskCache;
+    private final UserDetailsCache userDetailsCache;
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final PasswordHashingExecutor passwordHashingExecutor;
+    private final RateLimiter rateLimiter;
+    private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+    private final ReminderService reminderService;
+    private final ReminderDeliveryPipeline reminderDeliveryPipeline;
+    private final ProgressReconciliationService progressReconciliationService;
+    private final StorageGarbageCollector storageGarbageCollector;
+    private final EnrollmentEventBus enrollmentEventBus;
+    private final CertificateService certificateService;
+    private final TokenRevocationService tokenRevocationService;
 
     @Operation(summary = "Get all users", description = "Retrieve all registered users (Admin only)")
     @ApiResponse(responseCode = "200", description = "Users retrieved successfully")
@@ -59,14 +89,35 @@ public class AdminController {
     })
     @PostMapping("/users/{userId}/role")
     public ResponseEntity<UserDTO> assignRole(@PathVariable Long userId, @RequestParam String roleName) {
-        User user = userService.findById(userId)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        return ResponseEntity.ok(EntityMapper.toUserDTO(userService.assignRole(userId, roleName)));
+    }
 
-        Role role = roleRepository.findByRoleName(RoleName.valueOf(roleName))
-                .orElseThrow(() -> new ResourceNotFoundException("Role not found"));
+    @Operation(summary = "Revoke role from user", description = "Remove a role from a user; takes effect on the user's next request")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Role revoked successfully"),
+            @ApiResponse(responseCode = "404", description = "User or role not found")
+    })
+    @DeleteMapping("/users/{userId}/role")
+    public ResponseEntity<UserDTO> revokeRole(@PathVariable Long userId, @RequestParam String roleName) {
+        return ResponseEntity.ok(EntityMapper.toUserDTO(userService.revokeRole(userId, roleName)));
+    }
 
-        user.getRoles().add(role);
-        return ResponseEntity.ok(EntityMapper.toUserDTO(userService.save(user)));
+    @Operation(summary = "Bulk create users",
+            description = "Create users from a CSV (header: fullName,email,password[,roles,bio,avatarUrl], roles separated by ';') "
+                    + "or a JSON array of register requests. Existing emails are skipped.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Users provisioned; see counts and row errors"),
+            @ApiResponse(responseCode = "400", description = "Malformed CSV header or JSON")
+    })
+    @PostMapping(value = "/users/bulk", consumes = {"text/csv", MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<BulkProvisioningResult> bulkCreateUsers(HttpServletRequest request) throws IOException {
+        // Read the raw body so large files are streamed instead of bound into memory
+        try (InputStream in = request.getInputStream()) {
+            boolean json = MediaType.APPLICATION_JSON.isCompatibleWith(MediaType.parseMediaType(request.getContentType()));
+            return ResponseEntity.ok(json
+                    ? userProvisioningService.provisionJson(in)
+                    : userProvisioningService.provisionCsv(in));
+        }
     }
 
     @Operation(summary = "Delete user", description = "Delete a user from the system")
@@ -126,4 +177,102 @@ public class AdminController {
         Enrollment enrollment = enrollmentService.updateStatus(enrollmentId, status);
         return ResponseEntity.ok(EntityMapper.toEnrollmentDTO(enrollment));
     }
+
+    @Operation(summary = "Hot file cache metrics", description = "Hit ratio and off-heap bytes resident in the /uploads file cache")
+    @ApiResponse(responseCode = "200", description = "Metrics retrieved successfully")
+    @GetMapping("/metrics/file-cache")
+    public ResponseEntity<Map<String, Object>> getFileCacheMetrics() {
+        return ResponseEntity.ok(hotFileCache.getStats());
+    }
+
+    @Operation(summary = "S3 disk cache metrics", description = "Hit ratio and bytes held by this node's S3 read-through cache")
+    @ApiResponse(responseCode = "200", description = "Metrics retrieved successfully")
+    @GetMapping("/metrics/s3-cache")
+    public ResponseEntity<Map<String, Object>> getS3CacheMetrics() {
+        return ResponseEntity.ok(s3DiskCache.getStats());
+    }
+
+    @Operation(summary = "User details cache metrics", description = "Hit ratio and invalidations of the authentication user cache")
+    @ApiResponse(responseCode = "200", description = "Metrics retrieved successfully")
+    @GetMapping("/metrics/user-cache")
+    public ResponseEntity<Map<String, Object>> getUserCacheMetrics() {
+        return ResponseEntity.ok(userDetailsCache.getStats());
+    }
+
+    @Operation(summary = "Verified token cache metrics", description = "Share of bearer tokens served without re-verifying the signature")
+    @ApiResponse(responseCode = "200", description = "Metrics retrieved successfully")
+    @GetMapping("/metrics/token-cache")
+    public ResponseEntity<Map<String, Object>> getTokenCacheMetrics() {
+        return ResponseEntity.ok(verifiedTokenCache.getStats());
+    }
+
+    @Operation(summary = "Password hashing metrics", description = "BCrypt latency, queue wait and rejections of the login hashing pool")
+    @ApiResponse(responseCode = "200", description = "Metrics retrieved successfully")
+    @GetMapping("/metrics/password-hashing")
+    public ResponseEntity<Map<String, Object>> getPasswordHashingMetrics() {
+        return ResponseEntity.ok(passwordHashingExecutor.getStats());
+    }
+
+    @Operation(summary = "Rate limiter metrics", description = "Allowed and rejected requests and the number of tracked client buckets")
+    @ApiResponse(responseCode = "200", description = "Metrics retrieved successfully")
+    @GetMapping("/metrics/rate-limit")
+    public ResponseEntity<Map<String, Object>> getRateLimitMetrics() {
+        return ResponseEntity.ok(rateLimiter.getStats());
+    }
+
+    @Operation(summary = "Concurrency limiter metrics", description = "Current adaptive in-flight limit, observed latency and shed requests per priority")
+    @ApiResponse(responseCode = "200", description = "Metrics retrieved successfully")
+    @GetMapping("/metrics/concurrency-limit")
+    public ResponseEntity<Map<String, Object>> getConcurrencyLimitMetrics() {
+        return ResponseEntity.ok(concurrencyLimiter.getStats());
+    }
+
+    @Operation(summary = "Reminder run metrics", description = "Reminders sent, throughput and partition durations of the last daily reminder run")
+    @ApiResponse(responseCode = "200", description = "Metrics retrieved successfully")
+    @GetMapping("/metrics/reminders")
+    public ResponseEntity<Map<String, Object>> getReminderMetrics() {
+        return ResponseEntity.ok(reminderService.getStats());
+    }
+
+    @Operation(summary = "Notification delivery metrics", description = "Queue depth, batches, retries, dead letters, throughput and SMTP connection reuse")
+    @ApiResponse(responseCode = "200", description = "Metrics retrieved successfully")
+    @GetMapping("/metrics/notifications")
+    public ResponseEntity<Map<String, Object>> getNotificationMetrics() {
+        return ResponseEntity.ok(reminderDeliveryPipeline.getStats());
+    }
+
+    @Operation(summary = "Progress reconciliation metrics", description = "Enrollments corrected, chunks and duration of the last nightly progress reconciliation")
+    @ApiResponse(responseCode = "200", description = "Metrics retrieved successfully")
+    @GetMapping("/metrics/progress-reconciliation")
+    public ResponseEntity<Map<String, Object>> getProgressReconciliationMetrics() {
+        return ResponseEntity.ok(progressReconciliationService.getStats());
+    }
+
+    @Operation(summary = "Storage GC metrics", description = "Objects scanned, kept and deleted per store in the last storage garbage collection")
+    @ApiResponse(responseCode = "200", description = "Metrics retrieved successfully")
+    @GetMapping("/metrics/storage-gc")
+    public ResponseEntity<Map<String, Object>> getStorageGcMetrics() {
+        return ResponseEntity.ok(storageGarbageCollector.getStats());
+    }
+
+    @Operation(summary = "Enrollment event metrics", description = "Published, delivered and dropped enrollment events, queue depth and listeners")
+    @ApiResponse(responseCode = "200", description = "Metrics retrieved successfully")
+    @GetMapping("/metrics/enrollment-events")
+    public ResponseEntity<Map<String, Object>> getEnrollmentEventMetrics() {
+        return ResponseEntity.ok(enrollmentEventBus.getStats());
+    }
+
+    @Operation(summary = "Certificate metrics", description = "Certificate generation throughput, queue latency, retries and pending rows")
+    @ApiResponse(responseCode = "200", description = "Metrics retrieved successfully")
+    @GetMapping("/metrics/certificates")
+    public ResponseEntity<Map<String, Object>> getCertificateMetrics() {
+        return ResponseEntity.ok(certificateService.getStats());
+    }
+
+    @Operation(summary = "Token revocation metrics", description = "Share of revocation checks that needed a database lookup")
+    @ApiResponse(responseCode = "200", description = "Metrics retrieved successfully")
+    @GetMapping("/metrics/token-revocation")
+    public ResponseEntity<Map<String, Object>> getTokenRevocationMetrics() {
+        return ResponseEntity.ok(tokenRevocationService.getStats());
+    }
 }
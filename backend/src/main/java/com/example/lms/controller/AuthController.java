@@ -1,13 +1,18 @@
 package com.example.lms.controller;
 
+import com.example.lms.dto.TokenResponse;
 import com.example.lms.dto.UserDTO;
 import com.example.lms.dto.request.LoginRequest;
+import com.example.lms.dto.request.RefreshTokenRequest;
 import com.example.lms.dto.request.RegisterRequest;
 import com.example.lms.entity.User;
 import com.example.lms.mapper.EntityMapper;
-import com.example.lms.security.CustomUserDetails;
 import com.example.lms.security.JwtUtil;
+import com.example.lms.security.PasswordHashingExecutor;
+import com.example.lms.service.RefreshTokenService;
+import com.example.lms.service.TokenRevocationService;
 import com.example.lms.service.UserService;
+import io.jsonwebtoken.Claims;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -18,9 +23,10 @@ import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.List;
 import java.util.Optional;
 
@@ -32,14 +38,17 @@ import java.util.Optional;
 public class AuthController {
 
     private final UserService userService;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingExecutor passwordHashingExecutor;
     private final JwtUtil jwtUtil;
+    private final RefreshTokenService refreshTokenService;
+    private final TokenRevocationService tokenRevocationService;
 
     @Operation(summary = "Register a new user", description = "Create a new user account with role (ADMIN, TEACHER, or STUDENT)")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "User registered successfully",
                     content = @Content(schema = @Schema(implementation = UserDTO.class))),
-            @ApiResponse(responseCode = "400", description = "Invalid input or email already exists")
+            @ApiResponse(responseCode = "400", description = "Invalid input or email already exists"),
+            @ApiResponse(responseCode = "503", description = "Too many concurrent registrations, retry after the Retry-After delay")
     })
     @PostMapping("/register")
     public ResponseEntity<UserDTO> register(@RequestBody RegisterRequest request) {
@@ -49,10 +58,12 @@ public class AuthController {
         return ResponseEntity.ok(EntityMapper.toUserDTO(saved));
     }
 
-    @Operation(summary = "User login", description = "Authenticate user and receive JWT token")
+    @Operation(summary = "User login", description = "Authenticate user and receive a short-lived access token and a refresh token")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Login successful, returns JWT token"),
-            @ApiResponse(responseCode = "401", description = "Invalid credentials")
+            @ApiResponse(responseCode = "200", description = "Login successful, returns access and refresh tokens",
+                    content = @Content(schema = @Schema(implementation = TokenResponse.class))),
+            @ApiResponse(responseCode = "401", description = "Invalid credentials"),
+            @ApiResponse(responseCode = "503", description = "Too many concurrent logins, retry after the Retry-After delay")
     })
     @PostMapping("/login")
     public ResponseEntity<?> login(@RequestBody LoginRequest request) {
@@ -61,15 +72,46 @@ public class AuthController {
         if (userOpt.isPresent()) {
             User user = userOpt.get();
 
-            if (passwordEncoder.matches(request.getPassword(), user.getPassword())) {
-                // 🔥 Pass User (or wrap in CustomUserDetails) to JwtUtil
-                String token = jwtUtil.generateToken(new CustomUserDetails(user));
-                return ResponseEntity.ok(token);
+            if (passwordHashingExecutor.matches(request.getPassword(), user.getPassword())) {
+                return ResponseEntity.ok(toResponse(refreshTokenService.issue(user)));
             }
         }
         return ResponseEntity.status(401).body("Invalid credentials");
     }
 
+    @Operation(summary = "Refresh access token", description = "Exchange a refresh token for a new access token and a new refresh token (the old one is used up)")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Tokens refreshed",
+                    content = @Content(schema = @Schema(implementation = TokenResponse.class))),
+            @ApiResponse(responseCode = "401", description = "Refresh token invalid, expired or already used")
+    })
+    @PostMapping("/refresh")
+    public ResponseEntity<TokenResponse> refresh(@RequestBody RefreshTokenRequest request) {
+        return ResponseEntity.ok(toResponse(refreshTokenService.rotate(request.getRefreshToken())));
+    }
+
+    @Operation(summary = "Logout", description = "Revoke the refresh token and the access tokens issued with it")
+    @ApiResponse(responseCode = "200", description = "Logged out")
+    @PostMapping("/logout")
+    public ResponseEntity<String> logout(@RequestBody RefreshTokenRequest request,
+                                         @RequestHeader(value = "Authorization", required = false) String authHeader) {
+        if (request.getRefreshToken() != null) {
+            refreshTokenService.revoke(request.getRefreshToken());
+        }
+        if (authHeader != null && authHeader.startsWith("Bearer ")) {
+            Claims claims = jwtUtil.parseClaims(authHeader.substring(7));
+            if (claims != null) {
+                tokenRevocationService.revoke(claims.getId(),
+                        LocalDateTime.ofInstant(claims.getExpiration().toInstant(), ZoneId.systemDefault()));
+            }
+        }
+        return ResponseEntity.ok("Logged out");
+    }
+
+    private static TokenResponse toResponse(RefreshTokenService.TokenPair tokens) {
+        return new TokenResponse(tokens.accessToken(), tokens.refreshToken(), "Bearer", tokens.expiresInSeconds());
+    }
+
 
     @Operation(summary = "Get all users", description = "Retrieve all users (Admin only)", 
             security = @SecurityRequirement(name = "Bearer JWT"))
@@ -93,7 +135,7 @@ public class AuthController {
     })
     @GetMapping("/user")
     public ResponseEntity<?> getUserByEmail(@RequestParam String email) {
-        return userService.findByEmail(email)
+        return userService.findWithRolesByEmail(email)
                 .map(user -> ResponseEntity.ok(EntityMapper.toUserDTO(user)))
                 .orElse(ResponseEntity.notFound().build());
     }
@@ -7,8 +7,7 @@ import com.example.lms.entity.Course;
 import com.example.lms.mapper.EntityMapper;
 import com.example.lms.service.ContentService;
 import com.example.lms.service.CourseService;
-import com.example.lms.service.LocalFileStorageService;
-import com.example.lms.service.S3Service;
+import com.example.lms.service.FileStorageService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -31,8 +30,7 @@ public class ContentController {
 
     private final ContentService contentService;
     private final CourseService courseService;
-    private final S3Service s3Service;
-    private final LocalFileStorageService localFileStorageService;
+    private final FileStorageService fileStorageService;
 
     @Operation(summary = "Upload content with file to S3", 
             description = "Upload course content file to AWS S3 and store metadata (Teacher only)",
@@ -53,18 +51,8 @@ public class ContentController {
             @RequestParam Integer orderIndex,
             @RequestParam("file") MultipartFile file) {
 
-        S3FileResponse fileResponse;
-        
-        try {
-            // Try S3 upload first
-            fileResponse = s3Service.uploadFile(file);
-            System.out.println("✅ File uploaded to S3: " + fileResponse.getFileUrl());
-        } catch (Exception e) {
-            // Fallback to local storage if S3 fails
-            System.err.println("⚠️ S3 upload failed, using local storage: " + e.getMessage());
-            fileResponse = localFileStorageService.uploadFile(file);
-            System.out.println("✅ File saved locally: " + fileResponse.getFileUrl());
-        }
+        // S3 first, local storage when S3 fails or its circuit is open
+        S3FileResponse fileResponse = fileStorageService.uploadFile(file);
 
         Course course = courseService.findById(courseId)
                 .orElseThrow(() -> new RuntimeException("Course not found"));
@@ -133,22 +121,10 @@ public class ContentController {
                 .orElseThrow(() -> new RuntimeException("Content not found"));
 
         try {
-            // Try deleting from S3 first
-            if (content.getS3Key() != null) {
-                s3Service.deleteFile(content.getS3Key());
-                System.out.println("✅ Deleted from S3: " + content.getS3Key());
-            }
+            fileStorageService.deleteFile(content.getS3Key());
+            System.out.println("✅ Deleted file: " + content.getS3Key());
         } catch (Exception e) {
-            // If S3 fails, try local storage
-            System.err.println("⚠️ S3 delete failed, trying local storage: " + e.getMessage());
-            try {
-                if (content.getS3Key() != null) {
-                    localFileStorageService.deleteFile(content.getS3Key());
-                    System.out.println("✅ Deleted from local storage: " + content.getS3Key());
-                }
-            } catch (Exception localException) {
-                System.err.println("⚠️ Local file delete also failed: " + localException.getMessage());
-            }
+            System.err.println("⚠️ File delete failed: " + e.getMessage());
         }
 
         // Always delete from DB
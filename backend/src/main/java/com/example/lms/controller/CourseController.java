@@ -4,7 +4,9 @@ import com.example.lms.dto.CourseDTO;
 import com.example.lms.dto.request.CourseRequest;
 import com.example.lms.entity.Course;
 import com.example.lms.entity.User;
+import com.example.lms.exception.ResourceNotFoundException;
 import com.example.lms.mapper.EntityMapper;
+import com.example.lms.security.CurrentUserId;
 import com.example.lms.service.CourseService;
 import com.example.lms.service.UserService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -28,7 +30,7 @@ public class CourseController {
     private final CourseService courseService;
     private final UserService userService;
 
-    @Operation(summary = "Create a new course", description = "Create a course (Teacher only)",
+    @Operation(summary = "Create a new course", description = "Create a course taught by the authenticated teacher (Teacher only)",
             security = @SecurityRequirement(name = "Bearer JWT"))
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Course created successfully"),
@@ -38,9 +40,9 @@ public class CourseController {
     @PreAuthorize("hasRole('TEACHER')")
     @PostMapping
     public ResponseEntity<CourseDTO> createCourse(@RequestBody CourseRequest request,
-                                                  @RequestParam String instructorEmail) {
-        User instructor = userService.findByEmail(instructorEmail)
-                .orElseThrow(() -> new RuntimeException("Instructor not found"));
+                                                  @CurrentUserId Long instructorId) {
+        User instructor = userService.findById(instructorId)
+                .orElseThrow(() -> new ResourceNotFoundException("Instructor not found"));
 
         var course = courseService.createCourse(request, instructor);
         return ResponseEntity.ok(EntityMapper.toCourseDTO(course));
@@ -1,11 +1,16 @@
 package com.example.lms.controller;
 
+import com.example.lms.entity.Certificate;
+import com.example.lms.entity.CertificateStatus;
 import com.example.lms.entity.Course;
-import com.example.lms.entity.Enrollment;
 import com.example.lms.entity.User;
+import com.example.lms.exception.ResourceNotFoundException;
 import com.example.lms.mapper.EntityMapper;
+import com.example.lms.security.CurrentUserId;
+import com.example.lms.service.CertificateService;
 import com.example.lms.service.CourseService;
 import com.example.lms.service.EnrollmentService;
+import com.example.lms.service.FileStorageService;
 import com.example.lms.service.UserService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -13,10 +18,17 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import com.example.lms.dto.EnrollmentDTO;
+import java.time.Duration;
 import java.util.List;
 
 @RestController
@@ -28,9 +40,11 @@ public class EnrollmentController {
     private final EnrollmentService enrollmentService;
     private final UserService userService;
     private final CourseService courseService;
+    private final CertificateService certificateService;
+    private final FileStorageService fileStorageService;
 
-    @Operation(summary = "Enroll student in course", 
-            description = "Enroll a student in a specific course (Student role required)",
+    @Operation(summary = "Enroll in course",
+            description = "Enroll the authenticated student in a specific course (Student role required)",
             security = @SecurityRequirement(name = "Bearer JWT"))
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Student enrolled successfully"),
@@ -39,39 +53,65 @@ public class EnrollmentController {
             @ApiResponse(responseCode = "409", description = "Student already enrolled")
     })
     @PostMapping
-    public ResponseEntity<Enrollment> enrollStudent(@RequestParam String studentEmail,
-                                                    @RequestParam Long courseId) {
-        User student = userService.findByEmail(studentEmail)
-                .orElseThrow(() -> new RuntimeException("Student not found"));
+    public ResponseEntity<EnrollmentDTO> enrollStudent(@CurrentUserId Long studentId,
+                                                       @RequestParam Long courseId) {
+        User student = userService.findById(studentId)
+                .orElseThrow(() -> new ResourceNotFoundException("Student not found"));
 
         Course course = courseService.findById(courseId)
-                .orElseThrow(() -> new RuntimeException("Course not found"));
+                .orElseThrow(() -> new ResourceNotFoundException("Course not found"));
 
-        return ResponseEntity.ok(enrollmentService.enrollStudent(student, course));
+        return ResponseEntity.ok(EntityMapper.toEnrollmentDTO(enrollmentService.enrollStudent(student, course)));
     }
 
-    @Operation(summary = "Get student enrollments", 
-            description = "Retrieve all course enrollments for a specific student",
+    @Operation(summary = "Get my enrollments",
+            description = "Retrieve all course enrollments of the authenticated student",
             security = @SecurityRequirement(name = "Bearer JWT"))
-    @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Enrollments retrieved successfully"),
-            @ApiResponse(responseCode = "404", description = "Student not found")
-    })
+    @ApiResponse(responseCode = "200", description = "Enrollments retrieved successfully")
     @GetMapping("/student")
-    public ResponseEntity<List<EnrollmentDTO>> getEnrollmentsByStudent(@RequestParam String email) {
-        email = email.trim(); // 🧹 handle accidental newline
-
-        User student = userService.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("Student not found"));
-
-        List<EnrollmentDTO> response = enrollmentService.findByStudent(student)
+    public ResponseEntity<List<EnrollmentDTO>> getEnrollmentsByStudent(@CurrentUserId Long studentId) {
+        List<EnrollmentDTO> response = enrollmentService.findByStudentId(studentId)
                 .stream()
                 .map(EntityMapper::toEnrollmentDTO)
                 .toList();
 
-
         return ResponseEntity.ok(response);
     }
 
+    @Operation(summary = "Download completion certificate",
+            description = "PDF certificate of a completed enrollment of the authenticated student. "
+                    + "Generated in the background; answers 202 with Retry-After until it is ready. "
+                    + "A certificate never changes, so clients may cache it and revalidate with its ETag.",
+            security = @SecurityRequirement(name = "Bearer JWT"))
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Certificate PDF"),
+            @ApiResponse(responseCode = "202", description = "Certificate is being generated"),
+            @ApiResponse(responseCode = "304", description = "Cached copy is still current"),
+            @ApiResponse(responseCode = "400", description = "Course is not completed yet"),
+            @ApiResponse(responseCode = "404", description = "Enrollment not found")
+    })
+    @GetMapping("/{enrollmentId}/certificate")
+    public ResponseEntity<Resource> downloadCertificate(@CurrentUserId Long studentId,
+                                                        @PathVariable Long enrollmentId,
+                                                        WebRequest request) {
+        Certificate certificate = certificateService.findForStudent(studentId, enrollmentId);
+        if (certificate.getStatus() != CertificateStatus.READY) {
+            return ResponseEntity.accepted()
+                    .header(HttpHeaders.RETRY_AFTER, "30")
+                    .build();
+        }
 
+        // The storage key is unique per generated file, so it identifies the content
+        String etag = "\"" + certificate.getStorageKey().substring(certificate.getStorageKey().lastIndexOf('/') + 1) + "\"";
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_PDF)
+                .eTag(etag)
+                .cacheControl(CacheControl.maxAge(Duration.ofDays(365)).cachePrivate().immutable())
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("certificate-" + enrollmentId + ".pdf").build().toString())
+                .body(fileStorageService.openFile(certificate.getStorageKey()));
+    }
 }
@@ -1,16 +1,26 @@
 package com.example.lms.controller;
 
+import com.example.lms.exception.ResourceNotFoundException;
+import com.example.lms.service.HotFileCache;
 import com.example.lms.service.LocalFileStorageService;
+import com.example.lms.service.S3DiskCache;
+import com.example.lms.service.S3Service;
 import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.AbstractResource;
 import org.springframework.core.io.ByteArrayResource;
 import org.springframework.core.io.Resource;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
 /**
- * Controller to serve locally stored files
+ * Controller to serve locally stored files, and S3 objects through the node-local disk cache.
+ * Range requests are handled by Spring for any Resource body, so both paths support partial content.
  */
 @RestController
 @RequestMapping("/uploads")
@@ -18,12 +28,23 @@ import org.springframework.web.bind.annotation.*;
 public class FileController {
 
     private final LocalFileStorageService localFileStorageService;
+    private final HotFileCache hotFileCache;
+    private final S3DiskCache s3DiskCache;
 
     @GetMapping("/{filename:.+}")
     public ResponseEntity<Resource> serveFile(@PathVariable String filename) {
         try {
-            byte[] data = localFileStorageService.getFile(filename);
-            ByteArrayResource resource = new ByteArrayResource(data);
+            Resource resource;
+            ByteBuffer cached = hotFileCache.get(filename);
+            if (cached != null) {
+                resource = new ByteBufferResource(cached, filename);
+            } else {
+                // Taken before the read, so a delete or replace racing with it keeps the bytes out of the cache
+                long generation = hotFileCache.generation(filename);
+                byte[] data = localFileStorageService.getFile(filename);
+                hotFileCache.put(filename, data, generation);
+                resource = new ByteArrayResource(data);
+            }
 
             // Determine content type based on file extension
             String contentType = determineContentType(filename);
@@ -37,6 +58,23 @@ public class FileController {
         }
     }
 
+    @GetMapping("/s3/{filename:.+}")
+    public ResponseEntity<Resource> serveS3File(@PathVariable String filename) {
+        try {
+            Resource resource = s3DiskCache.open(S3Service.KEY_PREFIX + filename);
+
+            return ResponseEntity.ok()
+                    .contentType(MediaType.parseMediaType(determineContentType(filename)))
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + filename + "\"")
+                    .body(resource);
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        } catch (Exception e) {
+            // S3 unreachable or circuit open; not the client's fault
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+    }
+
     private String determineContentType(String filename) {
         if (filename.endsWith(".pdf")) return "application/pdf";
         if (filename.endsWith(".mp4")) return "video/mp4";
@@ -49,5 +87,70 @@ public class FileController {
         if (filename.endsWith(".zip")) return "application/zip";
         return "application/octet-stream";
     }
-}
 
+    /**
+     * Streams a cached off-heap buffer without copying it back onto the heap
+     */
+    private static class ByteBufferResource extends AbstractResource {
+        private final ByteBuffer buffer;
+        private final String filename;
+
+        ByteBufferResource(ByteBuffer buffer, String filename) {
+            this.buffer = buffer;
+            this.filename = filename;
+        }
+
+        @Override
+        public boolean exists() {
+            return true;
+        }
+
+        @Override
+        public long contentLength() {
+            return buffer.remaining();
+        }
+
+        @Override
+        public String getFilename() {
+            return filename;
+        }
+
+        @Override
+        public String getDescription() {
+            return "Cached file [" + filename + "]";
+        }
+
+        @Override
+        public InputStream getInputStream() {
+            ByteBuffer view = buffer.duplicate();
+            return new InputStream() {
+                @Override
+                public int read() {
+                    return view.hasRemaining() ? view.get() & 0xFF : -1;
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    if (!view.hasRemaining()) {
+                        return -1;
+                    }
+                    int n = Math.min(len, view.remaining());
+                    view.get(b, off, n);
+                    return n;
+                }
+
+                @Override
+                public long skip(long n) {
+                    int skipped = (int) Math.min(n, view.remaining());
+                    view.position(view.position() + skipped);
+                    return skipped;
+                }
+
+                @Override
+                public int available() {
+                    return view.remaining();
+                }
+            };
+        }
+    }
+}
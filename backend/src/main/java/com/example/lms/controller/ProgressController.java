@@ -3,10 +3,10 @@ package com.example.lms.controller;
 import com.example.lms.dto.ProgressDTO;
 import com.example.lms.dto.request.UpdateProgressRequest;
 import com.example.lms.entity.Content;
-import com.example.lms.entity.Course;
 import com.example.lms.entity.Enrollment;
-import com.example.lms.entity.User;
+import com.example.lms.exception.ResourceNotFoundException;
 import com.example.lms.mapper.EntityMapper;
+import com.example.lms.security.CurrentUserId;
 import com.example.lms.service.*;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -28,28 +28,23 @@ public class ProgressController {
     private final ProgressService progressService;
     private final EnrollmentService enrollmentService;
     private final ContentService contentService;
-    private final UserService userService;
-    private final CourseService courseService;
 
     @Operation(summary = "Update student progress", 
-            description = "Update student's progress for a specific content item",
+            description = "Update the authenticated student's progress for a specific content item",
             security = @SecurityRequirement(name = "Bearer JWT"))
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Progress updated successfully"),
-            @ApiResponse(responseCode = "404", description = "Student, course, enrollment, or content not found")
+            @ApiResponse(responseCode = "404", description = "Enrollment or content not found")
     })
     @PostMapping("/update")
-    public ResponseEntity<ProgressDTO> updateProgress(@RequestBody UpdateProgressRequest request) {
-        User student = userService.findByEmail(request.getStudentEmail())
-                .orElseThrow(() -> new RuntimeException("Student not found"));
-        Course course = courseService.findById(request.getCourseId())
-                .orElseThrow(() -> new RuntimeException("Course not found"));
-        Enrollment enrollment = enrollmentService.findByStudentAndCourse(student, course)
-                .orElseThrow(() -> new RuntimeException("Enrollment not found"));
-        Content content = contentService.getContentsByCourse(course).stream()
+    public ResponseEntity<ProgressDTO> updateProgress(@CurrentUserId Long studentId,
+                                                      @RequestBody UpdateProgressRequest request) {
+        Enrollment enrollment = enrollmentService.findByStudentIdAndCourseId(studentId, request.getCourseId())
+                .orElseThrow(() -> new ResourceNotFoundException("Enrollment not found"));
+        Content content = contentService.getContentsByCourse(enrollment.getCourse()).stream()
                 .filter(c -> c.getId().equals(request.getContentId()))
                 .findFirst()
-                .orElseThrow(() -> new RuntimeException("Content not found"));
+                .orElseThrow(() -> new ResourceNotFoundException("Content not found"));
 
         return ResponseEntity.ok(
                 EntityMapper.toProgressDTO(progressService.updateProgress(enrollment, content, request.getPercentComplete()))
@@ -57,21 +52,17 @@ public class ProgressController {
     }
 
     @Operation(summary = "Get student progress", 
-            description = "Retrieve all progress records for a student in a specific course",
+            description = "Retrieve the authenticated student's progress records in a specific course",
             security = @SecurityRequirement(name = "Bearer JWT"))
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Progress records retrieved successfully"),
-            @ApiResponse(responseCode = "404", description = "Student, course, or enrollment not found")
+            @ApiResponse(responseCode = "404", description = "Enrollment not found")
     })
     @GetMapping
-    public ResponseEntity<List<ProgressDTO>> getProgress(@RequestParam String studentEmail,
+    public ResponseEntity<List<ProgressDTO>> getProgress(@CurrentUserId Long studentId,
                                                          @RequestParam Long courseId) {
-        User student = userService.findByEmail(studentEmail)
-                .orElseThrow(() -> new RuntimeException("Student not found"));
-        Course course = courseService.findById(courseId)
-                .orElseThrow(() -> new RuntimeException("Course not found"));
-        Enrollment enrollment = enrollmentService.findByStudentAndCourse(student, course)
-                .orElseThrow(() -> new RuntimeException("Enrollment not found"));
+        Enrollment enrollment = enrollmentService.findByStudentIdAndCourseId(studentId, courseId)
+                .orElseThrow(() -> new ResourceNotFoundException("Enrollment not found"));
 
         return ResponseEntity.ok(
                 progressService.getProgressByEnrollment(enrollment).stream()
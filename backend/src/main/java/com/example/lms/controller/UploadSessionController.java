@@ -0,0 +1,85 @@
+package com.example.lms.controller;
+
+import com.example.lms.dto.ContentDTO;
+import com.example.lms.dto.UploadSessionDTO;
+import com.example.lms.dto.request.CreateUploadSessionRequest;
+import com.example.lms.entity.UploadSession;
+import com.example.lms.mapper.EntityMapper;
+import com.example.lms.security.CurrentUserId;
+import com.example.lms.service.UploadSessionService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/contents/uploads")
+@RequiredArgsConstructor
+@PreAuthorize("hasRole('TEACHER')")
+@Tag(name = "Resumable Uploads", description = "Chunked, resumable upload of large content files (Teacher only)")
+@SecurityRequirement(name = "Bearer JWT")
+public class UploadSessionController {
+
+    private final UploadSessionService uploadSessionService;
+
+    @Operation(summary = "Create upload session",
+            description = "Start a resumable upload. The response gives the chunk size and number of chunks to send.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Session created"),
+            @ApiResponse(responseCode = "400", description = "Invalid file size or name"),
+            @ApiResponse(responseCode = "404", description = "Course not found")
+    })
+    @PostMapping
+    public ResponseEntity<UploadSessionDTO> createSession(@CurrentUserId Long userId,
+                                                          @RequestBody CreateUploadSessionRequest request) {
+        return ResponseEntity.ok(toDTO(uploadSessionService.createSession(userId, request)));
+    }
+
+    @Operation(summary = "Upload a chunk",
+            description = "Send chunk {index} (0-based) as the raw request body with its SHA-256 hex digest in X-Chunk-Checksum. Safe to retry.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Chunk stored"),
+            @ApiResponse(responseCode = "400", description = "Checksum mismatch, wrong size or index out of range"),
+            @ApiResponse(responseCode = "404", description = "Session not found or expired"),
+            @ApiResponse(responseCode = "409", description = "Session is being completed")
+    })
+    @PutMapping(value = "/{sessionId}/chunks/{index}", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<UploadSessionDTO> uploadChunk(@CurrentUserId Long userId,
+                                                        @PathVariable String sessionId,
+                                                        @PathVariable int index,
+                                                        @RequestHeader("X-Chunk-Checksum") String checksum,
+                                                        @RequestBody byte[] data) {
+        return ResponseEntity.ok(toDTO(uploadSessionService.receiveChunk(userId, sessionId, index, data, checksum)));
+    }
+
+    @Operation(summary = "Get upload status", description = "List the chunk ranges received so far, to resume after a dropped connection")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Session status"),
+            @ApiResponse(responseCode = "404", description = "Session not found or expired")
+    })
+    @GetMapping("/{sessionId}")
+    public ResponseEntity<UploadSessionDTO> getSession(@CurrentUserId Long userId, @PathVariable String sessionId) {
+        return ResponseEntity.ok(toDTO(uploadSessionService.getSession(userId, sessionId)));
+    }
+
+    @Operation(summary = "Finalize upload", description = "Assemble the received chunks and create the content item")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Content created"),
+            @ApiResponse(responseCode = "404", description = "Session not found or expired"),
+            @ApiResponse(responseCode = "409", description = "Some chunks are still missing")
+    })
+    @PostMapping("/{sessionId}/complete")
+    public ResponseEntity<ContentDTO> complete(@CurrentUserId Long userId, @PathVariable String sessionId) {
+        return ResponseEntity.ok(EntityMapper.toContentDTO(uploadSessionService.complete(userId, sessionId)));
+    }
+
+    private UploadSessionDTO toDTO(UploadSession session) {
+        return EntityMapper.toUploadSessionDTO(session, uploadSessionService.getChunks(session));
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.lms.dto;
+
+import lombok.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter @Setter
+@NoArgsConstructor @AllArgsConstructor @Builder
+public class BulkProvisioningResult {
+    private int received;
+    private int created;
+    private int skippedExisting;
+    private int failed;
+    private long elapsedMillis;
+    // First rejected rows (capped), e.g. "row 12: email is required"
+    @Builder.Default
+    private List<String> errors = new ArrayList<>();
+}
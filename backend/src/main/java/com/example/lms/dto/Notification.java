@@ -0,0 +1,16 @@
+package com.example.lms.dto;
+
+/**
+ * One outgoing email; attempt counts deliveries already tried, and settled runs once it has been
+ * delivered or given up on
+ */
+public record Notification(String recipient, String subject, String body, int attempt, Runnable settled) {
+
+    public Notification(String recipient, String subject, String body, int attempt) {
+        this(recipient, subject, body, attempt, () -> {});
+    }
+
+    public Notification nextAttempt() {
+        return new Notification(recipient, subject, body, attempt + 1, settled);
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.lms.dto;
+
+import java.util.List;
+
+/**
+ * All of one student's active courses, delivered as a single reminder email. settled runs once the
+ * email has been delivered or given up on.
+ */
+public record ReminderDigest(String studentEmail, List<String> courseTitles, Runnable settled) {
+
+    public ReminderDigest(String studentEmail, List<String> courseTitles) {
+        this(studentEmail, courseTitles, () -> {});
+    }
+}
@@ -0,0 +1,6 @@
+package com.example.lms.dto;
+
+/**
+ * The columns a course reminder needs, projected straight from the enrollment query
+ */
+public record ReminderTarget(Long enrollmentId, Long studentId, String studentEmail, String courseTitle) {}
@@ -0,0 +1,20 @@
+package com.example.lms.dto;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Getter @Setter
+@NoArgsConstructor @AllArgsConstructor @Builder
+public class UploadSessionDTO {
+    private String id;
+    private String fileName;
+    private Long totalSize;
+    private Integer chunkSize;
+    private Integer totalChunks;
+    private String storage;
+    private List<String> receivedRanges; // inclusive chunk index ranges, e.g. ["0-41", "43-47"]
+    private Long bytesReceived;
+    private LocalDateTime expiresAt;
+}
@@ -0,0 +1,15 @@
+package com.example.lms.dto.request;
+
+import lombok.Data;
+
+@Data
+public class CreateUploadSessionRequest {
+    private Long courseId;
+    private String title;
+    private String description;
+    private String contentType;
+    private Integer orderIndex;
+    private String fileName;
+    private Long totalSize;
+    private String mimeType;
+}
@@ -0,0 +1,8 @@
+package com.example.lms.dto.request;
+
+import lombok.Data;
+
+@Data
+public class RefreshTokenRequest {
+    private String refreshToken;
+}
@@ -0,0 +1,52 @@
+package com.example.lms.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Completion certificate of one enrollment. Rows in PENDING form the generation queue, so
+ * requested certificates survive restarts; the PDF itself lives in S3 or local storage.
+ */
+@Entity
+@Table(name = "certificates", indexes = {
+        // Workers pick the oldest pending rows
+        @Index(name = "idx_certificate_status_requested", columnList = "status, requestedAt"),
+        @Index(name = "idx_certificate_storage_key", columnList = "storageKey")
+})
+@Getter @Setter
+@NoArgsConstructor @AllArgsConstructor
+@Builder
+public class Certificate {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @OneToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "enrollment_id", nullable = false, unique = true)
+    private Enrollment enrollment;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 20, nullable = false)
+    private CertificateStatus status;
+
+    // S3 key (uploads/...) or local filename, set once READY
+    private String storageKey;
+
+    private Long sizeBytes;
+
+    private int attempts;
+
+    @Column(length = 1000)
+    private String lastError;
+
+    private LocalDateTime completedAt;
+
+    @Column(nullable = false)
+    private LocalDateTime requestedAt;
+
+    private LocalDateTime startedAt;
+
+    private LocalDateTime generatedAt;
+}
@@ -0,0 +1,8 @@
+package com.example.lms.entity;
+
+public enum CertificateStatus {
+    PENDING,
+    GENERATING,
+    READY,
+    FAILED
+}
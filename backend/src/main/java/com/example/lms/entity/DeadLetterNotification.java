@@ -0,0 +1,38 @@
+package com.example.lms.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Email that could not be delivered, kept for inspection or a manual resend
+ */
+@Entity
+@Table(name = "dead_letter_notifications", indexes = {
+        @Index(name = "idx_dead_letter_failed_at", columnList = "failedAt")
+})
+@Getter @Setter
+@NoArgsConstructor @AllArgsConstructor
+@Builder
+public class DeadLetterNotification {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String recipient;
+
+    private String subject;
+
+    @Column(columnDefinition = "TEXT")
+    private String body;
+
+    private int attempts;
+
+    @Column(length = 1000)
+    private String lastError;
+
+    @Column(nullable = false)
+    private LocalDateTime failedAt;
+}
@@ -0,0 +1,42 @@
+package com.example.lms.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Rotating refresh token. Only the SHA-256 of the token is stored; every refresh marks the
+ * presented token used and issues a new one in the same family. Presenting a used token again
+ * means it was copied, so the whole family is revoked.
+ */
+@Entity
+@Table(name = "refresh_tokens", indexes = {
+        @Index(name = "idx_refresh_tokens_family", columnList = "familyId")
+})
+@Getter @Setter
+@NoArgsConstructor @AllArgsConstructor
+@Builder
+public class RefreshToken {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(length = 64, nullable = false, unique = true)
+    private String tokenHash;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    @Column(length = 36, nullable = false)
+    private String familyId;
+
+    // jti of the access token issued together with this refresh token
+    @Column(length = 36)
+    private String accessTokenId;
+
+    private LocalDateTime createdAt;
+    private LocalDateTime expiresAt;
+    private LocalDateTime usedAt;
+}
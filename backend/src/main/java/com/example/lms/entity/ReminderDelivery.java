@@ -0,0 +1,37 @@
+package com.example.lms.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * Marks a student's reminder digest of one run as settled (delivered or dead-lettered), so a
+ * retried or recovered shard of that run does not send it again
+ */
+@Entity
+@Table(name = "reminder_deliveries", indexes = {
+        @Index(name = "idx_reminder_deliveries_delivered_at", columnList = "deliveredAt")
+})
+@IdClass(ReminderDelivery.Key.class)
+@Getter @Setter
+@NoArgsConstructor @AllArgsConstructor
+@Builder
+public class ReminderDelivery {
+    @Id
+    private Long runId;
+
+    @Id
+    private Long studentId;
+
+    @Column(nullable = false)
+    private LocalDateTime deliveredAt;
+
+    @Data
+    @NoArgsConstructor @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long runId;
+        private Long studentId;
+    }
+}
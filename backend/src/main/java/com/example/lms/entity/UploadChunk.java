@@ -0,0 +1,34 @@
+package com.example.lms.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+@Entity
+@Table(name = "upload_chunks", uniqueConstraints = {
+        @UniqueConstraint(columnNames = {"session_id", "chunkIndex"})
+})
+@Getter @Setter
+@NoArgsConstructor @AllArgsConstructor
+@Builder
+public class UploadChunk {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "session_id", nullable = false)
+    private UploadSession session;
+
+    @Column(nullable = false)
+    private Integer chunkIndex;
+
+    @Column(nullable = false)
+    private Integer size;
+
+    // SHA-256 (hex) sent by the client and verified on receipt
+    @Column(length = 64, nullable = false)
+    private String checksum;
+
+    // S3 part ETag (S3 storage only)
+    private String etag;
+}
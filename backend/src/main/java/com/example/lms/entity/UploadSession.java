@@ -0,0 +1,72 @@
+package com.example.lms.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+/**
+ * A resumable chunked upload in progress. Deleted once finalized or expired.
+ */
+@Entity
+@Table(name = "upload_sessions", indexes = {
+        @Index(columnList = "expiresAt", name = "idx_upload_session_expires")
+})
+@Getter @Setter
+@NoArgsConstructor @AllArgsConstructor
+@Builder
+public class UploadSession {
+
+    @Id
+    @Column(length = 36)
+    private String id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "course_id", nullable = false)
+    private Course course;
+
+    // id of the user who started the upload; only they may send chunks, see or finalize it
+    @Column(nullable = false)
+    private Long createdBy;
+
+    // metadata for the Content row created on finalize
+    @Column(nullable = false)
+    private String title;
+
+    @Column(columnDefinition = "TEXT")
+    private String description;
+
+    private String contentType;
+
+    private Integer orderIndex;
+
+    @Column(nullable = false)
+    private String fileName;
+
+    @Column(nullable = false)
+    private Long totalSize;
+
+    @Column(nullable = false)
+    private Integer chunkSize;
+
+    @Column(nullable = false)
+    private Integer totalChunks;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 10, nullable = false)
+    private UploadStorage storage;
+
+    // final local filename or S3 key
+    @Column(nullable = false)
+    private String storageKey;
+
+    // S3 multipart upload id (S3 storage only)
+    private String s3UploadId;
+
+    // set by the one complete() call that claimed the session
+    @Column(nullable = false)
+    private boolean completing;
+
+    private LocalDateTime createdAt;
+
+    private LocalDateTime expiresAt;
+}
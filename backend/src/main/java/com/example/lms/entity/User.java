@@ -26,7 +26,8 @@ public class User {
     @Column(nullable = false)
     private String password; // bcrypt hash
 
-    @ManyToMany(fetch = FetchType.EAGER)
+    // Lazy: authorities come from RoleRegistry, and only user lookups that render roles fetch them
+    @ManyToMany(fetch = FetchType.LAZY)
     @JoinTable(
             name = "user_roles",
             joinColumns = @JoinColumn(name = "user_id"),
@@ -0,0 +1,9 @@
+package com.example.lms.event;
+
+import java.time.LocalDateTime;
+
+/**
+ * Published once, after commit, when an enrollment moves from ACTIVE to COMPLETED
+ */
+public record EnrollmentCompletedEvent(Long enrollmentId, Long studentId, Long courseId,
+                                       LocalDateTime completedAt) implements EnrollmentEvent {}
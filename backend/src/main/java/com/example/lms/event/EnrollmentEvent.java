@@ -0,0 +1,9 @@
+package com.example.lms.event;
+
+/**
+ * Something that happened to one enrollment; events of the same enrollment are delivered in order
+ */
+public interface EnrollmentEvent {
+
+    Long enrollmentId();
+}
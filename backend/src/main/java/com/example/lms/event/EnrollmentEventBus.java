@@ -0,0 +1,142 @@
+package com.example.lms.event;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Asynchronous in-process bus for enrollment events.
+ *
+ * Events are spread over a fixed number of lanes by enrollment id; each lane is a bounded queue
+ * drained by one thread, so the events of one enrollment reach every listener in publish order
+ * while different enrollments are delivered in parallel. A publisher waits at most
+ * publish-timeout-ms for room in a full lane and then drops the event; the state it describes is
+ * already committed, so consumers can still catch up from the database.
+ */
+@Component
+@Slf4j
+public class EnrollmentEventBus {
+
+    private record Subscription<E extends EnrollmentEvent>(String name, Class<E> type, Consumer<? super E> listener) {
+
+        void deliver(EnrollmentEvent event) {
+            if (type.isInstance(event)) {
+                listener.accept(type.cast(event));
+            }
+        }
+    }
+
+    private final List<Subscription<?>> subscriptions = new CopyOnWriteArrayList<>();
+    private final List<BlockingQueue<EnrollmentEvent>> lanes = new ArrayList<>();
+    private final List<Thread> threads = new ArrayList<>();
+    private final long publishTimeoutMillis;
+    private volatile boolean running = true;
+
+    private final LongAdder published = new LongAdder();
+    private final LongAdder delivered = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder listenerFailures = new LongAdder();
+
+    public EnrollmentEventBus(@Value("${events.enrollment.lanes:4}") int laneCount,
+                              @Value("${events.enrollment.queue-capacity:1000}") int queueCapacity,
+                              @Value("${events.enrollment.publish-timeout-ms:100}") long publishTimeoutMillis) {
+        this.publishTimeoutMillis = publishTimeoutMillis;
+        for (int i = 0; i < Math.max(1, laneCount); i++) {
+            BlockingQueue<EnrollmentEvent> lane = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+            lanes.add(lane);
+            Thread thread = new Thread(() -> drain(lane), "enrollment-events-" + lanes.size());
+            thread.setDaemon(true);
+            thread.start();
+            threads.add(thread);
+        }
+    }
+
+    /**
+     * Registers a listener for events of the given type; listeners run on the lane threads
+     */
+    public <E extends EnrollmentEvent> void subscribe(String name, Class<E> type, Consumer<? super E> listener) {
+        subscriptions.add(new Subscription<>(name, type, listener));
+    }
+
+    /**
+     * Queues the event on its enrollment's lane; returns false if it was dropped
+     */
+    public boolean publish(EnrollmentEvent event) {
+        BlockingQueue<EnrollmentEvent> lane = lanes.get(Math.floorMod(event.enrollmentId().hashCode(), lanes.size()));
+        try {
+            if (lane.offer(event, publishTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                published.increment();
+                return true;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        dropped.increment();
+        log.warn("⚠️ Enrollment event queue full, dropped {}", event);
+        return false;
+    }
+
+    private void drain(BlockingQueue<EnrollmentEvent> lane) {
+        while (running || !lane.isEmpty()) {
+            EnrollmentEvent event;
+            try {
+                event = lane.poll(500, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (event == null) {
+                continue;
+            }
+            for (Subscription<?> subscription : subscriptions) {
+                try {
+                    subscription.deliver(event);
+                } catch (RuntimeException e) {
+                    // One failing listener must not block the lane or the other listeners
+                    listenerFailures.increment();
+                    log.error("❌ Listener {} failed on {}", subscription.name(), event, e);
+                }
+            }
+            delivered.increment();
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("published", published.sum());
+        stats.put("delivered", delivered.sum());
+        stats.put("dropped", dropped.sum());
+        stats.put("listenerFailures", listenerFailures.sum());
+        stats.put("queued", lanes.stream().mapToInt(BlockingQueue::size).sum());
+        stats.put("listeners", subscriptions.stream().map(Subscription::name).toList());
+        return stats;
+    }
+
+    /**
+     * Delivers what is already queued (up to a few seconds), then stops the lanes
+     */
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        for (Thread thread : threads) {
+            try {
+                thread.join(5000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            thread.interrupt();
+        }
+    }
+}
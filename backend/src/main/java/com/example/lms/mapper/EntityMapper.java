@@ -2,8 +2,10 @@ package com.example.lms.mapper;
 
 import com.example.lms.dto.*;
 import com.example.lms.entity.*;
+import com.example.lms.service.UploadSessionService;
 
 import java.util.Collections;
+import java.util.List;
 import java.util.stream.Collectors;
 
 
@@ -83,6 +85,20 @@ public class EntityMapper {
     }
 
 
+    public static UploadSessionDTO toUploadSessionDTO(UploadSession session, List<UploadChunk> chunks) {
+        return UploadSessionDTO.builder()
+                .id(session.getId())
+                .fileName(session.getFileName())
+                .totalSize(session.getTotalSize())
+                .chunkSize(session.getChunkSize())
+                .totalChunks(session.getTotalChunks())
+                .storage(session.getStorage().name())
+                .receivedRanges(UploadSessionService.toRanges(chunks))
+                .bytesReceived(chunks.stream().mapToLong(UploadChunk::getSize).sum())
+                .expiresAt(session.getExpiresAt())
+                .build();
+    }
+
     public static ProgressDTO toProgressDTO(Progress progress) {
         return ProgressDTO.builder()
                 .id(progress.getId())
@@ -0,0 +1,50 @@
+package com.example.lms.repository;
+
+import com.example.lms.entity.Certificate;
+import com.example.lms.entity.CertificateStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface CertificateRepository extends JpaRepository<Certificate, Long> {
+
+    Optional<Certificate> findByEnrollmentId(Long enrollmentId);
+
+    long countByStatus(CertificateStatus status);
+
+    // Student and course are eager on Enrollment, so this loads everything a worker renders
+    @Query("SELECT c FROM Certificate c JOIN FETCH c.enrollment WHERE c.id = :id")
+    Optional<Certificate> findWithEnrollmentById(@Param("id") Long id);
+
+    @Query("SELECT c.id FROM Certificate c WHERE c.status = :status ORDER BY c.requestedAt, c.id")
+    List<Long> findIdsByStatus(@Param("status") CertificateStatus status, Pageable pageable);
+
+    // Claims a queued certificate for generation; returns 0 if another worker or node already took it
+    @Transactional
+    @Modifying
+    @Query("UPDATE Certificate c SET c.status = :to, c.startedAt = :now, c.attempts = c.attempts + 1 "
+            + "WHERE c.id = :id AND c.status = :from")
+    int claim(@Param("id") Long id, @Param("from") CertificateStatus from, @Param("to") CertificateStatus to,
+              @Param("now") LocalDateTime now);
+
+    // Puts back rows whose worker died mid-generation
+    @Transactional
+    @Modifying
+    @Query("UPDATE Certificate c SET c.status = :to WHERE c.status = :from AND c.startedAt < :before")
+    int requeueStuck(@Param("from") CertificateStatus from, @Param("to") CertificateStatus to,
+                     @Param("before") LocalDateTime before);
+
+    @Query("SELECT c.storageKey FROM Certificate c WHERE c.storageKey > :after ORDER BY c.storageKey")
+    List<String> findStorageKeysAfter(@Param("after") String after, Pageable pageable);
+
+    @Query("SELECT c.storageKey FROM Certificate c WHERE c.storageKey IN :keys")
+    List<String> findExistingStorageKeys(@Param("keys") Collection<String> keys);
+}
@@ -2,11 +2,27 @@ package com.example.lms.repository;
 
 import com.example.lms.entity.Content;
 import com.example.lms.entity.Course;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface ContentRepository extends JpaRepository<Content,Long> {
     List<Content> findByCourse(Course course);
-    List<Content> findByCourseId(Long courseId);
+    // Lessons in course order, read straight off idx_content_course_order (V2 migration)
+    List<Content> findByCourseIdOrderByOrderIndex(Long courseId);
+
+    // Contents whose file was written by the local fallback (S3 keys always start with "uploads/"), in keyset pages by id
+    @Query("SELECT c FROM Content c WHERE c.s3Key NOT LIKE 'uploads/%' AND c.id > :afterId ORDER BY c.id")
+    List<Content> findLocallyStoredAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    // Storage keys in key order, for streaming them in keyset pages
+    @Query("SELECT c.s3Key FROM Content c WHERE c.s3Key > :after ORDER BY c.s3Key")
+    List<String> findS3KeysAfter(@Param("after") String after, Pageable pageable);
+
+    @Query("SELECT c.s3Key FROM Content c WHERE c.s3Key IN :keys")
+    List<String> findExistingS3Keys(@Param("keys") Collection<String> keys);
 }
@@ -0,0 +1,7 @@
+package com.example.lms.repository;
+
+import com.example.lms.entity.DeadLetterNotification;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface DeadLetterNotificationRepository extends JpaRepository<DeadLetterNotification, Long> {
+}
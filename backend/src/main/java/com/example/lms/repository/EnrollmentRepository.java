@@ -1,10 +1,17 @@
 package com.example.lms.repository;
 
+import com.example.lms.dto.ReminderTarget;
 import com.example.lms.entity.Course;
 import com.example.lms.entity.Enrollment;
+import com.example.lms.entity.EnrollmentStatus;
 import com.example.lms.entity.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -12,5 +19,55 @@ public interface EnrollmentRepository extends JpaRepository<Enrollment,Long> {
     List<Enrollment> findByStudent(User student);
     List<Enrollment> findByCourse(Course course);
     Optional<Enrollment> findByStudentAndCourse(User student,Course course);
+    List<Enrollment> findByStudentId(Long studentId);
+    Optional<Enrollment> findByStudentIdAndCourseId(Long studentId, Long courseId);
+
+    /**
+     * Moves the enrollment to status to only if it is currently in from; returns 1 for the caller that won
+     */
+    @Modifying
+    @Query("UPDATE Enrollment e SET e.status = :to WHERE e.id = :id AND e.status = :from")
+    int transitionStatus(@Param("id") Long id, @Param("from") EnrollmentStatus from, @Param("to") EnrollmentStatus to);
+
+    // Writes only the cached percentage, so a stale copy of the enrollment cannot overwrite its status
+    @Modifying
+    @Query("UPDATE Enrollment e SET e.progressPercentage = :percentage WHERE e.id = :id")
+    int updateProgressPercentage(@Param("id") Long id, @Param("percentage") Double percentage);
+
+    @Query("SELECT MIN(e.student.id) FROM Enrollment e WHERE e.status = :status")
+    Long findMinStudentIdByStatus(@Param("status") EnrollmentStatus status);
+
+    @Query("SELECT MAX(e.student.id) FROM Enrollment e WHERE e.status = :status")
+    Long findMaxStudentIdByStatus(@Param("status") EnrollmentStatus status);
+
+    @Query("SELECT COUNT(e) FROM Enrollment e "
+            + "WHERE e.status = :status AND e.student.id > :fromStudentId AND e.student.id <= :toStudentId")
+    long countByStatusAndStudentIdRange(@Param("status") EnrollmentStatus status,
+                                        @Param("fromStudentId") long fromStudentIdExclusive,
+                                        @Param("toStudentId") long toStudentIdInclusive);
+
+    /**
+     * Keyset page of reminder rows ordered by (student id, enrollment id), so a student's courses are adjacent.
+     * The next page starts after the last (student id, enrollment id) returned.
+     * Only unfinished enrollments whose latest progress (or enrollment, if never started) is before
+     * inactiveSince qualify; the MAX is one seek per enrollment on idx_progress_enrollment_accessed.
+     * Students whose digest of the run has already settled are skipped.
+     */
+    @Query("SELECT new com.example.lms.dto.ReminderTarget(e.id, s.id, s.email, c.title) FROM Enrollment e "
+            + "JOIN e.student s JOIN e.course c "
+            + "WHERE e.status = :status AND s.id <= :maxStudentId "
+            + "AND (s.id > :afterStudentId OR (s.id = :afterStudentId AND e.id > :afterEnrollmentId)) "
+            + "AND (e.progressPercentage IS NULL OR e.progressPercentage < 100) "
+            + "AND COALESCE((SELECT MAX(p.lastAccessedAt) FROM Progress p WHERE p.enrollment = e), e.enrolledAt) "
+            + "< :inactiveSince "
+            + "AND NOT EXISTS (SELECT d FROM ReminderDelivery d WHERE d.runId = :runId AND d.studentId = s.id) "
+            + "ORDER BY s.id, e.id")
+    List<ReminderTarget> findReminderTargets(@Param("runId") long runId,
+                                             @Param("status") EnrollmentStatus status,
+                                             @Param("afterStudentId") long afterStudentId,
+                                             @Param("afterEnrollmentId") long afterEnrollmentId,
+                                             @Param("maxStudentId") long maxStudentId,
+                                             @Param("inactiveSince") LocalDateTime inactiveSince,
+                                             Pageable pageable);
 
 }
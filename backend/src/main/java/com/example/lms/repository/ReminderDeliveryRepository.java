@@ -0,0 +1,25 @@
+package com.example.lms.repository;
+
+import com.example.lms.entity.ReminderDelivery;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+public interface ReminderDeliveryRepository extends JpaRepository<ReminderDelivery, ReminderDelivery.Key> {
+
+    // Plain insert: save() would first select the row to decide between insert and update
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO reminder_deliveries (run_id, student_id, delivered_at) VALUES (:runId, :studentId, :at)",
+            nativeQuery = true)
+    void insert(@Param("runId") long runId, @Param("studentId") long studentId, @Param("at") LocalDateTime at);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM ReminderDelivery d WHERE d.deliveredAt < :before")
+    int deleteDeliveredBefore(@Param("before") LocalDateTime before);
+}
@@ -0,0 +1,20 @@
+package com.example.lms.repository;
+
+import com.example.lms.entity.UploadChunk;
+import com.example.lms.entity.UploadSession;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface UploadChunkRepository extends JpaRepository<UploadChunk, Long> {
+    List<UploadChunk> findBySessionOrderByChunkIndex(UploadSession session);
+    Optional<UploadChunk> findBySessionAndChunkIndex(UploadSession session, Integer chunkIndex);
+
+    @Modifying
+    @Query("DELETE FROM UploadChunk c WHERE c.session = :session")
+    void deleteBySession(@Param("session") UploadSession session);
+}
@@ -0,0 +1,27 @@
+package com.example.lms.repository;
+
+import com.example.lms.entity.UploadSession;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface UploadSessionRepository extends JpaRepository<UploadSession, String> {
+    List<UploadSession> findByExpiresAtBefore(LocalDateTime time);
+
+    // Row lock held until the chunk's transaction ends, so a complete call cannot claim the session mid-write
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM UploadSession s WHERE s.id = :id")
+    Optional<UploadSession> findByIdForUpdate(@Param("id") String id);
+
+    // Conditional update, so only one of several concurrent complete calls gets 1 back
+    @Modifying
+    @Query("UPDATE UploadSession s SET s.completing = true WHERE s.id = :id AND s.completing = false")
+    int claimForCompletion(@Param("id") String id);
+}
@@ -1,12 +1,34 @@
 package com.example.lms.repository;
 
 import com.example.lms.entity.User;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
-import javax.swing.text.html.Option;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User,Long> {
     Optional<User> findByEmail(String email);
+
+    @EntityGraph(attributePaths = "roles")
+    @Query("SELECT u FROM User u WHERE u.email = :email")
+    Optional<User> findWithRolesByEmail(@Param("email") String email);
+
+    @Override
+    @EntityGraph(attributePaths = "roles")
+    Optional<User> findById(Long id);
+
+    @Override
+    @EntityGraph(attributePaths = "roles")
+    List<User> findAll();
+
+    @Query(value = "SELECT role_id FROM user_roles WHERE user_id = :userId", nativeQuery = true)
+    List<Long> findRoleIds(@Param("userId") Long userId);
     boolean existsByEmail(String email);
+
+    @Query("SELECT u.email FROM User u WHERE u.email IN :emails")
+    List<String> findExistingEmails(@Param("emails") Collection<String> emails);
 }
@@ -0,0 +1,35 @@
+package com.example.lms.scheduler;
+
+import com.example.lms.service.CertificateService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.quartz.DisallowConcurrentExecution;
+import org.quartz.Job;
+import org.quartz.JobExecutionContext;
+import org.quartz.JobExecutionException;
+import org.springframework.stereotype.Component;
+
+/**
+ * Quartz Job that hands queued certificates to the workers, covering restarts and bursts the pool turned away
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@DisallowConcurrentExecution
+public class CertificateQueueJob implements Job {
+
+    private final CertificateService certificateService;
+
+    @Override
+    public void execute(JobExecutionContext context) throws JobExecutionException {
+        try {
+            int submitted = certificateService.pumpPending();
+            if (submitted > 0) {
+                log.info("📜 Queued {} pending certificates for generation", submitted);
+            }
+        } catch (Exception e) {
+            log.error("❌ Error queueing pending certificates: {}", e.getMessage(), e);
+            throw new JobExecutionException(e);
+        }
+    }
+}
@@ -1,62 +1,77 @@
 package com.example.lms.scheduler;
 
-import com.example.lms.entity.Enrollment;
-import com.example.lms.repository.EnrollmentRepository;
-import lombok.RequiredArgsConstructor;
+import com.example.lms.service.ReminderService;
 import lombok.extern.slf4j.Slf4j;
+import org.quartz.DisallowConcurrentExecution;
 import org.quartz.Job;
 import org.quartz.JobExecutionContext;
 import org.quartz.JobExecutionException;
+import org.quartz.ObjectAlreadyExistsException;
+import org.quartz.Trigger;
+import org.quartz.TriggerBuilder;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDateTime;
 import java.util.List;
 
 /**
- * Quartz Job that runs daily to send reminders to students about their enrolled courses
+ * Quartz Job that runs daily to send reminders to students about their enrolled courses.
+ *
+ * It only plans the run: the student ids with active enrollments are split into shards and each
+ * shard is scheduled as a one-off {@link ReminderShardJob}. With the clustered job store the cron
+ * trigger fires on one node, and the shard triggers are picked up by whichever nodes have free threads.
  */
 @Slf4j
 @Component
-@RequiredArgsConstructor
+@DisallowConcurrentExecution
 public class DailyReminderJob implements Job {
 
-    private final EnrollmentRepository enrollmentRepository;
+    public static final String SHARD_GROUP = "reminderShards";
+    // Long enough for any retry or recovery of a run to still find its delivery records
+    private static final int DELIVERY_RECORD_DAYS = 7;
+
+    private final ReminderService reminderService;
+    private final int shards;
+
+    public DailyReminderJob(ReminderService reminderService,
+                            @Value("${reminders.shards:8}") int shards) {
+        this.reminderService = reminderService;
+        this.shards = shards;
+    }
 
     @Override
     public void execute(JobExecutionContext context) throws JobExecutionException {
         log.info("🔔 Daily Reminder Job started at: {}", LocalDateTime.now());
 
         try {
-            // Find all active enrollments
-            List<Enrollment> activeEnrollments = enrollmentRepository.findAll();
-
-            log.info("📧 Processing reminders for {} enrollments", activeEnrollments.size());
-
-            for (Enrollment enrollment : activeEnrollments) {
-                sendReminder(enrollment);
+            List<ReminderService.IdRange> ranges = reminderService.planShards(shards);
+            // Named after the scheduled fire time, so a recovered run does not schedule its shards twice
+            long runId = context.getScheduledFireTime().getTime();
+            for (int i = 0; i < ranges.size(); i++) {
+                ReminderService.IdRange range = ranges.get(i);
+                Trigger trigger = TriggerBuilder.newTrigger()
+                        .forJob(ReminderShardJob.JOB_KEY)
+                        .withIdentity("reminderShard-" + runId + "-" + i, SHARD_GROUP)
+                        .usingJobData(ReminderShardJob.RUN_ID, runId)
+                        .usingJobData(ReminderShardJob.FROM_EXCLUSIVE, range.fromExclusive())
+                        .usingJobData(ReminderShardJob.TO_INCLUSIVE, range.toInclusive())
+                        .startNow()
+                        .build();
+                try {
+                    context.getScheduler().scheduleJob(trigger);
+                } catch (ObjectAlreadyExistsException e) {
+                    log.info("⏭️ Reminder shard {} of run {} already scheduled", i, runId);
+                }
+            }
+            log.info("✅ Daily Reminder Job scheduled {} shards", ranges.size());
+            int purged = reminderService.purgeDeliveries(DELIVERY_RECORD_DAYS);
+            if (purged > 0) {
+                log.info("🧹 Removed {} reminder delivery records of past runs", purged);
             }
-
-            log.info("✅ Daily Reminder Job completed successfully");
-
         } catch (Exception e) {
             log.error("❌ Error in Daily Reminder Job: {}", e.getMessage(), e);
             throw new JobExecutionException(e);
         }
     }
-
-    /**
-     * Sends a reminder to the student about their course
-     * In production, this would integrate with email service (AWS SES, SendGrid, etc.)
-     */
-    private void sendReminder(Enrollment enrollment) {
-        String studentEmail = enrollment.getStudent().getEmail();
-        String courseName = enrollment.getCourse().getTitle();
-
-        // Simulate sending reminder (in production, integrate with email service)
-        log.info("📬 Reminder sent to: {} for course: {}", studentEmail, courseName);
-
-        // TODO: Integrate with actual email service
-        // Example: emailService.send(studentEmail, "Course Reminder", buildEmailContent(enrollment));
-    }
 }
-
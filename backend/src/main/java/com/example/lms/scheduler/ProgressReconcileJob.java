@@ -0,0 +1,32 @@
+package com.example.lms.scheduler;
+
+import com.example.lms.service.ProgressReconciliationService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.quartz.DisallowConcurrentExecution;
+import org.quartz.Job;
+import org.quartz.JobExecutionContext;
+import org.quartz.JobExecutionException;
+import org.springframework.stereotype.Component;
+
+/**
+ * Quartz Job that runs nightly to correct cached enrollment progress percentages
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@DisallowConcurrentExecution
+public class ProgressReconcileJob implements Job {
+
+    private final ProgressReconciliationService progressReconciliationService;
+
+    @Override
+    public void execute(JobExecutionContext context) throws JobExecutionException {
+        try {
+            progressReconciliationService.reconcileAll();
+        } catch (Exception e) {
+            log.error("❌ Error reconciling progress percentages: {}", e.getMessage(), e);
+            throw new JobExecutionException(e);
+        }
+    }
+}
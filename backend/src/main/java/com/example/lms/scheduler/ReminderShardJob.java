@@ -0,0 +1,81 @@
+package com.example.lms.scheduler;
+
+import com.example.lms.service.ReminderService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.quartz.Job;
+import org.quartz.JobDataMap;
+import org.quartz.JobExecutionContext;
+import org.quartz.JobExecutionException;
+import org.quartz.JobKey;
+import org.quartz.SchedulerException;
+import org.quartz.Trigger;
+import org.quartz.TriggerBuilder;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+
+/**
+ * Quartz Job that sends the reminders of one student id range, scheduled by {@link DailyReminderJob}.
+ *
+ * Shards may run concurrently on different nodes. The job requests recovery, so the shards of a node
+ * that dies mid-run are re-run by another node; failed shards are retried a few times. Re-runs keep
+ * the run id, so students already reminded in that run are skipped.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ReminderShardJob implements Job {
+
+    public static final JobKey JOB_KEY = JobKey.jobKey("reminderShardJob");
+    public static final String RUN_ID = "runId";
+    public static final String FROM_EXCLUSIVE = "fromExclusive";
+    public static final String TO_INCLUSIVE = "toInclusive";
+    public static final String ATTEMPT = "attempt";
+
+    private static final int MAX_ATTEMPTS = 3;
+    private static final long RETRY_DELAY_MILLIS = 60_000;
+
+    private final ReminderService reminderService;
+
+    @Override
+    public void execute(JobExecutionContext context) throws JobExecutionException {
+        JobDataMap data = context.getMergedJobDataMap();
+        ReminderService.IdRange range = new ReminderService.IdRange(data.getLong(FROM_EXCLUSIVE), data.getLong(TO_INCLUSIVE));
+        long runId = data.containsKey(RUN_ID) ? data.getLong(RUN_ID) : context.getScheduledFireTime().getTime();
+        int attempt = data.containsKey(ATTEMPT) ? data.getInt(ATTEMPT) : 1;
+        if (context.isRecovering()) {
+            log.warn("♻️ Re-running reminder shard ({}, {}] left unfinished by a failed node",
+                    range.fromExclusive(), range.toInclusive());
+        }
+
+        try {
+            reminderService.sendRange(runId, range);
+        } catch (Exception e) {
+            log.error("❌ Reminder shard ({}, {}] failed on attempt {}: {}",
+                    range.fromExclusive(), range.toInclusive(), attempt, e.getMessage(), e);
+            if (attempt < MAX_ATTEMPTS) {
+                scheduleRetry(context, runId, range, attempt + 1);
+            }
+            throw new JobExecutionException(e);
+        }
+    }
+
+    private static void scheduleRetry(JobExecutionContext context, long runId, ReminderService.IdRange range, int attempt) {
+        Trigger retry = TriggerBuilder.newTrigger()
+                .forJob(JOB_KEY)
+                .withIdentity(context.getTrigger().getKey().getName() + "-retry" + attempt, DailyReminderJob.SHARD_GROUP)
+                .usingJobData(RUN_ID, runId)
+                .usingJobData(FROM_EXCLUSIVE, range.fromExclusive())
+                .usingJobData(TO_INCLUSIVE, range.toInclusive())
+                .usingJobData(ATTEMPT, attempt)
+                .startAt(new Date(System.currentTimeMillis() + RETRY_DELAY_MILLIS))
+                .build();
+        try {
+            context.getScheduler().scheduleJob(retry);
+        } catch (SchedulerException e) {
+            log.error("❌ Could not schedule retry of reminder shard ({}, {}]",
+                    range.fromExclusive(), range.toInclusive(), e);
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.lms.scheduler;
+
+import com.example.lms.dto.S3FileResponse;
+import com.example.lms.entity.Content;
+import com.example.lms.repository.ContentRepository;
+import com.example.lms.service.LocalFileStorageService;
+import com.example.lms.service.S3CircuitBreaker;
+import com.example.lms.service.S3Service;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.quartz.DisallowConcurrentExecution;
+import org.quartz.Job;
+import org.quartz.JobExecutionContext;
+import org.quartz.JobExecutionException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Quartz Job that migrates files stored locally during an S3 outage back to S3.
+ * Only runs while the S3 circuit is not open; every upload goes through the circuit breaker,
+ * so the first trial calls after an outage double as the half-open probe.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@DisallowConcurrentExecution
+public class S3ReconcileJob implements Job {
+
+    private final ContentRepository contentRepository;
+    private final LocalFileStorageService localFileStorageService;
+    private final S3Service s3Service;
+    private final S3CircuitBreaker circuitBreaker;
+
+    @Value("${aws.s3.reconcile.batch-size:50}")
+    private int batchSize;
+
+    private enum Outcome { MIGRATED, SKIPPED, STOP }
+
+    @Override
+    public void execute(JobExecutionContext context) throws JobExecutionException {
+        if (circuitBreaker.getState() == S3CircuitBreaker.State.OPEN) {
+            log.info("⏸️ S3 circuit is open, skipping reconciliation");
+            return;
+        }
+
+        // Keyset pages by id, so rows that cannot be migrated are stepped over instead of
+        // filling the first page on every run
+        long lastId = 0;
+        int migrated = 0;
+        int skipped = 0;
+        while (true) {
+            List<Content> page = contentRepository.findLocallyStoredAfter(lastId, PageRequest.of(0, batchSize));
+            for (Content content : page) {
+                Outcome outcome = migrate(content);
+                if (outcome == Outcome.STOP) {
+                    log.info("🔁 S3 reconciliation migrated {} locally stored files ({} skipped) before stopping",
+                            migrated, skipped);
+                    return;
+                }
+                if (outcome == Outcome.MIGRATED) {
+                    migrated++;
+                } else {
+                    skipped++;
+                }
+                lastId = content.getId();
+            }
+            if (page.size() < batchSize) {
+                break;
+            }
+        }
+        if (migrated + skipped > 0) {
+            log.info("🔁 S3 reconciliation migrated {} locally stored files ({} skipped)", migrated, skipped);
+        }
+    }
+
+    /**
+     * Uploads one local file to S3 and repoints the content row at it.
+     * Returns STOP when S3 is unavailable and the run should end.
+     */
+    private Outcome migrate(Content content) {
+        String localKey = content.getS3Key();
+        byte[] data;
+        try {
+            data = localFileStorageService.getFile(localKey);
+        } catch (RuntimeException e) {
+            log.warn("⚠️ Local file missing for content {}: {}", content.getId(), localKey);
+            return Outcome.SKIPPED;
+        }
+
+        if (!circuitBreaker.tryAcquirePermission()) {
+            return Outcome.STOP;
+        }
+
+        S3FileResponse response;
+        try {
+            response = s3Service.uploadFile(S3Service.KEY_PREFIX + localKey, data, mimeType(content));
+            circuitBreaker.recordSuccess();
+        } catch (RuntimeException e) {
+            circuitBreaker.recordError(e);
+            if (S3CircuitBreaker.isOutage(e)) {
+                log.warn("⚠️ S3 still unavailable, stopping reconciliation: {}", e.getMessage());
+                return Outcome.STOP;
+            }
+            log.warn("⚠️ S3 rejected content {} ({}), skipping it: {}", content.getId(), localKey, e.getMessage());
+            return Outcome.SKIPPED;
+        }
+
+        content.setS3Key(response.getKey());
+        content.setFileUrl(response.getFileUrl());
+        contentRepository.save(content);
+
+        // The row now points at S3, so a failed local delete only leaves a stray file behind
+        try {
+            localFileStorageService.deleteFile(localKey);
+        } catch (RuntimeException e) {
+            log.warn("⚠️ Could not remove migrated local file: {}", localKey);
+        }
+        return Outcome.MIGRATED;
+    }
+
+    /**
+     * The stored content type when it is a MIME type; older rows hold labels such as VIDEO or PDF,
+     * which S3 would store as a meaningless Content-Type
+     */
+    private static String mimeType(Content content) {
+        String type = content.getContentType();
+        return type != null && type.contains("/") ? type : null;
+    }
+}
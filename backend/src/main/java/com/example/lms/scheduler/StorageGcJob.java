@@ -0,0 +1,52 @@
+package com.example.lms.scheduler;
+
+import com.example.lms.service.StorageGarbageCollector;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.quartz.DisallowConcurrentExecution;
+import org.quartz.Job;
+import org.quartz.JobDataMap;
+import org.quartz.JobExecutionContext;
+import org.quartz.JobExecutionException;
+import org.quartz.PersistJobDataAfterExecution;
+import org.springframework.stereotype.Component;
+
+/**
+ * Quartz Job that runs nightly to delete stored files no longer referenced by any content.
+ * The position of the incremental pass is kept in the job data, so with the clustered job store
+ * the next run continues from it on whichever node picks it up.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@DisallowConcurrentExecution
+@PersistJobDataAfterExecution
+public class StorageGcJob implements Job {
+
+    static final String S3_RESUME_AFTER = "s3ResumeAfter";
+    static final String LOCAL_RESUME_AFTER_SHARD = "localResumeAfterShard";
+
+    private final StorageGarbageCollector storageGarbageCollector;
+
+    @Override
+    public void execute(JobExecutionContext context) throws JobExecutionException {
+        JobDataMap data = context.getJobDetail().getJobDataMap();
+        try {
+            StorageGarbageCollector.Cursor next = storageGarbageCollector.collect(new StorageGarbageCollector.Cursor(
+                    data.getString(S3_RESUME_AFTER), data.getString(LOCAL_RESUME_AFTER_SHARD)));
+            store(data, S3_RESUME_AFTER, next.s3ResumeAfter());
+            store(data, LOCAL_RESUME_AFTER_SHARD, next.localResumeAfterShard());
+        } catch (Exception e) {
+            log.error("❌ Error collecting orphaned files: {}", e.getMessage(), e);
+            throw new JobExecutionException(e);
+        }
+    }
+
+    private static void store(JobDataMap data, String key, String value) {
+        if (value == null) {
+            data.remove(key);
+        } else {
+            data.put(key, value);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.lms.scheduler;
+
+import com.example.lms.service.RefreshTokenService;
+import com.example.lms.service.TokenRevocationService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.quartz.DisallowConcurrentExecution;
+import org.quartz.Job;
+import org.quartz.JobExecutionContext;
+import org.quartz.JobExecutionException;
+import org.springframework.stereotype.Component;
+
+/**
+ * Quartz Job that pulls token revocations made on other nodes into this node's revocation filter,
+ * and purges expired refresh tokens whenever the filter is rebuilt
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@DisallowConcurrentExecution
+public class TokenRevocationSyncJob implements Job {
+
+    private final TokenRevocationService tokenRevocationService;
+    private final RefreshTokenService refreshTokenService;
+
+    @Override
+    public void execute(JobExecutionContext context) throws JobExecutionException {
+        try {
+            if (tokenRevocationService.sync()) {
+                int purged = refreshTokenService.purgeExpired();
+                if (purged > 0) {
+                    log.info("🧹 Removed {} expired refresh tokens", purged);
+                }
+            }
+        } catch (Exception e) {
+            log.error("❌ Error syncing token revocations: {}", e.getMessage(), e);
+            throw new JobExecutionException(e);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.lms.scheduler;
+
+import com.example.lms.service.UploadSessionService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.quartz.DisallowConcurrentExecution;
+import org.quartz.Job;
+import org.quartz.JobExecutionContext;
+import org.quartz.JobExecutionException;
+import org.springframework.stereotype.Component;
+
+/**
+ * Quartz Job that discards resumable upload sessions nobody has touched before their expiry
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@DisallowConcurrentExecution
+public class UploadSessionSweeperJob implements Job {
+
+    private final UploadSessionService uploadSessionService;
+
+    @Override
+    public void execute(JobExecutionContext context) throws JobExecutionException {
+        try {
+            int swept = uploadSessionService.sweepExpired();
+            if (swept > 0) {
+                log.info("🧹 Removed {} expired upload sessions", swept);
+            }
+        } catch (Exception e) {
+            log.error("❌ Error sweeping upload sessions: {}", e.getMessage(), e);
+            throw new JobExecutionException(e);
+        }
+    }
+}
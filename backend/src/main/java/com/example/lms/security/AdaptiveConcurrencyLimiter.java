@@ -0,0 +1,176 @@
+package com.example.lms.security;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Caps the number of requests in flight at a limit learned from observed latency.
+ *
+ * Uses the gradient algorithm: the average latency of each sampling window is compared with the
+ * no-load latency (the lowest window average seen). While latency stays within a tolerance of it the
+ * limit grows by about sqrt(limit) per window; when requests start queueing (on the database pool,
+ * typically) latency rises, the gradient baseline/current drops below 1 and the limit shrinks with it. Lower-priority requests may only use part of the limit, so
+ * they are shed first and the remaining headroom stays available to critical ones.
+ */
+@Component
+public class AdaptiveConcurrencyLimiter {
+
+    public enum Priority {
+        CRITICAL(1.0),
+        NORMAL(0.9),
+        LOW(0.5);
+
+        private final double share;
+
+        Priority(double share) {
+            this.share = share;
+        }
+    }
+
+    // Latency may grow by this factor over the baseline before the limit starts shrinking
+    private static final double TOLERANCE = 1.5;
+    private static final int MIN_WINDOW_SAMPLES = 10;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double smoothing;
+    private final long windowNanos;
+    private final LongSupplier nanoClock;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile double limit;
+
+    // Sampling window, guarded by this
+    private long windowStart;
+    private long windowRttSum;
+    private int windowSamples;
+    private int windowMaxInFlight;
+    private double baselineRtt;
+    private double lastRtt;
+
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder[] rejected = new LongAdder[Priority.values().length];
+
+    @Autowired
+    public AdaptiveConcurrencyLimiter(@Value("${security.concurrency-limit.initial-limit:20}") int initialLimit,
+                                      @Value("${security.concurrency-limit.min-limit:4}") int minLimit,
+                                      @Value("${security.concurrency-limit.max-limit:200}") int maxLimit,
+                                      @Value("${security.concurrency-limit.smoothing:0.2}") double smoothing,
+                                      @Value("${security.concurrency-limit.window-ms:250}") long windowMillis) {
+        this(initialLimit, minLimit, maxLimit, smoothing, windowMillis, System::nanoTime);
+    }
+
+    AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, double smoothing,
+                               long windowMillis, LongSupplier nanoClock) {
+        if (minLimit < 1 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("Concurrency limits must satisfy 1 <= min <= max");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+        this.smoothing = smoothing;
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMillis);
+        this.nanoClock = nanoClock;
+        this.windowStart = nanoClock.getAsLong();
+        for (int i = 0; i < rejected.length; i++) {
+            rejected[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Admits a request if its priority's share of the limit is not used up.
+     * Returns the start time to pass to {@link #release(long)}, or -1 if the request should be shed.
+     */
+    public long tryAcquire(Priority priority) {
+        int allowed = Math.max(1, (int) (limit * priority.share));
+        while (true) {
+            int current = inFlight.get();
+            if (current >= allowed) {
+                rejected[priority.ordinal()].increment();
+                return -1;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                accepted.increment();
+                return nanoClock.getAsLong();
+            }
+        }
+    }
+
+    public void release(long startNanos) {
+        release(startNanos, true);
+    }
+
+    /**
+     * Frees the request's slot. With sampleLatency false its latency is left out of the gradient, for
+     * requests that are slow by design (password hashing) and would read as queueing.
+     */
+    public void release(long startNanos, boolean sampleLatency) {
+        long now = nanoClock.getAsLong();
+        int current = inFlight.getAndDecrement();
+        if (sampleLatency) {
+            onSample(now - startNanos, current, now);
+        }
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("limit", getLimit());
+        stats.put("inFlight", inFlight.get());
+        stats.put("accepted", accepted.sum());
+        for (Priority priority : Priority.values()) {
+            stats.put("rejected" + priority.name().charAt(0) + priority.name().substring(1).toLowerCase(),
+                    rejected[priority.ordinal()].sum());
+        }
+        synchronized (this) {
+            stats.put("latencyMillis", lastRtt / 1_000_000.0);
+            stats.put("baselineLatencyMillis", baselineRtt / 1_000_000.0);
+        }
+        return stats;
+    }
+
+    private synchronized void onSample(long rttNanos, int inFlightAtCompletion, long now) {
+        windowRttSum += rttNanos;
+        windowSamples++;
+        windowMaxInFlight = Math.max(windowMaxInFlight, inFlightAtCompletion);
+        if (now - windowStart < windowNanos || windowSamples < MIN_WINDOW_SAMPLES) {
+            return;
+        }
+
+        double rtt = Math.max(1, (double) windowRttSum / windowSamples);
+        int maxInFlight = windowMaxInFlight;
+        windowStart = now;
+        windowRttSum = 0;
+        windowSamples = 0;
+        windowMaxInFlight = 0;
+        lastRtt = rtt;
+
+        // A baseline that followed the average would creep up under sustained overload and let the limit grow back
+        baselineRtt = baselineRtt == 0 ? rtt : Math.min(baselineRtt, rtt);
+
+        double current = limit;
+        // Too little traffic to say anything about the limit; don't let it drift up unused
+        if (maxInFlight < current / 2) {
+            return;
+        }
+        double gradient = Math.max(0.5, Math.min(1.0, TOLERANCE * baselineRtt / rtt));
+        double target = current * gradient + Math.sqrt(current);
+        double next = current * (1 - smoothing) + target * smoothing;
+        limit = Math.max(minLimit, Math.min(maxLimit, next));
+        if (gradient < 1 && limit < minLimit + 1) {
+            // Still too slow at the floor: requests themselves got slower (new data, new work mix), re-learn
+            baselineRtt = rtt;
+        }
+    }
+}
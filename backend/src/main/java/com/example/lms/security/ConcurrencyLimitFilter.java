@@ -0,0 +1,112 @@
+package com.example.lms.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.UrlPathHelper;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Load shedding in front of the controllers, registered after {@link RateLimitFilter}.
+ *
+ * Requests beyond the adaptive in-flight limit are answered immediately with 503 and Retry-After
+ * instead of queueing for a database connection until they time out. Routes are classed as critical
+ * (auth, progress writes), low (admin listings) or normal, and lower classes are shed first.
+ * Routes whose duration is set by the client's transfer speed (file downloads, uploads, bulk
+ * provisioning) are excluded: their long latencies would read as queueing and shrink the limit
+ * for ordinary API calls. They remain subject to {@link RateLimitFilter}. Auth requests keep their
+ * critical priority but their latency is not sampled: a BCrypt check takes far longer than the rest of
+ * the API, and a burst of logins would otherwise collapse the limit for everything else.
+ */
+@Component
+@Slf4j
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private static final AntPathMatcher PATH_MATCHER = new AntPathMatcher();
+    private static final UrlPathHelper PATH_HELPER = new UrlPathHelper();
+
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final boolean enabled;
+    private final List<String> criticalRoutes;
+    private final List<String> lowRoutes;
+    private final List<String> excludedRoutes;
+    private final List<String> unsampledRoutes;
+    private final long retryAfterSeconds;
+
+    public ConcurrencyLimitFilter(AdaptiveConcurrencyLimiter limiter,
+                                  @Value("${security.concurrency-limit.enabled:true}") boolean enabled,
+                                  @Value("${security.concurrency-limit.critical-routes:/api/auth/**,/api/progress/update}") List<String> criticalRoutes,
+                                  @Value("${security.concurrency-limit.low-routes:/api/admin/**}") List<String> lowRoutes,
+                                  @Value("${security.concurrency-limit.excluded-routes:/uploads/**,/api/contents/upload,/api/contents/uploads/*/chunks/*,/api/admin/users/bulk,/api/enrollments/*/certificate}") List<String> excludedRoutes,
+                                  @Value("${security.concurrency-limit.unsampled-routes:/api/auth/**}") List<String> unsampledRoutes,
+                                  @Value("${security.concurrency-limit.retry-after-seconds:1}") long retryAfterSeconds) {
+        this.limiter = limiter;
+        this.enabled = enabled;
+        this.criticalRoutes = criticalRoutes;
+        this.lowRoutes = lowRoutes;
+        this.excludedRoutes = excludedRoutes;
+        this.unsampledRoutes = unsampledRoutes;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        String path = PATH_HELPER.getPathWithinApplication(request);
+        AdaptiveConcurrencyLimiter.Priority priority = priorityFor(path);
+        long start = limiter.tryAcquire(priority);
+        if (start < 0) {
+            log.warn("🛑 Shedding {} request {} {} (limit {})", priority, request.getMethod(),
+                    request.getRequestURI(), limiter.getLimit());
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getWriter().write("{\"timestamp\":\"" + LocalDateTime.now()
+                    + "\",\"status\":503,\"error\":\"Service Unavailable\",\"message\":\"Server is overloaded, retry later\"}");
+            return;
+        }
+
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            limiter.release(start, !matches(unsampledRoutes, path));
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || matches(excludedRoutes, PATH_HELPER.getPathWithinApplication(request));
+    }
+
+    AdaptiveConcurrencyLimiter.Priority priorityFor(String path) {
+        if (matches(criticalRoutes, path)) {
+            return AdaptiveConcurrencyLimiter.Priority.CRITICAL;
+        }
+        if (matches(lowRoutes, path)) {
+            return AdaptiveConcurrencyLimiter.Priority.LOW;
+        }
+        return AdaptiveConcurrencyLimiter.Priority.NORMAL;
+    }
+
+    private static boolean matches(List<String> patterns, String path) {
+        for (String pattern : patterns) {
+            if (PATH_MATCHER.match(pattern.trim(), path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
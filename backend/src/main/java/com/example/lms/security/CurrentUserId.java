@@ -0,0 +1,17 @@
+package com.example.lms.security;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Binds a Long controller parameter to the id of the authenticated user,
+ * taken from the {@link CustomUserDetails} principal without a database lookup.
+ */
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface CurrentUserId {
+}
@@ -6,31 +6,54 @@ import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
 import java.util.Collection;
+import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
+/**
+ * Immutable snapshot of the authenticated user. Built either from the database
+ * or straight from the claims of a verified JWT, so it never holds a JPA entity.
+ */
 public class CustomUserDetails implements UserDetails {
 
-    private final User user;
+    private final Long id;
+    private final String email;
+    private final String password;
+    private final Set<GrantedAuthority> authorities;
 
-    public CustomUserDetails(User user) {
-        this.user = user;
+    public CustomUserDetails(User user, Collection<String> roleNames) {
+        this(user.getId(), user.getEmail(), user.getPassword(), roleNames);
+    }
+
+    public CustomUserDetails(Long id, String email, String password, Collection<String> roleNames) {
+        this.id = id;
+        this.email = email;
+        this.password = password;
+        this.authorities = roleNames.stream()
+                .map(SimpleGrantedAuthority::new)
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    /**
+     * Principal for a verified token; the password hash is never part of a token
+     */
+    public static CustomUserDetails fromToken(Long id, String email, List<String> roleNames) {
+        return new CustomUserDetails(id, email, null, roleNames);
     }
 
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
-        return user.getRoles().stream()
-                .map(role -> new SimpleGrantedAuthority(role.getRoleName().name()))
-                .collect(Collectors.toSet());
+        return authorities;
     }
 
     @Override
     public String getPassword() {
-        return user.getPassword();
+        return password;
     }
 
     @Override
     public String getUsername() {
-        return user.getEmail();
+        return email;
     }
 
     @Override public boolean isAccountNonExpired() { return true; }
@@ -38,7 +61,7 @@ public class CustomUserDetails implements UserDetails {
     @Override public boolean isCredentialsNonExpired() { return true; }
     @Override public boolean isEnabled() { return true; }
 
-    public User getUser() {
-        return user;
+    public Long getId() {
+        return id;
     }
 }
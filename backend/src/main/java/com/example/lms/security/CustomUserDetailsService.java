@@ -2,6 +2,7 @@ package com.example.lms.security;
 
 import com.example.lms.entity.User;
 import com.example.lms.repository.UserRepository;
+import com.example.lms.service.RoleRegistry;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
@@ -13,11 +14,21 @@ import org.springframework.stereotype.Service;
 public class CustomUserDetailsService implements UserDetailsService {
 
     private final UserRepository userRepository;
+    private final UserDetailsCache userDetailsCache;
+    private final RoleRegistry roleRegistry;
 
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
+        CustomUserDetails cached = userDetailsCache.get(email);
+        if (cached != null) {
+            return cached;
+        }
+
+        long generation = userDetailsCache.currentGeneration();
         User user = userRepository.findByEmail(email)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + email));
-        return new CustomUserDetails(user);
+        CustomUserDetails details = new CustomUserDetails(user, roleRegistry.roleNamesOf(user.getId()));
+        userDetailsCache.put(email, details, generation);
+        return details;
     }
 }
@@ -0,0 +1,26 @@
+package com.example.lms.security;
+
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Single-node invalidation bus: delivers synchronously to listeners in this JVM
+ */
+@Component
+public class InMemoryUserCacheInvalidationBus implements UserCacheInvalidationBus {
+
+    private final List<Consumer<String>> listeners = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void publish(String email) {
+        listeners.forEach(listener -> listener.accept(email));
+    }
+
+    @Override
+    public void subscribe(Consumer<String> listener) {
+        listeners.add(listener);
+    }
+}
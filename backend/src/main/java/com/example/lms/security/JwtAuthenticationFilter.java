@@ -1,24 +1,61 @@
 package com.example.lms.security;
 
+import com.example.lms.service.TokenRevocationService;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Verifies the bearer token once (repeat tokens are served from {@link VerifiedTokenCache})
+ * and builds the principal from its signed claims.
+ * The database is only consulted when a user has not been revalidated within
+ * security.jwt.revalidate-interval-seconds (0 = check on every request). The authorities last
+ * read from the database are remembered with the time, and every token is compared with them,
+ * so an older token still carrying revoked roles never rides on a newer token's check.
+ */
 @Component
-@RequiredArgsConstructor
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
+    // Upper bound on remembered revalidation times; the map is reset when it grows past this
+    private static final int MAX_TRACKED_USERS = 100_000;
+
     private final JwtUtil jwtUtil;
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final TokenRevocationService tokenRevocationService;
     private final CustomUserDetailsService userDetailsService;
+    private final long revalidateIntervalMillis;
+    private final ConcurrentHashMap<String, Validated> lastValidated = new ConcurrentHashMap<>();
+
+    private record Validated(long checkedAt, Set<GrantedAuthority> authorities) {}
+
+    public JwtAuthenticationFilter(JwtUtil jwtUtil,
+                                   VerifiedTokenCache verifiedTokenCache,
+                                   TokenRevocationService tokenRevocationService,
+                                   CustomUserDetailsService userDetailsService,
+                                   UserCacheInvalidationBus invalidationBus,
+                                   @Value("${security.jwt.revalidate-interval-seconds:300}") long revalidateIntervalSeconds) {
+        this.jwtUtil = jwtUtil;
+        this.verifiedTokenCache = verifiedTokenCache;
+        this.tokenRevocationService = tokenRevocationService;
+        this.userDetailsService = userDetailsService;
+        this.revalidateIntervalMillis = revalidateIntervalSeconds * 1000;
+        // A changed or deleted user is revalidated against the database on their next request
+        invalidationBus.subscribe(lastValidated::remove);
+    }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request,
@@ -34,17 +71,15 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
 
         final String authHeader = request.getHeader("Authorization");
-        String username = null, token = null;
 
-        if (authHeader != null && authHeader.startsWith("Bearer ")) {
-            token = authHeader.substring(7);
-            username = jwtUtil.extractUsername(token);
-        }
-
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            var userDetails = userDetailsService.loadUserByUsername(username);
+        if (authHeader != null && authHeader.startsWith("Bearer ")
+                && SecurityContextHolder.getContext().getAuthentication() == null) {
+            Claims claims = verifiedTokenCache.verify(authHeader.substring(7));
+            // Revocation is checked after the cache so a revoked token is rejected even when cached
+            CustomUserDetails userDetails = claims != null && !tokenRevocationService.isRevoked(claims.getId())
+                    ? resolvePrincipal(claims) : null;
 
-            if (jwtUtil.validateToken(token)) {
+            if (userDetails != null) {
                 UsernamePasswordAuthenticationToken auth =
                         new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
 
@@ -55,4 +90,37 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         filterChain.doFilter(request, response);
     }
+
+    /**
+     * Principal from the token claims, or from the database when the user is due for revalidation.
+     * Returns null if the user no longer exists.
+     */
+    private CustomUserDetails resolvePrincipal(Claims claims) {
+        String email = claims.getSubject();
+        CustomUserDetails fromToken = jwtUtil.toPrincipal(claims);
+        long now = System.currentTimeMillis();
+        Validated validated = lastValidated.get(email);
+
+        if (fromToken != null && validated != null && now - validated.checkedAt() < revalidateIntervalMillis
+                && validated.authorities().equals(Set.copyOf(fromToken.getAuthorities()))) {
+            return fromToken;
+        }
+
+        try {
+            CustomUserDetails fromDb = (CustomUserDetails) userDetailsService.loadUserByUsername(email);
+            Set<GrantedAuthority> current = Set.copyOf(fromDb.getAuthorities());
+            if (lastValidated.size() >= MAX_TRACKED_USERS) {
+                lastValidated.clear();
+            }
+            lastValidated.put(email, new Validated(now, current));
+            if (fromToken == null || !current.equals(Set.copyOf(fromToken.getAuthorities()))) {
+                // Roles changed since the token was issued: keep using the database until the user logs in again
+                return fromDb;
+            }
+            return fromToken;
+        } catch (UsernameNotFoundException e) {
+            lastValidated.remove(email);
+            return null;
+        }
+    }
 }
@@ -2,46 +2,86 @@ package com.example.lms.security;
 
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
 import java.security.Key;
 import java.util.Date;
+import java.util.List;
+import java.util.UUID;
 
 @Component
 public class JwtUtil {
 
     private final String SECRET = "MySuperSecretKeyForJwtTokenThatIsAtLeast32Bytes"; // store in env variable
-    private final long EXPIRATION = 1000 * 60 * 60*24; // 1 hour
+    // Access tokens are short-lived; clients renew them through /api/auth/refresh
+    @Value("${security.jwt.access-token-minutes:15}")
+    private long accessTokenMinutes = 15;
 
     private final Key key = Keys.hmacShaKeyFor(SECRET.getBytes());
 
+    // Parsers are immutable and thread-safe, so build one instead of one per call
+    private final JwtParser parser = Jwts.parserBuilder().setSigningKey(key).build();
+
     public String generateToken(UserDetails userDetails) {
-        return Jwts.builder()
+        return generateToken(userDetails, UUID.randomUUID().toString());
+    }
+
+    /**
+     * Access token with the given id (jti), which is what revocation refers to
+     */
+    public String generateToken(UserDetails userDetails, String tokenId) {
+        JwtBuilder builder = Jwts.builder()
+                .setId(tokenId)
                 .setSubject(userDetails.getUsername()) // email
                 .claim("roles", userDetails.getAuthorities().stream()
-                        .map(GrantedAuthority::getAuthority).toList())
+                        .map(GrantedAuthority::getAuthority).toList());
+        if (userDetails instanceof CustomUserDetails custom && custom.getId() != null) {
+            builder.claim("uid", custom.getId());
+        }
+        return builder
                 .setIssuer("LMS")
                 .setIssuedAt(new Date())
-                .setExpiration(new Date(System.currentTimeMillis() + EXPIRATION))
+                .setExpiration(new Date(System.currentTimeMillis() + getAccessTokenTtlMillis()))
                 .signWith(key, SignatureAlgorithm.HS256)
                 .compact();
     }
 
+    /**
+     * Verifies the signature and expiry once and returns the claims, or null if the token is invalid
+     */
+    public Claims parseClaims(String token) {
+        try {
+            return parser.parseClaimsJws(token).getBody();
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;
+        }
+    }
 
+    /**
+     * Builds the principal from the signed claims; null for tokens issued before the uid claim existed
+     */
+    public CustomUserDetails toPrincipal(Claims claims) {
+        Number uid = claims.get("uid", Number.class);
+        List<?> roles = claims.get("roles", List.class);
+        if (uid == null || roles == null) {
+            return null;
+        }
+        return CustomUserDetails.fromToken(uid.longValue(), claims.getSubject(),
+                roles.stream().map(String::valueOf).toList());
+    }
+
+    public long getAccessTokenTtlMillis() {
+        return accessTokenMinutes * 60_000;
+    }
 
     public String extractUsername(String token) {
-        return Jwts.parserBuilder().setSigningKey(key).build()
-                .parseClaimsJws(token).getBody().getSubject();
+        return parser.parseClaimsJws(token).getBody().getSubject();
     }
 
     public boolean validateToken(String token) {
-        try {
-            Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token);
-            return true;
-        } catch (JwtException | IllegalArgumentException e) {
-            return false;
-        }
+        return parseClaims(token) != null;
     }
 }
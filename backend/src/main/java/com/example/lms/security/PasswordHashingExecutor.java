@@ -0,0 +1,129 @@
+package com.example.lms.security;
+
+import com.example.lms.exception.ServiceUnavailableException;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs BCrypt hashing and verification on a small pool sized to the CPU count, so a login storm
+ * cannot occupy every Tomcat worker with CPU-bound work. When the queue is full, callers get a
+ * {@link ServiceUnavailableException} (503 + Retry-After) immediately instead of piling up.
+ */
+@Component
+@Slf4j
+public class PasswordHashingExecutor {
+
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor executor;
+    private final long retryAfterSeconds;
+
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder hashNanos = new LongAdder();
+    private final LongAccumulator maxHashNanos = new LongAccumulator(Math::max, 0);
+    private final LongAdder queueWaitNanos = new LongAdder();
+    private final LongAccumulator maxQueueWaitNanos = new LongAccumulator(Math::max, 0);
+
+    public PasswordHashingExecutor(PasswordEncoder passwordEncoder,
+                                   @Value("${security.password-hashing.threads:0}") int threads,
+                                   @Value("${security.password-hashing.queue-capacity:64}") int queueCapacity,
+                                   @Value("${security.password-hashing.retry-after-seconds:2}") long retryAfterSeconds) {
+        this.passwordEncoder = passwordEncoder;
+        this.retryAfterSeconds = retryAfterSeconds;
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hash-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        log.info("🔐 Password hashing pool: {} threads, queue capacity {}", poolSize, queueCapacity);
+    }
+
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return run(() -> passwordEncoder.matches(rawPassword, encodedPassword));
+    }
+
+    public String encode(CharSequence rawPassword) {
+        return run(() -> passwordEncoder.encode(rawPassword));
+    }
+
+    public Map<String, Object> getStats() {
+        long count = completed.sum();
+        return Map.of(
+                "threads", executor.getMaximumPoolSize(),
+                "active", executor.getActiveCount(),
+                "queued", executor.getQueue().size(),
+                "completed", count,
+                "rejected", rejected.sum(),
+                "avgHashMillis", count == 0 ? 0.0 : hashNanos.sum() / 1e6 / count,
+                "maxHashMillis", maxHashNanos.get() / 1e6,
+                "avgQueueWaitMillis", count == 0 ? 0.0 : queueWaitNanos.sum() / 1e6 / count,
+                "maxQueueWaitMillis", maxQueueWaitNanos.get() / 1e6
+        );
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private <T> T run(Callable<T> task) {
+        long submittedAt = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                long startedAt = System.nanoTime();
+                try {
+                    return task.call();
+                } finally {
+                    long finishedAt = System.nanoTime();
+                    record(startedAt - submittedAt, finishedAt - startedAt);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            log.warn("⚠️ Password hashing queue full, rejecting request");
+            throw new ServiceUnavailableException("Too many sign-in requests, please retry shortly", retryAfterSeconds);
+        }
+
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for password hashing", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+
+    private void record(long waitNanos, long hashTimeNanos) {
+        completed.increment();
+        queueWaitNanos.add(waitNanos);
+        maxQueueWaitNanos.accumulate(waitNanos);
+        hashNanos.add(hashTimeNanos);
+        maxHashNanos.accumulate(hashTimeNanos);
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.lms.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.UrlPathHelper;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-client rate limiting, registered right after {@link JwtAuthenticationFilter}.
+ *
+ * Authenticated requests are limited per JWT subject, anonymous ones (login, register) per client IP.
+ * Limits are configured per route as "pattern=requests/seconds"; the first matching pattern wins and
+ * everything else falls under security.rate-limit.default. Every response carries RateLimit-Limit,
+ * RateLimit-Remaining and RateLimit-Reset; rejected calls get 429 with Retry-After.
+ */
+@Component
+@Slf4j
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    record Rule(String pattern, int capacity, long periodNanos) {}
+
+    private static final AntPathMatcher PATH_MATCHER = new AntPathMatcher();
+    private static final UrlPathHelper PATH_HELPER = new UrlPathHelper();
+
+    private final RateLimiter rateLimiter;
+    private final boolean enabled;
+    private final List<Rule> rules;
+    private final Rule defaultRule;
+
+    public RateLimitFilter(RateLimiter rateLimiter,
+                           @Value("${security.rate-limit.enabled:true}") boolean enabled,
+                           @Value("${security.rate-limit.routes:/api/auth/login=10/60,/api/auth/register=5/60,/api/progress/update=60/60}") List<String> routes,
+                           @Value("${security.rate-limit.default:600/60}") String defaultLimit) {
+        this.rateLimiter = rateLimiter;
+        this.enabled = enabled;
+        this.rules = new ArrayList<>();
+        for (String route : routes) {
+            int eq = route.lastIndexOf('=');
+            if (eq <= 0) {
+                throw new IllegalArgumentException("Invalid rate limit route (expected pattern=requests/seconds): " + route);
+            }
+            rules.add(parseRule(route.substring(0, eq).trim(), route.substring(eq + 1)));
+        }
+        this.defaultRule = parseRule("default", defaultLimit);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        if (!enabled) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        Rule rule = ruleFor(PATH_HELPER.getPathWithinApplication(request));
+        RateLimiter.Decision decision = rateLimiter.tryAcquire(
+                rule.pattern() + "|" + clientKey(request), rule.capacity(), rule.periodNanos());
+
+        response.setHeader("RateLimit-Limit", String.valueOf(decision.limit()));
+        response.setHeader("RateLimit-Remaining", String.valueOf(decision.remaining()));
+        response.setHeader("RateLimit-Reset", String.valueOf(decision.resetSeconds()));
+
+        if (!decision.allowed()) {
+            log.warn("🚦 Rate limit exceeded for {} on {}", clientKey(request), rule.pattern());
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, decision.retryAfterSeconds())));
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getWriter().write("{\"timestamp\":\"" + LocalDateTime.now()
+                    + "\",\"status\":429,\"error\":\"Too Many Requests\",\"message\":\"Rate limit exceeded, retry later\"}");
+            return;
+        }
+
+        filterChain.doFilter(request, response);
+    }
+
+    Rule ruleFor(String path) {
+        for (Rule rule : rules) {
+            if (PATH_MATCHER.match(rule.pattern(), path)) {
+                return rule;
+            }
+        }
+        return defaultRule;
+    }
+
+    /**
+     * JWT subject when the request is authenticated, otherwise the client IP
+     * (behind a proxy, set server.forward-headers-strategy so this is the real client address)
+     */
+    private static String clientKey(HttpServletRequest request) {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth != null && auth.getPrincipal() instanceof UserDetails user) {
+            return "user:" + user.getUsername();
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    private static Rule parseRule(String pattern, String limit) {
+        String[] parts = limit.trim().split("/");
+        if (parts.length != 2) {
+            throw new IllegalArgumentException("Invalid rate limit (expected requests/seconds): " + limit);
+        }
+        int capacity = Integer.parseInt(parts[0].trim());
+        long seconds = Long.parseLong(parts[1].trim());
+        if (capacity <= 0 || seconds <= 0) {
+            throw new IllegalArgumentException("Rate limit must be positive: " + limit);
+        }
+        return new Rule(pattern, capacity, TimeUnit.SECONDS.toNanos(seconds));
+    }
+}
@@ -0,0 +1,168 @@
+package com.example.lms.security;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Lock-free token buckets keyed by arbitrary strings.
+ *
+ * Each bucket is a single "theoretical arrival time" updated by CAS (the GCRA form of a token bucket):
+ * a request is allowed if, after adding one emission interval, the time is no more than one period
+ * ahead of now. A bucket whose arrival time has passed is full, so it is indistinguishable from a new
+ * one and can be dropped at any time; idle buckets are swept per shard, which keeps memory bounded
+ * by the number of recently active keys rather than the number of keys ever seen.
+ */
+@Component
+public class RateLimiter {
+
+    public record Decision(boolean allowed, int limit, int remaining, long resetSeconds, long retryAfterSeconds) {}
+
+    private static final class Bucket {
+        final AtomicLong arrivalTime = new AtomicLong(Long.MIN_VALUE);
+    }
+
+    private static final class Shard {
+        final ConcurrentHashMap<String, Bucket> buckets = new ConcurrentHashMap<>();
+        final AtomicLong lastSweep;
+
+        Shard(long now) {
+            lastSweep = new AtomicLong(now);
+        }
+    }
+
+    private static final long SWEEP_INTERVAL_NANOS = 30_000_000_000L;
+
+    private final Shard[] shards;
+    private final int maxKeysPerShard;
+    private final LongSupplier nanoClock;
+
+    private final LongAdder allowed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder evicted = new LongAdder();
+
+    @Autowired
+    public RateLimiter(@Value("${security.rate-limit.shards:64}") int shards,
+                       @Value("${security.rate-limit.max-keys:1000000}") int maxKeys) {
+        this(shards, maxKeys, System::nanoTime);
+    }
+
+    RateLimiter(int shards, int maxKeys, LongSupplier nanoClock) {
+        int count = shards <= 1 ? 1 : Integer.highestOneBit(shards - 1) << 1;
+        this.shards = new Shard[count];
+        long now = nanoClock.getAsLong();
+        for (int i = 0; i < count; i++) {
+            this.shards[i] = new Shard(now);
+        }
+        this.maxKeysPerShard = Math.max(1, maxKeys / count);
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Takes one token from the bucket for the key, which holds up to capacity tokens refilled over periodNanos
+     */
+    public Decision tryAcquire(String key, int capacity, long periodNanos) {
+        long now = nanoClock.getAsLong();
+        long interval = periodNanos / capacity;
+        Shard shard = shards[spread(key.hashCode()) & (shards.length - 1)];
+        maybeSweep(shard, now);
+
+        Bucket bucket = shard.buckets.get(key);
+        if (bucket == null) {
+            if (shard.buckets.size() >= maxKeysPerShard) {
+                makeRoom(shard, now);
+            }
+            bucket = shard.buckets.computeIfAbsent(key, k -> new Bucket());
+        }
+
+        while (true) {
+            long current = bucket.arrivalTime.get();
+            long next = Math.max(current, now) + interval;
+            long ahead = next - now;
+            if (ahead > periodNanos) {
+                rejected.increment();
+                long retryAfter = ahead - periodNanos;
+                return new Decision(false, capacity, 0, toSeconds(Math.max(current, now) - now), toSeconds(retryAfter));
+            }
+            if (bucket.arrivalTime.compareAndSet(current, next)) {
+                allowed.increment();
+                int remaining = (int) ((periodNanos - ahead) / interval);
+                return new Decision(true, capacity, remaining, toSeconds(ahead), 0);
+            }
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (Shard shard : shards) {
+            size += shard.buckets.size();
+        }
+        return size;
+    }
+
+    public Map<String, Object> getStats() {
+        return Map.of(
+                "trackedKeys", size(),
+                "shards", shards.length,
+                "allowed", allowed.sum(),
+                "rejected", rejected.sum(),
+                "evicted", evicted.sum()
+        );
+    }
+
+    private void maybeSweep(Shard shard, long now) {
+        long last = shard.lastSweep.get();
+        if (now - last >= SWEEP_INTERVAL_NANOS && shard.lastSweep.compareAndSet(last, now)) {
+            sweepIdle(shard, now);
+        }
+    }
+
+    private void sweepIdle(Shard shard, long now) {
+        // A bucket that has refilled completely behaves exactly like a missing one
+        shard.buckets.entrySet().removeIf(entry -> {
+            if (entry.getValue().arrivalTime.get() <= now) {
+                evicted.increment();
+                return true;
+            }
+            return false;
+        });
+    }
+
+    /**
+     * Shard is full of active keys: drop idle ones, then arbitrary ones down to 90%.
+     * Dropping an active bucket only hands that key a fresh allowance.
+     */
+    private void makeRoom(Shard shard, long now) {
+        synchronized (shard) {
+            if (shard.buckets.size() < maxKeysPerShard) {
+                return;
+            }
+            sweepIdle(shard, now);
+            int target = maxKeysPerShard - Math.max(1, maxKeysPerShard / 10);
+            Iterator<String> it = shard.buckets.keySet().iterator();
+            while (shard.buckets.size() > target && it.hasNext()) {
+                it.next();
+                it.remove();
+                evicted.increment();
+            }
+        }
+    }
+
+    private static long toSeconds(long nanos) {
+        return (nanos + 999_999_999L) / 1_000_000_000L;
+    }
+
+    private static int spread(int h) {
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        return h;
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.lms.security;
+
+import java.util.function.Consumer;
+
+/**
+ * Carries "user changed" notifications to every node's user caches.
+ * The default implementation only reaches listeners in this JVM; a multi-node deployment
+ * can declare a @Primary bean backed by a shared channel (Redis pub/sub, a message queue, ...)
+ * that delivers published emails to the local listeners on every node.
+ */
+public interface UserCacheInvalidationBus {
+
+    void publish(String email);
+
+    void subscribe(Consumer<String> listener);
+}
@@ -0,0 +1,103 @@
+package com.example.lms.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded, TTL-based cache of {@link CustomUserDetails} keyed by email.
+ * Entries are dropped as soon as a change is published on the {@link UserCacheInvalidationBus}.
+ */
+@Component
+public class UserDetailsCache {
+
+    private record Entry(CustomUserDetails details, long expiresAt) {}
+
+    private final int maxEntries;
+    private final long ttlMillis;
+    private final LinkedHashMap<String, Entry> entries;
+
+    // Bumped on every invalidation so a load that started before it cannot re-insert stale data
+    private final AtomicLong generation = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    public UserDetailsCache(UserCacheInvalidationBus invalidationBus,
+                            @Value("${security.user-cache.max-entries:10000}") int maxEntries,
+                            @Value("${security.user-cache.ttl-seconds:300}") long ttlSeconds) {
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttlSeconds * 1000;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() > UserDetailsCache.this.maxEntries) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+        invalidationBus.subscribe(this::invalidate);
+    }
+
+    public synchronized CustomUserDetails get(String email) {
+        Entry entry = entries.get(email);
+        if (entry == null || entry.expiresAt() < System.currentTimeMillis()) {
+            if (entry != null) {
+                entries.remove(email);
+            }
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.details();
+    }
+
+    /**
+     * Token to pass to {@link #put} for a load that starts now
+     */
+    public long currentGeneration() {
+        return generation.get();
+    }
+
+    /**
+     * Caches a freshly loaded user unless an invalidation happened since the load started
+     */
+    public synchronized void put(String email, CustomUserDetails details, long loadedAtGeneration) {
+        if (generation.get() != loadedAtGeneration) {
+            return;
+        }
+        entries.put(email, new Entry(details, System.currentTimeMillis() + ttlMillis));
+    }
+
+    public synchronized void invalidate(String email) {
+        generation.incrementAndGet();
+        entries.remove(email);
+        invalidations.increment();
+    }
+
+    public Map<String, Object> getStats() {
+        long h = hits.sum();
+        long m = misses.sum();
+        int size;
+        synchronized (this) {
+            size = entries.size();
+        }
+        return Map.of(
+                "entries", size,
+                "maxEntries", maxEntries,
+                "hits", h,
+                "misses", m,
+                "hitRatio", h + m == 0 ? 0.0 : (double) h / (h + m),
+                "evictions", evictions.sum(),
+                "invalidations", invalidations.sum()
+        );
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.lms.security;
+
+import io.jsonwebtoken.Claims;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Remembers tokens that already passed signature verification, keyed by their SHA-256 digest,
+ * so repeat requests with the same bearer token skip Base64/JSON decoding and HMAC verification.
+ * Entries live until the token's own expiry; invalid tokens are never cached.
+ */
+@Component
+public class VerifiedTokenCache {
+
+    private record Digest(long a, long b, long c, long d) {}
+
+    private record Entry(Claims claims, long expiresAt) {}
+
+    private static final ThreadLocal<MessageDigest> SHA256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+
+    private final JwtUtil jwtUtil;
+    private final int maxEntries;
+    private final Clock clock;
+    private final ConcurrentHashMap<Digest, Entry> entries = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder expired = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    @Autowired
+    public VerifiedTokenCache(JwtUtil jwtUtil,
+                              @Value("${security.jwt.token-cache.max-entries:10000}") int maxEntries) {
+        this(jwtUtil, maxEntries, Clock.systemUTC());
+    }
+
+    VerifiedTokenCache(JwtUtil jwtUtil, int maxEntries, Clock clock) {
+        this.jwtUtil = jwtUtil;
+        this.maxEntries = maxEntries;
+        this.clock = clock;
+    }
+
+    /**
+     * Claims of a valid token, or null if the token is invalid or expired.
+     * The returned claims are shared between requests and must not be modified.
+     */
+    public Claims verify(String token) {
+        if (maxEntries <= 0) {
+            return jwtUtil.parseClaims(token);
+        }
+        Digest digest = digest(token);
+        Entry entry = entries.get(digest);
+        if (entry != null) {
+            if (clock.millis() < entry.expiresAt()) {
+                hits.increment();
+                return entry.claims();
+            }
+            entries.remove(digest, entry);
+            expired.increment();
+        }
+        misses.increment();
+
+        Claims claims = jwtUtil.parseClaims(token);
+        Date expiration = claims != null ? claims.getExpiration() : null;
+        if (expiration != null) {
+            if (entries.size() >= maxEntries) {
+                makeRoom();
+            }
+            entries.put(digest, new Entry(claims, expiration.getTime()));
+        }
+        return claims;
+    }
+
+    public Map<String, Object> getStats() {
+        long h = hits.sum();
+        long m = misses.sum();
+        return Map.of(
+                "entries", entries.size(),
+                "maxEntries", maxEntries,
+                "hits", h,
+                "misses", m,
+                "hitRatio", h + m == 0 ? 0.0 : (double) h / (h + m),
+                "expired", expired.sum(),
+                "evictions", evictions.sum()
+        );
+    }
+
+    /**
+     * Drops expired tokens first; if the cache is still full, drops arbitrary entries down to 90%.
+     * Evicted tokens are simply verified again on their next use.
+     */
+    private synchronized void makeRoom() {
+        if (entries.size() < maxEntries) {
+            return;
+        }
+        long now = clock.millis();
+        entries.values().removeIf(entry -> {
+            if (entry.expiresAt() <= now) {
+                expired.increment();
+                return true;
+            }
+            return false;
+        });
+        int target = maxEntries - Math.max(1, maxEntries / 10);
+        Iterator<Digest> it = entries.keySet().iterator();
+        while (entries.size() > target && it.hasNext()) {
+            it.next();
+            it.remove();
+            evictions.increment();
+        }
+    }
+
+    private static Digest digest(String token) {
+        ByteBuffer hash = ByteBuffer.wrap(SHA256.get().digest(token.getBytes(StandardCharsets.US_ASCII)));
+        return new Digest(hash.getLong(), hash.getLong(), hash.getLong(), hash.getLong());
+    }
+}
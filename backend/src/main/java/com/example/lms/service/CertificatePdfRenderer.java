@@ -0,0 +1,137 @@
+package com.example.lms.service;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Writes a one-page landscape A4 certificate as a minimal PDF.
+ *
+ * Only the standard Helvetica fonts are used, which every viewer ships, so nothing is embedded
+ * and a certificate is a couple of kilobytes. Text is WinAnsi encoded; characters outside
+ * Latin-1 are replaced with '?'. Rendering is pure CPU work with no shared state.
+ */
+public final class CertificatePdfRenderer {
+
+    private static final float PAGE_WIDTH = 842;
+    private static final float PAGE_HEIGHT = 595;
+    private static final float MAX_TEXT_WIDTH = 700;
+    private static final DateTimeFormatter DATE = DateTimeFormatter.ofPattern("d MMMM yyyy", Locale.ENGLISH);
+
+    // Helvetica advance widths (1/1000 em) for ' ' .. '~'
+    private static final int[] WIDTHS = {
+            278, 278, 355, 556, 556, 889, 667, 191, 333, 333, 389, 584, 278, 333, 278, 278,
+            556, 556, 556, 556, 556, 556, 556, 556, 556, 556, 278, 278, 584, 584, 584, 556,
+            1015, 667, 667, 722, 722, 667, 611, 778, 722, 278, 500, 667, 556, 833, 722, 778,
+            667, 778, 722, 667, 611, 722, 667, 944, 667, 667, 611, 278, 278, 278, 469, 556,
+            333, 556, 556, 500, 556, 556, 278, 556, 556, 222, 222, 500, 222, 833, 556, 556,
+            556, 556, 333, 500, 278, 556, 500, 722, 500, 500, 500, 334, 260, 334, 584
+    };
+
+    private CertificatePdfRenderer() {
+    }
+
+    public static byte[] render(String studentName, String courseTitle, LocalDate completedOn, String certificateNumber) {
+        StringBuilder page = new StringBuilder();
+        page.append("q 0.17 0.29 0.55 RG 4 w 30 30 782 535 re S 1 w 42 42 758 511 re S Q\n");
+        centered(page, "F2", 36, 440, "Certificate of Completion");
+        centered(page, "F1", 16, 370, "This certifies that");
+        centered(page, "F2", 28, 320, studentName);
+        centered(page, "F1", 16, 270, "has successfully completed the course");
+        centered(page, "F2", 22, 225, courseTitle);
+        centered(page, "F1", 14, 160, "Completed on " + DATE.format(completedOn));
+        centered(page, "F1", 9, 70, "Certificate no. " + certificateNumber);
+
+        byte[] content = page.toString().getBytes(StandardCharsets.ISO_8859_1);
+        List<String> objects = new ArrayList<>();
+        objects.add("<< /Type /Catalog /Pages 2 0 R >>");
+        objects.add("<< /Type /Pages /Kids [3 0 R] /Count 1 >>");
+        objects.add("<< /Type /Page /Parent 2 0 R /MediaBox [0 0 " + (int) PAGE_WIDTH + " " + (int) PAGE_HEIGHT + "]"
+                + " /Resources << /Font << /F1 4 0 R /F2 5 0 R >> >> /Contents 6 0 R >>");
+        objects.add("<< /Type /Font /Subtype /Type1 /BaseFont /Helvetica /Encoding /WinAnsiEncoding >>");
+        objects.add("<< /Type /Font /Subtype /Type1 /BaseFont /Helvetica-Bold /Encoding /WinAnsiEncoding >>");
+        objects.add(null); // content stream, written below
+        objects.add("<< /Title (" + escape("Certificate " + certificateNumber) + ") /Producer (LMS) >>");
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(content.length + 2048);
+        // The binary comment marks the file as binary for transfer tools
+        write(out, "%PDF-1.4\n%\u00E2\u00E3\u00CF\u00D3\n");
+        long[] offsets = new long[objects.size()];
+        for (int i = 0; i < objects.size(); i++) {
+            offsets[i] = out.size();
+            write(out, (i + 1) + " 0 obj\n");
+            if (objects.get(i) == null) {
+                write(out, "<< /Length " + content.length + " >>\nstream\n");
+                out.writeBytes(content);
+                write(out, "\nendstream");
+            } else {
+                write(out, objects.get(i));
+            }
+            write(out, "\nendobj\n");
+        }
+        long xref = out.size();
+        StringBuilder trailer = new StringBuilder("xref\n0 " + (objects.size() + 1) + "\n0000000000 65535 f \n");
+        for (long offset : offsets) {
+            trailer.append(String.format("%010d 00000 n \n", offset));
+        }
+        trailer.append("trailer\n<< /Size ").append(objects.size() + 1).append(" /Root 1 0 R /Info 7 0 R >>\n")
+                .append("startxref\n").append(xref).append("\n%%EOF\n");
+        write(out, trailer.toString());
+        return out.toByteArray();
+    }
+
+    /**
+     * One line centred on the page; shrinks the font down to 12pt to fit, then truncates
+     */
+    private static void centered(StringBuilder page, String font, float size, float y, String text) {
+        String line = latin1(text == null ? "" : text.strip());
+        // Bold glyphs run about 5% wider than the regular metrics
+        float scale = "F2".equals(font) ? 1.05f : 1f;
+        float width = width(line) * scale;
+        if (width * size > MAX_TEXT_WIDTH) {
+            size = Math.max(12, MAX_TEXT_WIDTH / width);
+            if (width * size > MAX_TEXT_WIDTH) {
+                while (line.length() > 1 && width(line + "...") * scale * size > MAX_TEXT_WIDTH) {
+                    line = line.substring(0, line.length() - 1);
+                }
+                line = line.stripTrailing() + "...";
+            }
+            width = width(line) * scale;
+        }
+        float x = (PAGE_WIDTH - width * size) / 2;
+        page.append(String.format(Locale.ROOT, "BT /%s %.1f Tf %.2f %.2f Td (%s) Tj ET\n", font, size, x, y, escape(line)));
+    }
+
+    /**
+     * Width of the text at a font size of 1
+     */
+    private static float width(String text) {
+        int units = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            units += c >= ' ' && c <= '~' ? WIDTHS[c - ' '] : 556;
+        }
+        return units / 1000f;
+    }
+
+    private static String latin1(String text) {
+        StringBuilder sb = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            sb.append(c < ' ' || (c > '~' && c < '\u00A0') || c > '\u00FF' ? '?' : c);
+        }
+        return sb.toString();
+    }
+
+    private static String escape(String text) {
+        return text.replace("\\", "\\\\").replace("(", "\\(").replace(")", "\\)");
+    }
+
+    private static void write(ByteArrayOutputStream out, String text) {
+        out.writeBytes(text.getBytes(StandardCharsets.ISO_8859_1));
+    }
+}
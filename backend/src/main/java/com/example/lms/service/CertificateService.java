@@ -0,0 +1,317 @@
+package com.example.lms.service;
+
+import com.example.lms.dto.S3FileResponse;
+import com.example.lms.entity.Certificate;
+import com.example.lms.entity.CertificateStatus;
+import com.example.lms.entity.Enrollment;
+import com.example.lms.entity.EnrollmentStatus;
+import com.example.lms.event.EnrollmentCompletedEvent;
+import com.example.lms.event.EnrollmentEventBus;
+import com.example.lms.exception.BadRequestException;
+import com.example.lms.exception.ResourceNotFoundException;
+import com.example.lms.repository.CertificateRepository;
+import com.example.lms.repository.EnrollmentRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Generates completion certificates in the background.
+ *
+ * A completed enrollment inserts a PENDING row into the certificates table, which is the durable
+ * queue, and hands its id to a fixed pool of workers with a bounded in-memory queue. When that
+ * queue is full the row simply stays PENDING and is picked up by {@link #pumpPending()}, which
+ * also runs on a schedule and after restarts, so a term-end burst never grows memory or blocks
+ * the event lanes. A worker claims its row with a conditional UPDATE, so each certificate is
+ * rendered once even across nodes, stores the PDF through {@link FileStorageService} and marks
+ * the row READY.
+ */
+@Service
+@Slf4j
+public class CertificateService {
+
+    private static final String CONTENT_TYPE = "application/pdf";
+
+    private final CertificateRepository certificateRepository;
+    private final EnrollmentRepository enrollmentRepository;
+    private final FileStorageService fileStorageService;
+    private final EnrollmentEventBus enrollmentEventBus;
+    private final ThreadPoolExecutor pool;
+    private final int maxAttempts;
+    private final Duration stuckAfter;
+
+    // Ids handed to the pool and not finished yet, so a pump never queues one twice
+    private final Set<Long> inFlight = ConcurrentHashMap.newKeySet();
+    // Set when the pool turned work away; the next finishing worker refills the queue
+    private final AtomicBoolean backlog = new AtomicBoolean();
+
+    private final LongAdder requested = new LongAdder();
+    private final LongAdder claimed = new LongAdder();
+    private final LongAdder generated = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder retried = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder bytesGenerated = new LongAdder();
+    private final LongAdder queueLatencyMillis = new LongAdder();
+    private final LongAccumulator maxQueueLatencyMillis = new LongAccumulator(Math::max, 0);
+    private final LongAdder renderNanos = new LongAdder();
+    private final LongAdder storeNanos = new LongAdder();
+    private final AtomicInteger running = new AtomicInteger();
+    private volatile long burstStartNanos;
+    private volatile long burstStartGenerated;
+    private volatile long lastBurstPerSecond;
+
+    public CertificateService(CertificateRepository certificateRepository,
+                              EnrollmentRepository enrollmentRepository,
+                              FileStorageService fileStorageService,
+                              EnrollmentEventBus enrollmentEventBus,
+                              @Value("${certificates.workers:2}") int workers,
+                              @Value("${certificates.queue-capacity:100}") int queueCapacity,
+                              @Value("${certificates.max-attempts:3}") int maxAttempts,
+                              @Value("${certificates.stuck-after-minutes:10}") long stuckAfterMinutes) {
+        this.certificateRepository = certificateRepository;
+        this.enrollmentRepository = enrollmentRepository;
+        this.fileStorageService = fileStorageService;
+        this.enrollmentEventBus = enrollmentEventBus;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.stuckAfter = Duration.ofMinutes(stuckAfterMinutes);
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.pool = new ThreadPoolExecutor(Math.max(1, workers), Math.max(1, workers), 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)), runnable -> {
+                    Thread thread = new Thread(runnable, "certificate-worker-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PostConstruct
+    public void subscribe() {
+        enrollmentEventBus.subscribe("certificates", EnrollmentCompletedEvent.class,
+                event -> request(event.enrollmentId(), event.completedAt()));
+    }
+
+    /**
+     * Queues a certificate for the enrollment unless one already exists
+     */
+    public Certificate request(Long enrollmentId, LocalDateTime completedAt) {
+        Certificate existing = certificateRepository.findByEnrollmentId(enrollmentId).orElse(null);
+        if (existing != null) {
+            return existing;
+        }
+        Certificate certificate;
+        try {
+            certificate = certificateRepository.save(Certificate.builder()
+                    .enrollment(enrollmentRepository.getReferenceById(enrollmentId))
+                    .status(CertificateStatus.PENDING)
+                    .completedAt(completedAt)
+                    .requestedAt(LocalDateTime.now())
+                    .build());
+        } catch (DataIntegrityViolationException e) {
+            // Requested concurrently (event and download, or two nodes); the unique enrollment wins once
+            return certificateRepository.findByEnrollmentId(enrollmentId).orElseThrow(() -> e);
+        }
+        requested.increment();
+        submit(certificate.getId());
+        return certificate;
+    }
+
+    /**
+     * The certificate of the student's completed enrollment, requesting it if it was never generated
+     * and retrying it if generation gave up
+     */
+    public Certificate findForStudent(Long studentId, Long enrollmentId) {
+        Enrollment enrollment = enrollmentRepository.findById(enrollmentId)
+                .filter(e -> e.getStudent().getId().equals(studentId))
+                .orElseThrow(() -> new ResourceNotFoundException("Enrollment not found"));
+        if (enrollment.getStatus() != EnrollmentStatus.COMPLETED) {
+            throw new BadRequestException("Course is not completed yet");
+        }
+        Certificate certificate = request(enrollmentId, LocalDateTime.now());
+        if (certificate.getStatus() == CertificateStatus.FAILED) {
+            certificate.setStatus(CertificateStatus.PENDING);
+            certificate.setAttempts(0);
+            certificate.setRequestedAt(LocalDateTime.now());
+            certificate = certificateRepository.save(certificate);
+            submit(certificate.getId());
+        }
+        return certificate;
+    }
+
+    /**
+     * Fills the worker queue from PENDING rows and re-queues rows abandoned by a dead worker;
+     * returns the number handed to the pool
+     */
+    public int pumpPending() {
+        int requeued = certificateRepository.requeueStuck(CertificateStatus.GENERATING, CertificateStatus.PENDING,
+                LocalDateTime.now().minus(stuckAfter));
+        if (requeued > 0) {
+            log.warn("⚠️ Re-queued {} certificates left in generation", requeued);
+        }
+        int room = pool.getQueue().remainingCapacity();
+        if (room == 0) {
+            return 0;
+        }
+        int submitted = 0;
+        for (Long id : certificateRepository.findIdsByStatus(CertificateStatus.PENDING, PageRequest.ofSize(room))) {
+            if (submit(id)) {
+                submitted++;
+            }
+        }
+        return submitted;
+    }
+
+    private boolean submit(Long id) {
+        if (!inFlight.add(id)) {
+            return false;
+        }
+        try {
+            pool.execute(() -> generate(id));
+            return true;
+        } catch (RejectedExecutionException e) {
+            // The row stays PENDING in the table
+            inFlight.remove(id);
+            rejected.increment();
+            backlog.set(true);
+            return false;
+        }
+    }
+
+    void generate(Long id) {
+        if (running.getAndIncrement() == 0) {
+            burstStartNanos = System.nanoTime();
+            burstStartGenerated = generated.sum();
+        }
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            if (certificateRepository.claim(id, CertificateStatus.PENDING, CertificateStatus.GENERATING, now) == 0) {
+                return;
+            }
+            claimed.increment();
+            Certificate certificate = certificateRepository.findWithEnrollmentById(id).orElse(null);
+            if (certificate == null) {
+                return;
+            }
+            long latency = Duration.between(certificate.getRequestedAt(), now).toMillis();
+            queueLatencyMillis.add(latency);
+            maxQueueLatencyMillis.accumulate(latency);
+            try {
+                store(certificate);
+            } catch (RuntimeException e) {
+                fail(certificate, e);
+            }
+        } catch (RuntimeException e) {
+            log.error("❌ Certificate {} could not be processed", id, e);
+        } finally {
+            inFlight.remove(id);
+            if (running.decrementAndGet() == 0) {
+                long nanos = Math.max(1, System.nanoTime() - burstStartNanos);
+                lastBurstPerSecond = (generated.sum() - burstStartGenerated) * 1_000_000_000L / nanos;
+            }
+            if (backlog.compareAndSet(true, false)) {
+                pumpPending();
+            }
+        }
+    }
+
+    private void store(Certificate certificate) {
+        Enrollment enrollment = certificate.getEnrollment();
+        LocalDateTime completedAt = certificate.getCompletedAt() != null ? certificate.getCompletedAt() : certificate.getRequestedAt();
+
+        long start = System.nanoTime();
+        byte[] pdf = CertificatePdfRenderer.render(enrollment.getStudent().getFullName(),
+                enrollment.getCourse().getTitle(), completedAt.toLocalDate(), number(certificate));
+        long rendered = System.nanoTime();
+        renderNanos.add(rendered - start);
+
+        // A fresh name per attempt; the storage GC removes files of attempts that never got saved
+        String filename = "certificate-" + enrollment.getId() + "-" + UUID.randomUUID() + ".pdf";
+        S3FileResponse stored = fileStorageService.storeFile(filename, pdf, CONTENT_TYPE);
+        storeNanos.add(System.nanoTime() - rendered);
+
+        certificate.setStorageKey(stored.getKey());
+        certificate.setSizeBytes((long) pdf.length);
+        certificate.setStatus(CertificateStatus.READY);
+        certificate.setLastError(null);
+        certificate.setGeneratedAt(LocalDateTime.now());
+        certificateRepository.save(certificate);
+        generated.increment();
+        bytesGenerated.add(pdf.length);
+    }
+
+    private void fail(Certificate certificate, RuntimeException e) {
+        boolean giveUp = certificate.getAttempts() >= maxAttempts;
+        certificate.setStatus(giveUp ? CertificateStatus.FAILED : CertificateStatus.PENDING);
+        certificate.setLastError(truncate(e.getMessage()));
+        certificateRepository.save(certificate);
+        if (giveUp) {
+            failed.increment();
+            log.error("❌ Certificate {} failed after {} attempts", certificate.getId(), certificate.getAttempts(), e);
+        } else {
+            // Picked up again by the next pump
+            retried.increment();
+            log.warn("⚠️ Certificate {} attempt {} failed: {}", certificate.getId(), certificate.getAttempts(), e.getMessage());
+        }
+    }
+
+    static String number(Certificate certificate) {
+        return String.format("LMS-%08d", certificate.getId());
+    }
+
+    private static String truncate(String error) {
+        return error == null || error.length() <= 1000 ? error : error.substring(0, 1000);
+    }
+
+    public Map<String, Object> getStats() {
+        long count = generated.sum();
+        long claims = claimed.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("requested", requested.sum());
+        stats.put("generated", count);
+        stats.put("retried", retried.sum());
+        stats.put("failed", failed.sum());
+        stats.put("rejectedByPool", rejected.sum());
+        stats.put("pendingRows", certificateRepository.countByStatus(CertificateStatus.PENDING));
+        stats.put("poolActive", pool.getActiveCount());
+        stats.put("poolQueued", pool.getQueue().size());
+        stats.put("avgQueueLatencyMillis", claims == 0 ? 0 : queueLatencyMillis.sum() / claims);
+        stats.put("maxQueueLatencyMillis", maxQueueLatencyMillis.get());
+        stats.put("avgRenderMicros", count == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(renderNanos.sum()) / count);
+        stats.put("avgStoreMillis", count == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(storeNanos.sum()) / count);
+        stats.put("bytesGenerated", bytesGenerated.sum());
+        stats.put("lastBurstPerSecond", lastBurstPerSecond);
+        return stats;
+    }
+
+    /**
+     * Lets running generations finish (up to a few seconds); queued ids stay PENDING in the table
+     */
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+        try {
+            pool.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.lms.service;
+
+import com.example.lms.repository.CertificateRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Generated certificate PDFs: Certificate.storageKey is an S3 key (uploads/...) or a local filename
+ */
+@Component
+@RequiredArgsConstructor
+public class CertificateStorageKeySource implements StorageKeySource {
+
+    private static final int PAGE_SIZE = 5000;
+
+    private final CertificateRepository certificateRepository;
+
+    @Override
+    public long estimateCount() {
+        return certificateRepository.count();
+    }
+
+    @Override
+    public void forEachKey(Consumer<String> consumer) {
+        Pageable page = PageRequest.ofSize(PAGE_SIZE);
+        String after = "";
+        List<String> keys;
+        do {
+            keys = certificateRepository.findStorageKeysAfter(after, page);
+            keys.forEach(consumer);
+            if (!keys.isEmpty()) {
+                after = keys.get(keys.size() - 1);
+            }
+        } while (keys.size() == PAGE_SIZE);
+    }
+
+    @Override
+    public Set<String> findReferenced(Collection<String> keys) {
+        return new HashSet<>(certificateRepository.findExistingStorageKeys(keys));
+    }
+}
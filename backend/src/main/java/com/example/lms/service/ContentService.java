@@ -25,7 +25,7 @@ public class ContentService {
         return contentRepo.save(content);
     }
     public List<Content> getContentsByCourseId(Long courseId) {
-        return contentRepo.findByCourseId(courseId);
+        return contentRepo.findByCourseIdOrderByOrderIndex(courseId);
     }
 
     public void deleteContent(Long id) {
@@ -0,0 +1,49 @@
+package com.example.lms.service;
+
+import com.example.lms.repository.ContentRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Lesson files: Content.s3Key is an S3 key (uploads/...) or a local filename
+ */
+@Component
+@RequiredArgsConstructor
+public class ContentStorageKeySource implements StorageKeySource {
+
+    private static final int PAGE_SIZE = 5000;
+
+    private final ContentRepository contentRepository;
+
+    @Override
+    public long estimateCount() {
+        return contentRepository.count();
+    }
+
+    @Override
+    public void forEachKey(Consumer<String> consumer) {
+        Pageable page = PageRequest.ofSize(PAGE_SIZE);
+        String after = "";
+        List<String> keys;
+        do {
+            keys = contentRepository.findS3KeysAfter(after, page);
+            keys.forEach(consumer);
+            if (!keys.isEmpty()) {
+                after = keys.get(keys.size() - 1);
+            }
+        } while (keys.size() == PAGE_SIZE);
+    }
+
+    @Override
+    public Set<String> findReferenced(Collection<String> keys) {
+        return new HashSet<>(contentRepository.findExistingS3Keys(keys));
+    }
+}
@@ -20,7 +20,7 @@ public class CourseService {
     private final CourseRepository courseRepo;
     private final ContentService contentService;
     private final EnrollmentService enrollmentService;
-    private final S3Service s3Service;
+    private final FileStorageService fileStorageService;
 
 
     public Course createCourse(CourseRequest request, User instructor) {
@@ -48,11 +48,9 @@ public class CourseService {
         var contents = contentService.getContentsByCourse(course);
         for (var c : contents) {
             try {
-                if (c.getS3Key() != null) {
-                    s3Service.deleteFile(c.getS3Key());
-                }
+                fileStorageService.deleteFile(c.getS3Key());
             } catch (Exception e) {
-                System.err.println("⚠️ Failed to delete S3 file: " + e.getMessage());
+                System.err.println("⚠️ Failed to delete file: " + e.getMessage());
             }
             contentService.deleteContent(c.getId());
         }
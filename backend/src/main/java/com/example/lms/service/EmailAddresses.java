@@ -0,0 +1,26 @@
+package com.example.lms.service;
+
+import java.util.regex.Pattern;
+
+/**
+ * The address syntax accepted for accounts and used as an SMTP recipient.
+ * Deliberately narrower than RFC 5321: valid addresses can go into SMTP commands and mail
+ * headers as is, since CR/LF would start a new command or header, and '<' or '>' would end
+ * the address early.
+ */
+public final class EmailAddresses {
+
+    public static final int MAX_LENGTH = 254;
+
+    // Dot-atom local part and dotted host name; rejects whitespace, control characters, <, > and quotes
+    private static final Pattern ADDRESS = Pattern.compile(
+            "[A-Za-z0-9!#$%&'*+/=?^_`{|}~-]+(\\.[A-Za-z0-9!#$%&'*+/=?^_`{|}~-]+)*"
+                    + "@[A-Za-z0-9]([A-Za-z0-9-]*[A-Za-z0-9])?(\\.[A-Za-z0-9]([A-Za-z0-9-]*[A-Za-z0-9])?)+");
+
+    private EmailAddresses() {
+    }
+
+    public static boolean isValid(String address) {
+        return address != null && address.length() <= MAX_LENGTH && ADDRESS.matcher(address).matches();
+    }
+}
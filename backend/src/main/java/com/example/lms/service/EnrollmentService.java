@@ -46,6 +46,14 @@ public class EnrollmentService {
         return enrollmentRepository.findByStudentAndCourse(student, course);
     }
 
+    public List<Enrollment> findByStudentId(Long studentId) {
+        return enrollmentRepository.findByStudentId(studentId);
+    }
+
+    public Optional<Enrollment> findByStudentIdAndCourseId(Long studentId, Long courseId) {
+        return enrollmentRepository.findByStudentIdAndCourseId(studentId, courseId);
+    }
+
     public List<Enrollment> findAll() { return enrollmentRepository.findAll(); }
 
     public Enrollment updateStatus(Long enrollmentId, String status) {
@@ -0,0 +1,105 @@
+package com.example.lms.service;
+
+import com.example.lms.dto.S3FileResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+
+/**
+ * Storage facade that prefers S3 and falls back to local storage.
+ * S3 calls go through {@link S3CircuitBreaker}, so while S3 is unhealthy requests
+ * skip straight to the fallback instead of waiting for the SDK to time out.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class FileStorageService {
+
+    private final S3Service s3Service;
+    private final LocalFileStorageService localFileStorageService;
+    private final S3CircuitBreaker circuitBreaker;
+    private final S3DiskCache s3DiskCache;
+
+    public S3FileResponse uploadFile(MultipartFile file) {
+        if (circuitBreaker.tryAcquirePermission()) {
+            try {
+                S3FileResponse response = s3Service.uploadFile(file);
+                circuitBreaker.recordSuccess();
+                log.info("✅ File uploaded to S3: {}", response.getFileUrl());
+                return response;
+            } catch (RuntimeException e) {
+                circuitBreaker.recordError(e);
+                log.warn("⚠️ S3 upload failed, using local storage: {}", e.getMessage());
+            }
+        } else {
+            log.warn("⚠️ S3 circuit is {}, using local storage", circuitBreaker.getState());
+        }
+        return localFileStorageService.uploadFile(file);
+    }
+
+    /**
+     * Stores generated bytes under filename (uploads/filename in S3), falling back to local storage
+     */
+    public S3FileResponse storeFile(String filename, byte[] data, String contentType) {
+        if (circuitBreaker.tryAcquirePermission()) {
+            try {
+                S3FileResponse response = s3Service.uploadFile(S3Service.KEY_PREFIX + filename, data, contentType);
+                circuitBreaker.recordSuccess();
+                return response;
+            } catch (RuntimeException e) {
+                circuitBreaker.recordError(e);
+                log.warn("⚠️ S3 upload failed, using local storage: {}", e.getMessage());
+            }
+        }
+        try {
+            localFileStorageService.writeFile(filename, new ByteArrayInputStream(data));
+            return new S3FileResponse(LocalFileStorageService.fileUrlFor(filename), filename);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to store file locally", e);
+        }
+    }
+
+    /**
+     * Reads a stored file; S3 objects are served from the node-local disk cache
+     */
+    public Resource openFile(String key) {
+        if (isLocalKey(key)) {
+            return new ByteArrayResource(localFileStorageService.getFile(key));
+        }
+        return s3DiskCache.open(key);
+    }
+
+    public void deleteFile(String key) {
+        if (key == null) {
+            return;
+        }
+        if (isLocalKey(key)) {
+            localFileStorageService.deleteFile(key);
+            return;
+        }
+        s3DiskCache.invalidate(key);
+        if (!circuitBreaker.tryAcquirePermission()) {
+            throw new RuntimeException("S3 delete skipped: circuit is " + circuitBreaker.getState());
+        }
+        try {
+            s3Service.deleteFile(key);
+            circuitBreaker.recordSuccess();
+        } catch (RuntimeException e) {
+            circuitBreaker.recordError(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Keys written by the local fallback do not carry the S3 prefix
+     */
+    public static boolean isLocalKey(String key) {
+        return !key.startsWith(S3Service.KEY_PREFIX);
+    }
+}
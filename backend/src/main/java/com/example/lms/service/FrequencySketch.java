@@ -0,0 +1,70 @@
+package com.example.lms.service;
+
+/**
+ * Count-min sketch with 4-bit style saturating counters, used by {@link HotFileCache}
+ * to estimate how often a key has been requested recently (the "TinyLFU" part of W-TinyLFU).
+ * Counters are halved once enough increments have been seen, so old popularity fades out.
+ * Not thread-safe: callers synchronize.
+ */
+class FrequencySketch {
+
+    private static final int DEPTH = 4;
+    private static final int MAX_COUNT = 15;
+    private static final int[] SEEDS = {0x9E3779B9, 0x85EBCA6B, 0xC2B2AE35, 0x27D4EB2F};
+
+    private final int[][] table;
+    private final int mask;
+    private final int resetThreshold;
+    private int additions;
+
+    FrequencySketch(int expectedKeys) {
+        int width = Integer.highestOneBit(Math.max(16, expectedKeys - 1) << 1);
+        this.table = new int[DEPTH][width];
+        this.mask = width - 1;
+        this.resetThreshold = width * 10;
+    }
+
+    void increment(String key) {
+        int hash = spread(key.hashCode());
+        boolean added = false;
+        for (int row = 0; row < DEPTH; row++) {
+            int index = indexOf(hash, row);
+            if (table[row][index] < MAX_COUNT) {
+                table[row][index]++;
+                added = true;
+            }
+        }
+        if (added && ++additions >= resetThreshold) {
+            reset();
+        }
+    }
+
+    int frequency(String key) {
+        int hash = spread(key.hashCode());
+        int min = MAX_COUNT;
+        for (int row = 0; row < DEPTH; row++) {
+            min = Math.min(min, table[row][indexOf(hash, row)]);
+        }
+        return min;
+    }
+
+    private void reset() {
+        for (int[] row : table) {
+            for (int i = 0; i < row.length; i++) {
+                row[i] >>>= 1;
+            }
+        }
+        additions /= 2;
+    }
+
+    private int indexOf(int hash, int row) {
+        int h = (hash + SEEDS[row]) * SEEDS[row];
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    private static int spread(int h) {
+        h ^= h >>> 17;
+        h *= 0xED5AD4BB;
+        return h ^ (h >>> 11);
+    }
+}
@@ -0,0 +1,223 @@
+package com.example.lms.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Optional, size-bounded cache of hot file bytes served from /uploads.
+ *
+ * File contents are held in direct ByteBuffers, so the bytes live outside the Java heap
+ * and do not add to GC pause times. Eviction follows W-TinyLFU: new entries land in a small
+ * LRU window, and when they leave it they are only admitted to the main LRU region if they
+ * have been requested more often than the entries they would displace.
+ *
+ * A reader that misses takes {@link #generation(String)} before reading the file and passes it to
+ * {@link #put(String, byte[], long)}; an invalidation in between (file replaced or deleted) bumps
+ * the generation, so the stale bytes are not cached after the invalidation.
+ */
+@Component
+@Slf4j
+public class HotFileCache {
+
+    private final boolean enabled;
+    private final long maxBytes;
+    private final long maxEntryBytes;
+    private final long windowMaxBytes;
+    private final long mainMaxBytes;
+
+    // Both regions are access-ordered, so iteration starts at the least recently used entry
+    private final LinkedHashMap<String, ByteBuffer> window = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<String, ByteBuffer> main = new LinkedHashMap<>(16, 0.75f, true);
+    private final FrequencySketch sketch;
+    private long windowBytes;
+    private long mainBytes;
+    // Invalidation counters striped by key hash; a stripe shared with another key only costs a skipped put
+    private final long[] generations = new long[256];
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder rejections = new LongAdder();
+
+    public HotFileCache(@Value("${storage.hot-cache.enabled:false}") boolean enabled,
+                        @Value("${storage.hot-cache.max-bytes:67108864}") long maxBytes,
+                        @Value("${storage.hot-cache.max-entry-bytes:8388608}") long maxEntryBytes) {
+        this.enabled = enabled;
+        this.maxBytes = maxBytes;
+        this.maxEntryBytes = Math.min(maxEntryBytes, maxBytes);
+        // 1% admission window as in W-TinyLFU, but never smaller than one maximum-sized entry
+        this.windowMaxBytes = Math.min(maxBytes, Math.max(maxBytes / 100, this.maxEntryBytes));
+        this.mainMaxBytes = maxBytes - windowMaxBytes;
+        this.sketch = new FrequencySketch((int) Math.min(1 << 20, Math.max(1024, maxBytes / 65536)));
+        if (enabled) {
+            log.info("✅ Hot file cache enabled: {} bytes max, {} bytes per entry", maxBytes, this.maxEntryBytes);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Returns a read-only view of the cached bytes, or null on a miss
+     */
+    public ByteBuffer get(String key) {
+        if (!enabled) {
+            return null;
+        }
+        ByteBuffer buffer;
+        synchronized (this) {
+            sketch.increment(key);
+            buffer = window.get(key);
+            if (buffer == null) {
+                buffer = main.get(key);
+            }
+        }
+        if (buffer == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return buffer.asReadOnlyBuffer();
+    }
+
+    /**
+     * Invalidation generation of key, to be read before the bytes passed to {@link #put} are read
+     */
+    public synchronized long generation(String key) {
+        return generations[stripe(key)];
+    }
+
+    /**
+     * Caches bytes read at the given generation, unless key was invalidated since
+     */
+    public void put(String key, byte[] data, long generation) {
+        if (!enabled || data.length > maxEntryBytes || !acceptsPut(key, generation)) {
+            return;
+        }
+        // Copy off-heap outside the lock
+        ByteBuffer buffer = ByteBuffer.allocateDirect(data.length);
+        buffer.put(data).flip();
+
+        synchronized (this) {
+            if (!acceptsPut(key, generation)) {
+                return;
+            }
+            window.put(key, buffer);
+            windowBytes += data.length;
+            while (windowBytes > windowMaxBytes) {
+                Map.Entry<String, ByteBuffer> candidate = window.entrySet().iterator().next();
+                window.remove(candidate.getKey());
+                windowBytes -= candidate.getValue().capacity();
+                admitToMain(candidate.getKey(), candidate.getValue());
+            }
+        }
+    }
+
+    void put(String key, byte[] data) {
+        put(key, data, generation(key));
+    }
+
+    public synchronized void invalidate(String key) {
+        generations[stripe(key)]++;
+        ByteBuffer removed = window.remove(key);
+        if (removed != null) {
+            windowBytes -= removed.capacity();
+        }
+        removed = main.remove(key);
+        if (removed != null) {
+            mainBytes -= removed.capacity();
+        }
+    }
+
+    private synchronized boolean acceptsPut(String key, long generation) {
+        return generations[stripe(key)] == generation && !window.containsKey(key) && !main.containsKey(key);
+    }
+
+    private int stripe(String key) {
+        return (key.hashCode() & 0x7fffffff) % generations.length;
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public double getHitRatio() {
+        long h = hits.sum();
+        long total = h + misses.sum();
+        return total == 0 ? 0.0 : (double) h / total;
+    }
+
+    public synchronized long getBytesResident() {
+        return windowBytes + mainBytes;
+    }
+
+    public synchronized int getEntryCount() {
+        return window.size() + main.size();
+    }
+
+    public Map<String, Object> getStats() {
+        return Map.of(
+                "enabled", enabled,
+                "maxBytes", maxBytes,
+                "bytesResident", getBytesResident(),
+                "entries", getEntryCount(),
+                "hits", getHitCount(),
+                "misses", getMissCount(),
+                "hitRatio", getHitRatio(),
+                "evictions", evictions.sum(),
+                "admissionRejections", rejections.sum()
+        );
+    }
+
+    /**
+     * TinyLFU admission: a candidate leaving the window only displaces main entries
+     * if it is estimated to be more popular than every entry it would push out.
+     */
+    private void admitToMain(String key, ByteBuffer buffer) {
+        long needed = mainBytes + buffer.capacity() - mainMaxBytes;
+        if (needed <= 0) {
+            main.put(key, buffer);
+            mainBytes += buffer.capacity();
+            return;
+        }
+
+        int candidateFrequency = sketch.frequency(key);
+        List<String> victims = new ArrayList<>();
+        long freed = 0;
+        Iterator<Map.Entry<String, ByteBuffer>> it = main.entrySet().iterator();
+        while (freed < needed && it.hasNext()) {
+            Map.Entry<String, ByteBuffer> victim = it.next();
+            if (sketch.frequency(victim.getKey()) >= candidateFrequency) {
+                rejections.increment();
+                return;
+            }
+            victims.add(victim.getKey());
+            freed += victim.getValue().capacity();
+        }
+        if (freed < needed) {
+            rejections.increment();
+            return;
+        }
+
+        for (String victim : victims) {
+            mainBytes -= main.remove(victim).capacity();
+            evictions.increment();
+        }
+        main.put(key, buffer);
+        mainBytes += buffer.capacity();
+    }
+}
@@ -2,32 +2,53 @@ package com.example.lms.service;
 
 import com.example.lms.dto.S3FileResponse;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 /**
- * Local file storage service for development/testing when S3 is not available
+ * Local file storage service for development/testing when S3 is not available.
+ *
+ * Files are spread over two levels of hash-prefix directories (uploads/ab/cd/filename),
+ * so no single directory grows to hundreds of thousands of entries. The stored key is
+ * still just the filename; its shard is derived from the name on every access.
  */
 @Service
 @Slf4j
 public class LocalFileStorageService {
 
-    private static final String UPLOAD_DIR = "uploads";
+    private static final String TEMP_SUFFIX = ".tmp";
+    // In-progress chunked uploads; same filesystem as the shards so finalizing is a rename
+    private static final String PARTIAL_DIR = ".partial";
+
+    private final Path uploadDir;
+    private final HotFileCache hotFileCache;
+
+    public LocalFileStorageService(@Value("${storage.local.dir:uploads}") String uploadDir,
+                                   HotFileCache hotFileCache) {
+        this.uploadDir = Paths.get(uploadDir);
+        this.hotFileCache = hotFileCache;
 
-    public LocalFileStorageService() {
         // Create uploads directory if it doesn't exist
         try {
-            Path uploadPath = Paths.get(UPLOAD_DIR);
-            if (!Files.exists(uploadPath)) {
-                Files.createDirectories(uploadPath);
-                log.info("✅ Created uploads directory: {}", uploadPath.toAbsolutePath());
+            if (!Files.exists(this.uploadDir)) {
+                Files.createDirectories(this.uploadDir);
+                log.info("✅ Created uploads directory: {}", this.uploadDir.toAbsolutePath());
             }
         } catch (IOException e) {
             log.error("❌ Failed to create uploads directory", e);
@@ -40,12 +61,14 @@ public class LocalFileStorageService {
             String originalFilename = file.getOriginalFilename();
             String uniqueFilename = UUID.randomUUID().toString() + "-" + originalFilename;
 
-            // Save file locally
-            Path targetPath = Paths.get(UPLOAD_DIR, uniqueFilename);
-            Files.copy(file.getInputStream(), targetPath, StandardCopyOption.REPLACE_EXISTING);
+            // Stream to a temp file in the shard, then rename it into place
+            Path targetPath;
+            try (InputStream in = file.getInputStream()) {
+                targetPath = writeFile(uniqueFilename, in);
+            }
 
             // Create a local URL (for development)
-            String fileUrl = "http://localhost:8080/uploads/" + uniqueFilename;
+            String fileUrl = fileUrlFor(uniqueFilename);
 
             log.info("✅ File saved locally: {}", targetPath.toAbsolutePath());
             log.info("📁 Access URL: {}", fileUrl);
@@ -58,10 +81,61 @@ public class LocalFileStorageService {
         }
     }
 
+    /**
+     * Writes a stream under the given filename. Data goes to a temp file in the target shard,
+     * is fsynced, and is atomically renamed, so readers never observe a partially written file.
+     */
+    public Path writeFile(String filename, InputStream in) throws IOException {
+        Path target = resolve(filename);
+        Files.createDirectories(target.getParent());
+        Path temp = target.resolveSibling(filename + "." + UUID.randomUUID() + TEMP_SUFFIX);
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+                in.transferTo(Channels.newOutputStream(channel));
+                channel.force(true);
+            }
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            hotFileCache.invalidate(filename);
+            return target;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Location of the partial file that collects the chunks of a resumable upload
+     */
+    public Path partialFile(String sessionId) throws IOException {
+        Path dir = Files.createDirectories(uploadDir.resolve(PARTIAL_DIR));
+        return dir.resolve(sessionId + ".part");
+    }
+
+    /**
+     * Moves a fully written partial file into its shard under the given filename.
+     * The data is fsynced and renamed in place, never copied or re-read.
+     */
+    public S3FileResponse adoptFile(Path source, String filename) {
+        try {
+            try (FileChannel channel = FileChannel.open(source, StandardOpenOption.WRITE)) {
+                channel.force(true);
+            }
+            Path target = resolve(filename);
+            Files.createDirectories(target.getParent());
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            hotFileCache.invalidate(filename);
+            log.info("✅ File saved locally: {}", target.toAbsolutePath());
+            return new S3FileResponse(fileUrlFor(filename), filename);
+        } catch (IOException e) {
+            log.error("❌ Failed to finalize local file: {}", filename, e);
+            throw new RuntimeException("Failed to store file locally", e);
+        }
+    }
+
     public void deleteFile(String filename) {
         try {
-            Path filePath = Paths.get(UPLOAD_DIR, filename);
+            Path filePath = locate(filename);
             Files.deleteIfExists(filePath);
+            hotFileCache.invalidate(filename);
             log.info("✅ File deleted: {}", filename);
         } catch (IOException e) {
             log.error("❌ Failed to delete file: {}", filename, e);
@@ -71,12 +145,125 @@ public class LocalFileStorageService {
 
     public byte[] getFile(String filename) {
         try {
-            Path filePath = Paths.get(UPLOAD_DIR, filename);
+            Path filePath = locate(filename);
             return Files.readAllBytes(filePath);
         } catch (IOException e) {
             log.error("❌ Failed to read file: {}", filename, e);
             throw new RuntimeException("File not found", e);
         }
     }
-}
 
+    /**
+     * Moves files left in the flat uploads/ directory by older versions into their shards.
+     * Safe to run repeatedly; returns the number of files moved. A file whose shard copy already
+     * exists (left by an interrupted earlier run) is dropped if the sizes match; otherwise both
+     * copies are kept and the clash is logged for an operator to resolve.
+     */
+    public int migrateFlatFiles() {
+        int moved = 0;
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(uploadDir, Files::isRegularFile)) {
+            for (Path flat : stream) {
+                String filename = flat.getFileName().toString();
+                Path target = resolve(filename);
+                Files.createDirectories(target.getParent());
+                try {
+                    // Rename would silently replace an existing target on POSIX, so check first
+                    if (Files.exists(target)) {
+                        throw new FileAlreadyExistsException(target.toString());
+                    }
+                    Files.move(flat, target, StandardCopyOption.ATOMIC_MOVE);
+                } catch (FileAlreadyExistsException e) {
+                    resolveExistingShardCopy(flat, target);
+                    continue;
+                }
+                moved++;
+                if (moved % 10_000 == 0) {
+                    log.info("📦 Migrated {} files to sharded layout", moved);
+                }
+            }
+        } catch (IOException e) {
+            log.error("❌ Failed to migrate flat upload files after {} moves", moved, e);
+            throw new RuntimeException("Failed to migrate upload files", e);
+        }
+        return moved;
+    }
+
+    private void resolveExistingShardCopy(Path flat, Path target) throws IOException {
+        if (Files.size(flat) == Files.size(target)) {
+            Files.delete(flat);
+            log.info("🧹 Removed flat copy of already migrated file: {}", flat.getFileName());
+        } else {
+            log.warn("⚠️ Skipping {}: a different file of that name already exists at {}", flat.getFileName(), target);
+        }
+    }
+
+    /**
+     * Names of the first-level shard directories, in order
+     */
+    public List<String> shardNames() throws IOException {
+        try (Stream<Path> dirs = Files.list(uploadDir)) {
+            return dirs.filter(Files::isDirectory)
+                    .map(dir -> dir.getFileName().toString())
+                    .filter(name -> name.matches("[0-9a-f]{2}"))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    /**
+     * Stored files under one first-level shard, or the legacy flat files when shard is null.
+     * Temp files of in-flight writes are excluded; the caller must close the stream.
+     */
+    public Stream<Path> storedFiles(String shard) throws IOException {
+        Stream<Path> files = shard == null ? Files.list(uploadDir) : Files.walk(uploadDir.resolve(shard), 2);
+        return files.filter(Files::isRegularFile)
+                .filter(path -> !path.getFileName().toString().endsWith(TEMP_SUFFIX));
+    }
+
+    /**
+     * Deletes a file found by {@link #storedFiles}; returns false if it was already gone
+     */
+    public boolean deleteStoredFile(Path path) throws IOException {
+        boolean deleted = Files.deleteIfExists(path);
+        hotFileCache.invalidate(path.getFileName().toString());
+        return deleted;
+    }
+
+    /**
+     * Sharded location of a file: uploads/{h1}/{h2}/{filename}
+     */
+    public Path resolve(String filename) {
+        int h = spread(filename.hashCode());
+        return uploadDir
+                .resolve(String.format("%02x", (h >>> 24) & 0xFF))
+                .resolve(String.format("%02x", (h >>> 16) & 0xFF))
+                .resolve(filename);
+    }
+
+    /**
+     * Public URL of a locally stored file
+     */
+    public static String fileUrlFor(String filename) {
+        return "http://localhost:8080/uploads/" + filename;
+    }
+
+    /**
+     * Sharded path if present, otherwise the legacy flat path for files not yet migrated
+     */
+    private Path locate(String filename) {
+        Path sharded = resolve(filename);
+        if (Files.exists(sharded)) {
+            return sharded;
+        }
+        Path flat = uploadDir.resolve(filename);
+        return Files.exists(flat) ? flat : sharded;
+    }
+
+    private static int spread(int h) {
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        h *= 0xC2B2AE35;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.lms.service;
+
+import com.example.lms.dto.Notification;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.List;
+
+/**
+ * Used when no SMTP server is configured (development): messages are only logged
+ */
+@Slf4j
+public class LoggingNotificationSender implements NotificationSender {
+
+    @Override
+    public List<Failure> sendBatch(List<Notification> batch) {
+        for (Notification notification : batch) {
+            log.debug("📧 [{}] {}", notification.recipient(), notification.subject());
+        }
+        return List.of();
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.lms.service;
+
+import com.example.lms.dto.Notification;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Transport for outgoing emails. Implementations receive whole batches so they can reuse
+ * one connection for many messages.
+ */
+public interface NotificationSender {
+
+    /**
+     * A message of the batch that was not delivered; permanent failures are not retried
+     */
+    record Failure(Notification notification, String error, boolean permanent) {}
+
+    /**
+     * Sends the batch and returns the messages that failed; an empty list means all were accepted
+     */
+    List<Failure> sendBatch(List<Notification> batch);
+
+    default Map<String, Object> getStats() {
+        return Map.of();
+    }
+}
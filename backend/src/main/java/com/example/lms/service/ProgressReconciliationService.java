@@ -0,0 +1,81 @@
+package com.example.lms.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Recomputes the cached Enrollment.progressPercentage in the database.
+ *
+ * The cache is only refreshed when a student records progress, so it drifts when lessons are
+ * added to or removed from a course. Courses are walked in id chunks and each chunk is fixed with
+ * one UPDATE whose correlated counts (completed lessons / lessons in the course) are evaluated by
+ * the database. Rows whose stored value already matches are not written, so a run over a
+ * consistent table changes nothing.
+ */
+@Service
+@Slf4j
+public class ProgressReconciliationService {
+
+    // Same rounding as ProgressService: percent with two decimals
+    private static final String EXPECTED = "CASE WHEN (SELECT COUNT(*) FROM contents c WHERE c.course_id = e.course_id) = 0 THEN 0 "
+            + "ELSE ROUND(100.0 * (SELECT COUNT(*) FROM progress p JOIN contents c ON c.id = p.content_id "
+            + "WHERE p.enrollment_id = e.id AND c.course_id = e.course_id AND p.percent_complete >= 100) "
+            + "/ (SELECT COUNT(*) FROM contents c WHERE c.course_id = e.course_id), 2) END";
+
+    private static final String RECONCILE_CHUNK = "UPDATE enrollments e SET progress_percentage = " + EXPECTED
+            + " WHERE e.course_id > ? AND e.course_id <= ?"
+            + " AND (e.progress_percentage IS NULL OR ABS(e.progress_percentage - " + EXPECTED + ") >= 0.005)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int chunkSize;
+
+    private volatile Map<String, Object> lastRun = Map.of();
+
+    public ProgressReconciliationService(JdbcTemplate jdbcTemplate,
+                                         @Value("${progress.reconcile.chunk-size:200}") int chunkSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.chunkSize = Math.max(1, chunkSize);
+    }
+
+    /**
+     * Fixes every drifted percentage; returns the number of enrollments corrected
+     */
+    public long reconcileAll() {
+        long start = System.nanoTime();
+        long corrected = 0;
+        int chunks = 0;
+        long afterCourseId = 0;
+        while (true) {
+            List<Long> courseIds = jdbcTemplate.queryForList(
+                    "SELECT id FROM courses WHERE id > ? ORDER BY id LIMIT ?", Long.class, afterCourseId, chunkSize);
+            if (courseIds.isEmpty()) {
+                break;
+            }
+            long lastCourseId = courseIds.get(courseIds.size() - 1);
+            // Auto-committed per chunk, so row locks are held for one chunk at a time
+            corrected += jdbcTemplate.update(RECONCILE_CHUNK, afterCourseId, lastCourseId);
+            chunks++;
+            afterCourseId = lastCourseId;
+        }
+
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("corrected", corrected);
+        stats.put("chunks", chunks);
+        stats.put("durationMillis", millis);
+        lastRun = stats;
+        log.info("✅ Progress reconciliation corrected {} enrollments across {} course chunks in {} ms",
+                corrected, chunks, millis);
+        return corrected;
+    }
+
+    public Map<String, Object> getStats() {
+        return lastRun;
+    }
+}
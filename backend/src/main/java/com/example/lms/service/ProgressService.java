@@ -2,11 +2,17 @@ package com.example.lms.service;
 
 import com.example.lms.entity.Content;
 import com.example.lms.entity.Enrollment;
+import com.example.lms.entity.EnrollmentStatus;
 import com.example.lms.entity.Progress;
+import com.example.lms.event.EnrollmentCompletedEvent;
+import com.example.lms.event.EnrollmentEventBus;
 import com.example.lms.repository.EnrollmentRepository;
 import com.example.lms.repository.ProgressRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -19,7 +25,9 @@ public class ProgressService {
     private final ProgressRepository progressRepo;
     private final EnrollmentRepository enrollmentRepo;
     private final ContentService contentService;
+    private final EnrollmentEventBus enrollmentEventBus;
 
+    @Transactional
     public Progress updateProgress(Enrollment enrollment, Content content, Integer percentComplete){
         Optional<Progress> existing = progressRepo.findByEnrollmentAndContent(enrollment,content);
 
@@ -54,7 +62,7 @@ public class ProgressService {
 
         if (totalLessons == 0) {
             enrollment.setProgressPercentage(0.0);
-            enrollmentRepo.save(enrollment);
+            enrollmentRepo.updateProgressPercentage(enrollment.getId(), 0.0);
             return;
         }
 
@@ -73,11 +81,38 @@ public class ProgressService {
         progressPercentage = Math.round(progressPercentage * 100.0) / 100.0;
 
         enrollment.setProgressPercentage(progressPercentage);
-        enrollmentRepo.save(enrollment);
+        enrollmentRepo.updateProgressPercentage(enrollment.getId(), progressPercentage);
+
+        if (progressPercentage >= 100.0) {
+            completeEnrollment(enrollment);
+        }
 
         System.out.println("✅ Updated enrollment progress: " + completedLessons + "/" + totalLessons + " = " + progressPercentage + "%");
     }
 
+    /**
+     * ACTIVE -> COMPLETED as one conditional UPDATE, so only the first request reaching 100% wins
+     * and publishes the completion event, once the transaction has committed
+     */
+    private void completeEnrollment(Enrollment enrollment) {
+        if (enrollmentRepo.transitionStatus(enrollment.getId(), EnrollmentStatus.ACTIVE, EnrollmentStatus.COMPLETED) == 0) {
+            return;
+        }
+        enrollment.setStatus(EnrollmentStatus.COMPLETED);
+        EnrollmentCompletedEvent event = new EnrollmentCompletedEvent(enrollment.getId(),
+                enrollment.getStudent().getId(), enrollment.getCourse().getId(), LocalDateTime.now());
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enrollmentEventBus.publish(event);
+                }
+            });
+        } else {
+            enrollmentEventBus.publish(event);
+        }
+    }
+
     public List<Progress> getProgressByEnrollment(Enrollment enrollment){
         return progressRepo.findByEnrollment(enrollment);
     }
@@ -0,0 +1,128 @@
+package com.example.lms.service;
+
+import com.example.lms.entity.RefreshToken;
+import com.example.lms.entity.User;
+import com.example.lms.repository.RefreshTokenRepository;
+import com.example.lms.security.CustomUserDetails;
+import com.example.lms.security.JwtUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.UUID;
+
+/**
+ * Issues short-lived access tokens together with rotating refresh tokens.
+ * Refreshing only needs the refresh token, so it never re-runs BCrypt.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RefreshTokenService {
+
+    public record TokenPair(String accessToken, String refreshToken, long expiresInSeconds) {}
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final TokenRevocationService tokenRevocationService;
+    private final JwtUtil jwtUtil;
+    private final RoleRegistry roleRegistry;
+
+    @Value("${security.jwt.refresh-token-days:14}")
+    private long refreshTokenDays;
+
+    /**
+     * Starts a new token family, e.g. after a password login
+     */
+    @Transactional
+    public TokenPair issue(User user) {
+        return issue(user, UUID.randomUUID().toString());
+    }
+
+    /**
+     * Exchanges a refresh token for a new access token and a new refresh token.
+     * A token that was already used is treated as stolen: its whole family is revoked.
+     */
+    @Transactional(noRollbackFor = BadCredentialsException.class)
+    public TokenPair rotate(String rawToken) {
+        RefreshToken token = refreshTokenRepository.findByTokenHash(hash(rawToken))
+                .orElseThrow(() -> new BadCredentialsException("Invalid refresh token"));
+
+        if (token.getExpiresAt().isBefore(LocalDateTime.now())) {
+            throw new BadCredentialsException("Refresh token expired");
+        }
+        if (token.getUsedAt() != null || refreshTokenRepository.markUsed(token.getId(), LocalDateTime.now()) == 0) {
+            log.warn("🚨 Refresh token reuse detected for user {}, revoking token family", token.getUser().getId());
+            revokeFamily(token.getFamilyId());
+            throw new BadCredentialsException("Refresh token already used");
+        }
+        return issue(token.getUser(), token.getFamilyId());
+    }
+
+    /**
+     * Logout: revokes the refresh token's family and the access tokens issued with it
+     */
+    @Transactional
+    public void revoke(String rawToken) {
+        refreshTokenRepository.findByTokenHash(hash(rawToken))
+                .ifPresent(token -> revokeFamily(token.getFamilyId()));
+    }
+
+    @Transactional
+    public void deleteAllForUser(User user) {
+        refreshTokenRepository.deleteByUser(user);
+    }
+
+    public int purgeExpired() {
+        return refreshTokenRepository.deleteExpired(LocalDateTime.now());
+    }
+
+    private TokenPair issue(User user, String familyId) {
+        String accessTokenId = UUID.randomUUID().toString();
+        String accessToken = jwtUtil.generateToken(new CustomUserDetails(user, roleRegistry.roleNamesOf(user.getId())), accessTokenId);
+
+        byte[] bytes = new byte[32];
+        RANDOM.nextBytes(bytes);
+        String rawRefreshToken = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        LocalDateTime now = LocalDateTime.now();
+        refreshTokenRepository.save(RefreshToken.builder()
+                .tokenHash(hash(rawRefreshToken))
+                .user(user)
+                .familyId(familyId)
+                .accessTokenId(accessTokenId)
+                .createdAt(now)
+                .expiresAt(now.plusDays(refreshTokenDays))
+                .build());
+        return new TokenPair(accessToken, rawRefreshToken, jwtUtil.getAccessTokenTtlMillis() / 1000);
+    }
+
+    private void revokeFamily(String familyId) {
+        for (RefreshToken member : refreshTokenRepository.findByFamilyId(familyId)) {
+            // Access tokens are short-lived, so only ones issued within their lifetime still need revoking
+            LocalDateTime accessExpiry = member.getCreatedAt().plusNanos(jwtUtil.getAccessTokenTtlMillis() * 1_000_000);
+            tokenRevocationService.revoke(member.getAccessTokenId(), accessExpiry);
+        }
+        refreshTokenRepository.deleteByFamilyId(familyId);
+    }
+
+    private static String hash(String rawToken) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256")
+                    .digest(rawToken.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,295 @@
+package com.example.lms.service;
+
+import com.example.lms.dto.Notification;
+import com.example.lms.dto.ReminderDigest;
+import com.example.lms.entity.DeadLetterNotification;
+import com.example.lms.repository.DeadLetterNotificationRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Delivers reminder digests through a bounded queue drained by a few sender workers.
+ *
+ * Producers (the reminder partitions) block on a full queue, so reading enrollments never runs
+ * ahead of what the mail server accepts. Workers take up to batch-size messages at a time and
+ * hand them to the {@link NotificationSender} in one call, which sends them over one pooled
+ * connection. Transient failures are retried with exponential backoff; permanent failures and
+ * messages out of attempts are stored as {@link DeadLetterNotification}s.
+ */
+@Component
+@Slf4j
+public class ReminderDeliveryPipeline implements ReminderSender {
+
+    private final NotificationSender notificationSender;
+    private final DeadLetterNotificationRepository deadLetterRepository;
+    private final BlockingQueue<Notification> queue;
+    private final int workers;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final long retryBackoffMillis;
+    private final long flushTimeoutMillis;
+    private final List<Thread> workerThreads = new ArrayList<>();
+    private final ScheduledExecutorService retryScheduler;
+    private volatile boolean running;
+
+    // Messages accepted by send() that are not yet delivered or dead-lettered
+    private final AtomicLong pending = new AtomicLong();
+    private final Object drained = new Object();
+
+    private final LongAdder enqueued = new LongAdder();
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder deadLettered = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder producerBlockedNanos = new LongAdder();
+    private volatile long burstStartNanos;
+    private volatile long burstStartSent;
+    private volatile long lastBurstPerSecond;
+
+    public ReminderDeliveryPipeline(NotificationSender notificationSender,
+                                    DeadLetterNotificationRepository deadLetterRepository,
+                                    @Value("${notifications.queue-capacity:10000}") int queueCapacity,
+                                    @Value("${notifications.workers:4}") int workers,
+                                    @Value("${notifications.batch-size:50}") int batchSize,
+                                    @Value("${notifications.max-attempts:5}") int maxAttempts,
+                                    @Value("${notifications.retry-backoff-ms:2000}") long retryBackoffMillis,
+                                    @Value("${notifications.flush-timeout-seconds:600}") long flushTimeoutSeconds) {
+        this.notificationSender = notificationSender;
+        this.deadLetterRepository = deadLetterRepository;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+        this.workers = Math.max(1, workers);
+        this.batchSize = Math.max(1, batchSize);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.retryBackoffMillis = retryBackoffMillis;
+        this.flushTimeoutMillis = TimeUnit.SECONDS.toMillis(flushTimeoutSeconds);
+        this.retryScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "notification-retry");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        for (int i = 1; i <= workers; i++) {
+            Thread thread = new Thread(this::work, "notification-sender-" + i);
+            thread.setDaemon(true);
+            thread.start();
+            workerThreads.add(thread);
+        }
+    }
+
+    @Override
+    public void send(ReminderDigest digest) {
+        if (pending.getAndIncrement() == 0) {
+            burstStartNanos = System.nanoTime();
+            burstStartSent = sent.sum();
+        }
+        enqueued.increment();
+        enqueue(render(digest));
+    }
+
+    /**
+     * Waits until every accepted message has been delivered or dead-lettered
+     */
+    @Override
+    public void flush() {
+        long deadline = System.currentTimeMillis() + flushTimeoutMillis;
+        synchronized (drained) {
+            while (pending.get() > 0) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    log.warn("⚠️ Reminder delivery still has {} messages pending after {} ms",
+                            pending.get(), flushTimeoutMillis);
+                    return;
+                }
+                try {
+                    drained.wait(remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void enqueue(Notification notification) {
+        if (queue.offer(notification)) {
+            return;
+        }
+        // Queue is full: block the producer until the workers catch up
+        long start = System.nanoTime();
+        try {
+            queue.put(notification);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            done(1);
+            throw new IllegalStateException("Interrupted while queueing notification", e);
+        } finally {
+            producerBlockedNanos.add(System.nanoTime() - start);
+        }
+    }
+
+    private void work() {
+        List<Notification> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Notification first = queue.poll(500, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                deliver(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("❌ Notification worker failed on a batch of {}", batch.size(), e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void deliver(List<Notification> batch) {
+        batches.increment();
+        List<NotificationSender.Failure> failures;
+        try {
+            failures = notificationSender.sendBatch(List.copyOf(batch));
+        } catch (RuntimeException e) {
+            failures = batch.stream()
+                    .map(n -> new NotificationSender.Failure(n, String.valueOf(e.getMessage()), false))
+                    .toList();
+        }
+        int delivered = batch.size() - failures.size();
+        sent.add(delivered);
+        Set<Notification> failed = Collections.newSetFromMap(new IdentityHashMap<>());
+        failures.forEach(failure -> failed.add(failure.notification()));
+        for (Notification notification : batch) {
+            if (!failed.contains(notification)) {
+                settled(notification);
+            }
+        }
+        for (NotificationSender.Failure failure : failures) {
+            Notification notification = failure.notification();
+            if (failure.permanent() || notification.attempt() + 1 >= maxAttempts) {
+                deadLetter(failure);
+            } else {
+                retries.increment();
+                long delay = retryBackoffMillis << Math.min(notification.attempt(), 16);
+                retryScheduler.schedule(() -> enqueue(notification.nextAttempt()), delay, TimeUnit.MILLISECONDS);
+            }
+        }
+        done(delivered);
+    }
+
+    private void deadLetter(NotificationSender.Failure failure) {
+        Notification notification = failure.notification();
+        try {
+            deadLetterRepository.save(DeadLetterNotification.builder()
+                    .recipient(notification.recipient())
+                    .subject(notification.subject())
+                    .body(notification.body())
+                    .attempts(notification.attempt() + 1)
+                    .lastError(truncate(failure.error()))
+                    .failedAt(LocalDateTime.now())
+                    .build());
+        } catch (RuntimeException e) {
+            log.error("❌ Failed to store undeliverable notification for {}", notification.recipient(), e);
+        }
+        deadLettered.increment();
+        settled(notification);
+        log.warn("⚠️ Gave up on notification to {} after {} attempts: {}",
+                notification.recipient(), notification.attempt() + 1, failure.error());
+        done(1);
+    }
+
+    private static void settled(Notification notification) {
+        try {
+            notification.settled().run();
+        } catch (RuntimeException e) {
+            log.error("❌ Could not record settled notification to {}", notification.recipient(), e);
+        }
+    }
+
+    private void done(long count) {
+        if (count > 0 && pending.addAndGet(-count) == 0) {
+            long nanos = Math.max(1, System.nanoTime() - burstStartNanos);
+            lastBurstPerSecond = (sent.sum() - burstStartSent) * 1_000_000_000L / nanos;
+            synchronized (drained) {
+                drained.notifyAll();
+            }
+        }
+    }
+
+    static Notification render(ReminderDigest digest) {
+        List<String> titles = digest.courseTitles();
+        String subject = titles.size() == 1
+                ? "Continue learning: " + titles.get(0)
+                : "You have " + titles.size() + " courses waiting for you";
+        StringBuilder body = new StringBuilder("Hi,\n\nYour active courses:\n\n");
+        for (String title : titles) {
+            body.append("  - ").append(title).append('\n');
+        }
+        body.append("\nPick up where you left off today!\n");
+        return new Notification(digest.studentEmail(), subject, body.toString(), 0, digest.settled());
+    }
+
+    private static String truncate(String error) {
+        return error == null || error.length() <= 1000 ? error : error.substring(0, 1000);
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enqueued", enqueued.sum());
+        stats.put("sent", sent.sum());
+        stats.put("retries", retries.sum());
+        stats.put("deadLettered", deadLettered.sum());
+        stats.put("batches", batches.sum());
+        stats.put("pending", pending.get());
+        stats.put("queueDepth", queue.size());
+        stats.put("producerBlockedMillis", TimeUnit.NANOSECONDS.toMillis(producerBlockedNanos.sum()));
+        stats.put("lastBurstPerSecond", lastBurstPerSecond);
+        stats.put("sender", notificationSender.getStats());
+        return stats;
+    }
+
+    /**
+     * Lets queued messages go out (up to a few seconds), then stops the workers
+     */
+    @PreDestroy
+    public void shutdown() {
+        retryScheduler.shutdownNow();
+        running = false;
+        for (Thread thread : workerThreads) {
+            try {
+                thread.join(5000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            thread.interrupt();
+        }
+    }
+}
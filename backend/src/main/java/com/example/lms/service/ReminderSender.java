@@ -0,0 +1,17 @@
+package com.example.lms.service;
+
+import com.example.lms.dto.ReminderDigest;
+
+/**
+ * Delivers reminder digests; called concurrently from the reminder partitions
+ */
+public interface ReminderSender {
+
+    void send(ReminderDigest digest);
+
+    /**
+     * Blocks until everything passed to send has been delivered or given up on
+     */
+    default void flush() {
+    }
+}
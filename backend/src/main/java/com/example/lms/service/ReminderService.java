@@ -0,0 +1,266 @@
+package com.example.lms.service;
+
+import com.example.lms.dto.ReminderDigest;
+import com.example.lms.dto.ReminderTarget;
+import com.example.lms.entity.EnrollmentStatus;
+import com.example.lms.repository.EnrollmentRepository;
+import com.example.lms.repository.ReminderDeliveryRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Daily course reminders for active enrollments that have gone quiet: unfinished, and with no
+ * progress recorded for reminders.inactive-days (the filter is part of the page query, so
+ * recently active enrollments are never read).
+ *
+ * Students are split by id range into shards (one Quartz job each, so they spread over the cluster),
+ * and each shard into partitions processed in parallel on a bounded pool. Each partition walks its
+ * range with keyset-paged queries ordered by (student id, enrollment id) that project only the email
+ * and course title, so no entities are loaded and memory use is one page per partition. Because a
+ * student's courses come out adjacent, they are folded into one digest as the rows stream past.
+ *
+ * Every run has an id, and each digest that is delivered or dead-lettered is recorded against it
+ * in reminder_deliveries. The page query skips recorded students, so a retried or recovered shard
+ * only sends the digests its failed attempt had not settled.
+ */
+@Service
+@Slf4j
+public class ReminderService {
+
+    /**
+     * Student ids in (fromExclusive, toInclusive]
+     */
+    public record IdRange(long fromExclusive, long toInclusive) {}
+
+    private final EnrollmentRepository enrollmentRepository;
+    private final ReminderDeliveryRepository reminderDeliveryRepository;
+    private final ReminderSender reminderSender;
+    private final int partitions;
+    private final int pageSize;
+    private final Duration inactivity;
+    private final ExecutorService pool;
+
+    private volatile Map<String, Object> lastRun = Map.of();
+
+    public ReminderService(EnrollmentRepository enrollmentRepository,
+                           ReminderDeliveryRepository reminderDeliveryRepository,
+                           ReminderSender reminderSender,
+                           @Value("${reminders.partitions:8}") int partitions,
+                           @Value("${reminders.threads:4}") int threads,
+                           @Value("${reminders.page-size:1000}") int pageSize,
+                           @Value("${reminders.inactive-days:3}") long inactiveDays) {
+        this.enrollmentRepository = enrollmentRepository;
+        this.reminderDeliveryRepository = reminderDeliveryRepository;
+        this.reminderSender = reminderSender;
+        this.partitions = Math.max(1, partitions);
+        this.pageSize = pageSize;
+        this.inactivity = Duration.ofDays(inactiveDays);
+        AtomicInteger threadCount = new AtomicInteger();
+        this.pool = Executors.newFixedThreadPool(Math.max(1, threads), runnable -> {
+            Thread thread = new Thread(runnable, "reminder-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Reminds every student with an inactive enrollment, on this node; returns the number of digests sent
+     */
+    public long sendDailyReminders() {
+        List<IdRange> all = planShards(1);
+        if (all.isEmpty()) {
+            log.info("📧 No active enrollments to remind");
+            return 0;
+        }
+        return sendRange(System.currentTimeMillis(), all.get(0));
+    }
+
+    /**
+     * Splits the student ids with active enrollments into up to count equal-width shards
+     */
+    public List<IdRange> planShards(int count) {
+        Long minId = enrollmentRepository.findMinStudentIdByStatus(EnrollmentStatus.ACTIVE);
+        Long maxId = enrollmentRepository.findMaxStudentIdByStatus(EnrollmentStatus.ACTIVE);
+        if (minId == null) {
+            return List.of();
+        }
+        return split(new IdRange(minId - 1, maxId), count);
+    }
+
+    /**
+     * Sends the reminders of one student id range for the given run, split into partitions processed
+     * in parallel, and waits until they have been handed to the mail server
+     */
+    public long sendRange(long runId, IdRange range) {
+        long start = System.nanoTime();
+        LocalDateTime inactiveSince = LocalDateTime.now().minus(inactivity);
+        List<IdRange> parts = split(range, partitions);
+        List<Future<long[]>> futures = new ArrayList<>();
+        List<Long> durations = new ArrayList<>();
+        for (IdRange part : parts) {
+            futures.add(pool.submit(() -> {
+                long partitionStart = System.nanoTime();
+                long[] counts = processRange(runId, part.fromExclusive(), part.toInclusive(), inactiveSince);
+                long millis = (System.nanoTime() - partitionStart) / 1_000_000;
+                synchronized (durations) {
+                    durations.add(millis);
+                }
+                log.info("📬 Reminder partition ({}, {}] queued {} digests for {} enrollments in {} ms",
+                        part.fromExclusive(), part.toInclusive(), counts[0], counts[1], millis);
+                return counts;
+            }));
+        }
+
+        long digests = 0;
+        long enrollments = 0;
+        long queryNanos = 0;
+        try {
+            for (Future<long[]> future : futures) {
+                long[] counts = future.get();
+                digests += counts[0];
+                enrollments += counts[1];
+                queryNanos += counts[2];
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            futures.forEach(future -> future.cancel(true));
+            throw new IllegalStateException("Interrupted while sending reminders", e);
+        } catch (ExecutionException e) {
+            futures.forEach(future -> future.cancel(true));
+            throw new IllegalStateException("Reminder partition failed", e.getCause());
+        }
+        reminderSender.flush();
+        long active = enrollmentRepository.countByStatusAndStudentIdRange(
+                EnrollmentStatus.ACTIVE, range.fromExclusive(), range.toInclusive());
+
+        long millis = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("range", "(" + range.fromExclusive() + ", " + range.toInclusive() + "]");
+        stats.put("sent", digests);
+        stats.put("activeEnrollments", active);
+        stats.put("inactiveEnrollments", enrollments);
+        stats.put("skippedRecentlyActive", active - enrollments);
+        stats.put("reductionPercent", active == 0 ? 0 : Math.round((active - enrollments) * 1000.0 / active) / 10.0);
+        stats.put("inactiveSince", inactiveSince.toString());
+        stats.put("queryMillis", queryNanos / 1_000_000);
+        stats.put("partitions", parts.size());
+        stats.put("durationMillis", millis);
+        stats.put("perSecond", digests * 1000 / millis);
+        stats.put("maxPartitionMillis", durations.stream().mapToLong(Long::longValue).max().orElse(0));
+        stats.put("minPartitionMillis", durations.stream().mapToLong(Long::longValue).min().orElse(0));
+        lastRun = stats;
+        log.info("✅ Sent {} reminder digests ({} of {} active enrollments inactive, {}% skipped) for students ({}, {}] "
+                        + "in {} ms ({} ms querying, {}/s) across {} partitions",
+                digests, enrollments, active, stats.get("reductionPercent"), range.fromExclusive(), range.toInclusive(),
+                millis, stats.get("queryMillis"), stats.get("perSecond"), parts.size());
+        return digests;
+    }
+
+    /**
+     * Sends one digest per student with fromExclusive < student id <= toInclusive not yet reminded in
+     * this run, covering their enrollments inactive since inactiveSince. Returns {digests, enrollments, query nanos}.
+     */
+    public long[] processRange(long runId, long fromExclusive, long toInclusive, LocalDateTime inactiveSince) {
+        Pageable page = PageRequest.ofSize(pageSize);
+        long afterStudentId = fromExclusive;
+        long afterEnrollmentId = Long.MAX_VALUE;
+        long digests = 0;
+        long enrollments = 0;
+        long queryNanos = 0;
+        Long currentStudent = null;
+        String currentEmail = null;
+        List<String> currentTitles = new ArrayList<>();
+
+        while (true) {
+            long queryStart = System.nanoTime();
+            List<ReminderTarget> targets = enrollmentRepository.findReminderTargets(
+                    runId, EnrollmentStatus.ACTIVE, afterStudentId, afterEnrollmentId, toInclusive, inactiveSince, page);
+            queryNanos += System.nanoTime() - queryStart;
+            for (ReminderTarget target : targets) {
+                // A student's rows may continue on the next page, so the open digest is carried over
+                if (!target.studentId().equals(currentStudent)) {
+                    if (currentStudent != null) {
+                        reminderSender.send(digest(runId, currentStudent, currentEmail, currentTitles));
+                        digests++;
+                    }
+                    currentStudent = target.studentId();
+                    currentEmail = target.studentEmail();
+                    currentTitles = new ArrayList<>();
+                }
+                currentTitles.add(target.courseTitle());
+            }
+            enrollments += targets.size();
+            if (targets.size() < pageSize) {
+                break;
+            }
+            ReminderTarget last = targets.get(targets.size() - 1);
+            afterStudentId = last.studentId();
+            afterEnrollmentId = last.enrollmentId();
+        }
+
+        if (currentStudent != null) {
+            reminderSender.send(digest(runId, currentStudent, currentEmail, currentTitles));
+            digests++;
+        }
+        return new long[]{digests, enrollments, queryNanos};
+    }
+
+    private ReminderDigest digest(long runId, long studentId, String email, List<String> titles) {
+        return new ReminderDigest(email, titles, () -> {
+            try {
+                reminderDeliveryRepository.insert(runId, studentId, LocalDateTime.now());
+            } catch (DataIntegrityViolationException e) {
+                // Already recorded by an earlier attempt whose message was still queued
+            }
+        });
+    }
+
+    /**
+     * Forgets the delivery records of runs older than keepDays; returns the number removed
+     */
+    public int purgeDeliveries(int keepDays) {
+        return reminderDeliveryRepository.deleteDeliveredBefore(LocalDateTime.now().minusDays(keepDays));
+    }
+
+    /**
+     * Equal-width sub-ranges covering (fromExclusive, toInclusive]
+     */
+    static List<IdRange> split(IdRange range, int count) {
+        int n = Math.max(1, count);
+        long width = Math.max(1, (range.toInclusive() - range.fromExclusive() + n - 1) / n);
+        List<IdRange> parts = new ArrayList<>();
+        for (long from = range.fromExclusive(); from < range.toInclusive(); from += width) {
+            parts.add(new IdRange(from, Math.min(range.toInclusive(), from + width)));
+        }
+        return parts;
+    }
+
+    /**
+     * Last run on this node; with clustered scheduling each node reports the shards it ran
+     */
+    public Map<String, Object> getStats() {
+        return lastRun;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+}
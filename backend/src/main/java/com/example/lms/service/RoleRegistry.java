@@ -0,0 +1,105 @@
+package com.example.lms.service;
+
+import com.example.lms.entity.Role;
+import com.example.lms.entity.RoleName;
+import com.example.lms.exception.ResourceNotFoundException;
+import com.example.lms.repository.RoleRepository;
+import com.example.lms.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * The fixed set of roles, seeded and loaded once at startup.
+ *
+ * Callers resolve roles from this in-memory map instead of querying the roles table, and a
+ * user's authorities are derived from the role ids in user_roles without joining roles.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RoleRegistry {
+
+    private final RoleRepository roleRepository;
+    private final UserRepository userRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    private Map<RoleName, Role> byName;
+    private Map<Long, RoleName> byId;
+
+    @PostConstruct
+    public void init() {
+        seed();
+        Map<RoleName, Role> names = new EnumMap<>(RoleName.class);
+        Map<Long, RoleName> ids = new HashMap<>();
+        for (Role role : roleRepository.findAll()) {
+            names.put(role.getRoleName(), role);
+            ids.put(role.getId(), role.getRoleName());
+        }
+        byName = Collections.unmodifiableMap(names);
+        byId = Map.copyOf(ids);
+        log.info("✅ Loaded {} roles", byName.size());
+    }
+
+    /**
+     * Inserts whichever roles are missing in one statement; a no-op once they exist
+     */
+    int seed() {
+        String values = Arrays.stream(RoleName.values())
+                .map(name -> "SELECT '" + name.name() + "' AS role_name")
+                .collect(Collectors.joining(" UNION ALL "));
+        int inserted = jdbcTemplate.update("INSERT INTO roles (role_name) SELECT v.role_name FROM (" + values + ") v "
+                + "LEFT JOIN roles r ON r.role_name = v.role_name WHERE r.id IS NULL");
+        if (inserted > 0) {
+            log.info("✅ Created {} missing role(s)", inserted);
+        }
+        return inserted;
+    }
+
+    public Role get(RoleName name) {
+        Role role = byName.get(name);
+        if (role == null) {
+            throw new ResourceNotFoundException(name + " not found in database");
+        }
+        return role;
+    }
+
+    /**
+     * Role by its enum name, e.g. "ROLE_TEACHER"
+     */
+    public Role get(String roleName) {
+        try {
+            return get(RoleName.valueOf(roleName));
+        } catch (IllegalArgumentException e) {
+            throw new ResourceNotFoundException("Invalid role name: " + roleName);
+        }
+    }
+
+    /**
+     * Role names of a user, read from user_roles alone. Role ids the registry does not know (a role
+     * added to the table after startup) grant nothing and are logged.
+     */
+    public List<String> roleNamesOf(Long userId) {
+        List<String> names = new ArrayList<>();
+        for (Long roleId : userRepository.findRoleIds(userId)) {
+            RoleName name = byId.get(roleId);
+            if (name == null) {
+                log.warn("⚠️ User {} has unknown role id {}, ignoring it", userId, roleId);
+                continue;
+            }
+            names.add(name.name());
+        }
+        return names;
+    }
+}
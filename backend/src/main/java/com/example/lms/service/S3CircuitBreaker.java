@@ -0,0 +1,184 @@
+package com.example.lms.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+
+import java.time.Clock;
+
+/**
+ * Circuit breaker guarding calls to S3.
+ *
+ * CLOSED    - calls go to S3, outcomes are recorded in a sliding window of the last N calls
+ * OPEN      - calls are rejected immediately so callers can fall back without waiting on SDK timeouts
+ * HALF_OPEN - after the open period a limited number of trial calls decide whether to close or re-open
+ */
+@Component
+@Slf4j
+public class S3CircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final int windowSize;
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final long openDurationMillis;
+    private final int halfOpenTrialCalls;
+    private final Clock clock;
+
+    // Sliding window of outcomes (true = failure), used as a ring buffer
+    private final boolean[] window;
+    private int windowIndex;
+    private int recordedCalls;
+    private int failedCalls;
+
+    private State state = State.CLOSED;
+    private long openedAt;
+    private int halfOpenInFlight;
+    private int halfOpenSucceeded;
+
+    @Autowired
+    public S3CircuitBreaker(@Value("${aws.s3.circuit.window-size:20}") int windowSize,
+                            @Value("${aws.s3.circuit.minimum-calls:5}") int minimumCalls,
+                            @Value("${aws.s3.circuit.failure-rate-threshold:50}") double failureRateThreshold,
+                            @Value("${aws.s3.circuit.open-duration-ms:30000}") long openDurationMillis,
+                            @Value("${aws.s3.circuit.half-open-trial-calls:3}") int halfOpenTrialCalls) {
+        this(windowSize, minimumCalls, failureRateThreshold, openDurationMillis, halfOpenTrialCalls, Clock.systemUTC());
+    }
+
+    S3CircuitBreaker(int windowSize, int minimumCalls, double failureRateThreshold,
+                     long openDurationMillis, int halfOpenTrialCalls, Clock clock) {
+        this.windowSize = windowSize;
+        this.minimumCalls = Math.min(minimumCalls, windowSize);
+        this.failureRateThreshold = failureRateThreshold;
+        this.openDurationMillis = openDurationMillis;
+        this.halfOpenTrialCalls = halfOpenTrialCalls;
+        this.clock = clock;
+        this.window = new boolean[windowSize];
+    }
+
+    /**
+     * Returns true if a call to S3 may be attempted now.
+     * Every permitted call must be followed by {@link #recordSuccess()} or, if it failed, {@link #recordError(Throwable)}.
+     */
+    public synchronized boolean tryAcquirePermission() {
+        if (state == State.OPEN) {
+            if (clock.millis() - openedAt < openDurationMillis) {
+                return false;
+            }
+            transitionTo(State.HALF_OPEN);
+        }
+        if (state == State.HALF_OPEN) {
+            if (halfOpenInFlight + halfOpenSucceeded >= halfOpenTrialCalls) {
+                return false;
+            }
+            halfOpenInFlight++;
+        }
+        return true;
+    }
+
+    public synchronized void recordSuccess() {
+        if (state == State.HALF_OPEN) {
+            halfOpenInFlight = Math.max(0, halfOpenInFlight - 1);
+            halfOpenSucceeded++;
+            if (halfOpenSucceeded >= halfOpenTrialCalls) {
+                transitionTo(State.CLOSED);
+            }
+            return;
+        }
+        record(false);
+    }
+
+    public synchronized void recordFailure() {
+        if (state == State.HALF_OPEN) {
+            // Any failed trial call sends the circuit straight back to OPEN
+            transitionTo(State.OPEN);
+            return;
+        }
+        record(true);
+        if (state == State.CLOSED && recordedCalls >= minimumCalls && getFailureRate() >= failureRateThreshold) {
+            transitionTo(State.OPEN);
+        }
+    }
+
+    public synchronized State getState() {
+        // Report HALF_OPEN once the open period has elapsed, even before the next call arrives
+        if (state == State.OPEN && clock.millis() - openedAt >= openDurationMillis) {
+            return State.HALF_OPEN;
+        }
+        return state;
+    }
+
+    /**
+     * Failure rate (0-100) over the current sliding window
+     */
+    public synchronized double getFailureRate() {
+        return recordedCalls == 0 ? 0.0 : (failedCalls * 100.0) / recordedCalls;
+    }
+
+    /**
+     * Whether a failed S3 call says something about S3's health: transport errors, timeouts,
+     * throttling and 5xx responses do; a 4xx answer (missing key, bad request) means S3 is up and
+     * must be recorded as a success, or clients could open the circuit with made-up keys.
+     */
+    public static boolean isOutage(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof S3Exception s3Error) {
+                int status = s3Error.statusCode();
+                return status >= 500 || status == 408 || status == 429;
+            }
+            if (cause instanceof SdkClientException) {
+                return true;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Records a failed call according to {@link #isOutage(Throwable)}
+     */
+    public void recordError(Throwable error) {
+        if (isOutage(error)) {
+            recordFailure();
+        } else {
+            recordSuccess();
+        }
+    }
+
+    private void record(boolean failure) {
+        if (recordedCalls == windowSize) {
+            // Window is full: drop the oldest outcome before overwriting it
+            if (window[windowIndex]) {
+                failedCalls--;
+            }
+        } else {
+            recordedCalls++;
+        }
+        window[windowIndex] = failure;
+        if (failure) {
+            failedCalls++;
+        }
+        windowIndex = (windowIndex + 1) % windowSize;
+    }
+
+    private void transitionTo(State newState) {
+        if (state == newState) {
+            return;
+        }
+        log.warn("⚡ S3 circuit breaker {} -> {} (failure rate {}%)", state, newState, String.format("%.1f", getFailureRate()));
+        state = newState;
+        halfOpenInFlight = 0;
+        halfOpenSucceeded = 0;
+        if (newState == State.OPEN) {
+            openedAt = clock.millis();
+        }
+        if (newState == State.CLOSED || newState == State.OPEN) {
+            windowIndex = 0;
+            recordedCalls = 0;
+            failedCalls = 0;
+        }
+    }
+}
@@ -0,0 +1,360 @@
+package com.example.lms.service;
+
+import com.example.lms.exception.ResourceNotFoundException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Read-through disk cache for S3 objects on this node.
+ *
+ * Objects are downloaded to a temp file, fsynced and atomically renamed into place,
+ * so readers never see a partial file. Concurrent misses on the same key share a single
+ * download. The cache is bounded by total bytes and evicts least recently used files.
+ *
+ * Readers use {@link #open(String)}, which opens the cache file while holding the index lock;
+ * the open channel keeps the data readable even if the file is evicted or invalidated while
+ * it is streamed. Invalidation bumps a generation, and a download started before it is
+ * discarded and fetched again rather than re-caching the old object.
+ */
+@Component
+@Slf4j
+public class S3DiskCache {
+
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private final S3Service s3Service;
+    private final S3CircuitBreaker circuitBreaker;
+    private final Path cacheDir;
+    private final long maxBytes;
+
+    // Cache file name -> size, access-ordered so iteration starts at the least recently used file
+    private final LinkedHashMap<String, Long> index = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes;
+    // Invalidation counters striped by cache file name; guarded by this
+    private final long[] generations = new long[256];
+
+    private final ConcurrentHashMap<String, CompletableFuture<Path>> inFlight = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public S3DiskCache(S3Service s3Service,
+                       S3CircuitBreaker circuitBreaker,
+                       @Value("${storage.s3-cache.dir:s3-cache}") String cacheDir,
+                       @Value("${storage.s3-cache.max-bytes:1073741824}") long maxBytes) {
+        this.s3Service = s3Service;
+        this.circuitBreaker = circuitBreaker;
+        this.cacheDir = Paths.get(cacheDir);
+        this.maxBytes = maxBytes;
+        loadIndex();
+    }
+
+    /**
+     * Returns a local path holding the object, downloading it from S3 on a miss
+     */
+    public Path get(String key) {
+        String name = fileNameFor(key);
+        synchronized (this) {
+            if (index.get(name) != null) {
+                hits.increment();
+                return cacheDir.resolve(name);
+            }
+        }
+
+        CompletableFuture<Path> download = new CompletableFuture<>();
+        CompletableFuture<Path> existing = inFlight.putIfAbsent(name, download);
+        if (existing != null) {
+            // Another request is already fetching this object; wait for its result
+            coalesced.increment();
+            return join(existing);
+        }
+
+        try {
+            synchronized (this) {
+                // A download may have finished between the index check and claiming the key
+                if (index.get(name) != null) {
+                    hits.increment();
+                    download.complete(cacheDir.resolve(name));
+                    return cacheDir.resolve(name);
+                }
+            }
+            misses.increment();
+            download.complete(fetch(key, name));
+        } catch (RuntimeException e) {
+            download.completeExceptionally(e);
+        } finally {
+            inFlight.remove(name, download);
+        }
+        return join(download);
+    }
+
+    /**
+     * Opens the cached object for reading, downloading it from S3 on a miss
+     */
+    public Resource open(String key) {
+        String name = fileNameFor(key);
+        // The file may be evicted between the download and the open; it is then fetched again
+        for (int attempt = 0; attempt < 3; attempt++) {
+            Path path = get(key);
+            synchronized (this) {
+                if (index.containsKey(name)) {
+                    try {
+                        return new CachedFileResource(path, FileChannel.open(path, StandardOpenOption.READ));
+                    } catch (IOException e) {
+                        throw new UncheckedIOException("Failed to open cached S3 object: " + key, e);
+                    }
+                }
+            }
+        }
+        throw new IllegalStateException("S3 disk cache is too small to hold " + key);
+    }
+
+    public synchronized void invalidate(String key) {
+        String name = fileNameFor(key);
+        generations[stripe(name)]++;
+        Long size = index.remove(name);
+        if (size != null) {
+            totalBytes -= size;
+            deleteQuietly(cacheDir.resolve(name));
+        }
+    }
+
+    public synchronized long getBytesResident() {
+        return totalBytes;
+    }
+
+    public Map<String, Object> getStats() {
+        long h = hits.sum();
+        long m = misses.sum();
+        return Map.of(
+                "maxBytes", maxBytes,
+                "bytesResident", getBytesResident(),
+                "hits", h,
+                "misses", m,
+                "coalescedMisses", coalesced.sum(),
+                "hitRatio", h + m == 0 ? 0.0 : (double) h / (h + m),
+                "evictions", evictions.sum()
+        );
+    }
+
+    private Path fetch(String key, String name) {
+        // An invalidation during the download means it may hold the old object: discard it and retry
+        for (int attempt = 0; attempt < 3; attempt++) {
+            long generation;
+            synchronized (this) {
+                generation = generations[stripe(name)];
+            }
+            Path target = download(key, name, generation);
+            if (target != null) {
+                return target;
+            }
+        }
+        throw new IllegalStateException("S3 object " + key + " kept changing while it was downloaded");
+    }
+
+    /**
+     * Downloads key into the cache; returns null if it was invalidated after the given generation
+     */
+    private Path download(String key, String name, long generation) {
+        if (!circuitBreaker.tryAcquirePermission()) {
+            throw new RuntimeException("S3 download skipped: circuit is " + circuitBreaker.getState());
+        }
+
+        Path temp = cacheDir.resolve(name + "." + UUID.randomUUID() + TEMP_SUFFIX);
+        Path target = cacheDir.resolve(name);
+        try {
+            s3Service.downloadFile(key, temp);
+            circuitBreaker.recordSuccess();
+        } catch (RuntimeException e) {
+            // A missing key says nothing about S3's health and must not count towards opening the circuit
+            circuitBreaker.recordError(e);
+            deleteQuietly(temp);
+            if (isNotFound(e)) {
+                throw new ResourceNotFoundException("S3 object not found: " + key);
+            }
+            throw e;
+        }
+
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                channel.force(true);
+            }
+            long size = Files.size(temp);
+            synchronized (this) {
+                if (generations[stripe(name)] != generation) {
+                    deleteQuietly(temp);
+                    return null;
+                }
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                Long previous = index.put(name, size);
+                totalBytes += size - (previous != null ? previous : 0);
+                evictIfNeeded(name);
+            }
+            log.info("📥 Cached S3 object {} ({} bytes)", key, size);
+            return target;
+        } catch (IOException e) {
+            deleteQuietly(temp);
+            throw new UncheckedIOException("Failed to cache S3 object: " + key, e);
+        }
+    }
+
+    private static boolean isNotFound(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof NoSuchKeyException
+                    || (cause instanceof S3Exception s3Error && s3Error.statusCode() == 404)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int stripe(String name) {
+        return (name.hashCode() & 0x7fffffff) % generations.length;
+    }
+
+    private void evictIfNeeded(String justAdded) {
+        Iterator<Map.Entry<String, Long>> it = index.entrySet().iterator();
+        while (totalBytes > maxBytes && it.hasNext()) {
+            Map.Entry<String, Long> eldest = it.next();
+            if (eldest.getKey().equals(justAdded)) {
+                continue;
+            }
+            it.remove();
+            totalBytes -= eldest.getValue();
+            evictions.increment();
+            deleteQuietly(cacheDir.resolve(eldest.getKey()));
+        }
+    }
+
+    /**
+     * Rebuilds the index from files left by a previous run, oldest first, and drops partial downloads
+     */
+    private void loadIndex() {
+        try {
+            Files.createDirectories(cacheDir);
+            List<Path> files;
+            try (Stream<Path> stream = Files.list(cacheDir)) {
+                files = stream.filter(Files::isRegularFile).toList();
+            }
+            files.stream()
+                    .filter(p -> p.getFileName().toString().endsWith(TEMP_SUFFIX))
+                    .forEach(this::deleteQuietly);
+            files.stream()
+                    .filter(p -> !p.getFileName().toString().endsWith(TEMP_SUFFIX))
+                    .sorted(Comparator.comparingLong(this::lastModified))
+                    .forEach(p -> {
+                        long size = p.toFile().length();
+                        index.put(p.getFileName().toString(), size);
+                        totalBytes += size;
+                    });
+            evictIfNeeded(null);
+            log.info("✅ S3 disk cache at {} holds {} bytes", cacheDir.toAbsolutePath(), totalBytes);
+        } catch (IOException e) {
+            log.error("❌ Failed to initialise S3 disk cache directory", e);
+        }
+    }
+
+    private long lastModified(Path path) {
+        return path.toFile().lastModified();
+    }
+
+    private void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("⚠️ Failed to delete cache file: {}", path);
+        }
+    }
+
+    private static Path join(CompletableFuture<Path> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * A cache file opened while it was still indexed. Streams read the open channel positionally,
+     * so they stay valid after the file is evicted; once a stream has been closed, later streams
+     * (further byte ranges) reopen the file by path.
+     */
+    private static class CachedFileResource extends FileSystemResource {
+        private final long size;
+        private FileChannel channel;
+
+        CachedFileResource(Path path, FileChannel channel) throws IOException {
+            super(path);
+            this.channel = channel;
+            this.size = channel.size();
+        }
+
+        @Override
+        public boolean exists() {
+            return true;
+        }
+
+        @Override
+        public long contentLength() {
+            return size;
+        }
+
+        @Override
+        public synchronized InputStream getInputStream() throws IOException {
+            if (channel == null) {
+                return super.getInputStream();
+            }
+            FileChannel open = channel;
+            channel = null;
+            return Channels.newInputStream(open);
+        }
+    }
+
+    /**
+     * S3 keys contain slashes and arbitrary characters, so cache files are named by key digest
+     */
+    static String fileNameFor(String key) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(key.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
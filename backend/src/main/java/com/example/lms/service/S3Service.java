@@ -6,33 +6,62 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.core.sync.ResponseTransformer;
 import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompletedMultipartUpload;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.Delete;
 import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectsRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectsResponse;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Request;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Response;
+import software.amazon.awssdk.services.s3.model.ObjectIdentifier;
 import software.amazon.awssdk.services.s3.model.PutObjectRequest;
 import software.amazon.awssdk.services.s3.model.S3Exception;
+import software.amazon.awssdk.services.s3.model.UploadPartRequest;
 
 import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
 import java.util.UUID;
 
 @Service
 @RequiredArgsConstructor
 public class S3Service {
 
+    // Every object stored in S3 lives under this prefix; local fallback keys never carry it
+    public static final String KEY_PREFIX = "uploads/";
+
     private final S3Client s3Client;
     @Getter
     private final String bucketName = "lms-springboot-s3";
 
     public S3FileResponse uploadFile(MultipartFile file) {
         try {
-            String key = "uploads/" + UUID.randomUUID() + "-" + file.getOriginalFilename();
+            String key = KEY_PREFIX + UUID.randomUUID() + "-" + file.getOriginalFilename();
+            return uploadFile(key, file.getBytes(), file.getContentType());
+        } catch (IOException e) {
+            throw new RuntimeException("S3 upload failed: " + e.getMessage(), e);
+        }
+    }
 
+    /**
+     * Uploads raw bytes under an explicit key (used when migrating locally stored files)
+     */
+    public S3FileResponse uploadFile(String key, byte[] data, String contentType) {
+        try {
             PutObjectRequest putObjectRequest = PutObjectRequest.builder()
                     .bucket(bucketName)
                     .key(key)
-                    .contentType(file.getContentType())
+                    .contentType(contentType)
                     .build();
 
-            s3Client.putObject(putObjectRequest, RequestBody.fromBytes(file.getBytes()));
+            s3Client.putObject(putObjectRequest, RequestBody.fromBytes(data));
 
             String fileUrl = s3Client.utilities()
                     .getUrl(b -> b.bucket(bucketName).key(key))
@@ -40,12 +69,29 @@ public class S3Service {
 
             return new S3FileResponse(fileUrl, key);
 
-        } catch (IOException | S3Exception e) {
+        } catch (S3Exception e) {
             throw new RuntimeException("S3 upload failed: " + e.getMessage(), e);
         }
     }
 
 
+    /**
+     * Streams an object to the given path, which must not exist yet
+     */
+    public void downloadFile(String key, Path target) {
+        try {
+            GetObjectRequest getObjectRequest = GetObjectRequest.builder()
+                    .bucket(bucketName)
+                    .key(key)
+                    .build();
+
+            s3Client.getObject(getObjectRequest, ResponseTransformer.toFile(target));
+
+        } catch (S3Exception e) {
+            throw new RuntimeException("S3 download failed: " + e.getMessage(), e);
+        }
+    }
+
     public void deleteFile(String key) {
         try {
             DeleteObjectRequest deleteObjectRequest = DeleteObjectRequest.builder()
@@ -60,6 +106,105 @@ public class S3Service {
         }
     }
 
+    /**
+     * One page (up to maxKeys) of the objects under prefix, in key order after startAfter (null = from the start)
+     */
+    public ListObjectsV2Response listObjects(String prefix, String startAfter, int maxKeys) {
+        try {
+            return s3Client.listObjectsV2(ListObjectsV2Request.builder()
+                    .bucket(bucketName)
+                    .prefix(prefix)
+                    .startAfter(startAfter)
+                    .maxKeys(maxKeys)
+                    .build());
+        } catch (S3Exception e) {
+            throw new RuntimeException("S3 list failed: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Deletes up to 1000 objects in one request; returns the keys S3 reported as not deleted
+     */
+    public List<String> deleteFiles(List<String> keys) {
+        try {
+            DeleteObjectsResponse response = s3Client.deleteObjects(DeleteObjectsRequest.builder()
+                    .bucket(bucketName)
+                    .delete(Delete.builder()
+                            .objects(keys.stream().map(key -> ObjectIdentifier.builder().key(key).build()).toList())
+                            .quiet(true)
+                            .build())
+                    .build());
+            return response.errors().stream().map(error -> error.key()).toList();
+        } catch (S3Exception e) {
+            throw new RuntimeException("S3 batch delete failed: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Starts a multipart upload and returns its upload id
+     */
+    public String createMultipartUpload(String key, String contentType) {
+        try {
+            return s3Client.createMultipartUpload(CreateMultipartUploadRequest.builder()
+                    .bucket(bucketName)
+                    .key(key)
+                    .contentType(contentType)
+                    .build()).uploadId();
+        } catch (S3Exception e) {
+            throw new RuntimeException("S3 multipart create failed: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Uploads one part (1-based part number) and returns its ETag
+     */
+    public String uploadPart(String key, String uploadId, int partNumber, byte[] data) {
+        try {
+            return s3Client.uploadPart(UploadPartRequest.builder()
+                    .bucket(bucketName)
+                    .key(key)
+                    .uploadId(uploadId)
+                    .partNumber(partNumber)
+                    .build(), RequestBody.fromBytes(data)).eTag();
+        } catch (S3Exception e) {
+            throw new RuntimeException("S3 part upload failed: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Stitches the uploaded parts together server-side; no data is re-sent
+     */
+    public S3FileResponse completeMultipartUpload(String key, String uploadId, List<CompletedPart> parts) {
+        try {
+            s3Client.completeMultipartUpload(CompleteMultipartUploadRequest.builder()
+                    .bucket(bucketName)
+                    .key(key)
+                    .uploadId(uploadId)
+                    .multipartUpload(CompletedMultipartUpload.builder().parts(parts).build())
+                    .build());
+
+            String fileUrl = s3Client.utilities()
+                    .getUrl(b -> b.bucket(bucketName).key(key))
+                    .toExternalForm();
+
+            return new S3FileResponse(fileUrl, key);
+        } catch (S3Exception e) {
+            throw new RuntimeException("S3 multipart complete failed: " + e.getMessage(), e);
+        }
+    }
+
+    public void abortMultipartUpload(String key, String uploadId) {
+        try {
+            s3Client.abortMultipartUpload(AbortMultipartUploadRequest.builder()
+                    .bucket(bucketName)
+                    .key(key)
+                    .uploadId(uploadId)
+                    .build());
+        } catch (S3Exception e) {
+            throw new RuntimeException("S3 multipart abort failed: " + e.getMessage(), e);
+        }
+    }
+
     public String getRegion() {
         return "ap-southeast-2"; // or inject from properties
     }
@@ -0,0 +1,361 @@
+package com.example.lms.service;
+
+import com.example.lms.dto.Notification;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.net.ssl.SSLParameters;
+import javax.net.ssl.SSLSocket;
+import javax.net.ssl.SSLSocketFactory;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Minimal SMTP client (RFC 5321) with a pool of open connections.
+ *
+ * A batch borrows one connection and sends every message over it with MAIL/RCPT/DATA,
+ * so the TCP, TLS and AUTH handshakes are paid once per connection rather than once per email.
+ * 4xx replies are reported as transient failures and 5xx as permanent; a broken connection
+ * fails the rest of its batch as transient and is discarded. Recipients that are not a plain
+ * address are failed permanently without being sent, since they end up in RCPT and the To: header.
+ * STARTTLS verifies the server certificate against the configured host name. Bodies that are not
+ * plain ASCII are sent as 8bit only to servers that announce 8BITMIME, otherwise as base64.
+ */
+@Slf4j
+public class SmtpNotificationSender implements NotificationSender {
+
+    private final String host;
+    private final int port;
+    private final String username;
+    private final String password;
+    private final boolean startTls;
+    private final String from;
+    private final int timeoutMillis;
+    private final long idleTimeoutNanos;
+    private final Semaphore permits;
+    private final ConcurrentLinkedDeque<Connection> idle = new ConcurrentLinkedDeque<>();
+
+    private final LongAdder connectionsOpened = new LongAdder();
+    private final LongAdder connectionsReused = new LongAdder();
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder transientFailures = new LongAdder();
+    private final LongAdder permanentFailures = new LongAdder();
+
+    public SmtpNotificationSender(String host, int port, String username, String password, boolean startTls,
+                                  String from, int poolSize, int timeoutMillis, long idleTimeoutSeconds) {
+        this.host = host;
+        this.port = port;
+        this.username = username;
+        this.password = password;
+        this.startTls = startTls;
+        this.from = from;
+        this.timeoutMillis = timeoutMillis;
+        this.idleTimeoutNanos = TimeUnit.SECONDS.toNanos(idleTimeoutSeconds);
+        this.permits = new Semaphore(Math.max(1, poolSize));
+    }
+
+    @Override
+    public List<Failure> sendBatch(List<Notification> batch) {
+        List<Failure> failures = new ArrayList<>();
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            batch.forEach(n -> failures.add(new Failure(n, "Interrupted", false)));
+            return failures;
+        }
+        Connection connection = null;
+        try {
+            connection = borrow();
+            for (int i = 0; i < batch.size(); i++) {
+                Notification notification = batch.get(i);
+                if (!EmailAddresses.isValid(notification.recipient())) {
+                    log.warn("🚫 Not sending to invalid recipient {}", sanitize(notification.recipient()));
+                    permanentFailures.increment();
+                    failures.add(new Failure(notification, "Invalid recipient address", true));
+                    continue;
+                }
+                try {
+                    Reply reply = connection.deliver(from, notification);
+                    if (reply.code() < 400) {
+                        accepted.increment();
+                    } else {
+                        failures.add(failure(notification, reply));
+                    }
+                } catch (IOException e) {
+                    connection.closeQuietly();
+                    connection = null;
+                    for (Notification rest : batch.subList(i, batch.size())) {
+                        transientFailures.increment();
+                        failures.add(new Failure(rest, "Connection lost: " + e.getMessage(), false));
+                    }
+                    break;
+                }
+            }
+        } catch (IOException e) {
+            log.warn("⚠️ Could not open SMTP connection to {}:{}: {}", host, port, e.getMessage());
+            transientFailures.add(batch.size());
+            batch.forEach(n -> failures.add(new Failure(n, "Connect failed: " + e.getMessage(), false)));
+        } finally {
+            if (connection != null) {
+                connection.lastUsed = System.nanoTime();
+                idle.push(connection);
+            }
+            permits.release();
+        }
+        return failures;
+    }
+
+    private static String sanitize(String value) {
+        return value == null ? null : value.replaceAll("\\p{Cntrl}", "?");
+    }
+
+    private Failure failure(Notification notification, Reply reply) {
+        boolean permanent = reply.code() >= 500;
+        (permanent ? permanentFailures : transientFailures).increment();
+        return new Failure(notification, reply.code() + " " + reply.text(), permanent);
+    }
+
+    /**
+     * Most recently used idle connection that has not timed out, otherwise a new one
+     */
+    private Connection borrow() throws IOException {
+        Connection connection;
+        while ((connection = idle.poll()) != null) {
+            if (System.nanoTime() - connection.lastUsed < idleTimeoutNanos) {
+                connectionsReused.increment();
+                return connection;
+            }
+            // The server has probably dropped it already
+            connection.quit();
+        }
+        connection = Connection.open(host, port, timeoutMillis);
+        try {
+            connection.handshake(startTls, username, password);
+        } catch (IOException e) {
+            connection.closeQuietly();
+            throw e;
+        }
+        connectionsOpened.increment();
+        return connection;
+    }
+
+    /**
+     * Sends QUIT on every idle connection
+     */
+    public void close() {
+        Connection connection;
+        while ((connection = idle.poll()) != null) {
+            connection.quit();
+        }
+    }
+
+    @Override
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("accepted", accepted.sum());
+        stats.put("transientFailures", transientFailures.sum());
+        stats.put("permanentFailures", permanentFailures.sum());
+        stats.put("connectionsOpened", connectionsOpened.sum());
+        stats.put("connectionsReused", connectionsReused.sum());
+        stats.put("idleConnections", idle.size());
+        return stats;
+    }
+
+    record Reply(int code, String text) {}
+
+    private static final class Connection {
+
+        private final String host;
+        private Socket socket;
+        private BufferedReader in;
+        private Writer out;
+        private boolean eightBitMime;
+        private volatile long lastUsed = System.nanoTime();
+
+        private Connection(String host, Socket socket) throws IOException {
+            this.host = host;
+            bind(socket);
+        }
+
+        static Connection open(String host, int port, int timeoutMillis) throws IOException {
+            Socket socket = new Socket();
+            try {
+                socket.connect(new InetSocketAddress(host, port), timeoutMillis);
+                socket.setSoTimeout(timeoutMillis);
+                return new Connection(host, socket);
+            } catch (IOException e) {
+                socket.close();
+                throw e;
+            }
+        }
+
+        private void bind(Socket socket) throws IOException {
+            this.socket = socket;
+            this.in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            this.out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+        }
+
+        void handshake(boolean startTls, String username, String password) throws IOException {
+            expect(read(), 220);
+            ehlo();
+            if (startTls) {
+                expect(command("STARTTLS"), 220);
+                SSLSocket tls = (SSLSocket) ((SSLSocketFactory) SSLSocketFactory.getDefault())
+                        .createSocket(socket, host, socket.getPort(), true);
+                // Without this the handshake accepts any trusted certificate, whatever host it was issued for
+                SSLParameters parameters = tls.getSSLParameters();
+                parameters.setEndpointIdentificationAlgorithm("HTTPS");
+                tls.setSSLParameters(parameters);
+                tls.startHandshake();
+                bind(tls);
+                // Extensions announced before TLS must not be trusted (RFC 3207)
+                ehlo();
+            }
+            if (username != null && !username.isBlank()) {
+                String token = Base64.getEncoder().encodeToString(
+                        ("\0" + username + "\0" + password).getBytes(StandardCharsets.UTF_8));
+                expect(command("AUTH PLAIN " + token), 235);
+            }
+        }
+
+        private void ehlo() throws IOException {
+            Reply reply = command("EHLO lms");
+            expect(reply, 250);
+            eightBitMime = reply.text().lines().anyMatch(extension -> extension.equalsIgnoreCase("8BITMIME"));
+        }
+
+        /**
+         * One message; on a rejected envelope the transaction is reset so the connection stays usable
+         */
+        Reply deliver(String from, Notification notification) throws IOException {
+            String encoding = transferEncoding(notification.body());
+            Reply reply = command("MAIL FROM:<" + from + ">" + (encoding.equals("8bit") ? " BODY=8BITMIME" : ""));
+            if (reply.code() == 250) {
+                reply = command("RCPT TO:<" + notification.recipient() + ">");
+            }
+            if (reply.code() == 250 || reply.code() == 251) {
+                reply = command("DATA");
+            }
+            if (reply.code() != 354) {
+                command("RSET");
+                return reply;
+            }
+            writeMessage(from, notification, encoding);
+            return read();
+        }
+
+        /**
+         * 7bit for ASCII text, 8bit if the server takes it (RFC 6152), otherwise base64.
+         * Lines longer than SMTP allows (998 octets) are always base64 encoded.
+         */
+        private String transferEncoding(String body) {
+            if (body.lines().anyMatch(line -> line.getBytes(StandardCharsets.UTF_8).length > 998)) {
+                return "base64";
+            }
+            if (body.chars().allMatch(c -> c < 128)) {
+                return "7bit";
+            }
+            return eightBitMime ? "8bit" : "base64";
+        }
+
+        private void writeMessage(String from, Notification notification, String encoding) throws IOException {
+            out.write("From: " + from + "\r\n");
+            out.write("To: " + notification.recipient() + "\r\n");
+            out.write("Subject: " + encodeHeader(notification.subject()) + "\r\n");
+            out.write("Date: " + DateTimeFormatter.RFC_1123_DATE_TIME.format(ZonedDateTime.now()) + "\r\n");
+            out.write("MIME-Version: 1.0\r\n");
+            out.write("Content-Type: text/plain; charset=UTF-8\r\n");
+            out.write("Content-Transfer-Encoding: " + encoding + "\r\n\r\n");
+            String body = encoding.equals("base64")
+                    ? Base64.getMimeEncoder().encodeToString(notification.body().getBytes(StandardCharsets.UTF_8))
+                    : notification.body();
+            for (String line : body.split("\r?\n", -1)) {
+                // Dot-stuffing: a line starting with '.' gets another one so it cannot end the data
+                if (line.startsWith(".")) {
+                    out.write('.');
+                }
+                out.write(line);
+                out.write("\r\n");
+            }
+            out.write(".\r\n");
+            out.flush();
+        }
+
+        Reply command(String line) throws IOException {
+            out.write(line);
+            out.write("\r\n");
+            out.flush();
+            return read();
+        }
+
+        /**
+         * Reads a possibly multi-line reply ("250-..." continues, "250 ..." ends)
+         */
+        Reply read() throws IOException {
+            StringBuilder text = new StringBuilder();
+            String line;
+            do {
+                line = in.readLine();
+                if (line == null || line.length() < 3) {
+                    throw new IOException("Connection closed by server");
+                }
+                if (!text.isEmpty()) {
+                    text.append('\n');
+                }
+                text.append(line.length() > 4 ? line.substring(4) : "");
+            } while (line.length() > 3 && line.charAt(3) == '-');
+            try {
+                return new Reply(Integer.parseInt(line.substring(0, 3)), text.toString());
+            } catch (NumberFormatException e) {
+                throw new IOException("Malformed SMTP reply: " + line);
+            }
+        }
+
+        private static void expect(Reply reply, int code) throws IOException {
+            if (reply.code() != code) {
+                throw new IOException("Unexpected SMTP reply " + reply.code() + " " + reply.text());
+            }
+        }
+
+        void quit() {
+            try {
+                command("QUIT");
+            } catch (IOException ignored) {
+                // Closing anyway
+            }
+            closeQuietly();
+        }
+
+        void closeQuietly() {
+            try {
+                socket.close();
+            } catch (IOException ignored) {
+                // Nothing left to release
+            }
+        }
+
+        private static String encodeHeader(String value) {
+            boolean ascii = value.chars().allMatch(c -> c >= 32 && c < 127);
+            return ascii ? value
+                    : "=?UTF-8?B?" + Base64.getEncoder().encodeToString(value.getBytes(StandardCharsets.UTF_8)) + "?=";
+        }
+    }
+}
@@ -0,0 +1,302 @@
+package com.example.lms.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Response;
+import software.amazon.awssdk.services.s3.model.S3Object;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Mark-and-sweep collection of stored files that no database row references.
+ *
+ * Mark: every key of every {@link StorageKeySource} is streamed in pages into a Bloom filter, so
+ * memory grows with the number of references (about 10 bits each), not with the number of files.
+ * Sweep: S3 and local storage are listed page by page. A key the filter might contain is kept;
+ * a key it definitely lacks is an orphan candidate, unless it is younger than the grace period.
+ * Candidates are re-checked against the database in batches right before deletion, which covers
+ * rows created after the mark. Each run lists at most max-objects-per-run objects per store and
+ * the returned {@link Cursor} lets the next run resume where it stopped. Temp files and in-progress chunked uploads (.partial)
+ * are never listed.
+ */
+@Service
+@Slf4j
+public class StorageGarbageCollector {
+
+    private static final int S3_PAGE_SIZE = 1000;
+
+    /**
+     * Position of an incremental pass; nulls mean from the beginning
+     */
+    public record Cursor(String s3ResumeAfter, String localResumeAfterShard) {
+        public static final Cursor START = new Cursor(null, null);
+    }
+
+    private final List<StorageKeySource> keySources;
+    private final S3Service s3Service;
+    private final S3CircuitBreaker circuitBreaker;
+    private final LocalFileStorageService localFileStorageService;
+    private final Duration gracePeriod;
+    private final int batchSize;
+    private final long maxObjectsPerRun;
+    private final double falsePositiveRate;
+
+    private volatile Map<String, Object> lastRun = Map.of();
+
+    public StorageGarbageCollector(List<StorageKeySource> keySources,
+                                   S3Service s3Service,
+                                   S3CircuitBreaker circuitBreaker,
+                                   LocalFileStorageService localFileStorageService,
+                                   @Value("${storage.gc.grace-hours:24}") long graceHours,
+                                   @Value("${storage.gc.batch-size:500}") int batchSize,
+                                   @Value("${storage.gc.max-objects-per-run:1000000}") long maxObjectsPerRun,
+                                   @Value("${storage.gc.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.keySources = keySources;
+        this.s3Service = s3Service;
+        this.circuitBreaker = circuitBreaker;
+        this.localFileStorageService = localFileStorageService;
+        this.gracePeriod = Duration.ofHours(graceHours);
+        this.batchSize = Math.max(1, Math.min(batchSize, 1000));
+        this.maxObjectsPerRun = maxObjectsPerRun;
+        this.falsePositiveRate = falsePositiveRate;
+    }
+
+    /**
+     * One incremental slice over both stores, starting at from; returns where the next one starts
+     */
+    public synchronized Cursor collect(Cursor from) {
+        long start = System.nanoTime();
+        // Anything modified after the mark started is too young to delete anyway
+        Instant cutoff = Instant.now().minus(gracePeriod);
+        BloomFilter referenced = mark();
+        long markMillis = (System.nanoTime() - start) / 1_000_000;
+
+        Sweep s3 = sweepS3(referenced, cutoff, from.s3ResumeAfter());
+        Sweep local = sweepLocal(referenced, cutoff, from.localResumeAfterShard());
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("markMillis", markMillis);
+        stats.put("bloomBits", referenced.bitSize());
+        stats.put("s3", s3.toMap());
+        stats.put("local", local.toMap());
+        stats.put("durationMillis", (System.nanoTime() - start) / 1_000_000);
+        lastRun = stats;
+        log.info("🧹 Storage GC deleted {} S3 objects ({} bytes) and {} local files ({} bytes) in {} ms",
+                s3.deleted, s3.bytesFreed, local.deleted, local.bytesFreed, stats.get("durationMillis"));
+        return new Cursor(s3.resumeAfter, local.resumeAfter);
+    }
+
+    private BloomFilter mark() {
+        long expected = keySources.stream().mapToLong(StorageKeySource::estimateCount).sum();
+        // Headroom for rows added while streaming; a fuller filter only keeps more orphans
+        BloomFilter filter = new BloomFilter(Math.max(1024, expected + expected / 4), falsePositiveRate);
+        for (StorageKeySource source : keySources) {
+            source.forEachKey(filter::put);
+        }
+        return filter;
+    }
+
+    private Sweep sweepS3(BloomFilter referenced, Instant cutoff, String resumeAfter) {
+        Sweep sweep = new Sweep();
+        sweep.resumeAfter = resumeAfter;
+        if (circuitBreaker.getState() == S3CircuitBreaker.State.OPEN) {
+            log.info("⏸️ S3 circuit is open, skipping S3 garbage collection");
+            sweep.skipped = true;
+            return sweep;
+        }
+        Map<String, Long> candidates = new LinkedHashMap<>();
+        String startAfter = resumeAfter;
+        try {
+            ListObjectsV2Response page;
+            do {
+                String from = startAfter;
+                page = callS3(() -> s3Service.listObjects(S3Service.KEY_PREFIX, from, S3_PAGE_SIZE));
+                for (S3Object object : page.contents()) {
+                    sweep.scanned++;
+                    if (referenced.mightContain(object.key())) {
+                        sweep.referenced++;
+                    } else if (object.lastModified().isAfter(cutoff)) {
+                        sweep.tooYoung++;
+                    } else {
+                        candidates.put(object.key(), object.size());
+                        if (candidates.size() >= batchSize) {
+                            deleteS3(candidates, sweep);
+                        }
+                    }
+                    startAfter = object.key();
+                }
+            } while (Boolean.TRUE.equals(page.isTruncated()) && sweep.scanned < maxObjectsPerRun);
+            deleteS3(candidates, sweep);
+            sweep.resumeAfter = Boolean.TRUE.equals(page.isTruncated()) ? startAfter : null;
+        } catch (RuntimeException e) {
+            // The next run repeats this slice
+            log.warn("⚠️ S3 garbage collection stopped: {}", e.getMessage());
+            sweep.failed = true;
+        }
+        sweep.completedPass = sweep.resumeAfter == null && !sweep.failed;
+        return sweep;
+    }
+
+    private void deleteS3(Map<String, Long> candidates, Sweep sweep) {
+        if (candidates.isEmpty()) {
+            return;
+        }
+        Set<String> stillReferenced = verify(candidates.keySet());
+        sweep.verifiedReferenced += stillReferenced.size();
+        List<String> orphans = candidates.keySet().stream().filter(key -> !stillReferenced.contains(key)).toList();
+        if (!orphans.isEmpty()) {
+            Set<String> failed = new HashSet<>(callS3(() -> s3Service.deleteFiles(orphans)));
+            for (String key : orphans) {
+                if (failed.contains(key)) {
+                    sweep.deleteFailures++;
+                } else {
+                    sweep.deleted++;
+                    sweep.bytesFreed += candidates.get(key);
+                }
+            }
+        }
+        candidates.clear();
+    }
+
+    private Sweep sweepLocal(BloomFilter referenced, Instant cutoff, String resumeAfterShard) {
+        Sweep sweep = new Sweep();
+        sweep.resumeAfter = resumeAfterShard;
+        Map<Path, LocalFile> candidates = new LinkedHashMap<>();
+        try {
+            if (resumeAfterShard == null) {
+                // Files not yet migrated to the sharded layout
+                sweepLocalFiles(null, referenced, cutoff, candidates, sweep);
+            }
+            Iterator<String> shards = localFileStorageService.shardNames().stream()
+                    .filter(name -> resumeAfterShard == null || name.compareTo(resumeAfterShard) > 0)
+                    .iterator();
+            String shard = null;
+            while (shards.hasNext() && sweep.scanned < maxObjectsPerRun) {
+                shard = shards.next();
+                sweepLocalFiles(shard, referenced, cutoff, candidates, sweep);
+            }
+            deleteLocal(candidates, sweep);
+            sweep.resumeAfter = shards.hasNext() ? shard : null;
+        } catch (IOException | UncheckedIOException e) {
+            log.warn("⚠️ Local garbage collection stopped: {}", e.getMessage());
+            sweep.failed = true;
+        }
+        sweep.completedPass = sweep.resumeAfter == null && !sweep.failed;
+        return sweep;
+    }
+
+    private void sweepLocalFiles(String shard, BloomFilter referenced, Instant cutoff,
+                                 Map<Path, LocalFile> candidates, Sweep sweep) throws IOException {
+        try (Stream<Path> files = localFileStorageService.storedFiles(shard)) {
+            for (Iterator<Path> it = files.iterator(); it.hasNext(); ) {
+                Path path = it.next();
+                String key = path.getFileName().toString();
+                sweep.scanned++;
+                if (referenced.mightContain(key)) {
+                    sweep.referenced++;
+                    continue;
+                }
+                BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+                if (attributes.lastModifiedTime().toInstant().isAfter(cutoff)) {
+                    sweep.tooYoung++;
+                } else {
+                    candidates.put(path, new LocalFile(key, attributes.size()));
+                    if (candidates.size() >= batchSize) {
+                        deleteLocal(candidates, sweep);
+                    }
+                }
+            }
+        }
+    }
+
+    private void deleteLocal(Map<Path, LocalFile> candidates, Sweep sweep) throws IOException {
+        if (candidates.isEmpty()) {
+            return;
+        }
+        Set<String> stillReferenced = verify(candidates.values().stream().map(LocalFile::key).toList());
+        for (Map.Entry<Path, LocalFile> candidate : candidates.entrySet()) {
+            if (stillReferenced.contains(candidate.getValue().key())) {
+                sweep.verifiedReferenced++;
+            } else if (localFileStorageService.deleteStoredFile(candidate.getKey())) {
+                sweep.deleted++;
+                sweep.bytesFreed += candidate.getValue().size();
+            }
+        }
+        candidates.clear();
+    }
+
+    private Set<String> verify(Collection<String> keys) {
+        List<String> batch = List.copyOf(keys);
+        Set<String> referenced = new HashSet<>();
+        for (StorageKeySource source : keySources) {
+            referenced.addAll(source.findReferenced(batch));
+        }
+        return referenced;
+    }
+
+    private <T> T callS3(Supplier<T> call) {
+        if (!circuitBreaker.tryAcquirePermission()) {
+            throw new RuntimeException("S3 circuit is " + circuitBreaker.getState());
+        }
+        try {
+            T result = call.get();
+            circuitBreaker.recordSuccess();
+            return result;
+        } catch (RuntimeException e) {
+            circuitBreaker.recordError(e);
+            throw e;
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        return lastRun;
+    }
+
+    private record LocalFile(String key, long size) {}
+
+    private static final class Sweep {
+        long scanned;
+        long referenced;
+        long tooYoung;
+        long verifiedReferenced;
+        long deleted;
+        long deleteFailures;
+        long bytesFreed;
+        boolean skipped;
+        boolean failed;
+        boolean completedPass;
+        String resumeAfter;
+
+        Map<String, Object> toMap() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("scanned", scanned);
+            map.put("referenced", referenced);
+            map.put("tooYoung", tooYoung);
+            map.put("verifiedReferenced", verifiedReferenced);
+            map.put("deleted", deleted);
+            map.put("deleteFailures", deleteFailures);
+            map.put("bytesFreed", bytesFreed);
+            map.put("skipped", skipped);
+            map.put("failed", failed);
+            map.put("completedPass", completedPass);
+            map.put("resumeAfter", resumeAfter);
+            return map;
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.lms.service;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Something in the database that references stored files; the storage GC never deletes a key
+ * reported by any source
+ */
+public interface StorageKeySource {
+
+    /**
+     * Approximate number of keys, used to size the Bloom filter
+     */
+    long estimateCount();
+
+    /**
+     * Streams every referenced key in bounded pages
+     */
+    void forEachKey(Consumer<String> consumer);
+
+    /**
+     * The subset of keys that are referenced right now
+     */
+    Set<String> findReferenced(Collection<String> keys);
+}
@@ -0,0 +1,132 @@
+package com.example.lms.service;
+
+import com.example.lms.entity.RevokedToken;
+import com.example.lms.repository.RevokedTokenRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Revoked access-token ids, checked on every authenticated request.
+ *
+ * The revoked_tokens table is the source of truth; an in-memory Bloom filter of its ids answers
+ * the common "not revoked" case without touching the database. Only ids the filter might contain
+ * are confirmed with a primary-key lookup. {@link #sync()} picks up revocations made on other
+ * nodes and periodically rebuilds the filter without expired ids.
+ */
+@Service
+@Slf4j
+public class TokenRevocationService {
+
+    // Other nodes' clocks may lag slightly; re-reading a few seconds of revocations is harmless
+    private static final long SYNC_OVERLAP_SECONDS = 10;
+    private static final long REBUILD_INTERVAL_MINUTES = 60;
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final long expectedEntries;
+    private final double falsePositiveRate;
+
+    private volatile BloomFilter filter;
+    private volatile LocalDateTime syncedAt;
+    private volatile LocalDateTime rebuiltAt;
+
+    private final LongAdder checks = new LongAdder();
+    private final LongAdder databaseLookups = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    public TokenRevocationService(RevokedTokenRepository revokedTokenRepository,
+                                  @Value("${security.jwt.revocation.expected-entries:100000}") long expectedEntries,
+                                  @Value("${security.jwt.revocation.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.expectedEntries = expectedEntries;
+        this.falsePositiveRate = falsePositiveRate;
+    }
+
+    @PostConstruct
+    public void init() {
+        rebuild();
+    }
+
+    public void revoke(String jti, LocalDateTime expiresAt) {
+        if (jti == null || expiresAt.isBefore(LocalDateTime.now())) {
+            return;
+        }
+        revokedTokenRepository.save(RevokedToken.builder()
+                .jti(jti)
+                .expiresAt(expiresAt)
+                .revokedAt(LocalDateTime.now())
+                .build());
+        BloomFilter current = filter;
+        current.put(jti);
+        if (filter != current) {
+            // A rebuild swapped the filter in between
+            filter.put(jti);
+        }
+        log.info("🚫 Access token {} revoked", jti);
+    }
+
+    public boolean isRevoked(String jti) {
+        checks.increment();
+        if (jti == null || !filter.mightContain(jti)) {
+            return false;
+        }
+        databaseLookups.increment();
+        boolean revoked = revokedTokenRepository.existsById(jti);
+        if (revoked) {
+            rejected.increment();
+        }
+        return revoked;
+    }
+
+    /**
+     * Adds revocations recorded since the last sync (including other nodes'), and rebuilds the
+     * filter once an hour so ids of expired tokens stop occupying it. Returns true if it rebuilt.
+     */
+    @Transactional
+    public boolean sync() {
+        if (rebuiltAt.plusMinutes(REBUILD_INTERVAL_MINUTES).isBefore(LocalDateTime.now())) {
+            rebuild();
+            return true;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<String> recent = revokedTokenRepository.findJtisRevokedSince(syncedAt.minusSeconds(SYNC_OVERLAP_SECONDS));
+        recent.forEach(filter::put);
+        syncedAt = now;
+        return false;
+    }
+
+    public Map<String, Object> getStats() {
+        long total = checks.sum();
+        long lookups = databaseLookups.sum();
+        return Map.of(
+                "checks", total,
+                "databaseLookups", lookups,
+                "rejected", rejected.sum(),
+                "lookupRatio", total == 0 ? 0.0 : (double) lookups / total,
+                "filterBits", filter.bitSize()
+        );
+    }
+
+    private synchronized void rebuild() {
+        // Watermark taken before the snapshot: revocations recorded while the new filter is being
+        // built only reach the old one, so they are replayed into the new one after the swap
+        LocalDateTime startedAt = LocalDateTime.now();
+        int purged = revokedTokenRepository.deleteExpired(startedAt);
+        List<String> active = revokedTokenRepository.findUnexpiredJtis(startedAt);
+        BloomFilter rebuilt = new BloomFilter(Math.max(expectedEntries, active.size() * 2L), falsePositiveRate);
+        active.forEach(rebuilt::put);
+        filter = rebuilt;
+        revokedTokenRepository.findJtisRevokedSince(startedAt.minusSeconds(SYNC_OVERLAP_SECONDS)).forEach(rebuilt::put);
+        // The next sync re-reads from the watermark too, covering revocations committed after the replay
+        syncedAt = startedAt;
+        rebuiltAt = startedAt;
+        log.info("🧹 Revocation filter rebuilt with {} active ids ({} expired purged)", active.size(), purged);
+    }
+}
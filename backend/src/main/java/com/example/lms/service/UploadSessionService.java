@@ -0,0 +1,339 @@
+package com.example.lms.service;
+
+import com.example.lms.dto.S3FileResponse;
+import com.example.lms.dto.request.CreateUploadSessionRequest;
+import com.example.lms.entity.Content;
+import com.example.lms.entity.Course;
+import com.example.lms.entity.UploadChunk;
+import com.example.lms.entity.UploadSession;
+import com.example.lms.entity.UploadStorage;
+import com.example.lms.exception.BadRequestException;
+import com.example.lms.exception.ConflictException;
+import com.example.lms.exception.ResourceNotFoundException;
+import com.example.lms.repository.UploadChunkRepository;
+import com.example.lms.repository.UploadSessionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Resumable chunked uploads.
+ *
+ * A session is created up front, then numbered chunks are sent with a SHA-256 checksum each,
+ * in any order and with retries. Local sessions write each chunk at its offset in one partial
+ * file; S3 sessions upload each chunk as a multipart part. Finalizing is a rename (local) or a
+ * CompleteMultipartUpload (S3), so the assembled file is never read back.
+ *
+ * Sessions belong to the user who created them; to anyone else they do not exist. A chunk is
+ * written while holding the session's row lock, so chunks of one session are stored one at a
+ * time and never while the session is being completed.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class UploadSessionService {
+
+    // S3 rejects multipart parts smaller than 5 MB (except the last) and more than 10,000 parts
+    private static final int S3_MIN_PART_SIZE = 5 * 1024 * 1024;
+    private static final int S3_MAX_PARTS = 10_000;
+
+    private final UploadSessionRepository sessionRepository;
+    private final UploadChunkRepository chunkRepository;
+    private final CourseService courseService;
+    private final ContentService contentService;
+    private final LocalFileStorageService localFileStorageService;
+    private final S3Service s3Service;
+    private final S3CircuitBreaker circuitBreaker;
+
+    @Value("${storage.chunked-upload.chunk-size:8388608}")
+    private int defaultChunkSize;
+
+    @Value("${storage.chunked-upload.session-ttl-hours:24}")
+    private long sessionTtlHours;
+
+    @Transactional
+    public UploadSession createSession(Long userId, CreateUploadSessionRequest request) {
+        if (request.getTotalSize() == null || request.getTotalSize() <= 0) {
+            throw new BadRequestException("totalSize must be positive");
+        }
+        if (request.getFileName() == null || request.getFileName().isBlank()) {
+            throw new BadRequestException("fileName is required");
+        }
+        Course course = courseService.findById(request.getCourseId())
+                .orElseThrow(() -> new ResourceNotFoundException("Course not found"));
+
+        int chunkSize = (int) Math.max(Math.max(defaultChunkSize, S3_MIN_PART_SIZE),
+                (request.getTotalSize() + S3_MAX_PARTS - 1) / S3_MAX_PARTS);
+        int totalChunks = (int) ((request.getTotalSize() + chunkSize - 1) / chunkSize);
+        String fileName = safeFileName(request.getFileName());
+        String uniqueFilename = UUID.randomUUID() + "-" + fileName;
+
+        UploadSession session = UploadSession.builder()
+                .id(UUID.randomUUID().toString())
+                .course(course)
+                .createdBy(userId)
+                .title(request.getTitle())
+                .description(request.getDescription())
+                .contentType(request.getContentType())
+                .orderIndex(request.getOrderIndex())
+                .fileName(fileName)
+                .totalSize(request.getTotalSize())
+                .chunkSize(chunkSize)
+                .totalChunks(totalChunks)
+                .storage(UploadStorage.LOCAL)
+                .storageKey(uniqueFilename)
+                .createdAt(LocalDateTime.now())
+                .expiresAt(LocalDateTime.now().plusHours(sessionTtlHours))
+                .build();
+
+        // Prefer S3 multipart; fall back to a local partial file while S3 is unavailable
+        if (circuitBreaker.tryAcquirePermission()) {
+            String key = S3Service.KEY_PREFIX + uniqueFilename;
+            try {
+                session.setS3UploadId(s3Service.createMultipartUpload(key, request.getMimeType()));
+                circuitBreaker.recordSuccess();
+                session.setStorage(UploadStorage.S3);
+                session.setStorageKey(key);
+            } catch (RuntimeException e) {
+                circuitBreaker.recordError(e);
+                log.warn("⚠️ S3 multipart create failed, using local storage: {}", e.getMessage());
+            }
+        }
+
+        log.info("📤 Upload session {} created: {} bytes in {} chunks ({})",
+                session.getId(), session.getTotalSize(), totalChunks, session.getStorage());
+        return sessionRepository.save(session);
+    }
+
+    @Transactional
+    public UploadSession receiveChunk(Long userId, String sessionId, int index, byte[] data, String checksum) {
+        UploadSession session = accessible(sessionRepository.findByIdForUpdate(sessionId), userId);
+        if (session.isCompleting()) {
+            throw new ConflictException("Upload session is being completed");
+        }
+        if (index < 0 || index >= session.getTotalChunks()) {
+            throw new BadRequestException("Chunk index out of range: " + index);
+        }
+        if (data.length != expectedChunkSize(session, index)) {
+            throw new BadRequestException("Chunk " + index + " must be " + expectedChunkSize(session, index) + " bytes");
+        }
+        if (checksum == null || !checksum.equalsIgnoreCase(sha256(data))) {
+            throw new BadRequestException("Checksum mismatch for chunk " + index);
+        }
+
+        UploadChunk chunk = chunkRepository.findBySessionAndChunkIndex(session, index).orElse(null);
+        if (chunk != null && chunk.getChecksum().equalsIgnoreCase(checksum)) {
+            // Retried chunk that already arrived intact
+            return session;
+        }
+
+        String etag = session.getStorage() == UploadStorage.S3
+                ? uploadPart(session, index, data)
+                : writeLocalChunk(session, index, data);
+
+        if (chunk == null) {
+            chunk = UploadChunk.builder().session(session).chunkIndex(index).build();
+        }
+        chunk.setSize(data.length);
+        chunk.setChecksum(checksum.toLowerCase());
+        chunk.setEtag(etag);
+        chunkRepository.save(chunk);
+
+        session.setExpiresAt(LocalDateTime.now().plusHours(sessionTtlHours));
+        return sessionRepository.save(session);
+    }
+
+    public UploadSession getSession(Long userId, String sessionId) {
+        return accessible(sessionRepository.findById(sessionId), userId);
+    }
+
+    public List<UploadChunk> getChunks(UploadSession session) {
+        return chunkRepository.findBySessionOrderByChunkIndex(session);
+    }
+
+    @Transactional
+    public Content complete(Long userId, String sessionId) {
+        UploadSession session = getSession(userId, sessionId);
+        List<UploadChunk> chunks = getChunks(session);
+        if (chunks.size() != session.getTotalChunks()) {
+            throw new ConflictException("Upload incomplete: received " + chunks.size()
+                    + " of " + session.getTotalChunks() + " chunks");
+        }
+        // Held until this transaction ends; a concurrent call waits, then finds the session gone or claimed
+        if (sessionRepository.claimForCompletion(sessionId) == 0) {
+            throw new ConflictException("Upload session is already being completed");
+        }
+
+        S3FileResponse fileResponse;
+        if (session.getStorage() == UploadStorage.S3) {
+            List<CompletedPart> parts = new ArrayList<>(chunks.size());
+            for (UploadChunk chunk : chunks) {
+                parts.add(CompletedPart.builder().partNumber(chunk.getChunkIndex() + 1).eTag(chunk.getEtag()).build());
+            }
+            fileResponse = callS3(() -> s3Service.completeMultipartUpload(session.getStorageKey(), session.getS3UploadId(), parts));
+        } else {
+            fileResponse = localFileStorageService.adoptFile(partialFile(session), session.getStorageKey());
+        }
+
+        Content content = contentService.save(Content.builder()
+                .title(session.getTitle())
+                .description(session.getDescription())
+                .fileUrl(fileResponse.getFileUrl())
+                .s3Key(fileResponse.getKey())
+                .contentType(session.getContentType())
+                .orderIndex(session.getOrderIndex())
+                .createdAt(LocalDateTime.now())
+                .course(session.getCourse())
+                .build());
+
+        chunkRepository.deleteBySession(session);
+        sessionRepository.delete(session);
+        log.info("✅ Upload session {} finalized as content {}", sessionId, content.getId());
+        return content;
+    }
+
+    /**
+     * Discards expired sessions along with their partial file or S3 multipart upload
+     */
+    @Transactional
+    public int sweepExpired() {
+        List<UploadSession> expired = sessionRepository.findByExpiresAtBefore(LocalDateTime.now());
+        for (UploadSession session : expired) {
+            try {
+                if (session.getStorage() == UploadStorage.S3) {
+                    s3Service.abortMultipartUpload(session.getStorageKey(), session.getS3UploadId());
+                } else {
+                    Files.deleteIfExists(partialFile(session));
+                }
+            } catch (IOException | RuntimeException e) {
+                // S3 also expires incomplete multipart uploads through bucket lifecycle rules
+                log.warn("⚠️ Failed to discard data for upload session {}: {}", session.getId(), e.getMessage());
+            }
+            chunkRepository.deleteBySession(session);
+            sessionRepository.delete(session);
+        }
+        return expired.size();
+    }
+
+    /**
+     * Collapses received chunk indexes into inclusive ranges, e.g. 0,1,2,5 -> ["0-2", "5-5"]
+     */
+    public static List<String> toRanges(List<UploadChunk> chunks) {
+        List<String> ranges = new ArrayList<>();
+        int start = -1;
+        int prev = -1;
+        for (UploadChunk chunk : chunks) {
+            int index = chunk.getChunkIndex();
+            if (start < 0) {
+                start = index;
+            } else if (index != prev + 1) {
+                ranges.add(start + "-" + prev);
+                start = index;
+            }
+            prev = index;
+        }
+        if (start >= 0) {
+            ranges.add(start + "-" + prev);
+        }
+        return ranges;
+    }
+
+    /**
+     * The client's file name becomes part of the storage key and local path, so only its last
+     * path segment is kept, with anything but letters, digits, '.', '-' and '_' replaced
+     */
+    static String safeFileName(String fileName) {
+        String name = fileName.substring(Math.max(fileName.lastIndexOf('/'), fileName.lastIndexOf('\\')) + 1)
+                .replaceAll("[^A-Za-z0-9._-]", "_")
+                .replaceAll("\\.{2,}", ".")
+                .replaceAll("^\\.+", "");
+        if (name.length() > 200) {
+            name = name.substring(name.length() - 200);
+        }
+        return name.isEmpty() ? "file" : name;
+    }
+
+    private static UploadSession accessible(Optional<UploadSession> found, Long userId) {
+        UploadSession session = found
+                .filter(s -> s.getCreatedBy().equals(userId))
+                .orElseThrow(() -> new ResourceNotFoundException("Upload session not found"));
+        if (session.getExpiresAt().isBefore(LocalDateTime.now())) {
+            throw new ResourceNotFoundException("Upload session expired");
+        }
+        return session;
+    }
+
+    private long expectedChunkSize(UploadSession session, int index) {
+        long offset = (long) index * session.getChunkSize();
+        return Math.min(session.getChunkSize(), session.getTotalSize() - offset);
+    }
+
+    private String writeLocalChunk(UploadSession session, int index, byte[] data) {
+        try (FileChannel channel = FileChannel.open(partialFile(session), StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.wrap(data);
+            long position = (long) index * session.getChunkSize();
+            while (buffer.hasRemaining()) {
+                position += channel.write(buffer, position);
+            }
+            // Only report the chunk as received once it is durable
+            channel.force(false);
+            return null;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to store chunk " + index, e);
+        }
+    }
+
+    private String uploadPart(UploadSession session, int index, byte[] data) {
+        return callS3(() -> s3Service.uploadPart(session.getStorageKey(), session.getS3UploadId(), index + 1, data));
+    }
+
+    private <T> T callS3(Supplier<T> call) {
+        if (!circuitBreaker.tryAcquirePermission()) {
+            throw new RuntimeException("S3 unavailable: circuit is " + circuitBreaker.getState() + ", retry later");
+        }
+        try {
+            T result = call.get();
+            circuitBreaker.recordSuccess();
+            return result;
+        } catch (RuntimeException e) {
+            circuitBreaker.recordError(e);
+            throw e;
+        }
+    }
+
+    private Path partialFile(UploadSession session) {
+        try {
+            return localFileStorageService.partialFile(session.getId());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to prepare upload directory", e);
+        }
+    }
+
+    private static String sha256(byte[] data) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(data));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
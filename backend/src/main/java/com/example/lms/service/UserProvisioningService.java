@@ -0,0 +1,364 @@
+package com.example.lms.service;
+
+import com.example.lms.dto.BulkProvisioningResult;
+import com.example.lms.dto.request.RegisterRequest;
+import com.example.lms.entity.RoleName;
+import com.example.lms.exception.BadRequestException;
+import com.example.lms.repository.UserRepository;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Bulk user provisioning from a CSV or JSON stream.
+ *
+ * Rows are read incrementally and processed in batches: one IN query finds emails that already
+ * exist, passwords are hashed in parallel on a dedicated pool (kept separate from the login pool
+ * so onboarding never starves sign-ins), and users plus user_roles rows are written with JDBC
+ * batch inserts in one transaction per batch.
+ */
+@Service
+@Slf4j
+public class UserProvisioningService {
+
+    private static final int MAX_REPORTED_ERRORS = 1000;
+    private static final String INSERT_USER =
+            "INSERT INTO users (full_name, email, password, bio, avatar_url) VALUES (?, ?, ?, ?, ?)";
+    private static final String INSERT_USER_ROLE = "INSERT INTO user_roles (user_id, role_id) VALUES (?, ?)";
+
+    private final UserRepository userRepository;
+    private final RoleRegistry roleRegistry;
+    private final PasswordEncoder passwordEncoder;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+    private final ExecutorService hashingPool;
+
+    public UserProvisioningService(UserRepository userRepository,
+                                   RoleRegistry roleRegistry,
+                                   PasswordEncoder passwordEncoder,
+                                   JdbcTemplate jdbcTemplate,
+                                   TransactionTemplate transactionTemplate,
+                                   ObjectMapper objectMapper,
+                                   @Value("${provisioning.bulk.batch-size:500}") int batchSize,
+                                   @Value("${provisioning.bulk.hashing-threads:0}") int hashingThreads) {
+        this.userRepository = userRepository;
+        this.roleRegistry = roleRegistry;
+        this.passwordEncoder = passwordEncoder;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.batchSize = batchSize;
+        int threads = hashingThreads > 0 ? hashingThreads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger threadCount = new AtomicInteger();
+        this.hashingPool = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "provisioning-hash-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public BulkProvisioningResult provisionCsv(InputStream in) {
+        return provision(consumer -> readCsv(in, consumer));
+    }
+
+    public BulkProvisioningResult provisionJson(InputStream in) {
+        return provision(consumer -> readJson(in, consumer));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        hashingPool.shutdownNow();
+    }
+
+    private BulkProvisioningResult provision(Consumer<Consumer<RegisterRequest>> reader) {
+        long start = System.currentTimeMillis();
+        BulkProvisioningResult result = new BulkProvisioningResult();
+        List<RegisterRequest> batch = new ArrayList<>(batchSize);
+        int[] rowNumber = {0};
+
+        reader.accept(row -> {
+            rowNumber[0]++;
+            result.setReceived(result.getReceived() + 1);
+            String error = validate(row);
+            if (error != null) {
+                reject(result, "row " + rowNumber[0] + ": " + error);
+                return;
+            }
+            batch.add(row);
+            if (batch.size() >= batchSize) {
+                processBatch(batch, result);
+                batch.clear();
+            }
+        });
+        if (!batch.isEmpty()) {
+            processBatch(batch, result);
+        }
+
+        result.setElapsedMillis(System.currentTimeMillis() - start);
+        log.info("👥 Bulk provisioning: {} received, {} created, {} existing, {} failed in {} ms",
+                result.getReceived(), result.getCreated(), result.getSkippedExisting(), result.getFailed(),
+                result.getElapsedMillis());
+        return result;
+    }
+
+    private void processBatch(List<RegisterRequest> batch, BulkProvisioningResult result) {
+        // Later rows with the same email as an earlier row in the batch are duplicates too.
+        // Emails are lowercased by validate(), matching MySQL's case-insensitive comparison
+        Map<String, RegisterRequest> byEmail = new LinkedHashMap<>();
+        for (RegisterRequest row : batch) {
+            if (byEmail.putIfAbsent(row.getEmail(), row) != null) {
+                result.setSkippedExisting(result.getSkippedExisting() + 1);
+            }
+        }
+
+        Set<String> existing = new HashSet<>();
+        for (String email : userRepository.findExistingEmails(byEmail.keySet())) {
+            existing.add(email.toLowerCase(Locale.ROOT));
+        }
+        byEmail.keySet().removeAll(existing);
+        result.setSkippedExisting(result.getSkippedExisting() + existing.size());
+        if (byEmail.isEmpty()) {
+            return;
+        }
+
+        List<RegisterRequest> rows = new ArrayList<>(byEmail.values());
+        List<String> hashes = hashAll(rows);
+        try {
+            transactionTemplate.executeWithoutResult(status -> insertBatch(rows, hashes));
+            result.setCreated(result.getCreated() + rows.size());
+        } catch (DataAccessException e) {
+            // Most likely a concurrent registration of one of the emails; nothing from the batch was kept
+            log.error("❌ Bulk provisioning batch of {} failed: {}", rows.size(), e.getMessage());
+            for (RegisterRequest row : rows) {
+                reject(result, row.getEmail() + ": batch insert failed");
+            }
+        }
+    }
+
+    private List<String> hashAll(List<RegisterRequest> rows) {
+        List<Callable<String>> tasks = new ArrayList<>(rows.size());
+        for (RegisterRequest row : rows) {
+            tasks.add(() -> passwordEncoder.encode(row.getPassword()));
+        }
+        try {
+            List<String> hashes = new ArrayList<>(rows.size());
+            for (Future<String> future : hashingPool.invokeAll(tasks)) {
+                hashes.add(future.get());
+            }
+            return hashes;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while hashing passwords", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+
+    private void insertBatch(List<RegisterRequest> rows, List<String> hashes) {
+        List<Object[]> users = new ArrayList<>(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            RegisterRequest row = rows.get(i);
+            users.add(new Object[]{row.getFullName(), row.getEmail(), hashes.get(i), row.getBio(), row.getAvatarUrl()});
+        }
+        jdbcTemplate.batchUpdate(INSERT_USER, users);
+
+        // Generated keys from batches are driver-specific, so read the new ids back in one query
+        Map<String, Long> ids = new HashMap<>();
+        String placeholders = String.join(",", Collections.nCopies(rows.size(), "?"));
+        jdbcTemplate.query("SELECT id, email FROM users WHERE email IN (" + placeholders + ")",
+                rs -> { ids.put(rs.getString("email"), rs.getLong("id")); },
+                rows.stream().map(RegisterRequest::getEmail).toArray());
+
+        List<Object[]> links = new ArrayList<>();
+        for (RegisterRequest row : rows) {
+            for (RoleName roleName : roleNames(row)) {
+                links.add(new Object[]{ids.get(row.getEmail()), roleRegistry.get(roleName).getId()});
+            }
+        }
+        jdbcTemplate.batchUpdate(INSERT_USER_ROLE, links);
+    }
+
+    private String validate(RegisterRequest row) {
+        if (row.getEmail() == null || row.getEmail().isBlank()) {
+            return "email is required";
+        }
+        row.setEmail(row.getEmail().trim().toLowerCase(Locale.ROOT));
+        if (!EmailAddresses.isValid(row.getEmail())) {
+            return "invalid email";
+        }
+        if (row.getFullName() == null || row.getFullName().isBlank()) {
+            return "fullName is required";
+        }
+        if (row.getPassword() == null || row.getPassword().isEmpty()) {
+            return "password is required";
+        }
+        try {
+            roleNames(row);
+        } catch (IllegalArgumentException e) {
+            return "invalid role in " + row.getRoles();
+        }
+        return null;
+    }
+
+    private static Set<RoleName> roleNames(RegisterRequest row) {
+        if (row.getRoles() == null || row.getRoles().isEmpty()) {
+            return Set.of(RoleName.ROLE_STUDENT);
+        }
+        Set<RoleName> names = new LinkedHashSet<>();
+        for (String role : row.getRoles()) {
+            names.add(RoleName.valueOf(role.trim()));
+        }
+        return names;
+    }
+
+    private static void reject(BulkProvisioningResult result, String error) {
+        result.setFailed(result.getFailed() + 1);
+        if (result.getErrors().size() < MAX_REPORTED_ERRORS) {
+            result.getErrors().add(error);
+        }
+    }
+
+    private void readJson(InputStream in, Consumer<RegisterRequest> consumer) {
+        try (JsonParser parser = objectMapper.getFactory().createParser(in)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new BadRequestException("Expected a JSON array of users");
+            }
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                consumer.accept(parser.readValueAs(RegisterRequest.class));
+            }
+        } catch (IOException e) {
+            throw new BadRequestException("Invalid JSON: " + e.getMessage());
+        }
+    }
+
+    /**
+     * CSV with a header row naming the columns: fullName, email, password, and optionally
+     * roles (separated by ';'), bio and avatarUrl. Fields may be double-quoted, and quoted
+     * fields may contain commas, doubled quotes and line breaks.
+     */
+    private void readCsv(InputStream in, Consumer<RegisterRequest> consumer) {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            List<String> header = readCsvRecord(reader);
+            if (header == null) {
+                return;
+            }
+            Map<String, Integer> columns = new HashMap<>();
+            for (int i = 0; i < header.size(); i++) {
+                // Excel prefixes UTF-8 exports with a byte order mark
+                String name = i == 0 ? header.get(i).replace("\uFEFF", "") : header.get(i);
+                columns.put(name.trim().toLowerCase(Locale.ROOT), i);
+            }
+            for (String required : List.of("fullname", "email", "password")) {
+                if (!columns.containsKey(required)) {
+                    throw new BadRequestException("CSV header must include fullName, email and password");
+                }
+            }
+
+            List<String> fields;
+            while ((fields = readCsvRecord(reader)) != null) {
+                if (fields.size() == 1 && fields.get(0).isBlank()) {
+                    continue;
+                }
+                RegisterRequest row = new RegisterRequest();
+                row.setFullName(field(fields, columns, "fullname"));
+                row.setEmail(field(fields, columns, "email"));
+                row.setPassword(field(fields, columns, "password"));
+                row.setBio(field(fields, columns, "bio"));
+                row.setAvatarUrl(field(fields, columns, "avatarurl"));
+                String roleList = field(fields, columns, "roles");
+                if (roleList != null && !roleList.isBlank()) {
+                    row.setRoles(new LinkedHashSet<>(Arrays.asList(roleList.split(";"))));
+                }
+                consumer.accept(row);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read CSV", e);
+        }
+    }
+
+    private static String field(List<String> fields, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        return index != null && index < fields.size() ? fields.get(index) : null;
+    }
+
+    /**
+     * The next record, or null at the end of the input. A quoted field continues over line
+     * breaks, which are kept as '\n'.
+     */
+    private static List<String> readCsvRecord(BufferedReader reader) throws IOException {
+        String line = reader.readLine();
+        if (line == null) {
+            return null;
+        }
+        List<String> fields = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        while (true) {
+            for (int i = 0; i < line.length(); i++) {
+                char c = line.charAt(i);
+                if (quoted) {
+                    if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        current.append('"');
+                        i++;
+                    } else if (c == '"') {
+                        quoted = false;
+                    } else {
+                        current.append(c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(current.toString());
+                    current.setLength(0);
+                } else {
+                    current.append(c);
+                }
+            }
+            if (!quoted) {
+                break;
+            }
+            line = reader.readLine();
+            if (line == null) {
+                throw new BadRequestException("CSV ends inside a quoted field");
+            }
+            current.append('\n');
+        }
+        fields.add(current.toString());
+        return fields;
+    }
+}
@@ -6,11 +6,11 @@ import com.example.lms.entity.RoleName;
 import com.example.lms.entity.User;
 import com.example.lms.exception.ConflictException;
 import com.example.lms.exception.ResourceNotFoundException;
-import com.example.lms.repository.RoleRepository;
 import com.example.lms.repository.UserRepository;
+import com.example.lms.security.PasswordHashingExecutor;
+import com.example.lms.security.UserCacheInvalidationBus;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import java.util.HashSet;
@@ -23,8 +23,10 @@ import java.util.Set;
 @Slf4j
 public class UserService {
     private final UserRepository userRepository;
-    private final RoleRepository roleRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final RoleRegistry roleRegistry;
+    private final PasswordHashingExecutor passwordHashingExecutor;
+    private final UserCacheInvalidationBus userCacheInvalidationBus;
+    private final RefreshTokenService refreshTokenService;
 
     public User registerUser(RegisterRequest request) {
         log.info("🔵 Registration request received for email: {}", request.getEmail());
@@ -40,7 +42,7 @@ public class UserService {
         User user = User.builder()
                 .fullName(request.getFullName())
                 .email(request.getEmail())
-                .password(passwordEncoder.encode(request.getPassword()))
+                .password(passwordHashingExecutor.encode(request.getPassword()))
                 .bio(request.getBio())
                 .avatarUrl(request.getAvatarUrl())
                 .build();
@@ -48,25 +50,11 @@ public class UserService {
         // ✅ Assign roles
         if (request.getRoles() == null || request.getRoles().isEmpty()) {
             log.info("🔵 No roles specified, defaulting to ROLE_STUDENT");
-            Role studentRole = roleRepository.findByRoleName(RoleName.ROLE_STUDENT)
-                    .orElseThrow(() -> new ResourceNotFoundException("ROLE_STUDENT not found in database"));
-            user.setRoles(Set.of(studentRole));
+            user.setRoles(new HashSet<>(Set.of(roleRegistry.get(RoleName.ROLE_STUDENT))));
         } else {
             Set<Role> roles = new HashSet<>();
             for (String roleName : request.getRoles()) {
-                log.info("🔵 Looking for role: {}", roleName);
-                try {
-                    RoleName roleNameEnum = RoleName.valueOf(roleName);
-                    log.info("🔵 Parsed role enum: {}", roleNameEnum);
-                    
-                    Role role = roleRepository.findByRoleName(roleNameEnum)
-                            .orElseThrow(() -> new ResourceNotFoundException("Role not found in DB: " + roleName));
-                    log.info("✅ Found role in DB: {} (ID: {})", role.getRoleName(), role.getId());
-                    roles.add(role);
-                } catch (IllegalArgumentException e) {
-                    log.error("❌ Invalid role name: {}. Valid values: ROLE_STUDENT, ROLE_TEACHER, ROLE_ADMIN", roleName);
-                    throw new ResourceNotFoundException("Invalid role name: " + roleName);
-                }
+                roles.add(roleRegistry.get(roleName));
             }
             user.setRoles(roles);
             log.info("✅ Assigned {} role(s) to user", roles.size());
@@ -81,12 +69,50 @@ public class UserService {
         return userRepository.findByEmail(email);
     }
 
+    /**
+     * Same as findByEmail, with roles fetched for rendering
+     */
+    public Optional<User> findWithRolesByEmail(String email) {
+        return userRepository.findWithRolesByEmail(email);
+    }
+
     public List<User> findAllUsers() {
         return userRepository.findAll();
     }
 
     public Optional<User> findById(Long id) { return userRepository.findById(id); }
     public User save(User user) { return userRepository.save(user); }
-    public void deleteById(Long id) { userRepository.deleteById(id); }
+
+    public User assignRole(Long userId, String roleName) {
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        user.getRoles().add(roleRegistry.get(roleName));
+        return saveAndInvalidate(user);
+    }
+
+    public User revokeRole(Long userId, String roleName) {
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        user.getRoles().remove(roleRegistry.get(roleName));
+        return saveAndInvalidate(user);
+    }
+
+    public void deleteById(Long id) {
+        userRepository.findById(id).ifPresent(user -> {
+            refreshTokenService.deleteAllForUser(user);
+            userRepository.delete(user);
+            // Published after the delete has committed, so no node can re-cache the old account
+            userCacheInvalidationBus.publish(user.getEmail());
+            log.info("🗑️ User {} deleted", id);
+        });
+    }
+
+    private User saveAndInvalidate(User user) {
+        User saved = userRepository.save(user);
+        userCacheInvalidationBus.publish(saved.getEmail());
+        log.info("🔑 Roles of user {} changed to {}", saved.getId(),
+                saved.getRoles().stream().map(r -> r.getRoleName().name()).toList());
+        return saved;
+    }
 
 }
@@ -0,0 +1,240 @@
+-- Same schema as mysql/V1__baseline.sql, captured with the H2 dialect for the dev profile and tests.
+
+create sequence enrollment_seq start with 1 increment by 50;
+
+create sequence progress_seq start with 1 increment by 50;
+
+create table certificates (
+    attempts integer not null,
+    completed_at timestamp(6),
+    enrollment_id bigint not null unique,
+    generated_at timestamp(6),
+    id bigint generated by default as identity,
+    requested_at timestamp(6) not null,
+    size_bytes bigint,
+    started_at timestamp(6),
+    last_error varchar(1000),
+    storage_key varchar(255),
+    status enum ('FAILED','GENERATING','PENDING','READY') not null,
+    primary key (id)
+);
+
+create table contents (
+    order_index integer,
+    course_id bigint not null,
+    created_at timestamp(6),
+    id bigint generated by default as identity,
+    content_type varchar(255),
+    description TEXT,
+    file_url varchar(255) not null,
+    s3key varchar(255) not null,
+    title varchar(255) not null,
+    primary key (id)
+);
+
+create table courses (
+    created_at timestamp(6),
+    id bigint generated by default as identity,
+    instructor_id bigint,
+    updated_at timestamp(6),
+    description TEXT,
+    title varchar(255) not null,
+    primary key (id)
+);
+
+create table dead_letter_notifications (
+    attempts integer not null,
+    failed_at timestamp(6) not null,
+    id bigint generated by default as identity,
+    last_error varchar(1000),
+    body TEXT,
+    recipient varchar(255) not null,
+    subject varchar(255),
+    primary key (id)
+);
+
+create table enrollments (
+    progress_percentage float(53),
+    course_id bigint not null,
+    enrolled_at timestamp(6),
+    id bigint not null,
+    student_id bigint not null,
+    status enum ('ACTIVE','CANCELLED','COMPLETED','PENDING'),
+    primary key (id),
+    unique (student_id, course_id)
+);
+
+create table progress (
+    completed boolean,
+    percent_complete integer,
+    content_id bigint not null,
+    enrollment_id bigint not null,
+    id bigint not null,
+    last_accessed_at timestamp(6),
+    primary key (id),
+    unique (enrollment_id, content_id)
+);
+
+create table refresh_tokens (
+    created_at timestamp(6),
+    expires_at timestamp(6),
+    id bigint generated by default as identity,
+    used_at timestamp(6),
+    user_id bigint not null,
+    access_token_id varchar(36),
+    family_id varchar(36) not null,
+    token_hash varchar(64) not null unique,
+    primary key (id)
+);
+
+create table reminder_deliveries (
+    delivered_at timestamp(6) not null,
+    run_id bigint not null,
+    student_id bigint not null,
+    primary key (run_id, student_id)
+);
+
+create table revoked_tokens (
+    expires_at timestamp(6) not null,
+    revoked_at timestamp(6) not null,
+    jti varchar(36) not null,
+    primary key (jti)
+);
+
+create table roles (
+    id bigint generated by default as identity,
+    role_name enum ('ROLE_ADMIN','ROLE_STUDENT','ROLE_TEACHER') not null unique,
+    primary key (id)
+);
+
+create table upload_chunks (
+    chunk_index integer not null,
+    size integer not null,
+    id bigint generated by default as identity,
+    session_id varchar(36) not null,
+    checksum varchar(64) not null,
+    etag varchar(255),
+    primary key (id),
+    unique (session_id, chunk_index)
+);
+
+create table upload_sessions (
+    chunk_size integer not null,
+    completing boolean not null,
+    order_index integer,
+    total_chunks integer not null,
+    course_id bigint not null,
+    created_at timestamp(6),
+    created_by bigint not null,
+    expires_at timestamp(6),
+    total_size bigint not null,
+    id varchar(36) not null,
+    content_type varchar(255),
+    description TEXT,
+    file_name varchar(255) not null,
+    s3upload_id varchar(255),
+    storage_key varchar(255) not null,
+    title varchar(255) not null,
+    storage enum ('LOCAL','S3') not null,
+    primary key (id)
+);
+
+create table user_roles (
+    role_id bigint not null,
+    user_id bigint not null,
+    primary key (role_id, user_id)
+);
+
+create table users (
+    id bigint generated by default as identity,
+    avatar_url varchar(255),
+    bio varchar(255),
+    email varchar(255) not null unique,
+    full_name varchar(255) not null,
+    password varchar(255) not null,
+    primary key (id)
+);
+
+create index idx_certificate_status_requested
+   on certificates (status, requested_at);
+
+create index idx_certificate_storage_key
+   on certificates (storage_key);
+
+create index idx_dead_letter_failed_at
+   on dead_letter_notifications (failed_at);
+
+create index idx_refresh_tokens_family
+   on refresh_tokens (family_id);
+
+create index idx_reminder_deliveries_delivered_at
+   on reminder_deliveries (delivered_at);
+
+create index idx_revoked_tokens_revoked_at
+   on revoked_tokens (revoked_at);
+
+create index idx_upload_session_expires
+   on upload_sessions (expires_at);
+
+create index idx_user_email
+   on users (email);
+
+alter table if exists certificates
+   add constraint FKjy46ubyh2tf64mgos6jgpcx4u
+   foreign key (enrollment_id)
+   references enrollments;
+
+alter table if exists contents
+   add constraint FK26ra050idh8wetyhulbictirv
+   foreign key (course_id)
+   references courses;
+
+alter table if exists courses
+   add constraint FKcyfum8goa6q5u13uog0563gyp
+   foreign key (instructor_id)
+   references users;
+
+alter table if exists enrollments
+   add constraint FKho8mcicp4196ebpltdn9wl6co
+   foreign key (course_id)
+   references courses;
+
+alter table if exists enrollments
+   add constraint FK2lha5vwilci2yi3vu5akusx4a
+   foreign key (student_id)
+   references users;
+
+alter table if exists progress
+   add constraint FKp5mqp84wf2wvxviheforfr9ny
+   foreign key (content_id)
+   references contents;
+
+alter table if exists progress
+   add constraint FKah0g7d1r5glsglxyhahvwd5b7
+   foreign key (enrollment_id)
+   references enrollments;
+
+alter table if exists refresh_tokens
+   add constraint FK1lih5y2npsf8u5o3vhdb9y0os
+   foreign key (user_id)
+   references users;
+
+alter table if exists upload_chunks
+   add constraint FKn3mc0mic1ghpuq4u6mn8q0qja
+   foreign key (session_id)
+   references upload_sessions;
+
+alter table if exists upload_sessions
+   add constraint FKn9newcxwbcbovfc188ctj2yll
+   foreign key (course_id)
+   references courses;
+
+alter table if exists user_roles
+   add constraint FKh8ciramu9cc9q3qcqiv4ue8a6
+   foreign key (role_id)
+   references roles;
+
+alter table if exists user_roles
+   add constraint FKhfh9dx7w3ubf1co1vdev94g3f
+   foreign key (user_id)
+   references users;
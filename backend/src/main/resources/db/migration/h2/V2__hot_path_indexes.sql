@@ -0,0 +1,9 @@
+-- Same indexes as mysql/V2__hot_path_indexes.sql; see there for the queries they serve.
+
+CREATE INDEX IF NOT EXISTS idx_content_course_order ON contents (course_id, order_index);
+CREATE INDEX IF NOT EXISTS idx_enrollment_course_status ON enrollments (course_id, status);
+CREATE INDEX IF NOT EXISTS idx_progress_enrollment_percent ON progress (enrollment_id, percent_complete);
+CREATE INDEX IF NOT EXISTS idx_course_instructor_title ON courses (instructor_id, title);
+CREATE INDEX IF NOT EXISTS idx_enrollment_status_student ON enrollments (status, student_id, id);
+CREATE INDEX IF NOT EXISTS idx_progress_enrollment_accessed ON progress (enrollment_id, last_accessed_at);
+CREATE INDEX IF NOT EXISTS idx_content_s3_key ON contents (s3key);
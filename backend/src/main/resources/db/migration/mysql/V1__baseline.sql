@@ -0,0 +1,268 @@
+-- Schema as Hibernate generated it for the entities before migrations took over (ddl-auto=update),
+-- captured with the MySQL dialect. Databases that already have these tables are baselined at this
+-- version on first start (spring.flyway.baseline-on-migrate) and only run later migrations.
+
+create table certificates (
+    attempts integer not null,
+    completed_at datetime(6),
+    enrollment_id bigint not null,
+    generated_at datetime(6),
+    id bigint not null auto_increment,
+    requested_at datetime(6) not null,
+    size_bytes bigint,
+    started_at datetime(6),
+    last_error varchar(1000),
+    storage_key varchar(255),
+    status enum ('FAILED','GENERATING','PENDING','READY') not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table contents (
+    order_index integer,
+    course_id bigint not null,
+    created_at datetime(6),
+    id bigint not null auto_increment,
+    content_type varchar(255),
+    description TEXT,
+    file_url varchar(255) not null,
+    s3key varchar(255) not null,
+    title varchar(255) not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table courses (
+    created_at datetime(6),
+    id bigint not null auto_increment,
+    instructor_id bigint,
+    updated_at datetime(6),
+    description TEXT,
+    title varchar(255) not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table dead_letter_notifications (
+    attempts integer not null,
+    failed_at datetime(6) not null,
+    id bigint not null auto_increment,
+    last_error varchar(1000),
+    body TEXT,
+    recipient varchar(255) not null,
+    subject varchar(255),
+    primary key (id)
+) engine=InnoDB;
+
+create table enrollment_seq (
+    next_val bigint
+) engine=InnoDB;
+
+insert into enrollment_seq values ( 1 );
+
+create table enrollments (
+    progress_percentage float(53),
+    course_id bigint not null,
+    enrolled_at datetime(6),
+    id bigint not null,
+    student_id bigint not null,
+    status enum ('ACTIVE','CANCELLED','COMPLETED','PENDING'),
+    primary key (id)
+) engine=InnoDB;
+
+create table progress (
+    completed bit,
+    percent_complete integer,
+    content_id bigint not null,
+    enrollment_id bigint not null,
+    id bigint not null,
+    last_accessed_at datetime(6),
+    primary key (id)
+) engine=InnoDB;
+
+create table progress_seq (
+    next_val bigint
+) engine=InnoDB;
+
+insert into progress_seq values ( 1 );
+
+create table refresh_tokens (
+    created_at datetime(6),
+    expires_at datetime(6),
+    id bigint not null auto_increment,
+    used_at datetime(6),
+    user_id bigint not null,
+    access_token_id varchar(36),
+    family_id varchar(36) not null,
+    token_hash varchar(64) not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table reminder_deliveries (
+    delivered_at datetime(6) not null,
+    run_id bigint not null,
+    student_id bigint not null,
+    primary key (run_id, student_id)
+) engine=InnoDB;
+
+create table revoked_tokens (
+    expires_at datetime(6) not null,
+    revoked_at datetime(6) not null,
+    jti varchar(36) not null,
+    primary key (jti)
+) engine=InnoDB;
+
+create table roles (
+    id bigint not null auto_increment,
+    role_name enum ('ROLE_ADMIN','ROLE_STUDENT','ROLE_TEACHER') not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table upload_chunks (
+    chunk_index integer not null,
+    size integer not null,
+    id bigint not null auto_increment,
+    session_id varchar(36) not null,
+    checksum varchar(64) not null,
+    etag varchar(255),
+    primary key (id)
+) engine=InnoDB;
+
+create table upload_sessions (
+    chunk_size integer not null,
+    completing bit not null,
+    order_index integer,
+    total_chunks integer not null,
+    course_id bigint not null,
+    created_at datetime(6),
+    created_by bigint not null,
+    expires_at datetime(6),
+    total_size bigint not null,
+    id varchar(36) not null,
+    content_type varchar(255),
+    description TEXT,
+    file_name varchar(255) not null,
+    s3upload_id varchar(255),
+    storage_key varchar(255) not null,
+    title varchar(255) not null,
+    storage enum ('LOCAL','S3') not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table user_roles (
+    role_id bigint not null,
+    user_id bigint not null,
+    primary key (role_id, user_id)
+) engine=InnoDB;
+
+create table users (
+    id bigint not null auto_increment,
+    avatar_url varchar(255),
+    bio varchar(255),
+    email varchar(255) not null,
+    full_name varchar(255) not null,
+    password varchar(255) not null,
+    primary key (id)
+) engine=InnoDB;
+
+create index idx_certificate_status_requested
+   on certificates (status, requested_at);
+
+create index idx_certificate_storage_key
+   on certificates (storage_key);
+
+alter table certificates
+   add constraint UK21ynuw4yilrbsr1nhm5mb9lre unique (enrollment_id);
+
+create index idx_dead_letter_failed_at
+   on dead_letter_notifications (failed_at);
+
+alter table enrollments
+   add constraint UKi0g6mfijtuh199nj653nva6j5 unique (student_id, course_id);
+
+alter table progress
+   add constraint UK7tcy32gmiuel3nv8r6ogdeob8 unique (enrollment_id, content_id);
+
+create index idx_refresh_tokens_family
+   on refresh_tokens (family_id);
+
+alter table refresh_tokens
+   add constraint UKo2mlirhldriil2y7krapq4frt unique (token_hash);
+
+create index idx_reminder_deliveries_delivered_at
+   on reminder_deliveries (delivered_at);
+
+create index idx_revoked_tokens_revoked_at
+   on revoked_tokens (revoked_at);
+
+alter table roles
+   add constraint UK716hgxp60ym1lifrdgp67xt5k unique (role_name);
+
+alter table upload_chunks
+   add constraint UKpmcdoj3hs70l5vqargxrfixdq unique (session_id, chunk_index);
+
+create index idx_upload_session_expires
+   on upload_sessions (expires_at);
+
+create index idx_user_email
+   on users (email);
+
+alter table users
+   add constraint UK6dotkott2kjsp8vw4d0m25fb7 unique (email);
+
+alter table certificates
+   add constraint FKjy46ubyh2tf64mgos6jgpcx4u
+   foreign key (enrollment_id)
+   references enrollments (id);
+
+alter table contents
+   add constraint FK26ra050idh8wetyhulbictirv
+   foreign key (course_id)
+   references courses (id);
+
+alter table courses
+   add constraint FKcyfum8goa6q5u13uog0563gyp
+   foreign key (instructor_id)
+   references users (id);
+
+alter table enrollments
+   add constraint FKho8mcicp4196ebpltdn9wl6co
+   foreign key (course_id)
+   references courses (id);
+
+alter table enrollments
+   add constraint FK2lha5vwilci2yi3vu5akusx4a
+   foreign key (student_id)
+   references users (id);
+
+alter table progress
+   add constraint FKp5mqp84wf2wvxviheforfr9ny
+   foreign key (content_id)
+   references contents (id);
+
+alter table progress
+   add constraint FKah0g7d1r5glsglxyhahvwd5b7
+   foreign key (enrollment_id)
+   references enrollments (id);
+
+alter table refresh_tokens
+   add constraint FK1lih5y2npsf8u5o3vhdb9y0os
+   foreign key (user_id)
+   references users (id);
+
+alter table upload_chunks
+   add constraint FKn3mc0mic1ghpuq4u6mn8q0qja
+   foreign key (session_id)
+   references upload_sessions (id);
+
+alter table upload_sessions
+   add constraint FKn9newcxwbcbovfc188ctj2yll
+   foreign key (course_id)
+   references courses (id);
+
+alter table user_roles
+   add constraint FKh8ciramu9cc9q3qcqiv4ue8a6
+   foreign key (role_id)
+   references roles (id);
+
+alter table user_roles
+   add constraint FKhfh9dx7w3ubf1co1vdev94g3f
+   foreign key (user_id)
+   references users (id);
@@ -0,0 +1,46 @@
+-- Indexes for the hottest repository queries that Hibernate does not infer from the mappings.
+-- Databases that ran with ddl-auto=update may already have some of them (the last three were declared
+-- on the entities) and MySQL has no CREATE INDEX IF NOT EXISTS, so each one is created only if missing.
+
+DROP PROCEDURE IF EXISTS create_index_if_missing;
+
+DELIMITER //
+CREATE PROCEDURE create_index_if_missing(IN table_arg VARCHAR(64), IN index_arg VARCHAR(64), IN columns_arg VARCHAR(255))
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM information_schema.statistics
+                   WHERE table_schema = DATABASE() AND table_name = table_arg AND index_name = index_arg) THEN
+        SET @ddl = CONCAT('CREATE INDEX ', index_arg, ' ON ', table_arg, ' (', columns_arg, ')');
+        PREPARE stmt FROM @ddl;
+        EXECUTE stmt;
+        DEALLOCATE PREPARE stmt;
+    END IF;
+END //
+DELIMITER ;
+
+-- ContentRepository.findByCourseIdOrderByOrderIndex / findByCourse: a course's lessons in order, no sort step
+CALL create_index_if_missing('contents', 'idx_content_course_order', 'course_id, order_index');
+
+-- EnrollmentRepository.findByCourse and per-course status filters; ProgressReconciliationService
+-- walks enrollments by course id range
+CALL create_index_if_missing('enrollments', 'idx_enrollment_course_status', 'course_id, status');
+
+-- Completed-lesson counts per enrollment (progress reconciliation, ProgressService)
+CALL create_index_if_missing('progress', 'idx_progress_enrollment_percent', 'enrollment_id, percent_complete');
+
+-- CourseRepository.findByInstructor and findByTitleAndInstructor
+CALL create_index_if_missing('courses', 'idx_course_instructor_title', 'instructor_id, title');
+
+-- Reminder runs walk one status in (student, enrollment) order
+CALL create_index_if_missing('enrollments', 'idx_enrollment_status_student', 'status, student_id, id');
+
+-- Latest activity per enrollment for inactivity reminders
+CALL create_index_if_missing('progress', 'idx_progress_enrollment_accessed', 'enrollment_id, last_accessed_at');
+
+-- Storage GC streams and verifies keys by s3Key
+CALL create_index_if_missing('contents', 'idx_content_s3_key', 's3key');
+
+DROP PROCEDURE create_index_if_missing;
+
+-- History and lock tables of the migrator that Flyway replaced
+DROP TABLE IF EXISTS schema_migrations_lock;
+DROP TABLE IF EXISTS schema_migrations;
@@ -0,0 +1,20 @@
+package com.example.lms.benchmark;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * A timing run rather than a unit test. Excluded from the default build; run with
+ * mvn test -Pbenchmark [-Dtest=SomeTest]
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Tag("benchmark")
+@Test
+public @interface Benchmark {
+}
@@ -0,0 +1,36 @@
+package com.example.lms.benchmark;
+
+/**
+ * Timing and reporting shared by the {@link Benchmark} methods
+ */
+public final class Benchmarks {
+
+	@FunctionalInterface
+	public interface Body {
+		void run() throws Exception;
+	}
+
+	private Benchmarks() {
+	}
+
+	/**
+	 * Elapsed nanoseconds of body, at least 1 so rates can be derived from it
+	 */
+	public static long time(Body body) throws Exception {
+		long start = System.nanoTime();
+		body.run();
+		return Math.max(1, System.nanoTime() - start);
+	}
+
+	public static long millis(long nanos) {
+		return nanos / 1_000_000;
+	}
+
+	public static long perSecond(long operations, long nanos) {
+		return operations * 1_000_000_000L / nanos;
+	}
+
+	public static void report(String format, Object... args) {
+		System.out.printf(format + "%n", args);
+	}
+}
@@ -0,0 +1,90 @@
+package com.example.lms.config;
+
+import com.example.lms.entity.RevokedToken;
+import com.example.lms.repository.RevokedTokenRepository;
+import com.example.lms.scheduler.TokenRevocationSyncJob;
+import com.example.lms.service.RefreshTokenService;
+import com.example.lms.service.TokenRevocationService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.quartz.Scheduler;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class NodeLocalSchedulingTest {
+
+	// The revoked_tokens table both nodes share
+	private final Map<String, RevokedToken> table = new ConcurrentHashMap<>();
+	private final List<NodeLocalScheduler> schedulers = new ArrayList<>();
+
+	@AfterEach
+	void tearDown() throws Exception {
+		for (NodeLocalScheduler scheduler : schedulers) {
+			scheduler.shutdown();
+		}
+	}
+
+	@Test
+	void everyNodeSyncsRevocationsMadeOnAnyOther() throws Exception {
+		TokenRevocationService nodeA = startNode();
+		TokenRevocationService nodeB = startNode();
+
+		LocalDateTime expiresAt = LocalDateTime.now().plusHours(1);
+		nodeA.revoke("revoked-on-a", expiresAt);
+		nodeB.revoke("revoked-on-b", expiresAt);
+
+		long deadline = System.currentTimeMillis() + 10_000;
+		while (!(nodeA.isRevoked("revoked-on-b") && nodeB.isRevoked("revoked-on-a"))
+				&& System.currentTimeMillis() < deadline) {
+			Thread.sleep(100);
+		}
+
+		assertTrue(nodeA.isRevoked("revoked-on-a"));
+		assertTrue(nodeA.isRevoked("revoked-on-b"), "node A never synced node B's revocation");
+		assertTrue(nodeB.isRevoked("revoked-on-b"));
+		assertTrue(nodeB.isRevoked("revoked-on-a"), "node B never synced node A's revocation");
+		assertFalse(nodeB.isRevoked("never-revoked"));
+	}
+
+	private TokenRevocationService startNode() throws Exception {
+		TokenRevocationService service = new TokenRevocationService(repository(), 1000, 0.01);
+		service.init();
+		TokenRevocationSyncJob job = new TokenRevocationSyncJob(service, mock(RefreshTokenService.class));
+		@SuppressWarnings("unchecked")
+		ObjectProvider<Scheduler> noClusteredScheduler = mock(ObjectProvider.class);
+		NodeLocalScheduler scheduler = new NodeLocalScheduler((bundle, s) -> job, noClusteredScheduler, 1);
+		schedulers.add(scheduler);
+		scheduler.start();
+		return service;
+	}
+
+	private RevokedTokenRepository repository() {
+		RevokedTokenRepository repository = mock(RevokedTokenRepository.class);
+		when(repository.save(any(RevokedToken.class))).thenAnswer(invocation -> {
+			RevokedToken token = invocation.getArgument(0);
+			table.put(token.getJti(), token);
+			return token;
+		});
+		when(repository.existsById(anyString())).thenAnswer(invocation -> table.containsKey(invocation.<String>getArgument(0)));
+		when(repository.findUnexpiredJtis(any(LocalDateTime.class))).thenAnswer(invocation -> table.values().stream()
+				.filter(t -> t.getExpiresAt().isAfter(invocation.getArgument(0)))
+				.map(RevokedToken::getJti)
+				.toList());
+		when(repository.findJtisRevokedSince(any(LocalDateTime.class))).thenAnswer(invocation -> table.values().stream()
+				.filter(t -> !t.getRevokedAt().isBefore(invocation.getArgument(0)))
+				.map(RevokedToken::getJti)
+				.toList());
+		return repository;
+	}
+}
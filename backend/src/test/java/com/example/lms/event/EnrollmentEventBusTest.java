@@ -0,0 +1,84 @@
+package com.example.lms.event;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EnrollmentEventBusTest {
+
+	private record Step(Long enrollmentId, int sequence) implements EnrollmentEvent {}
+
+	private EnrollmentEventBus bus;
+
+	@AfterEach
+	void stop() {
+		bus.shutdown();
+	}
+
+	@Test
+	void deliversEachEnrollmentsEventsInOrder() throws Exception {
+		bus = new EnrollmentEventBus(4, 10_000, 1000);
+		int enrollments = 50;
+		int steps = 200;
+		Map<Long, List<Integer>> received = new ConcurrentHashMap<>();
+		CountDownLatch done = new CountDownLatch(enrollments * steps);
+		bus.subscribe("recorder", Step.class, step -> {
+			received.computeIfAbsent(step.enrollmentId(), id -> new ArrayList<>()).add(step.sequence());
+			done.countDown();
+		});
+		bus.subscribe("other-type", EnrollmentCompletedEvent.class, event -> fail("wrong type delivered"));
+
+		for (int s = 0; s < steps; s++) {
+			for (long e = 0; e < enrollments; e++) {
+				assertTrue(bus.publish(new Step(e, s)));
+			}
+		}
+
+		assertTrue(done.await(10, TimeUnit.SECONDS));
+		for (List<Integer> sequence : received.values()) {
+			for (int s = 0; s < steps; s++) {
+				assertEquals(s, sequence.get(s));
+			}
+		}
+		assertEquals((long) enrollments * steps, bus.getStats().get("delivered"));
+	}
+
+	@Test
+	void dropsWhenALaneStaysFullAndSurvivesFailingListeners() throws Exception {
+		bus = new EnrollmentEventBus(1, 2, 50);
+		CountDownLatch release = new CountDownLatch(1);
+		CountDownLatch delivered = new CountDownLatch(3);
+		bus.subscribe("slow", Step.class, step -> {
+			try {
+				release.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		});
+		bus.subscribe("broken", Step.class, step -> {
+			throw new IllegalStateException("boom");
+		});
+		bus.subscribe("counter", Step.class, step -> delivered.countDown());
+
+		assertTrue(bus.publish(new Step(1L, 0)));
+		Thread.sleep(100);
+		// One event is being delivered, the lane holds two more
+		assertTrue(bus.publish(new Step(1L, 1)));
+		assertTrue(bus.publish(new Step(1L, 2)));
+		assertFalse(bus.publish(new Step(1L, 3)));
+
+		release.countDown();
+		assertTrue(delivered.await(5, TimeUnit.SECONDS));
+		Map<String, Object> stats = bus.getStats();
+		assertEquals(1L, stats.get("dropped"));
+		assertTrue((long) stats.get("listenerFailures") >= 1);
+	}
+}
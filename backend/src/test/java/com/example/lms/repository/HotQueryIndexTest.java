@@ -0,0 +1,211 @@
+package com.example.lms.repository;
+
+import com.example.lms.entity.Content;
+import com.example.lms.entity.Course;
+import com.example.lms.entity.Enrollment;
+import com.example.lms.entity.EnrollmentStatus;
+import com.example.lms.entity.Progress;
+import com.example.lms.entity.User;
+import com.example.lms.service.ProgressReconciliationService;
+import com.example.lms.service.S3Service;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The V2 migration indexes are used by H2's planner for the SQL that Hibernate (and the reconciliation
+ * UPDATE) actually send for the hot queries. The statements are captured with H2's query statistics
+ * while the real repository methods run, then explained, and each plan must name the index itself.
+ */
+@SpringBootTest
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class HotQueryIndexTest {
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private Flyway flyway;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private CourseRepository courseRepository;
+
+	@Autowired
+	private ContentRepository contentRepository;
+
+	@Autowired
+	private EnrollmentRepository enrollmentRepository;
+
+	@Autowired
+	private ProgressRepository progressRepository;
+
+	@Autowired
+	private ProgressReconciliationService progressReconciliationService;
+
+	@MockBean
+	private S3Service s3Service;
+
+	private final List<User> users = new ArrayList<>();
+	private final List<Course> courses = new ArrayList<>();
+	private final List<Content> contents = new ArrayList<>();
+	private final List<Enrollment> enrollments = new ArrayList<>();
+	private final List<Progress> progress = new ArrayList<>();
+
+	@BeforeAll
+	void populate() {
+		// Enough rows for the planner's selectivity statistics to tell the indexes apart
+		String prefix = "idx" + System.nanoTime();
+		for (int i = 0; i < 5; i++) {
+			User instructor = userRepository.save(User.builder().fullName("Instructor " + i)
+					.email(prefix + "-instructor" + i + "@lms.com").password("hash").build());
+			users.add(instructor);
+			for (int j = 0; j < 4; j++) {
+				Course course = courseRepository.save(Course.builder().title("Course " + i + "-" + j)
+						.instructor(instructor).createdAt(LocalDateTime.now()).build());
+				courses.add(course);
+				for (int k = 0; k < 25; k++) {
+					contents.add(Content.builder().title("Lesson " + k).fileUrl("http://localhost/" + prefix + k)
+							.s3Key(prefix + "-" + course.getId() + "-" + k).orderIndex(k).course(course).build());
+				}
+			}
+		}
+		contentRepository.saveAll(contents);
+		for (int i = 0; i < 40; i++) {
+			User student = userRepository.save(User.builder().fullName("Student " + i)
+					.email(prefix + "-student" + i + "@lms.com").password("hash").build());
+			users.add(student);
+			for (int j = 0; j < 10; j++) {
+				Course course = courses.get((i + j) % courses.size());
+				Enrollment enrollment = enrollmentRepository.save(Enrollment.builder().student(student).course(course)
+						.status(j % 3 == 0 ? EnrollmentStatus.COMPLETED : EnrollmentStatus.ACTIVE)
+						.enrolledAt(LocalDateTime.now()).build());
+				enrollments.add(enrollment);
+				for (int k = 0; k < 5; k++) {
+					progress.add(Progress.builder().enrollment(enrollment)
+							.content(contents.get(courses.indexOf(course) * 25 + k))
+							.percentComplete(k < 3 ? 100 : 40).completed(k < 3).lastAccessedAt(LocalDateTime.now()).build());
+				}
+			}
+		}
+		progressRepository.saveAll(progress);
+		jdbcTemplate.execute("ANALYZE");
+	}
+
+	@AfterAll
+	void cleanUp() {
+		progressRepository.deleteAll(progress);
+		enrollmentRepository.deleteAll(enrollments);
+		contentRepository.deleteAll(contents);
+		courseRepository.deleteAll(courses);
+		userRepository.deleteAll(users);
+	}
+
+	@Test
+	void migrationsAreApplied() {
+		assertTrue(flyway.info().current().getVersion().isAtLeast("2"));
+		assertIndex("IDX_CONTENT_COURSE_ORDER", "COURSE_ID", "ORDER_INDEX");
+		assertIndex("IDX_ENROLLMENT_COURSE_STATUS", "COURSE_ID", "STATUS");
+		assertIndex("IDX_PROGRESS_ENROLLMENT_PERCENT", "ENROLLMENT_ID", "PERCENT_COMPLETE");
+		assertIndex("IDX_COURSE_INSTRUCTOR_TITLE", "INSTRUCTOR_ID", "TITLE");
+		assertIndex("IDX_ENROLLMENT_STATUS_STUDENT", "STATUS", "STUDENT_ID", "ID");
+		assertIndex("IDX_PROGRESS_ENROLLMENT_ACCESSED", "ENROLLMENT_ID", "LAST_ACCESSED_AT");
+		assertIndex("IDX_CONTENT_S3_KEY", "S3KEY");
+	}
+
+	/**
+	 * Every query on a course's lessons or enrollments filters on course_id only, which the foreign key
+	 * index already serves, and H2 always picks that one: its planner does not drop a sort on a column
+	 * after one fixed by equality, so idx_content_course_order never wins, and it has no use for the
+	 * status column of idx_enrollment_course_status. On H2 these tests can only pin the SQL the indexes
+	 * were designed for; that MySQL reads the lessons in index order has to be checked with EXPLAIN there.
+	 */
+	@Test
+	void courseQueriesFilterOnTheLeadingColumnsOfTheirIndexes() {
+		Course course = courses.get(0);
+		String ordered = generatedSql("contents", () -> contentRepository.findByCourseIdOrderByOrderIndex(course.getId()));
+		assertTrue(ordered.matches("(?s).* where (\\w+)\\.course_id=\\? order by \\1\\.order_index"), ordered);
+
+		String enrollments = generatedSql("enrollments", () -> enrollmentRepository.findByCourse(course));
+		assertTrue(enrollments.matches("(?s).* where (\\w+)\\.course_id=\\?"), enrollments);
+	}
+
+	@Test
+	void progressReconciliationUsesTheEnrollmentPercentIndex() {
+		String sql = generatedSql("enrollments", progressReconciliationService::reconcileAll);
+		assertUses(explain(sql), "IDX_PROGRESS_ENROLLMENT_PERCENT");
+	}
+
+	@Test
+	void coursesOfAnInstructorByTitleUseTheInstructorTitleIndex() {
+		User instructor = courses.get(0).getInstructor();
+		String byTitle = generatedSql("courses", () -> courseRepository.findByTitleAndInstructor("Course 0-0", instructor));
+		assertUses(explain(byTitle), "IDX_COURSE_INSTRUCTOR_TITLE");
+	}
+
+	@Test
+	void storageKeyLookupsUseTheS3KeyIndex() {
+		List<String> keys = contents.subList(0, 3).stream().map(Content::getS3Key).toList();
+		String sql = generatedSql("contents", () -> contentRepository.findExistingS3Keys(keys));
+		assertUses(explain(sql), "IDX_CONTENT_S3_KEY");
+	}
+
+	@Test
+	void reminderTargetsUseTheStatusStudentAndLatestAccessIndexes() {
+		String sql = generatedSql("enrollments", () -> enrollmentRepository.findReminderTargets(System.nanoTime(),
+				EnrollmentStatus.ACTIVE, 0, 0, Long.MAX_VALUE, LocalDateTime.now(), PageRequest.of(0, 100)));
+		String plan = explain(sql);
+		assertUses(plan, "IDX_ENROLLMENT_STATUS_STUDENT");
+		assertUses(plan, "IDX_PROGRESS_ENROLLMENT_ACCESSED");
+	}
+
+	/**
+	 * The one statement on the given table that the call sent to the database
+	 */
+	private String generatedSql(String table, Runnable call) {
+		jdbcTemplate.execute("SET QUERY_STATISTICS FALSE");
+		jdbcTemplate.execute("SET QUERY_STATISTICS TRUE");
+		try {
+			call.run();
+			List<String> statements = jdbcTemplate.queryForList(
+					"SELECT SQL_STATEMENT FROM INFORMATION_SCHEMA.QUERY_STATISTICS", String.class).stream()
+					.filter(sql -> sql.toLowerCase(Locale.ROOT).matches("(select|update) .*\\b" + table + " .*"))
+					.filter(sql -> !sql.contains("INFORMATION_SCHEMA"))
+					.toList();
+			assertEquals(1, statements.size(), statements.toString());
+			return statements.get(0);
+		} finally {
+			jdbcTemplate.execute("SET QUERY_STATISTICS FALSE");
+		}
+	}
+
+	private String explain(String sql) {
+		return String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + sql, String.class));
+	}
+
+	private static void assertUses(String plan, String index) {
+		assertTrue(plan.toUpperCase().contains("PUBLIC." + index), plan);
+		assertFalse(plan.contains("tableScan"), plan);
+	}
+
+	private void assertIndex(String index, String... columns) {
+		assertEquals(List.of(columns), jdbcTemplate.queryForList("SELECT COLUMN_NAME FROM INFORMATION_SCHEMA.INDEX_COLUMNS "
+				+ "WHERE INDEX_NAME = ? ORDER BY ORDINAL_POSITION", String.class, index));
+	}
+}
@@ -0,0 +1,191 @@
+package com.example.lms.scheduler;
+
+import com.example.lms.service.ReminderService;
+import com.example.lms.service.ReminderService.IdRange;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.quartz.Job;
+import org.quartz.JobBuilder;
+import org.quartz.JobKey;
+import org.quartz.Scheduler;
+import org.quartz.TriggerBuilder;
+import org.quartz.impl.SchedulerRepository;
+import org.quartz.impl.StdSchedulerFactory;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.util.StreamUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Several clustered schedulers sharing one H2 job store, as replicas share MySQL in production
+ */
+class ClusteredReminderSchedulingTest {
+
+	private static final JobKey DAILY_JOB = JobKey.jobKey("dailyReminderJob");
+
+	private final String url = "jdbc:h2:mem:quartz-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1";
+	private final Map<IdRange, List<String>> runs = new ConcurrentHashMap<>();
+	private final List<Scheduler> schedulers = new ArrayList<>();
+
+	@BeforeEach
+	void createQuartzTables() throws Exception {
+		JdbcDataSource dataSource = new JdbcDataSource();
+		dataSource.setURL(url);
+		dataSource.setUser("sa");
+		// The script bundled with Quartz predates H2 2.x, which no longer knows IMAGE
+		String script = StreamUtils.copyToString(
+				new ClassPathResource("org/quartz/impl/jdbcjobstore/tables_h2.sql").getInputStream(), StandardCharsets.UTF_8)
+				.replace(" IMAGE ", " BLOB ");
+		try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+			for (String sql : script.replaceAll("(?m)^--.*$", "").split(";")) {
+				if (!sql.isBlank()) {
+					statement.execute(sql);
+				}
+			}
+		}
+	}
+
+	@AfterEach
+	void shutdown() throws Exception {
+		for (Scheduler scheduler : schedulers) {
+			scheduler.shutdown(false);
+		}
+	}
+
+	@Test
+	void shardsOfOneRunAreSpreadOverNodesAndRunExactlyOnce() throws Exception {
+		List<IdRange> shards = List.of(new IdRange(0, 100), new IdRange(100, 200), new IdRange(200, 300),
+				new IdRange(300, 400), new IdRange(400, 500), new IdRange(500, 600), new IdRange(600, 700),
+				new IdRange(700, 800));
+		Scheduler nodeA = node("node-a", reminderService("node-a", shards, null));
+		Scheduler nodeB = node("node-b", reminderService("node-b", shards, null));
+		registerJobs(nodeA);
+		nodeA.start();
+		nodeB.start();
+
+		nodeA.triggerJob(DAILY_JOB);
+
+		await(() -> runs.size() == shards.size(), 20);
+		Thread.sleep(500);
+		assertEquals(Set.copyOf(shards), runs.keySet());
+		runs.forEach((range, nodes) -> assertEquals(1, nodes.size(), "shard " + range + " ran on " + nodes));
+		long nodesUsed = runs.values().stream().flatMap(List::stream).distinct().count();
+		assertEquals(2, nodesUsed, "shards should be shared by both nodes: " + runs);
+	}
+
+	@Test
+	void shardLeftByFailedNodeIsRecoveredByAnotherNode() throws Exception {
+		IdRange shard = new IdRange(0, 100);
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch neverReleased = new CountDownLatch(1);
+		Scheduler nodeA = node("node-a", reminderService("node-a", List.of(shard), () -> {
+			started.countDown();
+			neverReleased.await();
+		}));
+		registerJobs(nodeA);
+		nodeA.start();
+		nodeA.triggerJob(DAILY_JOB);
+		assertTrue(started.await(10, TimeUnit.SECONDS));
+
+		// node-a stops checking in while its shard is still running, as if the process had died
+		nodeA.shutdown(false);
+		schedulers.remove(nodeA);
+		Scheduler nodeB = node("node-b", reminderService("node-b", List.of(shard), null));
+		nodeB.start();
+
+		// Recovery starts once node-a has missed its check-ins for a few seconds
+		await(() -> runs.get(shard).size() == 2, 30);
+		assertEquals(List.of("node-a", "node-b"), runs.get(shard));
+		neverReleased.countDown();
+	}
+
+	private Scheduler node(String instanceId, ReminderService reminderService) throws Exception {
+		Properties props = new Properties();
+		props.put("org.quartz.scheduler.instanceName", "lms");
+		props.put("org.quartz.scheduler.instanceId", instanceId);
+		props.put("org.quartz.scheduler.idleWaitTime", "1000");
+		props.put("org.quartz.scheduler.skipUpdateCheck", "true");
+		props.put("org.quartz.threadPool.threadCount", "2");
+		props.put("org.quartz.jobStore.class", "org.quartz.impl.jdbcjobstore.JobStoreTX");
+		props.put("org.quartz.jobStore.driverDelegateClass", "org.quartz.impl.jdbcjobstore.StdJDBCDelegate");
+		props.put("org.quartz.jobStore.dataSource", "ds");
+		props.put("org.quartz.jobStore.isClustered", "true");
+		props.put("org.quartz.jobStore.clusterCheckinInterval", "500");
+		props.put("org.quartz.dataSource.ds.provider", "hikaricp");
+		props.put("org.quartz.dataSource.ds.driver", "org.h2.Driver");
+		props.put("org.quartz.dataSource.ds.URL", url);
+		props.put("org.quartz.dataSource.ds.user", "sa");
+		props.put("org.quartz.dataSource.ds.password", "");
+		props.put("org.quartz.dataSource.ds.maxConnections", "5");
+
+		Scheduler scheduler = new StdSchedulerFactory(props).getScheduler();
+		// Schedulers are registered per JVM by name; cluster members must share the name, so unregister it
+		SchedulerRepository.getInstance().remove("lms");
+		scheduler.setJobFactory((bundle, s) -> {
+			Class<? extends Job> type = bundle.getJobDetail().getJobClass();
+			return type == DailyReminderJob.class
+					? new DailyReminderJob(reminderService, 8)
+					: new ReminderShardJob(reminderService);
+		});
+		schedulers.add(scheduler);
+		return scheduler;
+	}
+
+	private static void registerJobs(Scheduler scheduler) throws Exception {
+		scheduler.addJob(JobBuilder.newJob(DailyReminderJob.class).withIdentity(DAILY_JOB)
+				.storeDurably().requestRecovery().build(), true);
+		scheduler.addJob(JobBuilder.newJob(ReminderShardJob.class).withIdentity(ReminderShardJob.JOB_KEY)
+				.storeDurably().requestRecovery().build(), true);
+	}
+
+	private ReminderService reminderService(String node, List<IdRange> shards, Blocker blocker) {
+		ReminderService service = mock(ReminderService.class);
+		when(service.planShards(anyInt())).thenReturn(shards);
+		doAnswer(invocation -> {
+			IdRange range = invocation.getArgument(1);
+			runs.computeIfAbsent(range, r -> new CopyOnWriteArrayList<>()).add(node);
+			if (blocker != null) {
+				blocker.block();
+			} else {
+				Thread.sleep(500);
+			}
+			return 0L;
+		}).when(service).sendRange(anyLong(), any());
+		return service;
+	}
+
+	private static void await(BooleanSupplier condition, int timeoutSeconds) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(timeoutSeconds);
+		while (!condition.getAsBoolean()) {
+			assertTrue(System.nanoTime() < deadline, "timed out waiting for shard runs");
+			Thread.sleep(50);
+		}
+	}
+
+	private interface Blocker {
+		void block() throws InterruptedException;
+	}
+}
@@ -0,0 +1,98 @@
+package com.example.lms.scheduler;
+
+import com.example.lms.dto.S3FileResponse;
+import com.example.lms.entity.Content;
+import com.example.lms.repository.ContentRepository;
+import com.example.lms.service.LocalFileStorageService;
+import com.example.lms.service.S3CircuitBreaker;
+import com.example.lms.service.S3Service;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class S3ReconcileJobTest {
+
+	private final List<Content> rows = new ArrayList<>();
+	private final ContentRepository contentRepository = mock(ContentRepository.class);
+	private final LocalFileStorageService localFileStorageService = mock(LocalFileStorageService.class);
+	private final S3Service s3Service = mock(S3Service.class);
+	private final S3CircuitBreaker circuitBreaker = mock(S3CircuitBreaker.class);
+	private final S3ReconcileJob job = new S3ReconcileJob(contentRepository, localFileStorageService, s3Service, circuitBreaker);
+
+	@BeforeEach
+	void setUp() {
+		ReflectionTestUtils.setField(job, "batchSize", 3);
+		when(circuitBreaker.getState()).thenReturn(S3CircuitBreaker.State.CLOSED);
+		when(circuitBreaker.tryAcquirePermission()).thenReturn(true);
+		when(contentRepository.findLocallyStoredAfter(anyLong(), any(Pageable.class))).thenAnswer(invocation -> {
+			long afterId = invocation.getArgument(0);
+			int size = invocation.<Pageable>getArgument(1).getPageSize();
+			return rows.stream()
+					.filter(c -> !c.getS3Key().startsWith(S3Service.KEY_PREFIX) && c.getId() > afterId)
+					.limit(size)
+					.toList();
+		});
+		when(s3Service.uploadFile(any(String.class), any(byte[].class), any()))
+				.thenAnswer(invocation -> new S3FileResponse("https://s3/" + invocation.getArgument(0), invocation.getArgument(0)));
+	}
+
+	@Test
+	void rowsWithMissingFilesDoNotBlockTheOnesBehindThem() throws Exception {
+		// More unmigratable rows than fit in a page, ahead of one that can be migrated
+		for (long id = 1; id <= 7; id++) {
+			rows.add(content(id, "gone-" + id, "VIDEO"));
+			when(localFileStorageService.getFile("gone-" + id)).thenThrow(new RuntimeException("File not found"));
+		}
+		Content movable = content(8, "ab/lesson.mp4", "video/mp4");
+		rows.add(movable);
+		when(localFileStorageService.getFile("ab/lesson.mp4")).thenReturn(new byte[]{1, 2, 3});
+
+		job.execute(null);
+
+		assertEquals("uploads/ab/lesson.mp4", movable.getS3Key());
+		verify(s3Service).uploadFile(eq("uploads/ab/lesson.mp4"), any(byte[].class), eq("video/mp4"));
+		verify(localFileStorageService).deleteFile("ab/lesson.mp4");
+	}
+
+	@Test
+	void contentTypeLabelsAreNotSentAsMimeTypes() throws Exception {
+		rows.add(content(1, "slides.pdf", "PDF"));
+		when(localFileStorageService.getFile("slides.pdf")).thenReturn(new byte[]{1});
+
+		job.execute(null);
+
+		verify(s3Service).uploadFile(eq("uploads/slides.pdf"), any(byte[].class), eq(null));
+	}
+
+	@Test
+	void stopsWhenS3IsUnavailable() throws Exception {
+		rows.add(content(1, "a.pdf", "application/pdf"));
+		rows.add(content(2, "b.pdf", "application/pdf"));
+		when(localFileStorageService.getFile(any())).thenReturn(new byte[]{1});
+		when(s3Service.uploadFile(eq("uploads/a.pdf"), any(byte[].class), any()))
+				.thenThrow(new RuntimeException("S3 upload failed: connection refused"));
+
+		job.execute(null);
+
+		verify(circuitBreaker).recordError(any());
+		verify(s3Service, never()).uploadFile(eq("uploads/b.pdf"), any(byte[].class), any());
+	}
+
+	private static Content content(long id, String key, String contentType) {
+		return Content.builder().id(id).title("Lesson " + id).s3Key(key).fileUrl("http://localhost/" + key)
+				.contentType(contentType).build();
+	}
+}
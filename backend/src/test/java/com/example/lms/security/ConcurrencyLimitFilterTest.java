@@ -0,0 +1,228 @@
+package com.example.lms.security;
+
+import com.example.lms.benchmark.Benchmark;
+import com.example.lms.benchmark.Benchmarks;
+import com.example.lms.security.AdaptiveConcurrencyLimiter.Priority;
+import jakarta.servlet.http.HttpServlet;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntUnaryOperator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrencyLimitFilterTest {
+
+	private final AtomicLong now = new AtomicLong();
+
+	@Test
+	void limitGrowsWhileLatencyIsFlatAndShrinksWhenRequestsQueue() {
+		// Zero-length windows: the limit is updated every 10 samples
+		AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(20, 4, 200, 0.2, 0, now::get);
+
+		for (int i = 0; i < 30; i++) {
+			runAtFullConcurrency(limiter, n -> 10);
+		}
+		int grown = limiter.getLimit();
+		assertTrue(grown > 20, "limit should grow, was " + grown);
+
+		// Only 4 connections left: latency grows with every request beyond them
+		for (int i = 0; i < 100; i++) {
+			runAtFullConcurrency(limiter, n -> 10 * Math.max(1, n / 4));
+		}
+		assertTrue(limiter.getLimit() < 12, "limit should shrink, was " + limiter.getLimit());
+
+		for (int i = 0; i < 30; i++) {
+			runAtFullConcurrency(limiter, n -> 10);
+		}
+		assertTrue(limiter.getLimit() > 20, "limit should recover, was " + limiter.getLimit());
+	}
+
+	@Test
+	void lowerPrioritiesAreShedFirst() {
+		AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(10, 1, 10, 0.2, 250, now::get);
+
+		for (int i = 0; i < 5; i++) {
+			assertTrue(limiter.tryAcquire(Priority.LOW) >= 0);
+		}
+		assertEquals(-1, limiter.tryAcquire(Priority.LOW));
+		for (int i = 0; i < 4; i++) {
+			assertTrue(limiter.tryAcquire(Priority.NORMAL) >= 0);
+		}
+		assertEquals(-1, limiter.tryAcquire(Priority.NORMAL));
+		assertTrue(limiter.tryAcquire(Priority.CRITICAL) >= 0);
+		assertEquals(-1, limiter.tryAcquire(Priority.CRITICAL));
+		assertEquals(1L, limiter.getStats().get("rejectedLow"));
+	}
+
+	@Test
+	void shedsWith503AndReleasesSlotsEvenWhenTheHandlerFails() throws Exception {
+		AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(1, 1, 1, 0.2, 250, now::get);
+		ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(limiter, true,
+				List.of("/api/auth/**", "/api/progress/update"), List.of("/api/admin/**"),
+				List.of("/uploads/**", "/api/contents/uploads/*/chunks/*"), List.of("/api/auth/**"), 1);
+		assertEquals(Priority.CRITICAL, filter.priorityFor("/api/progress/update"));
+		assertEquals(Priority.LOW, filter.priorityFor("/api/admin/users"));
+		assertEquals(Priority.NORMAL, filter.priorityFor("/api/courses"));
+
+		long held = limiter.tryAcquire(Priority.CRITICAL);
+		MockHttpServletResponse shed = call(filter, new MockFilterChain());
+		assertEquals(503, shed.getStatus());
+		assertEquals("1", shed.getHeader("Retry-After"));
+		limiter.release(held);
+
+		HttpServlet failing = new HttpServlet() {
+			@Override
+			protected void service(jakarta.servlet.http.HttpServletRequest req, jakarta.servlet.http.HttpServletResponse resp) {
+				throw new IllegalStateException("boom");
+			}
+		};
+		assertThrows(IllegalStateException.class, () -> call(filter, new MockFilterChain(failing)));
+		assertEquals(0, limiter.getStats().get("inFlight"));
+		assertEquals(200, call(filter, new MockFilterChain()).getStatus());
+	}
+
+	@Test
+	void longTransfersBypassTheLimiter() throws Exception {
+		AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(1, 1, 1, 0.2, 250, now::get);
+		ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(limiter, true, List.of("/api/auth/**"),
+				List.of("/api/admin/**"), List.of("/uploads/**", "/api/contents/uploads/*/chunks/*"), List.of("/api/auth/**"), 1);
+		long held = limiter.tryAcquire(Priority.CRITICAL);
+
+		for (String path : List.of("/uploads/s3/lecture.mp4", "/api/contents/uploads/abc/chunks/3")) {
+			MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+			request.setServletPath(path);
+			MockHttpServletResponse response = new MockHttpServletResponse();
+			filter.doFilter(request, response, new MockFilterChain());
+			assertEquals(200, response.getStatus(), path);
+		}
+		assertEquals(503, call(filter, new MockFilterChain()).getStatus());
+		assertEquals(1, limiter.getStats().get("inFlight"));
+		limiter.release(held);
+	}
+
+	@Test
+	void slowLoginsDoNotShrinkTheLimit() throws Exception {
+		AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(20, 4, 200, 0.2, 0, now::get);
+		ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(limiter, true, List.of("/api/auth/**"),
+				List.of("/api/admin/**"), List.of("/uploads/**"), List.of("/api/auth/**"), 1);
+		// Enough other requests in flight for every window to count
+		List<Long> held = new ArrayList<>();
+		for (int i = 0; i < 15; i++) {
+			held.add(limiter.tryAcquire(Priority.CRITICAL));
+		}
+
+		for (int i = 0; i < 20; i++) {
+			assertEquals(200, call(filter, "/api/courses", 10).getStatus());
+		}
+		int limit = limiter.getLimit();
+		// BCrypt takes 40 times as long as an ordinary API call
+		for (int i = 0; i < 100; i++) {
+			assertEquals(200, call(filter, "/api/auth/login", 400).getStatus());
+		}
+
+		assertEquals(limit, limiter.getLimit());
+		assertEquals(10.0, (double) limiter.getStats().get("latencyMillis"));
+		held.forEach(start -> limiter.release(start, false));
+	}
+
+	/**
+	 * Run with: mvn test -Pbenchmark -Dtest=ConcurrencyLimitFilterTest
+	 * Offers twice the capacity of an 8-connection "database" to a 200-thread "Tomcat" and counts
+	 * goodput: requests answered successfully within the client's 250 ms deadline.
+	 */
+	@Benchmark
+	void loadTestGoodputUnderOverload() throws Exception {
+		long without = runLoad(null);
+		long with = runLoad(new AdaptiveConcurrencyLimiter(20, 4, 200, 0.2, 50, System::nanoTime));
+		Benchmarks.report("goodput without limiter: %,d req/s, with limiter: %,d req/s", without, with);
+		assertTrue(with > 2 * without);
+	}
+
+	private void runAtFullConcurrency(AdaptiveConcurrencyLimiter limiter, IntUnaryOperator rttMillisForInFlight) {
+		List<Long> starts = new ArrayList<>();
+		long start;
+		while ((start = limiter.tryAcquire(Priority.CRITICAL)) >= 0) {
+			starts.add(start);
+		}
+		now.addAndGet(TimeUnit.MILLISECONDS.toNanos(rttMillisForInFlight.applyAsInt(starts.size())));
+		starts.forEach(limiter::release);
+	}
+
+	private static long runLoad(AdaptiveConcurrencyLimiter limiter) throws Exception {
+		int seconds = 4;
+		int arrivalsPerMilli = 3;
+		long deadlineNanos = TimeUnit.MILLISECONDS.toNanos(250);
+		Semaphore connections = new Semaphore(8, true);
+		ThreadPoolExecutor tomcat = new ThreadPoolExecutor(200, 200, 0, TimeUnit.SECONDS, new LinkedBlockingQueue<>());
+		LongAdder good = new LongAdder();
+
+		long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+		while (System.nanoTime() < end) {
+			for (int i = 0; i < arrivalsPerMilli; i++) {
+				long arrival = System.nanoTime();
+				tomcat.execute(() -> {
+					long start = limiter == null ? 0 : limiter.tryAcquire(Priority.NORMAL);
+					if (start < 0) {
+						return;
+					}
+					try {
+						if (connections.tryAcquire(1, TimeUnit.SECONDS)) {
+							try {
+								Thread.sleep(5);
+							} finally {
+								connections.release();
+							}
+							if (System.nanoTime() - arrival <= deadlineNanos) {
+								good.increment();
+							}
+						}
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					} finally {
+						if (limiter != null) {
+							limiter.release(start);
+						}
+					}
+				});
+			}
+			Thread.sleep(1);
+		}
+		tomcat.shutdownNow();
+		tomcat.awaitTermination(10, TimeUnit.SECONDS);
+		return good.sum() / seconds;
+	}
+
+	/**
+	 * A request to path that takes millis to handle
+	 */
+	private MockHttpServletResponse call(ConcurrencyLimitFilter filter, String path, long millis) throws Exception {
+		HttpServlet handler = new HttpServlet() {
+			@Override
+			protected void service(jakarta.servlet.http.HttpServletRequest req, jakarta.servlet.http.HttpServletResponse resp) {
+				now.addAndGet(TimeUnit.MILLISECONDS.toNanos(millis));
+			}
+		};
+		MockHttpServletRequest request = new MockHttpServletRequest("POST", path);
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		filter.doFilter(request, response, new MockFilterChain(handler));
+		return response;
+	}
+
+	private static MockHttpServletResponse call(ConcurrencyLimitFilter filter, MockFilterChain chain) throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/courses");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		filter.doFilter(request, response, chain);
+		return response;
+	}
+}
@@ -0,0 +1,82 @@
+package com.example.lms.security;
+
+import com.example.lms.dto.request.RegisterRequest;
+import com.example.lms.entity.Course;
+import com.example.lms.entity.User;
+import com.example.lms.repository.CourseRepository;
+import com.example.lms.service.EnrollmentService;
+import com.example.lms.service.S3Service;
+import com.example.lms.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class CurrentUserIdArgumentResolverTest {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private UserService userService;
+
+	@Autowired
+	private EnrollmentService enrollmentService;
+
+	@Autowired
+	private CourseRepository courseRepository;
+
+	@Autowired
+	private JwtUtil jwtUtil;
+
+	@MockBean
+	private S3Service s3Service;
+
+	@Test
+	void enrollsTheAuthenticatedStudentRegardlessOfRequestParams() throws Exception {
+		User caller = register();
+		User victim = register();
+		Course course = courseRepository.save(Course.builder()
+				.title("Course " + System.nanoTime())
+				.createdAt(LocalDateTime.now())
+				.build());
+
+		mockMvc.perform(post("/api/enrollments")
+						.param("courseId", course.getId().toString())
+						.param("studentEmail", victim.getEmail())
+						.header("Authorization", "Bearer " + jwtUtil.generateToken(new CustomUserDetails(caller, List.of("ROLE_STUDENT")))))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.studentEmail").value(caller.getEmail()));
+
+		assertEquals(1, enrollmentService.findByStudentId(caller.getId()).size());
+		assertTrue(enrollmentService.findByStudentId(victim.getId()).isEmpty());
+
+		mockMvc.perform(get("/api/enrollments/student")
+						.header("Authorization", "Bearer " + jwtUtil.generateToken(new CustomUserDetails(victim, List.of("ROLE_STUDENT")))))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.length()").value(0));
+	}
+
+	private User register() {
+		RegisterRequest request = new RegisterRequest();
+		request.setFullName("Student");
+		request.setEmail("student" + System.nanoTime() + "@lms.com");
+		request.setPassword("password");
+		request.setRoles(Set.of("ROLE_STUDENT"));
+		return userService.registerUser(request);
+	}
+}
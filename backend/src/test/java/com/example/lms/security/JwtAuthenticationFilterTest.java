@@ -0,0 +1,152 @@
+package com.example.lms.security;
+
+import com.example.lms.benchmark.Benchmark;
+import com.example.lms.benchmark.Benchmarks;
+import com.example.lms.service.TokenRevocationService;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import java.security.Key;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class JwtAuthenticationFilterTest {
+
+	private final JwtUtil jwtUtil = new JwtUtil();
+	private final CustomUserDetailsService userDetailsService = mock(CustomUserDetailsService.class);
+	private final TokenRevocationService revocationService = mock(TokenRevocationService.class);
+	private final CustomUserDetails student = new CustomUserDetails(7L, "s@lms.com", "hash", List.of("ROLE_STUDENT"));
+	private final String token = jwtUtil.generateToken(student);
+
+	@AfterEach
+	void clearContext() {
+		SecurityContextHolder.clearContext();
+	}
+
+	@Test
+	void buildsPrincipalFromClaimsBetweenRevalidations() throws Exception {
+		when(userDetailsService.loadUserByUsername("s@lms.com")).thenReturn(student);
+		JwtAuthenticationFilter filter = filter(300);
+
+		for (int i = 0; i < 5; i++) {
+			Authentication auth = authenticate(filter, token);
+			assertEquals(7L, ((CustomUserDetails) auth.getPrincipal()).getId());
+			assertTrue(auth.getAuthorities().contains(new SimpleGrantedAuthority("ROLE_STUDENT")));
+		}
+		verify(userDetailsService, times(1)).loadUserByUsername("s@lms.com");
+	}
+
+	@Test
+	void zeroIntervalChecksDatabaseOnEveryRequest() throws Exception {
+		when(userDetailsService.loadUserByUsername("s@lms.com")).thenReturn(student);
+		JwtAuthenticationFilter filter = filter(0);
+
+		authenticate(filter, token);
+		authenticate(filter, token);
+		verify(userDetailsService, times(2)).loadUserByUsername("s@lms.com");
+	}
+
+	@Test
+	void databaseRolesWinOverStaleTokenRoles() throws Exception {
+		when(userDetailsService.loadUserByUsername("s@lms.com"))
+				.thenReturn(new CustomUserDetails(7L, "s@lms.com", "hash", List.of("ROLE_TEACHER")));
+		JwtAuthenticationFilter filter = filter(300);
+
+		for (int i = 0; i < 2; i++) {
+			Authentication auth = authenticate(filter, token);
+			assertEquals(List.of(new SimpleGrantedAuthority("ROLE_TEACHER")), List.copyOf(auth.getAuthorities()));
+		}
+	}
+
+	@Test
+	void freshTokenDoesNotVouchForAnOlderTokenWithRevokedRoles() throws Exception {
+		CustomUserDetails demoted = new CustomUserDetails(7L, "s@lms.com", "hash", List.of("ROLE_STUDENT"));
+		String oldToken = jwtUtil.generateToken(new CustomUserDetails(7L, "s@lms.com", "hash",
+				List.of("ROLE_STUDENT", "ROLE_ADMIN")));
+		when(userDetailsService.loadUserByUsername("s@lms.com")).thenReturn(demoted);
+		JwtAuthenticationFilter filter = filter(300);
+
+		// The new token passes the database check and is then served from its claims
+		assertNotNull(authenticate(filter, token));
+		assertNotNull(authenticate(filter, token));
+		verify(userDetailsService, times(1)).loadUserByUsername("s@lms.com");
+
+		for (int i = 0; i < 3; i++) {
+			Authentication auth = authenticate(filter, oldToken);
+			assertEquals(List.of(new SimpleGrantedAuthority("ROLE_STUDENT")), List.copyOf(auth.getAuthorities()));
+		}
+	}
+
+	@Test
+	void rejectsDeletedUsersAndForgedTokens() throws Exception {
+		when(userDetailsService.loadUserByUsername("s@lms.com")).thenThrow(new UsernameNotFoundException("gone"));
+		JwtAuthenticationFilter filter = filter(300);
+		assertNull(authenticate(filter, token));
+
+		Key otherKey = Keys.hmacShaKeyFor("SomeOtherSecretKeyThatIsAlsoAtLeast32Bytes".getBytes());
+		String forged = Jwts.builder().setSubject("s@lms.com").claim("uid", 7).signWith(otherKey).compact();
+		assertNull(authenticate(filter, forged));
+	}
+
+	@Test
+	void rejectsRevokedTokens() throws Exception {
+		when(userDetailsService.loadUserByUsername("s@lms.com")).thenReturn(student);
+		JwtAuthenticationFilter filter = filter(300);
+		assertNotNull(authenticate(filter, token));
+
+		when(revocationService.isRevoked(jwtUtil.parseClaims(token).getId())).thenReturn(true);
+		assertNull(authenticate(filter, token));
+	}
+
+	/**
+	 * Run with: mvn test -Pbenchmark -Dtest=JwtAuthenticationFilterTest
+	 * Measures token handling only; the old path also paid one user query per request.
+	 */
+	@Benchmark
+	void benchmarkTokenHandlingBeforeAndAfter() throws Exception {
+		Key key = Keys.hmacShaKeyFor("MySuperSecretKeyForJwtTokenThatIsAtLeast32Bytes".getBytes());
+		int iterations = 50_000;
+		for (int warmup = 0; warmup < 2; warmup++) {
+			long before = Benchmarks.time(() -> {
+				for (int i = 0; i < iterations; i++) {
+					// before: extractUsername + validateToken, each with a freshly built parser
+					Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token).getBody().getSubject();
+					Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token);
+				}
+			});
+			long after = Benchmarks.time(() -> {
+				for (int i = 0; i < iterations; i++) {
+					assertNotNull(jwtUtil.toPrincipal(jwtUtil.parseClaims(token)));
+				}
+			});
+
+			Benchmarks.report("before: %,d ns/request (+1 user query), after: %,d ns/request",
+					before / iterations, after / iterations);
+		}
+	}
+
+	private JwtAuthenticationFilter filter(long revalidateIntervalSeconds) {
+		return new JwtAuthenticationFilter(jwtUtil, new VerifiedTokenCache(jwtUtil, 100), revocationService,
+				userDetailsService, new InMemoryUserCacheInvalidationBus(), revalidateIntervalSeconds);
+	}
+
+	private Authentication authenticate(JwtAuthenticationFilter filter, String bearer) throws Exception {
+		SecurityContextHolder.clearContext();
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/courses");
+		request.setServletPath("/api/courses");
+		request.addHeader("Authorization", "Bearer " + bearer);
+		filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+		return SecurityContextHolder.getContext().getAuthentication();
+	}
+}
@@ -0,0 +1,70 @@
+package com.example.lms.security;
+
+import com.example.lms.exception.ServiceUnavailableException;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PasswordHashingExecutorTest {
+
+	@Test
+	void hashesAndVerifiesOnThePool() {
+		PasswordHashingExecutor executor = new PasswordHashingExecutor(new BCryptPasswordEncoder(4), 2, 8, 2);
+		String hash = executor.encode("secret");
+
+		assertTrue(executor.matches("secret", hash));
+		assertFalse(executor.matches("wrong", hash));
+		assertEquals(3L, executor.getStats().get("completed"));
+		assertTrue((double) executor.getStats().get("avgHashMillis") > 0);
+		executor.shutdown();
+	}
+
+	@Test
+	void rejectsFastWhenQueueIsFull() throws Exception {
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		PasswordHashingExecutor executor = new PasswordHashingExecutor(blockingEncoder(started, release), 1, 1, 3);
+
+		CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> executor.encode("a"));
+		assertTrue(started.await(5, TimeUnit.SECONDS));
+		CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> executor.encode("b"));
+		while ((int) executor.getStats().get("queued") < 1) {
+			Thread.onSpinWait();
+		}
+
+		ServiceUnavailableException e = assertThrows(ServiceUnavailableException.class, () -> executor.encode("c"));
+		assertEquals(3, e.getRetryAfterSeconds());
+		assertEquals(1L, executor.getStats().get("rejected"));
+
+		release.countDown();
+		assertEquals("hash", running.get(5, TimeUnit.SECONDS));
+		assertEquals("hash", queued.get(5, TimeUnit.SECONDS));
+		executor.shutdown();
+	}
+
+	private static PasswordEncoder blockingEncoder(CountDownLatch started, CountDownLatch release) {
+		return new PasswordEncoder() {
+			@Override
+			public String encode(CharSequence rawPassword) {
+				started.countDown();
+				try {
+					release.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				return "hash";
+			}
+
+			@Override
+			public boolean matches(CharSequence rawPassword, String encodedPassword) {
+				return false;
+			}
+		};
+	}
+}
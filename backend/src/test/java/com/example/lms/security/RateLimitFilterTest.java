@@ -0,0 +1,84 @@
+package com.example.lms.security;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimitFilterTest {
+
+	private final AtomicLong now = new AtomicLong();
+	private final RateLimiter rateLimiter = new RateLimiter(4, 1000, now::get);
+	private final RateLimitFilter filter = new RateLimitFilter(rateLimiter, true,
+			List.of("/api/auth/login=3/60", "/api/progress/**=2/10"), "100/60");
+
+	@AfterEach
+	void clearContext() {
+		SecurityContextHolder.clearContext();
+	}
+
+	@Test
+	void rejectsAnonymousClientPastLimitWithStandardHeaders() throws Exception {
+		for (int i = 2; i >= 0; i--) {
+			MockHttpServletResponse response = call("POST", "/api/auth/login", "10.0.0.1");
+			assertEquals(200, response.getStatus());
+			assertEquals("3", response.getHeader("RateLimit-Limit"));
+			assertEquals(String.valueOf(i), response.getHeader("RateLimit-Remaining"));
+		}
+
+		MockHttpServletResponse rejected = call("POST", "/api/auth/login", "10.0.0.1");
+		assertEquals(429, rejected.getStatus());
+		assertEquals("0", rejected.getHeader("RateLimit-Remaining"));
+		assertEquals("20", rejected.getHeader("Retry-After"));
+
+		// Other clients and other routes have their own buckets
+		assertEquals(200, call("POST", "/api/auth/login", "10.0.0.2").getStatus());
+		assertEquals(200, call("GET", "/api/courses", "10.0.0.1").getStatus());
+	}
+
+	@Test
+	void limitsAuthenticatedRequestsPerSubjectAndRefills() throws Exception {
+		SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+				new CustomUserDetails(1L, "s@lms.com", null, List.of("ROLE_STUDENT")), null, List.of()));
+
+		assertEquals(200, call("POST", "/api/progress/update", "10.0.0.1").getStatus());
+		// Same user from a different address shares the bucket
+		assertEquals(200, call("POST", "/api/progress/update", "10.0.0.9").getStatus());
+		assertEquals(429, call("POST", "/api/progress/update", "10.0.0.1").getStatus());
+
+		now.addAndGet(TimeUnit.SECONDS.toNanos(5));
+		assertEquals(200, call("POST", "/api/progress/update", "10.0.0.1").getStatus());
+	}
+
+	@Test
+	void idleBucketsAreEvictedAndMemoryStaysBounded() {
+		RateLimiter limiter = new RateLimiter(4, 100, now::get);
+		long period = TimeUnit.SECONDS.toNanos(1);
+		for (int i = 0; i < 10_000; i++) {
+			assertTrue(limiter.tryAcquire("client-" + i, 5, period).allowed());
+		}
+		assertTrue(limiter.size() <= 100);
+
+		now.addAndGet(TimeUnit.SECONDS.toNanos(60));
+		limiter.tryAcquire("client-0", 5, period);
+		assertTrue(limiter.size() < 100);
+		assertTrue((long) limiter.getStats().get("evicted") > 9_000);
+	}
+
+	private MockHttpServletResponse call(String method, String path, String ip) throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest(method, path);
+		request.setRemoteAddr(ip);
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		filter.doFilter(request, response, new MockFilterChain());
+		return response;
+	}
+}
@@ -0,0 +1,105 @@
+package com.example.lms.security;
+
+import com.example.lms.dto.request.RegisterRequest;
+import com.example.lms.entity.User;
+import com.example.lms.service.S3Service;
+import com.example.lms.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "security.jwt.revalidate-interval-seconds=0")
+@AutoConfigureMockMvc
+class UserDetailsCacheTest {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private UserService userService;
+
+	@Autowired
+	private UserDetailsCache userDetailsCache;
+
+	@Autowired
+	private CustomUserDetailsService userDetailsService;
+
+	@Autowired
+	private JwtUtil jwtUtil;
+
+	@MockBean
+	private S3Service s3Service;
+
+	@Test
+	void repeatedLookupsAreServedFromCache() {
+		User user = register("ROLE_STUDENT");
+		long hitsBefore = (long) userDetailsCache.getStats().get("hits");
+
+		for (int i = 0; i < 3; i++) {
+			userDetailsService.loadUserByUsername(user.getEmail());
+		}
+		assertEquals(hitsBefore + 2, (long) userDetailsCache.getStats().get("hits"));
+	}
+
+	@Test
+	void revokedRoleTakesEffectOnNextRequest() throws Exception {
+		User admin = register("ROLE_ADMIN");
+		String token = tokenFor(admin);
+
+		mockMvc.perform(get("/api/admin/metrics/user-cache").header("Authorization", token))
+				.andExpect(status().isOk());
+		mockMvc.perform(get("/api/admin/metrics/user-cache").header("Authorization", token))
+				.andExpect(status().isOk());
+
+		userService.revokeRole(admin.getId(), "ROLE_ADMIN");
+
+		mockMvc.perform(get("/api/admin/metrics/user-cache").header("Authorization", token))
+				.andExpect(status().isForbidden());
+	}
+
+	@Test
+	void deletedUserIsRejectedOnNextRequest() throws Exception {
+		User student = register("ROLE_STUDENT");
+		String token = tokenFor(student);
+		userDetailsService.loadUserByUsername(student.getEmail());
+
+		userService.deleteById(student.getId());
+
+		assertNull(userDetailsCache.get(student.getEmail()));
+		mockMvc.perform(get("/api/enrollments/student").header("Authorization", token))
+				.andExpect(status().isUnauthorized());
+	}
+
+	@Test
+	void loadStartedBeforeInvalidationIsNotCached() {
+		long generation = userDetailsCache.currentGeneration();
+		CustomUserDetails stale = new CustomUserDetails(1L, "race@lms.com", "hash", Set.of("ROLE_ADMIN"));
+
+		userDetailsCache.invalidate("race@lms.com");
+		userDetailsCache.put("race@lms.com", stale, generation);
+
+		assertNull(userDetailsCache.get("race@lms.com"));
+	}
+
+	private User register(String role) {
+		RegisterRequest request = new RegisterRequest();
+		request.setFullName("Cached User");
+		request.setEmail("user" + System.nanoTime() + "@lms.com");
+		request.setPassword("password");
+		request.setRoles(Set.of(role));
+		return userService.registerUser(request);
+	}
+
+	private String tokenFor(User user) {
+		return "Bearer " + jwtUtil.generateToken(userDetailsService.loadUserByUsername(user.getEmail()));
+	}
+}
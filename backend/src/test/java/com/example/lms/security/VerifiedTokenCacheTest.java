@@ -0,0 +1,111 @@
+package com.example.lms.security;
+
+import com.example.lms.benchmark.Benchmark;
+import com.example.lms.benchmark.Benchmarks;
+import io.jsonwebtoken.Claims;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VerifiedTokenCacheTest {
+
+	private final JwtUtil jwtUtil = new JwtUtil();
+
+	@Test
+	void repeatTokensSkipVerification() {
+		VerifiedTokenCache cache = new VerifiedTokenCache(jwtUtil, 100);
+		String token = tokenFor(1L);
+
+		Claims first = cache.verify(token);
+		Claims second = cache.verify(token);
+
+		assertNotNull(first);
+		assertSame(first, second);
+		assertEquals(1L, cache.getStats().get("hits"));
+		assertEquals(1L, cache.getStats().get("misses"));
+	}
+
+	@Test
+	void invalidTokensAreNeverCached() {
+		VerifiedTokenCache cache = new VerifiedTokenCache(jwtUtil, 100);
+		String token = tokenFor(1L);
+		char[] chars = token.toCharArray();
+		int i = chars.length - 10;
+		chars[i] = chars[i] == 'A' ? 'B' : 'A';
+		String tampered = new String(chars);
+
+		assertNull(cache.verify(tampered));
+		assertNull(cache.verify(tampered));
+		assertEquals(0, cache.getStats().get("entries"));
+	}
+
+	@Test
+	void entriesExpireWithTheToken() {
+		MutableClock clock = new MutableClock();
+		VerifiedTokenCache cache = new VerifiedTokenCache(jwtUtil, 100, clock);
+		String token = tokenFor(1L);
+		cache.verify(token);
+
+		clock.advance(Duration.ofHours(25));
+		cache.verify(token);
+
+		assertEquals(1L, cache.getStats().get("expired"));
+		assertEquals(0L, cache.getStats().get("hits"));
+	}
+
+	@Test
+	void boundedByEntryCount() {
+		VerifiedTokenCache cache = new VerifiedTokenCache(jwtUtil, 10);
+		for (long id = 0; id < 50; id++) {
+			assertNotNull(cache.verify(tokenFor(id)));
+		}
+		assertTrue((int) cache.getStats().get("entries") <= 10);
+		assertTrue((long) cache.getStats().get("evictions") > 0);
+	}
+
+	/**
+	 * Run with: mvn test -Pbenchmark -Dtest=VerifiedTokenCacheTest
+	 */
+	@Benchmark
+	void benchmarkCachedVersusUncachedValidation() throws Exception {
+		VerifiedTokenCache cache = new VerifiedTokenCache(jwtUtil, 10_000);
+		List<String> tokens = LongStream.range(0, 100).mapToObj(this::tokenFor).toList();
+		int iterations = 200_000;
+		for (int round = 0; round < 3; round++) {
+			long uncached = Benchmarks.time(() -> {
+				for (int i = 0; i < iterations; i++) {
+					assertNotNull(jwtUtil.parseClaims(tokens.get(i % tokens.size())));
+				}
+			});
+			long cached = Benchmarks.time(() -> {
+				for (int i = 0; i < iterations; i++) {
+					assertNotNull(cache.verify(tokens.get(i % tokens.size())));
+				}
+			});
+
+			Benchmarks.report("uncached: %,d ops/s, cached: %,d ops/s",
+					Benchmarks.perSecond(iterations, uncached), Benchmarks.perSecond(iterations, cached));
+		}
+	}
+
+	private String tokenFor(long id) {
+		return jwtUtil.generateToken(new CustomUserDetails(id, "u" + id + "@lms.com", "hash", List.of("ROLE_STUDENT")));
+	}
+
+	private static class MutableClock extends Clock {
+		private Instant now = Instant.now();
+
+		void advance(Duration duration) { now = now.plus(duration); }
+
+		@Override public ZoneOffset getZone() { return ZoneOffset.UTC; }
+		@Override public Clock withZone(java.time.ZoneId zone) { return this; }
+		@Override public Instant instant() { return now; }
+	}
+}
@@ -0,0 +1,224 @@
+package com.example.lms.service;
+
+import com.example.lms.dto.request.RegisterRequest;
+import com.example.lms.entity.Certificate;
+import com.example.lms.entity.CertificateStatus;
+import com.example.lms.entity.Content;
+import com.example.lms.entity.Course;
+import com.example.lms.entity.Enrollment;
+import com.example.lms.entity.EnrollmentStatus;
+import com.example.lms.entity.User;
+import com.example.lms.repository.CertificateRepository;
+import com.example.lms.repository.ContentRepository;
+import com.example.lms.repository.CourseRepository;
+import com.example.lms.repository.EnrollmentRepository;
+import com.example.lms.security.CustomUserDetails;
+import com.example.lms.security.JwtUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {"storage.local.dir=target/test-certificates", "certificates.workers=1",
+		"certificates.queue-capacity=2"})
+@AutoConfigureMockMvc
+class CertificateServiceTest {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private CertificateService certificateService;
+
+	@Autowired
+	private ProgressService progressService;
+
+	@Autowired
+	private UserService userService;
+
+	@Autowired
+	private JwtUtil jwtUtil;
+
+	@Autowired
+	private CourseRepository courseRepository;
+
+	@Autowired
+	private ContentRepository contentRepository;
+
+	@Autowired
+	private EnrollmentRepository enrollmentRepository;
+
+	@Autowired
+	private CertificateRepository certificateRepository;
+
+	@MockBean
+	private S3Service s3Service;
+
+	@BeforeEach
+	void s3Unavailable() {
+		// Certificates land in local storage through the fallback
+		when(s3Service.uploadFile(anyString(), any(byte[].class), anyString()))
+				.thenThrow(new RuntimeException("S3 unavailable"));
+	}
+
+	@Test
+	void completingACourseProducesADownloadableCachedCertificate() throws Exception {
+		User student = register("Ada Lovelace");
+		User other = register("Someone Else");
+		Course course = course("Analytical Engines (Part 1)");
+		Content lesson = contentRepository.save(Content.builder()
+				.title("Only lesson")
+				.fileUrl("http://localhost/only")
+				.s3Key("certificate-lesson-" + System.nanoTime())
+				.orderIndex(1)
+				.course(course)
+				.build());
+		Enrollment enrollment = enroll(student, course, EnrollmentStatus.ACTIVE);
+
+		mockMvc.perform(get("/api/enrollments/{id}/certificate", enrollment.getId()).header("Authorization", bearer(student)))
+				.andExpect(status().isBadRequest());
+
+		progressService.updateProgress(enrollment, lesson, 100);
+
+		MvcResult result = null;
+		long deadline = System.currentTimeMillis() + 10_000;
+		while (System.currentTimeMillis() < deadline) {
+			result = mockMvc.perform(get("/api/enrollments/{id}/certificate", enrollment.getId())
+					.header("Authorization", bearer(student))).andReturn();
+			if (result.getResponse().getStatus() != 202) {
+				break;
+			}
+			assertEquals("30", result.getResponse().getHeader("Retry-After"));
+			Thread.sleep(50);
+		}
+		assertEquals(200, result.getResponse().getStatus());
+		assertEquals("application/pdf", result.getResponse().getContentType());
+		String cacheControl = result.getResponse().getHeader("Cache-Control");
+		assertTrue(cacheControl.contains("private") && cacheControl.contains("immutable"), cacheControl);
+		String pdf = new String(result.getResponse().getContentAsByteArray(), StandardCharsets.ISO_8859_1);
+		assertTrue(pdf.startsWith("%PDF-1.4"));
+		assertTrue(pdf.contains("(Ada Lovelace)"));
+		assertTrue(pdf.contains("Analytical Engines \\(Part 1\\)"));
+
+		String etag = result.getResponse().getHeader("ETag");
+		mockMvc.perform(get("/api/enrollments/{id}/certificate", enrollment.getId())
+						.header("Authorization", bearer(student))
+						.header("If-None-Match", etag))
+				.andExpect(status().isNotModified())
+				.andExpect(header().string("ETag", etag));
+
+		mockMvc.perform(get("/api/enrollments/{id}/certificate", enrollment.getId()).header("Authorization", bearer(other)))
+				.andExpect(status().isNotFound());
+	}
+
+	@Test
+	void burstBeyondThePoolWaitsInTheTableAndIsGeneratedOnce() throws Exception {
+		Course course = course("Burst");
+		List<Long> enrollmentIds = new ArrayList<>();
+		for (int i = 0; i < 20; i++) {
+			enrollmentIds.add(enroll(register("Student " + i), course, EnrollmentStatus.COMPLETED).getId());
+		}
+		long generatedBefore = (long) certificateService.getStats().get("generated");
+
+		for (Long id : enrollmentIds) {
+			certificateService.request(id, LocalDateTime.now());
+			certificateService.request(id, LocalDateTime.now());
+		}
+		long deadline = System.currentTimeMillis() + 20_000;
+		while (!allReady(enrollmentIds) && System.currentTimeMillis() < deadline) {
+			certificateService.pumpPending();
+			Thread.sleep(20);
+		}
+
+		assertTrue(allReady(enrollmentIds));
+		Map<String, Object> stats = certificateService.getStats();
+		assertEquals(generatedBefore + 20, stats.get("generated"));
+		assertTrue((long) stats.get("rejectedByPool") > 0);
+		assertEquals(0L, stats.get("pendingRows"));
+		System.out.println("Certificate stats: " + stats);
+	}
+
+	@Test
+	void rendersAWellFormedPdf() {
+		String title = "A course title that is far too long to fit on a single line of the certificate at any size "
+				+ "and therefore has to be truncated, even after the font has been shrunk to its smallest size";
+		byte[] bytes = CertificatePdfRenderer.render("Zoë Ünicode 名前", title, LocalDate.of(2026, 10, 19), "LMS-00000042");
+		String pdf = new String(bytes, StandardCharsets.ISO_8859_1);
+
+		assertTrue(pdf.startsWith("%PDF-1.4"));
+		assertTrue(pdf.endsWith("%%EOF\n"));
+		assertTrue(pdf.contains("(Zoë Ünicode ??) Tj"));
+		assertTrue(pdf.contains("...) Tj"));
+		assertTrue(pdf.contains("(Completed on 19 October 2026)"));
+
+		// Every xref entry points at its object
+		int xref = Integer.parseInt(pdf.substring(pdf.lastIndexOf("startxref") + 10, pdf.lastIndexOf("%%EOF")).trim());
+		Matcher entries = Pattern.compile("(\\d{10}) 00000 n").matcher(pdf.substring(xref));
+		int object = 1;
+		while (entries.find()) {
+			assertTrue(pdf.startsWith(object + " 0 obj", Integer.parseInt(entries.group(1))));
+			object++;
+		}
+		assertEquals(8, object);
+		int length = Integer.parseInt(pdf.replaceAll("(?s).*/Length (\\d+).*", "$1"));
+		int stream = pdf.indexOf("stream\n") + 7;
+		assertEquals("\nendstream", pdf.substring(stream + length, stream + length + 10));
+	}
+
+	private boolean allReady(List<Long> enrollmentIds) {
+		return enrollmentIds.stream()
+				.map(id -> certificateRepository.findByEnrollmentId(id).map(Certificate::getStatus).orElse(null))
+				.allMatch(s -> s == CertificateStatus.READY);
+	}
+
+	private String bearer(User user) {
+		return "Bearer " + jwtUtil.generateToken(new CustomUserDetails(user, List.of("ROLE_STUDENT")));
+	}
+
+	private User register(String name) {
+		RegisterRequest request = new RegisterRequest();
+		request.setFullName(name);
+		request.setEmail("cert" + System.nanoTime() + "@lms.com");
+		request.setPassword("password");
+		request.setRoles(Set.of("ROLE_STUDENT"));
+		return userService.registerUser(request);
+	}
+
+	private Course course(String title) {
+		return courseRepository.save(Course.builder()
+				.title(title)
+				.createdAt(LocalDateTime.now())
+				.build());
+	}
+
+	private Enrollment enroll(User student, Course course, EnrollmentStatus status) {
+		return enrollmentRepository.save(Enrollment.builder()
+				.student(student)
+				.course(course)
+				.status(status)
+				.enrolledAt(LocalDateTime.now())
+				.build());
+	}
+}
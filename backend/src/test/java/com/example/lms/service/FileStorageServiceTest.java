@@ -0,0 +1,67 @@
+package com.example.lms.service;
+
+import com.example.lms.dto.S3FileResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockMultipartFile;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class FileStorageServiceTest {
+
+	private final S3Service s3Service = mock(S3Service.class);
+	private final LocalFileStorageService localFileStorageService = mock(LocalFileStorageService.class);
+	private final S3CircuitBreaker circuitBreaker = new S3CircuitBreaker(10, 4, 50, 30_000, 2);
+	private final FileStorageService service = new FileStorageService(s3Service, localFileStorageService,
+			circuitBreaker, mock(S3DiskCache.class));
+
+	@Test
+	void rejectedRequestsDoNotOpenTheCircuit() {
+		doThrow(new RuntimeException("S3 delete failed", S3Exception.builder().statusCode(403).message("AccessDenied").build()))
+				.when(s3Service).deleteFile(any());
+
+		for (int i = 0; i < 10; i++) {
+			assertThrows(RuntimeException.class, () -> service.deleteFile("uploads/forbidden.pdf"));
+		}
+
+		assertEquals(S3CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+	}
+
+	@Test
+	void unreachableS3OpensTheCircuitAndUploadsFallBack() {
+		MockMultipartFile file = new MockMultipartFile("file", "notes.pdf", "application/pdf", new byte[]{1});
+		when(s3Service.uploadFile(any(MockMultipartFile.class)))
+				.thenThrow(new RuntimeException("S3 upload failed", SdkClientException.create("connection refused")));
+
+		for (int i = 0; i < 4; i++) {
+			service.uploadFile(file);
+		}
+
+		assertEquals(S3CircuitBreaker.State.OPEN, circuitBreaker.getState());
+		verify(localFileStorageService, times(4)).uploadFile(file);
+	}
+
+	@Test
+	void storedFilesKeepTheCircuitClosedOnRejectionAndUseTheLocalUrl() throws Exception {
+		when(s3Service.uploadFile(any(String.class), any(byte[].class), any(String.class)))
+				.thenThrow(new RuntimeException("S3 upload failed", S3Exception.builder().statusCode(400).message("EntityTooLarge").build()));
+
+		S3FileResponse response = null;
+		for (int i = 0; i < 10; i++) {
+			response = service.storeFile("report.csv", new byte[]{1}, "text/csv");
+		}
+
+		assertEquals(S3CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+		assertEquals(LocalFileStorageService.fileUrlFor("report.csv"), response.getFileUrl());
+		assertEquals("report.csv", response.getKey());
+		verify(localFileStorageService, times(10)).writeFile(eq("report.csv"), any());
+	}
+}
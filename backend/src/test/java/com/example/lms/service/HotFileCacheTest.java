@@ -0,0 +1,167 @@
+package com.example.lms.service;
+
+import com.example.lms.benchmark.Benchmark;
+import com.example.lms.benchmark.Benchmarks;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HotFileCacheTest {
+
+	private static final int KB = 1024;
+
+	@Test
+	void servesCachedBytesAndTracksHitRatio() {
+		HotFileCache cache = new HotFileCache(true, 1024 * KB, 64 * KB);
+		byte[] data = {1, 2, 3};
+
+		assertNull(cache.get("intro.pdf"));
+		cache.put("intro.pdf", data);
+		ByteBuffer hit = cache.get("intro.pdf");
+
+		assertNotNull(hit);
+		assertTrue(hit.isDirect());
+		assertEquals(3, hit.remaining());
+		assertEquals(3, cache.getBytesResident());
+		assertEquals(0.5, cache.getHitRatio(), 0.001);
+	}
+
+	@Test
+	void invalidateRemovesEntry() {
+		HotFileCache cache = new HotFileCache(true, 1024 * KB, 64 * KB);
+		cache.put("a.mp4", new byte[10]);
+		cache.invalidate("a.mp4");
+
+		assertNull(cache.get("a.mp4"));
+		assertEquals(0, cache.getBytesResident());
+	}
+
+	@Test
+	void readThatRacesWithADeleteIsNotCached() {
+		HotFileCache cache = new HotFileCache(true, 1024 * KB, 64 * KB);
+		long generation = cache.generation("a.mp4");
+		byte[] read = new byte[10];
+		// The file is deleted while the miss is still reading it
+		cache.invalidate("a.mp4");
+		cache.put("a.mp4", read, generation);
+
+		assertNull(cache.get("a.mp4"));
+		assertEquals(0, cache.getBytesResident());
+
+		cache.put("a.mp4", read, cache.generation("a.mp4"));
+		assertNotNull(cache.get("a.mp4"));
+	}
+
+	@Test
+	void admissionRejectionsAreNotCountedAsEvictions() {
+		HotFileCache cache = new HotFileCache(true, 256 * KB, 16 * KB);
+		for (int i = 0; i < 15; i++) {
+			cache.put("hot-" + i, new byte[16 * KB]);
+			cache.get("hot-" + i);
+			cache.get("hot-" + i);
+		}
+		for (int i = 0; i < 20; i++) {
+			cache.put("cold-" + i, new byte[16 * KB]);
+		}
+
+		Map<String, Object> stats = cache.getStats();
+		assertTrue((long) stats.get("admissionRejections") > 0, stats.toString());
+		assertEquals(0L, stats.get("evictions"), stats.toString());
+	}
+
+	@Test
+	void frequentlyUsedFilesSurviveAScanOfOneHitWonders() {
+		HotFileCache cache = new HotFileCache(true, 256 * KB, 16 * KB);
+		for (int i = 0; i < 12; i++) {
+			cache.put("hot-" + i, new byte[16 * KB]);
+		}
+		for (int round = 0; round < 5; round++) {
+			for (int i = 0; i < 12; i++) {
+				cache.get("hot-" + i);
+			}
+		}
+		for (int i = 0; i < 200; i++) {
+			cache.get("cold-" + i);
+			cache.put("cold-" + i, new byte[16 * KB]);
+		}
+
+		for (int i = 0; i < 12; i++) {
+			assertNotNull(cache.get("hot-" + i), "hot-" + i + " was evicted");
+		}
+		assertTrue(cache.getBytesResident() <= 256 * KB);
+	}
+
+	@Test
+	void disabledCacheNeverStores() {
+		HotFileCache cache = new HotFileCache(false, 1024 * KB, 64 * KB);
+		cache.put("a.pdf", new byte[10]);
+		assertNull(cache.get("a.pdf"));
+		assertEquals(0, cache.getBytesResident());
+	}
+
+	/**
+	 * Run with: mvn test -Pbenchmark -Dtest=HotFileCacheTest
+	 */
+	@Benchmark
+	void benchmarkThroughputWithAndWithoutCache(@TempDir Path dir) throws Exception {
+		int files = 200;
+		for (int i = 0; i < files; i++) {
+			Files.write(dir.resolve("file-" + i), new byte[256 * KB]);
+		}
+		int requests = 20_000;
+		int[] keys = zipfKeys(files, requests);
+
+		HotFileCache cache = new HotFileCache(true, 16 * 1024 * KB, 1024 * KB);
+		long uncached = Benchmarks.time(() -> read(dir, keys, null));
+		long cached = Benchmarks.time(() -> read(dir, keys, cache));
+
+		Benchmarks.report("uncached: %,d req/s", Benchmarks.perSecond(requests, uncached));
+		Benchmarks.report("cached:   %,d req/s (hit ratio %.2f, %,d bytes resident)",
+				Benchmarks.perSecond(requests, cached), cache.getHitRatio(), cache.getBytesResident());
+	}
+
+	private void read(Path dir, int[] keys, HotFileCache cache) throws Exception {
+		long sink = 0;
+		for (int key : keys) {
+			String name = "file-" + key;
+			ByteBuffer buffer = cache != null ? cache.get(name) : null;
+			if (buffer == null) {
+				byte[] data = Files.readAllBytes(dir.resolve(name));
+				if (cache != null) {
+					cache.put(name, data);
+				}
+				sink += data.length;
+			} else {
+				sink += buffer.remaining();
+			}
+		}
+		assertTrue(sink > 0);
+	}
+
+	private static int[] zipfKeys(int n, int count) {
+		double[] cumulative = new double[n];
+		double sum = 0;
+		for (int i = 0; i < n; i++) {
+			sum += 1.0 / (i + 1);
+			cumulative[i] = sum;
+		}
+		Random random = new Random(42);
+		int[] keys = new int[count];
+		for (int i = 0; i < count; i++) {
+			double r = random.nextDouble() * sum;
+			int k = 0;
+			while (cumulative[k] < r) {
+				k++;
+			}
+			keys[i] = k;
+		}
+		return keys;
+	}
+}
@@ -0,0 +1,124 @@
+package com.example.lms.service;
+
+import com.example.lms.benchmark.Benchmark;
+import com.example.lms.benchmark.Benchmarks;
+import com.example.lms.dto.S3FileResponse;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.io.ByteArrayInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LocalFileStorageServiceTest {
+
+	@TempDir
+	Path dir;
+
+	private LocalFileStorageService storage() {
+		return new LocalFileStorageService(dir.toString(), new HotFileCache(false, 0, 0));
+	}
+
+	@Test
+	void uploadsLandInTwoLevelShard() throws Exception {
+		LocalFileStorageService storage = storage();
+		S3FileResponse response = storage.uploadFile(
+				new MockMultipartFile("file", "notes.pdf", "application/pdf", new byte[]{1, 2, 3}));
+
+		Path stored = storage.resolve(response.getKey());
+		assertTrue(Files.exists(stored));
+		assertEquals(dir, stored.getParent().getParent().getParent());
+		assertArrayEquals(new byte[]{1, 2, 3}, storage.getFile(response.getKey()));
+		try (Stream<Path> files = Files.walk(dir)) {
+			assertTrue(files.noneMatch(p -> p.toString().endsWith(".tmp")));
+		}
+	}
+
+	@Test
+	void flatFilesStayReadableAndMigrateIntoShards() throws Exception {
+		Files.write(dir.resolve("legacy.pdf"), new byte[]{7});
+		LocalFileStorageService storage = storage();
+
+		assertArrayEquals(new byte[]{7}, storage.getFile("legacy.pdf"));
+		assertEquals(1, storage.migrateFlatFiles());
+		assertFalse(Files.exists(dir.resolve("legacy.pdf")));
+		assertArrayEquals(new byte[]{7}, storage.getFile("legacy.pdf"));
+		assertEquals(0, storage.migrateFlatFiles());
+
+		storage.deleteFile("legacy.pdf");
+		assertFalse(Files.exists(storage.resolve("legacy.pdf")));
+	}
+
+	@Test
+	void migrationStepsOverFilesAlreadyInTheirShard() throws Exception {
+		LocalFileStorageService storage = storage();
+		// Left behind by an interrupted run: copied into the shard, flat copy not yet removed
+		Files.write(dir.resolve("copied.pdf"), new byte[]{1, 2});
+		Files.createDirectories(storage.resolve("copied.pdf").getParent());
+		Files.write(storage.resolve("copied.pdf"), new byte[]{1, 2});
+		// A different file that happens to share the name
+		Files.write(dir.resolve("clash.pdf"), new byte[]{3});
+		Files.createDirectories(storage.resolve("clash.pdf").getParent());
+		Files.write(storage.resolve("clash.pdf"), new byte[]{4, 4});
+		Files.write(dir.resolve("new.pdf"), new byte[]{5});
+
+		assertEquals(1, storage.migrateFlatFiles());
+
+		assertFalse(Files.exists(dir.resolve("copied.pdf")));
+		assertArrayEquals(new byte[]{1, 2}, storage.getFile("copied.pdf"));
+		assertTrue(Files.exists(dir.resolve("clash.pdf")));
+		assertArrayEquals(new byte[]{4, 4}, Files.readAllBytes(storage.resolve("clash.pdf")));
+		assertArrayEquals(new byte[]{5}, storage.getFile("new.pdf"));
+	}
+
+	/**
+	 * Run with: mvn test -Pbenchmark -Dtest=LocalFileStorageServiceTest [-Dbenchmark.files=500000]
+	 */
+	@Benchmark
+	void benchmarkFlatVersusShardedLayout() throws Exception {
+		int files = Integer.getInteger("benchmark.files", 500_000);
+		int lookups = 100_000;
+
+		Path flatDir = Files.createDirectories(dir.resolve("flat"));
+		long flatCreate = Benchmarks.time(() -> {
+			for (int i = 0; i < files; i++) {
+				Files.createFile(flatDir.resolve(name(i)));
+			}
+		});
+
+		LocalFileStorageService sharded = new LocalFileStorageService(
+				dir.resolve("sharded").toString(), new HotFileCache(false, 0, 0));
+		long shardedCreate = Benchmarks.time(() -> {
+			for (int i = 0; i < files; i++) {
+				sharded.writeFile(name(i), new ByteArrayInputStream(new byte[0]));
+			}
+		});
+
+		long flatLookup = Benchmarks.time(() -> {
+			Random random = new Random(1);
+			for (int i = 0; i < lookups; i++) {
+				assertTrue(Files.exists(flatDir.resolve(name(random.nextInt(files)))));
+			}
+		});
+		long shardedLookup = Benchmarks.time(() -> {
+			Random random = new Random(1);
+			for (int i = 0; i < lookups; i++) {
+				assertTrue(Files.exists(sharded.resolve(name(random.nextInt(files)))));
+			}
+		});
+
+		Benchmarks.report("%,d files: flat create %,d ms, sharded create (fsync + rename) %,d ms",
+				files, Benchmarks.millis(flatCreate), Benchmarks.millis(shardedCreate));
+		Benchmarks.report("%,d random lookups: flat %,d ms, sharded %,d ms",
+				lookups, Benchmarks.millis(flatLookup), Benchmarks.millis(shardedLookup));
+	}
+
+	private static String name(int i) {
+		return new java.util.UUID(i * 31L, i).toString() + "-lecture.pdf";
+	}
+}
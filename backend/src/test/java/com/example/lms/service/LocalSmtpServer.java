@@ -0,0 +1,156 @@
+package com.example.lms.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Just enough of an SMTP server for tests: accepts everything, records messages and connections,
+ * and can answer RCPT for chosen recipients with 451 (a number of times) or 550.
+ */
+class LocalSmtpServer implements AutoCloseable {
+
+	record Message(String mailFrom, String recipient, String data) {}
+
+	private final ServerSocket serverSocket;
+	private final ExecutorService handlers = Executors.newCachedThreadPool();
+	private final List<Message> messages = new CopyOnWriteArrayList<>();
+	private final AtomicInteger connections = new AtomicInteger();
+	private final Map<String, AtomicInteger> transientFailures = new ConcurrentHashMap<>();
+	private final Set<String> rejected = ConcurrentHashMap.newKeySet();
+	private volatile long dataLatencyMillis;
+	private volatile boolean eightBitMime = true;
+
+	LocalSmtpServer() throws IOException {
+		serverSocket = new ServerSocket(0);
+		handlers.submit(this::acceptLoop);
+	}
+
+	int port() {
+		return serverSocket.getLocalPort();
+	}
+
+	List<Message> messages() {
+		return messages;
+	}
+
+	int connections() {
+		return connections.get();
+	}
+
+	void failTransiently(String recipient, int times) {
+		transientFailures.put(recipient, new AtomicInteger(times));
+	}
+
+	void reject(String recipient) {
+		rejected.add(recipient);
+	}
+
+	/**
+	 * Simulated server-side processing time per message
+	 */
+	void setDataLatencyMillis(long millis) {
+		dataLatencyMillis = millis;
+	}
+
+	/**
+	 * Whether EHLO announces the 8BITMIME extension
+	 */
+	void setEightBitMime(boolean announced) {
+		eightBitMime = announced;
+	}
+
+	private void acceptLoop() {
+		while (!serverSocket.isClosed()) {
+			try {
+				Socket socket = serverSocket.accept();
+				connections.incrementAndGet();
+				handlers.submit(() -> handle(socket));
+			} catch (IOException e) {
+				return;
+			}
+		}
+	}
+
+	private void handle(Socket socket) {
+		try (socket) {
+			BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+			Writer out = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8);
+			reply(out, "220 localhost ESMTP");
+			String mailFrom = null;
+			String recipient = null;
+			String line;
+			while ((line = in.readLine()) != null) {
+				String verb = line.length() >= 4 ? line.substring(0, 4).toUpperCase() : line.toUpperCase();
+				switch (verb) {
+					case "EHLO" -> reply(out, eightBitMime ? "250-localhost\r\n250 8BITMIME" : "250 localhost");
+					case "MAIL" -> {
+						mailFrom = line;
+						reply(out, "250 OK");
+					}
+					case "NOOP" -> reply(out, "250 OK");
+					case "RSET" -> {
+						recipient = null;
+						reply(out, "250 OK");
+					}
+					case "RCPT" -> {
+						String address = line.substring(line.indexOf('<') + 1, line.indexOf('>'));
+						AtomicInteger remaining = transientFailures.get(address);
+						if (rejected.contains(address)) {
+							reply(out, "550 No such user");
+						} else if (remaining != null && remaining.getAndDecrement() > 0) {
+							reply(out, "451 Try again later");
+						} else {
+							recipient = address;
+							reply(out, "250 OK");
+						}
+					}
+					case "DATA" -> {
+						reply(out, "354 End data with <CR><LF>.<CR><LF>");
+						StringBuilder data = new StringBuilder();
+						while (!(line = in.readLine()).equals(".")) {
+							data.append(line.startsWith(".") ? line.substring(1) : line).append('\n');
+						}
+						if (dataLatencyMillis > 0) {
+							Thread.sleep(dataLatencyMillis);
+						}
+						messages.add(new Message(mailFrom, recipient, data.toString()));
+						recipient = null;
+						reply(out, "250 Queued");
+					}
+					case "QUIT" -> {
+						reply(out, "221 Bye");
+						return;
+					}
+					default -> reply(out, "502 Command not implemented");
+				}
+			}
+		} catch (IOException | InterruptedException e) {
+			// Client went away
+		}
+	}
+
+	private static void reply(Writer out, String text) throws IOException {
+		out.write(text + "\r\n");
+		out.flush();
+	}
+
+	@Override
+	public void close() throws IOException {
+		serverSocket.close();
+		handlers.shutdownNow();
+	}
+}
@@ -0,0 +1,244 @@
+package com.example.lms.service;
+
+import com.example.lms.benchmark.Benchmark;
+import com.example.lms.benchmark.Benchmarks;
+import com.example.lms.config.IdSequenceAligner;
+import com.example.lms.entity.Content;
+import com.example.lms.entity.Course;
+import com.example.lms.entity.Enrollment;
+import com.example.lms.entity.EnrollmentStatus;
+import com.example.lms.entity.Progress;
+import com.example.lms.entity.User;
+import com.example.lms.repository.CourseRepository;
+import com.example.lms.repository.EnrollmentRepository;
+import com.example.lms.repository.UserRepository;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import org.hibernate.Session;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class ProgressBatchInsertTest {
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private IdSequenceAligner idSequenceAligner;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private CourseRepository courseRepository;
+
+	@Autowired
+	private EnrollmentRepository enrollmentRepository;
+
+	@MockBean
+	private S3Service s3Service;
+
+	@Test
+	void sequencesAreMovedPastIdsWrittenBeforeTheSwitch() {
+		User student = userRepository.save(User.builder()
+				.fullName("Legacy")
+				.email("legacy" + System.nanoTime() + "@lms.com")
+				.password("hash")
+				.build());
+		Course course = courseRepository.save(Course.builder().title("Legacy").createdAt(LocalDateTime.now()).build());
+		// A row inserted by the old IDENTITY column, far ahead of the sequence
+		long legacyId = 1_000_000;
+		jdbcTemplate.update("INSERT INTO enrollments (id, student_id, course_id, enrolled_at, status) VALUES (?, ?, ?, ?, ?)",
+				legacyId, student.getId(), course.getId(), LocalDateTime.now(), EnrollmentStatus.COMPLETED.name());
+		try {
+			idSequenceAligner.align();
+			idSequenceAligner.align();
+
+			// Ids already pooled in memory are handed out first; the next block comes from the moved sequence
+			List<Enrollment> created = new ArrayList<>();
+			for (int i = 0; i <= Enrollment.ID_ALLOCATION_SIZE; i++) {
+				Course next = courseRepository.save(Course.builder().title("Next " + i).createdAt(LocalDateTime.now()).build());
+				created.add(enrollmentRepository.save(Enrollment.builder()
+						.student(student)
+						.course(next)
+						.status(EnrollmentStatus.COMPLETED)
+						.enrolledAt(LocalDateTime.now())
+						.build()));
+			}
+			Long last = created.get(created.size() - 1).getId();
+			assertTrue(last > legacyId, "id " + last);
+			enrollmentRepository.deleteAll(created);
+		} finally {
+			jdbcTemplate.update("DELETE FROM enrollments WHERE id = ?", legacyId);
+		}
+	}
+
+	/**
+	 * Inserts benchmark.rows progress rows three ways: with the old IDENTITY mapping (see {@link IdentityProgress}),
+	 * and with sequence ids at JDBC batch size 1 and 50. Runs on H2 by default; pass
+	 * -Dspring.datasource.url=jdbc:mysql://...&rewriteBatchedStatements=true (plus driver, username and password)
+	 * to measure a scratch MySQL database. Run with: mvn test -Pbenchmark -Dtest=ProgressBatchInsertTest
+	 */
+	@Benchmark
+	void benchmarkProgressInserts() throws Exception {
+		int rows = Integer.getInteger("benchmark.rows", 100_000);
+		int contentsPerCourse = 100;
+		int enrollmentCount = (rows + contentsPerCourse - 1) / contentsPerCourse;
+		List<Long> contentIds = new ArrayList<>();
+		List<Long> enrollmentIds = new ArrayList<>();
+		setUp(enrollmentCount, contentsPerCourse, contentIds, enrollmentIds);
+		String database = jdbcTemplate.execute((ConnectionCallback<String>) c -> c.getMetaData().getDatabaseProductName());
+
+		// Twice, so the second round runs warm
+		for (int round = 0; round < 2; round++) {
+			long millis = insertProgress(rows, 50, contentIds, enrollmentIds, (enrollment, content) -> {
+				IdentityProgress progress = new IdentityProgress();
+				progress.enrollment = enrollment;
+				progress.content = content;
+				progress.percentComplete = 100;
+				progress.completed = true;
+				progress.lastAccessedAt = LocalDateTime.now();
+				return progress;
+			});
+			report(database, rows, "IDENTITY ids (batching disabled by Hibernate)", millis, "progress_identity");
+
+			for (int batchSize : new int[]{1, 50}) {
+				millis = insertProgress(rows, batchSize, contentIds, enrollmentIds, (enrollment, content) -> Progress.builder()
+						.enrollment(enrollment)
+						.content(content)
+						.percentComplete(100)
+						.completed(true)
+						.lastAccessedAt(LocalDateTime.now())
+						.build());
+				report(database, rows, "sequence ids, JDBC batch size " + batchSize, millis, "progress");
+			}
+		}
+	}
+
+	private void report(String database, int rows, String mode, long millis, String table) {
+		assertEquals(rows, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Long.class));
+		jdbcTemplate.update("DELETE FROM " + table);
+		Benchmarks.report("%s: %d progress rows with %s in %d ms (%d rows/s)",
+				database, rows, mode, millis, rows * 1000L / Math.max(1, millis));
+	}
+
+	/**
+	 * Persists the rows through Hibernate and returns the elapsed milliseconds
+	 */
+	private long insertProgress(int rows, int batchSize, List<Long> contentIds, List<Long> enrollmentIds,
+								BiFunction<Enrollment, Content, Object> row) throws Exception {
+		EntityManager em = entityManagerFactory.createEntityManager();
+		try {
+			return Benchmarks.millis(Benchmarks.time(() -> {
+				em.unwrap(Session.class).setJdbcBatchSize(batchSize);
+				em.getTransaction().begin();
+				for (int i = 0; i < rows; i++) {
+					em.persist(row.apply(em.getReference(Enrollment.class, enrollmentIds.get(i / contentIds.size())),
+							em.getReference(Content.class, contentIds.get(i % contentIds.size()))));
+					if ((i + 1) % 1000 == 0) {
+						em.flush();
+						em.clear();
+					}
+					if ((i + 1) % 10_000 == 0) {
+						em.getTransaction().commit();
+						em.getTransaction().begin();
+					}
+				}
+				em.getTransaction().commit();
+			}));
+		} finally {
+			em.close();
+		}
+	}
+
+	private void setUp(int enrollmentCount, int contentsPerCourse, List<Long> contentIds, List<Long> enrollmentIds) {
+		EntityManager em = entityManagerFactory.createEntityManager();
+		try {
+			em.getTransaction().begin();
+			Course course = Course.builder().title("Benchmark").createdAt(LocalDateTime.now()).build();
+			em.persist(course);
+			for (int i = 0; i < contentsPerCourse; i++) {
+				Content content = Content.builder()
+						.title("Lesson " + i)
+						.fileUrl("http://localhost/benchmark" + i)
+						.s3Key("benchmark-" + i)
+						.orderIndex(i)
+						.course(course)
+						.build();
+				em.persist(content);
+				contentIds.add(content.getId());
+			}
+			String prefix = "bench" + System.nanoTime();
+			for (int i = 0; i < enrollmentCount; i++) {
+				User student = User.builder().fullName("Student " + i).email(prefix + i + "@lms.com").password("hash").build();
+				em.persist(student);
+				Enrollment enrollment = Enrollment.builder()
+						.student(student)
+						.course(course)
+						.status(EnrollmentStatus.ACTIVE)
+						.enrolledAt(LocalDateTime.now())
+						.build();
+				em.persist(enrollment);
+				enrollmentIds.add(enrollment.getId());
+			}
+			em.getTransaction().commit();
+		} finally {
+			em.close();
+		}
+	}
+
+	/**
+	 * Progress as it was mapped before the switch to sequence ids, for the benchmark baseline
+	 */
+	@Entity
+	@Table(name = "progress_identity", uniqueConstraints = {
+			@UniqueConstraint(columnNames = {"enrollment_id", "content_id"})
+	}, indexes = {
+			@Index(name = "idx_progress_identity_enrollment_accessed", columnList = "enrollment_id, lastAccessedAt")
+	})
+	static class IdentityProgress {
+
+		@Id
+		@GeneratedValue(strategy = GenerationType.IDENTITY)
+		Long id;
+
+		@ManyToOne(fetch = FetchType.LAZY)
+		@JoinColumn(name = "enrollment_id", nullable = false)
+		Enrollment enrollment;
+
+		@ManyToOne(fetch = FetchType.LAZY)
+		@JoinColumn(name = "content_id", nullable = false)
+		Content content;
+
+		Integer percentComplete;
+
+		LocalDateTime lastAccessedAt;
+
+		Boolean completed;
+	}
+}
@@ -0,0 +1,117 @@
+package com.example.lms.service;
+
+import com.example.lms.entity.Content;
+import com.example.lms.entity.Course;
+import com.example.lms.entity.Enrollment;
+import com.example.lms.entity.EnrollmentStatus;
+import com.example.lms.entity.Progress;
+import com.example.lms.entity.User;
+import com.example.lms.repository.ContentRepository;
+import com.example.lms.repository.CourseRepository;
+import com.example.lms.repository.EnrollmentRepository;
+import com.example.lms.repository.ProgressRepository;
+import com.example.lms.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "progress.reconcile.chunk-size=2")
+class ProgressReconciliationServiceTest {
+
+	@Autowired
+	private ProgressReconciliationService reconciliationService;
+
+	@Autowired
+	private CourseRepository courseRepository;
+
+	@Autowired
+	private ContentRepository contentRepository;
+
+	@Autowired
+	private EnrollmentRepository enrollmentRepository;
+
+	@Autowired
+	private ProgressRepository progressRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@MockBean
+	private S3Service s3Service;
+
+	@Test
+	void correctsOnlyDriftedPercentages() {
+		Course course = course();
+		Content lesson1 = content(course, 1);
+		Content lesson2 = content(course, 2);
+		content(course, 3);
+		Course empty = course();
+
+		// Cached before a third lesson was added
+		Enrollment drifted = enroll(course, 100.0);
+		complete(drifted, lesson1);
+		complete(drifted, lesson2);
+		Enrollment consistent = enroll(course, 0.0);
+		Enrollment neverComputed = enroll(empty, null);
+		// Extra courses so the run spans several chunks
+		course();
+		course();
+
+		assertTrue(reconciliationService.reconcileAll() >= 2);
+
+		assertEquals(66.67, enrollmentRepository.findById(drifted.getId()).orElseThrow().getProgressPercentage());
+		assertEquals(0.0, enrollmentRepository.findById(consistent.getId()).orElseThrow().getProgressPercentage());
+		assertEquals(0.0, enrollmentRepository.findById(neverComputed.getId()).orElseThrow().getProgressPercentage());
+		assertTrue((int) reconciliationService.getStats().get("chunks") >= 2);
+
+		assertEquals(0, reconciliationService.reconcileAll());
+		assertEquals(0L, reconciliationService.getStats().get("corrected"));
+	}
+
+	private Course course() {
+		return courseRepository.save(Course.builder()
+				.title("Reconcile " + System.nanoTime())
+				.createdAt(LocalDateTime.now())
+				.build());
+	}
+
+	private Content content(Course course, int order) {
+		return contentRepository.save(Content.builder()
+				.title("Lesson " + order)
+				.fileUrl("http://localhost/lesson" + order)
+				.s3Key("lesson" + order)
+				.orderIndex(order)
+				.course(course)
+				.build());
+	}
+
+	private Enrollment enroll(Course course, Double percentage) {
+		User student = userRepository.save(User.builder()
+				.fullName("Student")
+				.email("reconcile" + System.nanoTime() + "@lms.com")
+				.password("hash")
+				.build());
+		return enrollmentRepository.save(Enrollment.builder()
+				.student(student)
+				.course(course)
+				.status(EnrollmentStatus.ACTIVE)
+				.enrolledAt(LocalDateTime.now())
+				.progressPercentage(percentage)
+				.build());
+	}
+
+	private void complete(Enrollment enrollment, Content content) {
+		progressRepository.save(Progress.builder()
+				.enrollment(enrollment)
+				.content(content)
+				.percentComplete(100)
+				.completed(true)
+				.lastAccessedAt(LocalDateTime.now())
+				.build());
+	}
+}
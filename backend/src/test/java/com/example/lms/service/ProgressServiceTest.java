@@ -0,0 +1,109 @@
+package com.example.lms.service;
+
+import com.example.lms.entity.Content;
+import com.example.lms.entity.Course;
+import com.example.lms.entity.Enrollment;
+import com.example.lms.entity.EnrollmentStatus;
+import com.example.lms.entity.User;
+import com.example.lms.event.EnrollmentCompletedEvent;
+import com.example.lms.event.EnrollmentEventBus;
+import com.example.lms.repository.ContentRepository;
+import com.example.lms.repository.CourseRepository;
+import com.example.lms.repository.EnrollmentRepository;
+import com.example.lms.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class ProgressServiceTest {
+
+	@Autowired
+	private ProgressService progressService;
+
+	@Autowired
+	private EnrollmentEventBus enrollmentEventBus;
+
+	@Autowired
+	private CourseRepository courseRepository;
+
+	@Autowired
+	private ContentRepository contentRepository;
+
+	@Autowired
+	private EnrollmentRepository enrollmentRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@MockBean
+	private S3Service s3Service;
+
+	@Test
+	void completesEnrollmentOnceWhenProgressReachesOneHundredPercent() throws Exception {
+		Course course = courseRepository.save(Course.builder()
+				.title("Completion " + System.nanoTime())
+				.createdAt(LocalDateTime.now())
+				.build());
+		Content lesson1 = content(course, 1);
+		Content lesson2 = content(course, 2);
+		User student = userRepository.save(User.builder()
+				.fullName("Student")
+				.email("complete" + System.nanoTime() + "@lms.com")
+				.password("hash")
+				.build());
+		Enrollment enrollment = enrollmentRepository.save(Enrollment.builder()
+				.student(student)
+				.course(course)
+				.status(EnrollmentStatus.ACTIVE)
+				.enrolledAt(LocalDateTime.now())
+				.build());
+		List<EnrollmentCompletedEvent> events = new CopyOnWriteArrayList<>();
+		enrollmentEventBus.subscribe("test", EnrollmentCompletedEvent.class, event -> {
+			if (event.enrollmentId().equals(enrollment.getId())) {
+				events.add(event);
+			}
+		});
+
+		progressService.updateProgress(enrollment, lesson1, 100);
+		assertEquals(EnrollmentStatus.ACTIVE, reload(enrollment).getStatus());
+		assertEquals(50.0, reload(enrollment).getProgressPercentage());
+
+		// A stale copy still saying ACTIVE, as a concurrent request would hold
+		Enrollment stale = reload(enrollment);
+		progressService.updateProgress(enrollment, lesson2, 100);
+		progressService.updateProgress(stale, lesson2, 100);
+
+		assertEquals(EnrollmentStatus.COMPLETED, reload(enrollment).getStatus());
+		assertEquals(100.0, reload(enrollment).getProgressPercentage());
+		long deadline = System.currentTimeMillis() + 5000;
+		while (events.isEmpty() && System.currentTimeMillis() < deadline) {
+			Thread.sleep(10);
+		}
+		Thread.sleep(200);
+		assertEquals(1, events.size());
+		assertEquals(student.getId(), events.get(0).studentId());
+		assertEquals(course.getId(), events.get(0).courseId());
+	}
+
+	private Enrollment reload(Enrollment enrollment) {
+		return enrollmentRepository.findById(enrollment.getId()).orElseThrow();
+	}
+
+	private Content content(Course course, int order) {
+		return contentRepository.save(Content.builder()
+				.title("Lesson " + order)
+				.fileUrl("http://localhost/lesson" + order)
+				.s3Key("completion-lesson" + order)
+				.orderIndex(order)
+				.course(course)
+				.build());
+	}
+}
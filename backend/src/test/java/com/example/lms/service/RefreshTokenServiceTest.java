@@ -0,0 +1,112 @@
+package com.example.lms.service;
+
+import com.example.lms.dto.request.RegisterRequest;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class RefreshTokenServiceTest {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private UserService userService;
+
+	@Autowired
+	private TokenRevocationService tokenRevocationService;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@MockBean
+	private S3Service s3Service;
+
+	@Test
+	void refreshRotatesTokensWithoutPassword() throws Exception {
+		JsonNode login = login(register());
+		JsonNode refreshed = refresh(login.get("refreshToken").asText(), 200);
+
+		assertNotEquals(login.get("refreshToken").asText(), refreshed.get("refreshToken").asText());
+		assertTrue(refreshed.get("expiresIn").asLong() <= 15 * 60);
+		mockMvc.perform(get("/api/courses").header("Authorization", "Bearer " + refreshed.get("accessToken").asText()))
+				.andExpect(status().isOk());
+	}
+
+	@Test
+	void reusedRefreshTokenRevokesTheWholeFamily() throws Exception {
+		JsonNode login = login(register());
+		String stolen = login.get("refreshToken").asText();
+		JsonNode refreshed = refresh(stolen, 200);
+
+		refresh(stolen, 401);
+
+		// The legitimate holder's newer tokens are revoked too
+		refresh(refreshed.get("refreshToken").asText(), 401);
+		mockMvc.perform(get("/api/courses").header("Authorization", "Bearer " + refreshed.get("accessToken").asText()))
+				.andExpect(status().isUnauthorized());
+	}
+
+	@Test
+	void logoutRevokesAccessTokenAndSkipsDatabaseForOthers() throws Exception {
+		String email = register();
+		JsonNode other = login(email);
+		JsonNode session = login(email);
+		String accessToken = session.get("accessToken").asText();
+
+		mockMvc.perform(post("/api/auth/logout").header("Authorization", "Bearer " + accessToken)
+						.contentType(MediaType.APPLICATION_JSON)
+						.content("{\"refreshToken\":\"" + session.get("refreshToken").asText() + "\"}"))
+				.andExpect(status().isOk());
+
+		mockMvc.perform(get("/api/courses").header("Authorization", "Bearer " + accessToken))
+				.andExpect(status().isUnauthorized());
+
+		long lookups = (long) tokenRevocationService.getStats().get("databaseLookups");
+		for (int i = 0; i < 20; i++) {
+			mockMvc.perform(get("/api/courses").header("Authorization", "Bearer " + other.get("accessToken").asText()))
+					.andExpect(status().isOk());
+		}
+		assertTrue((long) tokenRevocationService.getStats().get("databaseLookups") - lookups <= 1);
+	}
+
+	private String register() {
+		RegisterRequest request = new RegisterRequest();
+		request.setFullName("Refresh User");
+		request.setEmail("refresh" + System.nanoTime() + "@lms.com");
+		request.setPassword("password");
+		request.setRoles(Set.of("ROLE_STUDENT"));
+		return userService.registerUser(request).getEmail();
+	}
+
+	private JsonNode login(String email) throws Exception {
+		String body = mockMvc.perform(post("/api/auth/login").contentType(MediaType.APPLICATION_JSON)
+						.content("{\"email\":\"" + email + "\",\"password\":\"password\"}"))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString();
+		return objectMapper.readTree(body);
+	}
+
+	private JsonNode refresh(String refreshToken, int expectedStatus) throws Exception {
+		String body = mockMvc.perform(post("/api/auth/refresh").contentType(MediaType.APPLICATION_JSON)
+						.content("{\"refreshToken\":\"" + refreshToken + "\"}"))
+				.andExpect(status().is(expectedStatus))
+				.andReturn().getResponse().getContentAsString();
+		return objectMapper.readTree(body);
+	}
+}
@@ -0,0 +1,212 @@
+package com.example.lms.service;
+
+import com.example.lms.dto.Notification;
+import com.example.lms.dto.ReminderDigest;
+import com.example.lms.entity.DeadLetterNotification;
+import com.example.lms.repository.DeadLetterNotificationRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ReminderDeliveryPipelineTest {
+
+	private final DeadLetterNotificationRepository deadLetters = mock(DeadLetterNotificationRepository.class);
+	private final List<DeadLetterNotification> stored = new CopyOnWriteArrayList<>();
+	private LocalSmtpServer server;
+	private ReminderDeliveryPipeline pipeline;
+
+	@AfterEach
+	void stop() throws Exception {
+		if (pipeline != null) {
+			pipeline.shutdown();
+		}
+		if (server != null) {
+			server.close();
+		}
+	}
+
+	@Test
+	void deliversDigestsInBatchesOverPooledConnections() throws Exception {
+		server = new LocalSmtpServer();
+		server.setDataLatencyMillis(1);
+		pipeline = pipeline(smtp(4), 200, 4, 50, 3);
+
+		int count = 2000;
+		for (int i = 0; i < count; i++) {
+			pipeline.send(new ReminderDigest("student" + i + "@lms.com", List.of("Java", "Spring Boot")));
+		}
+		pipeline.flush();
+
+		assertEquals(count, server.messages().size());
+		assertTrue(server.connections() <= 4, "connections: " + server.connections());
+		Map<String, Object> stats = pipeline.getStats();
+		assertEquals((long) count, stats.get("sent"));
+		assertEquals(0L, stats.get("pending"));
+		assertTrue((long) stats.get("batches") < count);
+		assertTrue(server.messages().get(0).data().contains("Subject: You have 2 courses waiting for you"));
+	}
+
+	@Test
+	void retriesTransientFailuresAndDeadLettersTheRest() throws Exception {
+		server = new LocalSmtpServer();
+		server.failTransiently("flaky@lms.com", 2);
+		server.failTransiently("down@lms.com", 100);
+		server.reject("gone@lms.com");
+		pipeline = pipeline(smtp(2), 100, 2, 10, 3);
+
+		List<String> settled = new CopyOnWriteArrayList<>();
+		for (String email : List.of("ok@lms.com", "flaky@lms.com", "down@lms.com", "gone@lms.com")) {
+			pipeline.send(new ReminderDigest(email, List.of("Java"), () -> settled.add(email)));
+		}
+		pipeline.flush();
+
+		// Once per message, after delivery or dead-lettering, never per attempt
+		assertEquals(List.of("down@lms.com", "flaky@lms.com", "gone@lms.com", "ok@lms.com"),
+				settled.stream().sorted().toList());
+
+		assertEquals(List.of("flaky@lms.com", "ok@lms.com"), server.messages().stream()
+				.map(LocalSmtpServer.Message::recipient).sorted().toList());
+		Map<String, Integer> attempts = stored.stream()
+				.collect(Collectors.toMap(DeadLetterNotification::getRecipient, DeadLetterNotification::getAttempts));
+		assertEquals(Map.of("down@lms.com", 3, "gone@lms.com", 1), attempts);
+		assertTrue(stored.stream().anyMatch(d -> d.getLastError().startsWith("550")));
+		assertEquals(2L, pipeline.getStats().get("deadLettered"));
+		assertEquals(4L, pipeline.getStats().get("retries"));
+	}
+
+	@Test
+	void dotStuffsBodyLinesAndKeepsConnectionUsableAfterRejection() throws Exception {
+		server = new LocalSmtpServer();
+		server.reject("gone@lms.com");
+		SmtpNotificationSender sender = smtp(1);
+
+		List<NotificationSender.Failure> failures = sender.sendBatch(List.of(
+				new Notification("gone@lms.com", "Hi", "body", 0),
+				new Notification("ok@lms.com", "Kurs fortsetzen: Grundlagen für alle", ".NET\n..hidden\nend", 0)));
+
+		assertEquals(1, failures.size());
+		assertTrue(failures.get(0).permanent());
+		assertEquals(1, server.messages().size());
+		String data = server.messages().get(0).data();
+		assertTrue(data.contains("\n.NET\n..hidden\nend\n"), data);
+		assertTrue(data.contains("Subject: =?UTF-8?B?"));
+		assertEquals(1, server.connections());
+		sender.close();
+	}
+
+	@Test
+	void sendsNonAsciiBodiesAs8bitOnlyWhenTheServerAnnouncesIt() throws Exception {
+		String body = "Weiter mit \"Grundlagen für alle\"";
+		server = new LocalSmtpServer();
+		SmtpNotificationSender sender = smtp(1);
+		sender.sendBatch(List.of(new Notification("ok@lms.com", "Hi", body, 0),
+				new Notification("ok@lms.com", "Hi", "plain", 0)));
+		sender.close();
+
+		LocalSmtpServer.Message eightBit = server.messages().get(0);
+		assertTrue(eightBit.mailFrom().endsWith(" BODY=8BITMIME"), eightBit.mailFrom());
+		assertTrue(eightBit.data().contains("Content-Transfer-Encoding: 8bit\n\n" + body + "\n"), eightBit.data());
+		LocalSmtpServer.Message ascii = server.messages().get(1);
+		assertFalse(ascii.mailFrom().contains("BODY="), ascii.mailFrom());
+		assertTrue(ascii.data().contains("Content-Transfer-Encoding: 7bit\n\nplain\n"), ascii.data());
+		server.close();
+
+		server = new LocalSmtpServer();
+		server.setEightBitMime(false);
+		sender = smtp(1);
+		sender.sendBatch(List.of(new Notification("ok@lms.com", "Hi", body, 0)));
+		sender.close();
+
+		LocalSmtpServer.Message encoded = server.messages().get(0);
+		assertFalse(encoded.mailFrom().contains("BODY="), encoded.mailFrom());
+		String data = encoded.data();
+		assertTrue(data.contains("Content-Transfer-Encoding: base64\n\n"), data);
+		String base64 = data.substring(data.indexOf("\n\n") + 2).replace("\n", "");
+		assertEquals(body, new String(Base64.getDecoder().decode(base64), StandardCharsets.UTF_8));
+	}
+
+	@Test
+	void recipientsThatWouldInjectCommandsOrHeadersAreDeadLettered() throws Exception {
+		server = new LocalSmtpServer();
+		pipeline = pipeline(smtp(1), 100, 1, 10, 3);
+		List<String> injected = List.of(
+				"victim@lms.com>\r\nRCPT TO:<attacker@evil.com",
+				"victim@lms.com\r\nBcc: attacker@evil.com",
+				"victim@lms.com> NOTIFY=NEVER",
+				"not-an-address");
+
+		for (String email : injected) {
+			pipeline.send(new ReminderDigest(email, List.of("Java")));
+		}
+		pipeline.send(new ReminderDigest("ok@lms.com", List.of("Java")));
+		pipeline.flush();
+
+		assertEquals(List.of("ok@lms.com"), server.messages().stream().map(LocalSmtpServer.Message::recipient).toList());
+		assertFalse(server.messages().get(0).data().contains("attacker"));
+		assertEquals(injected.stream().sorted().toList(),
+				stored.stream().map(DeadLetterNotification::getRecipient).sorted().toList());
+		assertTrue(stored.stream().allMatch(d -> d.getAttempts() == 1 && d.getLastError().equals("Invalid recipient address")));
+	}
+
+	@Test
+	void fullQueueBlocksProducersUntilWorkersCatchUp() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		List<Notification> delivered = new CopyOnWriteArrayList<>();
+		NotificationSender blocking = batch -> {
+			try {
+				release.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			delivered.addAll(batch);
+			return List.of();
+		};
+		pipeline = pipeline(blocking, 2, 1, 1, 3);
+
+		Thread producer = new Thread(() -> {
+			for (int i = 0; i < 10; i++) {
+				pipeline.send(new ReminderDigest("s" + i + "@lms.com", List.of("Java")));
+			}
+		});
+		producer.start();
+		producer.join(500);
+
+		assertTrue(producer.isAlive(), "producer should be blocked on the full queue");
+		assertEquals(2, pipeline.getStats().get("queueDepth"));
+
+		release.countDown();
+		producer.join(5000);
+		pipeline.flush();
+		assertEquals(10, delivered.size());
+		assertTrue((long) pipeline.getStats().get("producerBlockedMillis") > 0);
+	}
+
+	private SmtpNotificationSender smtp(int poolSize) {
+		return new SmtpNotificationSender("localhost", server.port(), null, null, false,
+				"no-reply@lms.local", poolSize, 5000, 30);
+	}
+
+	private ReminderDeliveryPipeline pipeline(NotificationSender sender, int capacity, int workers,
+											  int batchSize, int maxAttempts) {
+		when(deadLetters.save(any())).thenAnswer(invocation -> {
+			stored.add(invocation.getArgument(0));
+			return invocation.getArgument(0);
+		});
+		ReminderDeliveryPipeline created = new ReminderDeliveryPipeline(sender, deadLetters,
+				capacity, workers, batchSize, maxAttempts, 10, 30);
+		created.start();
+		return created;
+	}
+}
@@ -0,0 +1,243 @@
+package com.example.lms.service;
+
+import com.example.lms.dto.ReminderDigest;
+import com.example.lms.entity.Content;
+import com.example.lms.entity.Course;
+import com.example.lms.entity.Enrollment;
+import com.example.lms.entity.EnrollmentStatus;
+import com.example.lms.entity.Progress;
+import com.example.lms.entity.User;
+import com.example.lms.repository.ContentRepository;
+import com.example.lms.repository.CourseRepository;
+import com.example.lms.repository.EnrollmentRepository;
+import com.example.lms.repository.ProgressRepository;
+import com.example.lms.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.verify;
+
+@SpringBootTest(properties = {"reminders.partitions=3", "reminders.threads=2", "reminders.page-size=2",
+		"reminders.inactive-days=3"})
+class ReminderServiceTest {
+
+	@Autowired
+	private ReminderService reminderService;
+
+	@Autowired
+	private EnrollmentRepository enrollmentRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private CourseRepository courseRepository;
+
+	@Autowired
+	private ContentRepository contentRepository;
+
+	@Autowired
+	private ProgressRepository progressRepository;
+
+	@MockBean
+	private ReminderDeliveryPipeline reminderSender;
+
+	@MockBean
+	private S3Service s3Service;
+
+	@Test
+	void sendsOneDigestPerStudentWithAllActiveCourses() {
+		Course java = course("Java");
+		Course spring = course("Spring");
+		EnrollmentStatus[] statuses = {EnrollmentStatus.ACTIVE, EnrollmentStatus.COMPLETED, EnrollmentStatus.ACTIVE,
+				EnrollmentStatus.CANCELLED, EnrollmentStatus.ACTIVE, EnrollmentStatus.ACTIVE, EnrollmentStatus.ACTIVE};
+		Map<String, Set<String>> expected = new HashMap<>();
+		for (int i = 0; i < statuses.length; i++) {
+			User student = userRepository.save(User.builder()
+					.fullName("Student")
+					.email("reminder" + System.nanoTime() + "@lms.com")
+					.password("hash")
+					.build());
+			enroll(student, java, statuses[i]);
+			if (statuses[i] == EnrollmentStatus.ACTIVE) {
+				expected.computeIfAbsent(student.getEmail(), k -> new HashSet<>()).add(java.getTitle());
+			}
+			// Every other student also takes a second course, so digests span page boundaries (page size 2)
+			if (i % 2 == 0) {
+				enroll(student, spring, EnrollmentStatus.ACTIVE);
+				expected.computeIfAbsent(student.getEmail(), k -> new HashSet<>()).add(spring.getTitle());
+			}
+		}
+
+		Map<String, Set<String>> sent = new ConcurrentHashMap<>();
+		doAnswer(invocation -> {
+			ReminderDigest digest = invocation.getArgument(0);
+			assertNull(sent.put(digest.studentEmail(), new HashSet<>(digest.courseTitles())), "reminded twice: " + digest);
+			return null;
+		}).when(reminderSender).send(any());
+
+		long count = reminderService.sendDailyReminders();
+
+		assertEquals(sent.size(), count);
+		expected.forEach((email, titles) -> assertEquals(titles, sent.get(email), email));
+		Set<String> notActive = enrollmentRepository.findAll().stream()
+				.filter(e -> e.getStatus() != EnrollmentStatus.ACTIVE)
+				.map(e -> e.getStudent().getEmail())
+				.filter(email -> !expected.containsKey(email))
+				.collect(Collectors.toSet());
+		assertTrue(notActive.stream().noneMatch(sent::containsKey));
+		assertEquals(count, reminderService.getStats().get("sent"));
+		verify(reminderSender).flush();
+	}
+
+	@Test
+	void remindsOnlyUnfinishedEnrollmentsWithoutRecentProgress() {
+		Course course = course("Inactivity");
+		Content lesson1 = content(course, 1);
+		Content lesson2 = content(course, 2);
+		LocalDateTime now = LocalDateTime.now();
+
+		Enrollment recent = enroll(student("recent"), course, EnrollmentStatus.ACTIVE);
+		progress(recent, lesson1, now.minusDays(1));
+		Enrollment stale = enroll(student("stale"), course, EnrollmentStatus.ACTIVE);
+		progress(stale, lesson1, now.minusDays(10));
+		enroll(student("never-started"), course, EnrollmentStatus.ACTIVE);
+		Enrollment justEnrolled = enroll(student("just-enrolled"), course, EnrollmentStatus.ACTIVE);
+		justEnrolled.setEnrolledAt(now.minusHours(5));
+		enrollmentRepository.save(justEnrolled);
+		Enrollment finished = enroll(student("finished"), course, EnrollmentStatus.ACTIVE);
+		finished.setProgressPercentage(100.0);
+		enrollmentRepository.save(finished);
+		progress(finished, lesson1, now.minusDays(10));
+		// Only the latest access counts
+		Enrollment resumed = enroll(student("resumed"), course, EnrollmentStatus.ACTIVE);
+		progress(resumed, lesson1, now.minusDays(20));
+		progress(resumed, lesson2, now.minusHours(2));
+
+		Set<String> sent = ConcurrentHashMap.newKeySet();
+		doAnswer(invocation -> {
+			ReminderDigest digest = invocation.getArgument(0);
+			if (digest.courseTitles().contains(course.getTitle())) {
+				sent.add(digest.studentEmail().substring(0, digest.studentEmail().lastIndexOf('-')));
+			}
+			return null;
+		}).when(reminderSender).send(any());
+
+		reminderService.sendDailyReminders();
+
+		assertEquals(Set.of("stale", "never-started"), sent);
+		Map<String, Object> stats = reminderService.getStats();
+		assertTrue((long) stats.get("skippedRecentlyActive") >= 4, stats.toString());
+		assertTrue(stats.containsKey("queryMillis"));
+	}
+
+	@Test
+	void retriedRangeOnlySendsTheDigestsTheFailedAttemptDidNotSettle() {
+		Course course = course("Retry");
+		List<User> students = new ArrayList<>();
+		for (int i = 0; i < 9; i++) {
+			User student = student("retry" + i);
+			enroll(student, course, EnrollmentStatus.ACTIVE);
+			students.add(student);
+		}
+		ReminderService.IdRange range = new ReminderService.IdRange(students.get(0).getId() - 1,
+				students.get(students.size() - 1).getId());
+
+		List<String> sent = new CopyOnWriteArrayList<>();
+		AtomicInteger calls = new AtomicInteger();
+		doAnswer(invocation -> {
+			// The mail server goes away after a few digests of the first attempt
+			if (calls.incrementAndGet() == 4) {
+				throw new IllegalStateException("SMTP unavailable");
+			}
+			ReminderDigest digest = invocation.getArgument(0);
+			sent.add(digest.studentEmail());
+			digest.settled().run();
+			return null;
+		}).when(reminderSender).send(any());
+
+		long runId = System.nanoTime();
+		assertThrows(IllegalStateException.class, () -> reminderService.sendRange(runId, range));
+		int firstAttempt = sent.size();
+		assertTrue(firstAttempt < students.size(), "first attempt should fail part way");
+		reminderService.sendRange(runId, range);
+
+		assertEquals(students.stream().map(User::getEmail).sorted().toList(), sent.stream().sorted().toList());
+		// A new run reminds everyone again
+		reminderService.sendRange(runId + 1, range);
+		assertEquals(2 * students.size(), sent.size());
+	}
+
+	private User student(String name) {
+		return userRepository.save(User.builder()
+				.fullName("Student")
+				.email(name + "-" + System.nanoTime() + "@lms.com")
+				.password("hash")
+				.build());
+	}
+
+	private Content content(Course course, int order) {
+		return contentRepository.save(Content.builder()
+				.title("Lesson " + order)
+				.fileUrl("http://localhost/lesson" + order)
+				.s3Key("lesson" + order)
+				.orderIndex(order)
+				.course(course)
+				.build());
+	}
+
+	private void progress(Enrollment enrollment, Content content, LocalDateTime lastAccessedAt) {
+		progressRepository.save(Progress.builder()
+				.enrollment(enrollment)
+				.content(content)
+				.percentComplete(50)
+				.completed(false)
+				.lastAccessedAt(lastAccessedAt)
+				.build());
+	}
+
+	private Course course(String title) {
+		return courseRepository.save(Course.builder()
+				.title(title + " " + System.nanoTime())
+				.createdAt(LocalDateTime.now())
+				.build());
+	}
+
+	private Enrollment enroll(User student, Course course, EnrollmentStatus status) {
+		return enrollmentRepository.save(Enrollment.builder()
+				.student(student)
+				.course(course)
+				.status(status)
+				.enrolledAt(LocalDateTime.now().minusDays(30))
+				.build());
+	}
+
+	@Test
+	void shardsCoverTheRangeWithoutGapsOrOverlap() {
+		List<ReminderService.IdRange> parts = ReminderService.split(new ReminderService.IdRange(9, 110), 4);
+		assertEquals(4, parts.size());
+		assertEquals(9, parts.get(0).fromExclusive());
+		for (int i = 1; i < parts.size(); i++) {
+			assertEquals(parts.get(i - 1).toInclusive(), parts.get(i).fromExclusive());
+		}
+		assertEquals(110, parts.get(parts.size() - 1).toInclusive());
+		assertEquals(List.of(new ReminderService.IdRange(4, 5)), ReminderService.split(new ReminderService.IdRange(4, 5), 8));
+	}
+}
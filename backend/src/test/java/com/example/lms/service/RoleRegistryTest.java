@@ -0,0 +1,75 @@
+package com.example.lms.service;
+
+import com.example.lms.dto.request.RegisterRequest;
+import com.example.lms.entity.Role;
+import com.example.lms.entity.RoleName;
+import com.example.lms.entity.User;
+import com.example.lms.exception.ResourceNotFoundException;
+import com.example.lms.repository.RoleRepository;
+import com.example.lms.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest
+class RoleRegistryTest {
+
+	@Autowired
+	private RoleRegistry roleRegistry;
+
+	@Autowired
+	private RoleRepository roleRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private UserService userService;
+
+	@MockBean
+	private S3Service s3Service;
+
+	@Test
+	void seedingIsIdempotent() {
+		assertEquals(0, roleRegistry.seed());
+		assertEquals(RoleName.values().length, roleRepository.count());
+		assertSame(roleRegistry.get(RoleName.ROLE_TEACHER), roleRegistry.get("ROLE_TEACHER"));
+		assertThrows(ResourceNotFoundException.class, () -> roleRegistry.get("ROLE_WIZARD"));
+	}
+
+	@Test
+	void authoritiesComeFromUserRolesWithoutLoadingRoles() {
+		RegisterRequest request = new RegisterRequest();
+		request.setFullName("Registry User");
+		request.setEmail("registry" + System.nanoTime() + "@lms.com");
+		request.setPassword("password");
+		request.setRoles(Set.of("ROLE_TEACHER", "ROLE_ADMIN"));
+		User saved = userService.registerUser(request);
+
+		assertEquals(Set.of("ROLE_TEACHER", "ROLE_ADMIN"), Set.copyOf(roleRegistry.roleNamesOf(saved.getId())));
+		// Lookups that render roles fetch them with the user, so no open session is needed
+		User loaded = userRepository.findById(saved.getId()).orElseThrow();
+		assertEquals(2, loaded.getRoles().size());
+	}
+
+	@Test
+	void roleIdsUnknownToTheRegistryGrantNothing() {
+		RoleRepository roles = mock(RoleRepository.class);
+		UserRepository users = mock(UserRepository.class);
+		when(roles.findAll()).thenReturn(List.of(new Role(1L, RoleName.ROLE_TEACHER)));
+		when(users.findRoleIds(7L)).thenReturn(List.of(1L, 99L));
+		RoleRegistry registry = new RoleRegistry(roles, users, mock(JdbcTemplate.class));
+		registry.init();
+
+		assertEquals(List.of("ROLE_TEACHER"), registry.roleNamesOf(7L));
+	}
+}
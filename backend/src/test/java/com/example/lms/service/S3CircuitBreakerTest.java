@@ -0,0 +1,108 @@
+package com.example.lms.service;
+
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class S3CircuitBreakerTest {
+
+	private final MutableClock clock = new MutableClock();
+	private final S3CircuitBreaker breaker = new S3CircuitBreaker(10, 4, 50, 1000, 2, clock);
+
+	@Test
+	void opensWhenFailureRateCrossesThreshold() {
+		fail(2);
+		succeed(1);
+		assertEquals(S3CircuitBreaker.State.CLOSED, breaker.getState());
+
+		fail(1);
+		assertEquals(S3CircuitBreaker.State.OPEN, breaker.getState());
+		assertFalse(breaker.tryAcquirePermission());
+	}
+
+	@Test
+	void closesAfterSuccessfulTrialCalls() {
+		fail(4);
+		clock.advance(Duration.ofMillis(1000));
+		assertEquals(S3CircuitBreaker.State.HALF_OPEN, breaker.getState());
+
+		assertTrue(breaker.tryAcquirePermission());
+		assertTrue(breaker.tryAcquirePermission());
+		assertFalse(breaker.tryAcquirePermission());
+		breaker.recordSuccess();
+		breaker.recordSuccess();
+
+		assertEquals(S3CircuitBreaker.State.CLOSED, breaker.getState());
+	}
+
+	@Test
+	void reopensWhenTrialCallFails() {
+		fail(4);
+		clock.advance(Duration.ofMillis(1000));
+
+		assertTrue(breaker.tryAcquirePermission());
+		breaker.recordFailure();
+
+		assertEquals(S3CircuitBreaker.State.OPEN, breaker.getState());
+		assertFalse(breaker.tryAcquirePermission());
+	}
+
+	@Test
+	void oldFailuresSlideOutOfTheWindow() {
+		fail(1);
+		succeed(9);
+		succeed(1);
+		fail(3);
+		assertEquals(30.0, breaker.getFailureRate(), 0.001);
+		assertEquals(S3CircuitBreaker.State.CLOSED, breaker.getState());
+	}
+
+	@Test
+	void onlyOutagesCountAsFailures() {
+		RuntimeException notFound = new RuntimeException("S3 download failed",
+				S3Exception.builder().statusCode(404).message("NoSuchKey").build());
+		RuntimeException unavailable = new RuntimeException("S3 download failed",
+				S3Exception.builder().statusCode(503).message("SlowDown").build());
+		assertFalse(S3CircuitBreaker.isOutage(notFound));
+		assertTrue(S3CircuitBreaker.isOutage(unavailable));
+		assertTrue(S3CircuitBreaker.isOutage(SdkClientException.create("Connect timed out")));
+
+		for (int i = 0; i < 10; i++) {
+			assertTrue(breaker.tryAcquirePermission());
+			breaker.recordError(notFound);
+		}
+		assertEquals(S3CircuitBreaker.State.CLOSED, breaker.getState());
+		assertEquals(0.0, breaker.getFailureRate(), 0.001);
+	}
+
+	private void fail(int times) {
+		for (int i = 0; i < times; i++) {
+			assertTrue(breaker.tryAcquirePermission());
+			breaker.recordFailure();
+		}
+	}
+
+	private void succeed(int times) {
+		for (int i = 0; i < times; i++) {
+			assertTrue(breaker.tryAcquirePermission());
+			breaker.recordSuccess();
+		}
+	}
+
+	private static class MutableClock extends Clock {
+		private Instant now = Instant.EPOCH;
+
+		void advance(Duration duration) { now = now.plus(duration); }
+
+		@Override public ZoneOffset getZone() { return ZoneOffset.UTC; }
+		@Override public Clock withZone(java.time.ZoneId zone) { return this; }
+		@Override public Instant instant() { return now; }
+	}
+}
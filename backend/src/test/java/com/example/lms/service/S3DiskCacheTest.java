@@ -0,0 +1,206 @@
+package com.example.lms.service;
+
+import com.example.lms.exception.ResourceNotFoundException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.Resource;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class S3DiskCacheTest {
+
+	@TempDir
+	Path dir;
+
+	private final LocalS3 s3 = new LocalS3();
+	private final S3CircuitBreaker breaker = new S3CircuitBreaker(20, 5, 50, 30000, 3);
+
+	@Test
+	void concurrentMissesShareOneDownload() throws Exception {
+		s3.put("uploads/lecture.mp4", new byte[4096]);
+		s3.delayMillis = 200;
+		S3DiskCache cache = new S3DiskCache(s3, breaker, dir.toString(), 1 << 20);
+
+		ExecutorService pool = Executors.newFixedThreadPool(8);
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<Path>> results = new ArrayList<>();
+		for (int i = 0; i < 8; i++) {
+			results.add(pool.submit(() -> {
+				start.await();
+				return cache.get("uploads/lecture.mp4");
+			}));
+		}
+		start.countDown();
+		for (Future<Path> result : results) {
+			assertEquals(4096, Files.size(result.get()));
+		}
+		pool.shutdown();
+
+		assertEquals(1, s3.downloads.get());
+	}
+
+	@Test
+	void evictsLeastRecentlyUsedByTotalBytes() {
+		s3.put("uploads/a", new byte[400]);
+		s3.put("uploads/b", new byte[400]);
+		s3.put("uploads/c", new byte[400]);
+		S3DiskCache cache = new S3DiskCache(s3, breaker, dir.toString(), 1000);
+
+		Path a = cache.get("uploads/a");
+		cache.get("uploads/b");
+		cache.get("uploads/a");
+		cache.get("uploads/c");
+
+		assertTrue(Files.exists(a));
+		assertFalse(Files.exists(dir.resolve(S3DiskCache.fileNameFor("uploads/b"))));
+		assertEquals(800, cache.getBytesResident());
+	}
+
+	@Test
+	void reloadsIndexAndDropsPartialDownloadsOnRestart() throws IOException {
+		s3.put("uploads/a", new byte[100]);
+		new S3DiskCache(s3, breaker, dir.toString(), 1000).get("uploads/a");
+		Files.write(dir.resolve("leftover.1234.tmp"), new byte[50]);
+
+		S3DiskCache restarted = new S3DiskCache(s3, breaker, dir.toString(), 1000);
+		restarted.get("uploads/a");
+
+		assertEquals(1, s3.downloads.get());
+		assertEquals(100, restarted.getBytesResident());
+		assertFalse(Files.exists(dir.resolve("leftover.1234.tmp")));
+	}
+
+	@Test
+	void failedDownloadLeavesNoFiles() throws IOException {
+		S3DiskCache cache = new S3DiskCache(s3, breaker, dir.toString(), 1000);
+
+		assertThrows(RuntimeException.class, () -> cache.get("uploads/missing"));
+		try (Stream<Path> files = Files.list(dir)) {
+			assertEquals(0, files.count());
+		}
+	}
+
+	@Test
+	void missingKeysAreNotFoundAndLeaveTheCircuitClosed() {
+		S3DiskCache cache = new S3DiskCache(s3, breaker, dir.toString(), 1000);
+
+		for (int i = 0; i < 50; i++) {
+			String key = "uploads/made-up-" + i;
+			assertThrows(ResourceNotFoundException.class, () -> cache.get(key));
+		}
+
+		assertEquals(S3CircuitBreaker.State.CLOSED, breaker.getState());
+		assertEquals(0.0, breaker.getFailureRate(), 0.001);
+	}
+
+	@Test
+	void openFileSurvivesEvictionAndInvalidation() throws IOException {
+		s3.put("uploads/a", new byte[]{1, 2, 3, 4});
+		s3.put("uploads/b", new byte[600]);
+		S3DiskCache cache = new S3DiskCache(s3, breaker, dir.toString(), 1000);
+
+		Resource resource = cache.open("uploads/a");
+		// Evicted and invalidated before the response body is streamed
+		cache.get("uploads/b");
+		cache.invalidate("uploads/a");
+		assertFalse(Files.exists(dir.resolve(S3DiskCache.fileNameFor("uploads/a"))));
+
+		assertEquals(4, resource.contentLength());
+		try (InputStream in = resource.getInputStream()) {
+			assertArrayEquals(new byte[]{1, 2, 3, 4}, in.readAllBytes());
+		}
+	}
+
+	@Test
+	void downloadFinishingAfterInvalidateDoesNotCacheTheOldObject() throws Exception {
+		s3.put("uploads/a", new byte[]{1});
+		S3DiskCache cache = new S3DiskCache(s3, breaker, dir.toString(), 1000);
+		CountDownLatch downloading = new CountDownLatch(1);
+		CountDownLatch replaced = new CountDownLatch(1);
+		s3.beforeWrite = key -> {
+			if (s3.downloads.get() == 1) {
+				downloading.countDown();
+				await(replaced);
+			}
+		};
+
+		ExecutorService pool = Executors.newSingleThreadExecutor();
+		Future<Path> result = pool.submit(() -> cache.get("uploads/a"));
+		assertTrue(downloading.await(5, TimeUnit.SECONDS));
+		// The object is replaced and invalidated while the first download is still writing the old bytes
+		s3.put("uploads/a", new byte[]{2, 2});
+		cache.invalidate("uploads/a");
+		replaced.countDown();
+		pool.shutdown();
+
+		// The stale first download still carries the old bytes, so it is discarded and fetched again
+		assertArrayEquals(new byte[]{2, 2}, Files.readAllBytes(result.get()));
+		assertEquals(2, s3.downloads.get());
+		assertArrayEquals(new byte[]{2, 2}, Files.readAllBytes(cache.get("uploads/a")));
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * In-memory stand-in for S3
+	 */
+	private static class LocalS3 extends S3Service {
+		private final Map<String, byte[]> objects = new ConcurrentHashMap<>();
+		private final AtomicInteger downloads = new AtomicInteger();
+		private volatile long delayMillis;
+		private volatile Consumer<String> beforeWrite = key -> { };
+
+		LocalS3() {
+			super(null);
+		}
+
+		void put(String key, byte[] data) {
+			objects.put(key, data);
+		}
+
+		@Override
+		public void downloadFile(String key, Path target) {
+			downloads.incrementAndGet();
+			byte[] data = objects.get(key);
+			if (data == null) {
+				throw new RuntimeException("S3 download failed: NoSuchKey",
+						NoSuchKeyException.builder().statusCode(404).message("The specified key does not exist.").build());
+			}
+			beforeWrite.accept(key);
+			try {
+				Thread.sleep(delayMillis);
+				Files.write(target, data);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new RuntimeException(e);
+			}
+		}
+	}
+}
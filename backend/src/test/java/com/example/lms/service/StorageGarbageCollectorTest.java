@@ -0,0 +1,162 @@
+package com.example.lms.service;
+
+import com.example.lms.entity.Content;
+import com.example.lms.entity.Course;
+import com.example.lms.repository.ContentRepository;
+import com.example.lms.repository.CourseRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Response;
+import software.amazon.awssdk.services.s3.model.S3Object;
+
+import java.io.ByteArrayInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest(properties = {"storage.local.dir=target/test-gc-uploads", "storage.gc.grace-hours=1"})
+class StorageGarbageCollectorTest {
+
+	private static final Instant OLD = Instant.now().minus(2, ChronoUnit.DAYS);
+
+	@Autowired
+	private StorageGarbageCollector collector;
+
+	@Autowired
+	private LocalFileStorageService localFileStorageService;
+
+	@Autowired
+	private ContentStorageKeySource contentKeySource;
+
+	@Autowired
+	private S3CircuitBreaker circuitBreaker;
+
+	@Autowired
+	private ContentRepository contentRepository;
+
+	@Autowired
+	private CourseRepository courseRepository;
+
+	@MockBean
+	private S3Service s3Service;
+
+	@Test
+	void deletesOnlyOldUnreferencedLocalFiles() throws Exception {
+		when(s3Service.listObjects(any(), any(), anyInt())).thenReturn(ListObjectsV2Response.builder().build());
+		String prefix = "gc" + System.nanoTime();
+		Path referenced = write(prefix + "-referenced.mp4", OLD);
+		content(prefix + "-referenced.mp4");
+		Path orphan = write(prefix + "-orphan.mp4", OLD);
+		Path young = write(prefix + "-young.mp4", Instant.now());
+		Path temp = orphan.resolveSibling(prefix + "-upload.tmp");
+		Files.write(temp, new byte[10]);
+		Files.setLastModifiedTime(temp, FileTime.from(OLD));
+		Path partial = localFileStorageService.partialFile(prefix);
+		Files.write(partial, new byte[10]);
+		Files.setLastModifiedTime(partial, FileTime.from(OLD));
+		Path flat = Path.of("target/test-gc-uploads", prefix + "-flat.mp4");
+		Files.write(flat, new byte[10]);
+		Files.setLastModifiedTime(flat, FileTime.from(OLD));
+
+		StorageGarbageCollector.Cursor next = collector.collect(StorageGarbageCollector.Cursor.START);
+
+		assertEquals(StorageGarbageCollector.Cursor.START, next);
+		assertTrue(Files.exists(referenced));
+		assertTrue(Files.exists(young));
+		assertTrue(Files.exists(temp));
+		assertTrue(Files.exists(partial));
+		assertFalse(Files.exists(orphan));
+		assertFalse(Files.exists(flat));
+		@SuppressWarnings("unchecked")
+		Map<String, Object> local = (Map<String, Object>) collector.getStats().get("local");
+		assertTrue((long) local.get("deleted") >= 2);
+		assertEquals(true, local.get("completedPass"));
+		Files.delete(temp);
+		Files.delete(partial);
+	}
+
+	@Test
+	void verifiesCandidatesAgainstTheDatabaseBeforeDeletingFromS3() {
+		String prefix = "uploads/gc" + System.nanoTime();
+		content(prefix + "-a-referenced");
+		when(s3Service.listObjects(eq(S3Service.KEY_PREFIX), isNull(), anyInt())).thenAnswer(invocation -> {
+			// Created after the mark: the Bloom filter misses it, the verification must not
+			content(prefix + "-c-racing");
+			return page(true, object(prefix + "-a-referenced", OLD), object(prefix + "-b-orphan", OLD),
+					object(prefix + "-c-racing", OLD));
+		});
+		when(s3Service.listObjects(eq(S3Service.KEY_PREFIX), eq(prefix + "-c-racing"), anyInt()))
+				.thenReturn(page(false, object(prefix + "-d-young", Instant.now()), object(prefix + "-e-orphan", OLD)));
+		when(s3Service.deleteFiles(any())).thenReturn(List.of());
+
+		collector.collect(StorageGarbageCollector.Cursor.START);
+
+		verify(s3Service).deleteFiles(List.of(prefix + "-b-orphan", prefix + "-e-orphan"));
+		@SuppressWarnings("unchecked")
+		Map<String, Object> s3 = (Map<String, Object>) collector.getStats().get("s3");
+		assertEquals(5L, s3.get("scanned"));
+		assertEquals(1L, s3.get("referenced"));
+		assertEquals(1L, s3.get("tooYoung"));
+		assertEquals(1L, s3.get("verifiedReferenced"));
+		assertEquals(2L, s3.get("deleted"));
+		assertEquals(200L, s3.get("bytesFreed"));
+	}
+
+	@Test
+	void resumesWhereTheLastSliceStopped() {
+		StorageGarbageCollector sliced = new StorageGarbageCollector(List.of(contentKeySource), s3Service,
+				circuitBreaker, localFileStorageService, 1, 500, 2, 0.01);
+		when(s3Service.listObjects(any(), isNull(), anyInt()))
+				.thenReturn(page(true, object("uploads/k1", Instant.now()), object("uploads/k2", Instant.now())));
+		when(s3Service.listObjects(any(), eq("uploads/k2"), anyInt()))
+				.thenReturn(page(false, object("uploads/k3", Instant.now())));
+
+		StorageGarbageCollector.Cursor next = sliced.collect(StorageGarbageCollector.Cursor.START);
+		assertEquals("uploads/k2", next.s3ResumeAfter());
+
+		next = sliced.collect(next);
+		assertNull(next.s3ResumeAfter());
+		verify(s3Service).listObjects(any(), eq("uploads/k2"), anyInt());
+	}
+
+	private Path write(String filename, Instant modified) throws Exception {
+		Path path = localFileStorageService.writeFile(filename, new ByteArrayInputStream(new byte[100]));
+		Files.setLastModifiedTime(path, FileTime.from(modified));
+		return path;
+	}
+
+	private void content(String key) {
+		Course course = courseRepository.save(Course.builder()
+				.title("GC " + System.nanoTime())
+				.createdAt(LocalDateTime.now())
+				.build());
+		contentRepository.save(Content.builder()
+				.title("Lesson")
+				.fileUrl("http://localhost/" + key)
+				.s3Key(key)
+				.course(course)
+				.build());
+	}
+
+	private static ListObjectsV2Response page(boolean truncated, S3Object... objects) {
+		return ListObjectsV2Response.builder().contents(objects).isTruncated(truncated).build();
+	}
+
+	private static S3Object object(String key, Instant modified) {
+		return S3Object.builder().key(key).lastModified(modified).size(100L).build();
+	}
+}
@@ -0,0 +1,41 @@
+package com.example.lms.service;
+
+import com.example.lms.repository.RevokedTokenRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TokenRevocationServiceTest {
+
+	private final Set<String> revoked = ConcurrentHashMap.newKeySet();
+	private final RevokedTokenRepository repository = mock(RevokedTokenRepository.class);
+
+	@Test
+	void revocationRecordedDuringARebuildIsNotLost() {
+		revoked.add("old");
+		when(repository.existsById(anyString())).thenAnswer(invocation -> revoked.contains(invocation.<String>getArgument(0)));
+		when(repository.findUnexpiredJtis(any(LocalDateTime.class))).thenAnswer(invocation -> {
+			List<String> snapshot = List.copyOf(revoked);
+			// Another node revokes a token after the snapshot was read, before the new filter is swapped in
+			revoked.add("during-rebuild");
+			return snapshot;
+		});
+		when(repository.findJtisRevokedSince(any(LocalDateTime.class))).thenAnswer(invocation -> List.copyOf(revoked));
+
+		TokenRevocationService service = new TokenRevocationService(repository, 1000, 0.01);
+		service.init();
+
+		assertTrue(service.isRevoked("old"));
+		assertTrue(service.isRevoked("during-rebuild"));
+		assertFalse(service.isRevoked("never-revoked"));
+	}
+}
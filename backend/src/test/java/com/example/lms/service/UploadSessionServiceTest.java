@@ -0,0 +1,210 @@
+package com.example.lms.service;
+
+import com.example.lms.dto.request.CreateUploadSessionRequest;
+import com.example.lms.entity.Content;
+import com.example.lms.entity.Course;
+import com.example.lms.entity.UploadSession;
+import com.example.lms.entity.UploadStorage;
+import com.example.lms.exception.BadRequestException;
+import com.example.lms.exception.ConflictException;
+import com.example.lms.exception.ResourceNotFoundException;
+import com.example.lms.repository.ContentRepository;
+import com.example.lms.repository.CourseRepository;
+import com.example.lms.repository.UploadSessionRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest(properties = "storage.local.dir=target/test-uploads")
+class UploadSessionServiceTest {
+
+	private static final Long OWNER = 1L;
+
+	@Autowired
+	private UploadSessionService uploadSessionService;
+
+	@Autowired
+	private UploadSessionRepository uploadSessionRepository;
+
+	@Autowired
+	private CourseRepository courseRepository;
+
+	@Autowired
+	private LocalFileStorageService localFileStorageService;
+
+	@Autowired
+	private ContentRepository contentRepository;
+
+	@MockBean
+	private S3Service s3Service;
+
+	@Test
+	void resumesOutOfOrderChunksAndFinalizesWithoutReupload() throws Exception {
+		when(s3Service.createMultipartUpload(any(), any())).thenThrow(new RuntimeException("S3 unavailable"));
+		byte[] file = new byte[11 * 1024 * 1024];
+		new Random(7).nextBytes(file);
+
+		UploadSession session = uploadSessionService.createSession(OWNER, request(file.length));
+		assertEquals(UploadStorage.LOCAL, session.getStorage());
+		assertEquals(2, session.getTotalChunks());
+		int chunkSize = session.getChunkSize();
+		byte[] second = Arrays.copyOfRange(file, chunkSize, file.length);
+		byte[] first = Arrays.copyOfRange(file, 0, chunkSize);
+
+		uploadSessionService.receiveChunk(OWNER, session.getId(), 1, second, sha256(second));
+		uploadSessionService.receiveChunk(OWNER, session.getId(), 1, second, sha256(second));
+		assertEquals(List.of("1-1"), UploadSessionService.toRanges(uploadSessionService.getChunks(session)));
+		assertThrows(ConflictException.class, () -> uploadSessionService.complete(OWNER, session.getId()));
+		assertThrows(BadRequestException.class,
+				() -> uploadSessionService.receiveChunk(OWNER, session.getId(), 0, first, sha256(second)));
+
+		uploadSessionService.receiveChunk(OWNER, session.getId(), 0, first, sha256(first));
+		Content content = uploadSessionService.complete(OWNER, session.getId());
+
+		assertNotNull(content.getId());
+		assertArrayEquals(file, Files.readAllBytes(localFileStorageService.resolve(content.getS3Key())));
+		assertTrue(uploadSessionRepository.findById(session.getId()).isEmpty());
+		localFileStorageService.deleteFile(content.getS3Key());
+	}
+
+	@Test
+	void sweeperRemovesExpiredSessions() throws Exception {
+		when(s3Service.createMultipartUpload(any(), any())).thenThrow(new RuntimeException("S3 unavailable"));
+		UploadSession session = uploadSessionService.createSession(OWNER, request(100));
+		byte[] chunk = new byte[100];
+		uploadSessionService.receiveChunk(OWNER, session.getId(), 0, chunk, sha256(chunk));
+
+		session.setExpiresAt(LocalDateTime.now().minusMinutes(1));
+		uploadSessionRepository.save(session);
+
+		assertThrows(ResourceNotFoundException.class, () -> uploadSessionService.getSession(OWNER, session.getId()));
+		assertTrue(uploadSessionService.sweepExpired() >= 1);
+		assertTrue(uploadSessionRepository.findById(session.getId()).isEmpty());
+		assertFalse(Files.exists(localFileStorageService.partialFile(session.getId())));
+	}
+
+	@Test
+	void concurrentCompletesCreateOneContent() throws Exception {
+		when(s3Service.createMultipartUpload(any(), any())).thenThrow(new RuntimeException("S3 unavailable"));
+		CreateUploadSessionRequest request = request(100);
+		UploadSession session = uploadSessionService.createSession(OWNER, request);
+		byte[] chunk = new byte[100];
+		uploadSessionService.receiveChunk(OWNER, session.getId(), 0, chunk, sha256(chunk));
+
+		ExecutorService pool = Executors.newFixedThreadPool(2);
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<Content>> results = new ArrayList<>();
+		for (int i = 0; i < 2; i++) {
+			results.add(pool.submit(() -> {
+				start.await();
+				return uploadSessionService.complete(OWNER, session.getId());
+			}));
+		}
+		start.countDown();
+		int completed = 0;
+		for (Future<Content> result : results) {
+			try {
+				localFileStorageService.deleteFile(result.get().getS3Key());
+				completed++;
+			} catch (ExecutionException e) {
+				// The loser is told the session is claimed or gone (or times out waiting for the winner)
+				assertInstanceOf(RuntimeException.class, e.getCause());
+			}
+		}
+		pool.shutdown();
+
+		assertEquals(1, completed);
+		Course course = courseRepository.findById(request.getCourseId()).orElseThrow();
+		assertEquals(1, contentRepository.findByCourse(course).size());
+	}
+
+	@Test
+	void sessionsAreOnlyVisibleToTheirCreator() throws Exception {
+		when(s3Service.createMultipartUpload(any(), any())).thenThrow(new RuntimeException("S3 unavailable"));
+		UploadSession session = uploadSessionService.createSession(OWNER, request(100));
+		byte[] chunk = new byte[100];
+		Long other = OWNER + 1;
+
+		assertEquals(OWNER, session.getCreatedBy());
+		assertThrows(ResourceNotFoundException.class, () -> uploadSessionService.getSession(other, session.getId()));
+		assertThrows(ResourceNotFoundException.class,
+				() -> uploadSessionService.receiveChunk(other, session.getId(), 0, chunk, sha256(chunk)));
+		uploadSessionService.receiveChunk(OWNER, session.getId(), 0, chunk, sha256(chunk));
+		assertThrows(ResourceNotFoundException.class, () -> uploadSessionService.complete(other, session.getId()));
+
+		assertEquals(List.of("0-0"), UploadSessionService.toRanges(
+				uploadSessionService.getChunks(uploadSessionService.getSession(OWNER, session.getId()))));
+	}
+
+	@Test
+	void chunksAreRejectedOnceCompletionHasStarted() throws Exception {
+		when(s3Service.createMultipartUpload(any(), any())).thenThrow(new RuntimeException("S3 unavailable"));
+		UploadSession session = uploadSessionService.createSession(OWNER, request(100));
+		byte[] chunk = new byte[100];
+		uploadSessionService.receiveChunk(OWNER, session.getId(), 0, chunk, sha256(chunk));
+
+		// As left by a complete call that has claimed the session
+		UploadSession claimed = uploadSessionRepository.findById(session.getId()).orElseThrow();
+		claimed.setCompleting(true);
+		uploadSessionRepository.save(claimed);
+
+		byte[] replacement = new byte[100];
+		replacement[0] = 1;
+		assertThrows(ConflictException.class,
+				() -> uploadSessionService.receiveChunk(OWNER, session.getId(), 0, replacement, sha256(replacement)));
+		assertArrayEquals(chunk, Files.readAllBytes(localFileStorageService.partialFile(session.getId())));
+	}
+
+	@Test
+	void clientFileNamesCannotLeaveTheUploadDirectory() {
+		assertEquals("passwd", UploadSessionService.safeFileName("../../etc/passwd"));
+		assertEquals("evil.mp4", UploadSessionService.safeFileName("..\\..\\evil.mp4"));
+		assertEquals("a.b_c.mp4", UploadSessionService.safeFileName("a..b c.mp4"));
+		assertEquals("file", UploadSessionService.safeFileName(".."));
+
+		when(s3Service.createMultipartUpload(any(), any())).thenThrow(new RuntimeException("S3 unavailable"));
+		CreateUploadSessionRequest request = request(100);
+		request.setFileName("../../../outside.mp4");
+		UploadSession session = uploadSessionService.createSession(OWNER, request);
+		assertFalse(session.getStorageKey().contains("/"));
+		assertTrue(session.getStorageKey().endsWith("-outside.mp4"));
+	}
+
+	private CreateUploadSessionRequest request(long size) {
+		Course course = courseRepository.save(Course.builder()
+				.title("Course " + System.nanoTime())
+				.createdAt(LocalDateTime.now())
+				.build());
+		CreateUploadSessionRequest request = new CreateUploadSessionRequest();
+		request.setCourseId(course.getId());
+		request.setTitle("Lecture 1");
+		request.setContentType("VIDEO");
+		request.setOrderIndex(1);
+		request.setFileName("lecture.mp4");
+		request.setTotalSize(size);
+		return request;
+	}
+
+	private static String sha256(byte[] data) throws Exception {
+		return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(data));
+	}
+}
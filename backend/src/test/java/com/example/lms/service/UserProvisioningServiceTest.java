@@ -0,0 +1,126 @@
+package com.example.lms.service;
+
+import com.example.lms.dto.BulkProvisioningResult;
+import com.example.lms.entity.Role;
+import com.example.lms.entity.RoleName;
+import com.example.lms.entity.User;
+import com.example.lms.exception.BadRequestException;
+import com.example.lms.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "provisioning.bulk.batch-size=2")
+class UserProvisioningServiceTest {
+
+	@Autowired
+	private UserProvisioningService provisioningService;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private PasswordEncoder passwordEncoder;
+
+	@MockBean
+	private S3Service s3Service;
+
+	@Test
+	@Transactional
+	void provisionsCsvAcrossBatchesAndSkipsDuplicates() {
+		userRepository.save(User.builder().fullName("Existing").email("existing@bulk.com").password("x").build());
+		String csv = """
+				fullName,email,password,roles
+				"Doe, Jane",jane@bulk.com,secret1,ROLE_TEACHER;ROLE_STUDENT
+				John,john@bulk.com,secret2,
+				Again,existing@bulk.com,secret3,
+				Jane Twice,jane@bulk.com,secret4,
+				Bad Role,bad@bulk.com,secret5,ROLE_WIZARD
+				No Password,nopass@bulk.com,,
+				""";
+
+		BulkProvisioningResult result = provisioningService.provisionCsv(stream(csv));
+
+		assertEquals(6, result.getReceived());
+		assertEquals(2, result.getCreated());
+		assertEquals(2, result.getSkippedExisting());
+		assertEquals(2, result.getFailed());
+		assertEquals(2, result.getErrors().size());
+
+		User jane = userRepository.findByEmail("jane@bulk.com").orElseThrow();
+		assertEquals("Doe, Jane", jane.getFullName());
+		assertTrue(passwordEncoder.matches("secret1", jane.getPassword()));
+		assertEquals(Set.of(RoleName.ROLE_TEACHER, RoleName.ROLE_STUDENT),
+				jane.getRoles().stream().map(Role::getRoleName).collect(Collectors.toSet()));
+		User john = userRepository.findByEmail("john@bulk.com").orElseThrow();
+		assertEquals(1, john.getRoles().size());
+		assertFalse(userRepository.existsByEmail("bad@bulk.com"));
+	}
+
+	@Test
+	@Transactional
+	void quotedCsvFieldsMaySpanLines() {
+		String csv = "\uFEFFfullName,email,password,bio\r\n"
+				+ "Multi Line,multiline@bulk.com,secret1,\"First line\r\n\r\n\"\"Quoted\"\", after a blank line\"\r\n"
+				+ "\r\n"
+				+ "Next,next@bulk.com,secret2,plain\r\n";
+
+		BulkProvisioningResult result = provisioningService.provisionCsv(stream(csv));
+
+		assertEquals(2, result.getCreated());
+		assertEquals("First line\n\n\"Quoted\", after a blank line",
+				userRepository.findByEmail("multiline@bulk.com").orElseThrow().getBio());
+		assertEquals("plain", userRepository.findByEmail("next@bulk.com").orElseThrow().getBio());
+		assertThrows(BadRequestException.class, () -> provisioningService.provisionCsv(
+				stream("fullName,email,password\nOpen,open@bulk.com,\"never closed\n")));
+	}
+
+	@Test
+	void provisionsJsonArray() {
+		String json = """
+				[{"fullName":"Json One","email":"one@json.com","password":"pw1","roles":["ROLE_ADMIN"]},
+				 {"fullName":"Json Two","email":"two@json.com","password":"pw2"},
+				 {"fullName":"Json Three","email":"three@json.com","password":"pw3"}]
+				""";
+
+		BulkProvisioningResult result = provisioningService.provisionJson(stream(json));
+
+		assertEquals(3, result.getCreated());
+		assertEquals(0, result.getFailed());
+		assertTrue(userRepository.existsByEmail("three@json.com"));
+	}
+
+	@Test
+	void emailsDifferingOnlyInCaseAreOneUserAndMalformedEmailsAreReported() {
+		String json = """
+				[{"fullName":"Mixed","email":"Mixed.Case@Json.com","password":"pw1"},
+				 {"fullName":"Lower","email":"mixed.case@json.com","password":"pw2"},
+				 {"fullName":"Injected","email":"x@json.com\\r\\nRCPT TO:<victim@example.com>","password":"pw3"},
+				 {"fullName":"No Domain","email":"nobody@","password":"pw4"},
+				 {"fullName":"Fine","email":"fine@json.com","password":"pw5"}]
+				""";
+
+		BulkProvisioningResult result = provisioningService.provisionJson(stream(json));
+
+		assertEquals(2, result.getCreated());
+		assertEquals(1, result.getSkippedExisting());
+		assertEquals(2, result.getFailed());
+		assertEquals(List.of("row 3: invalid email", "row 4: invalid email"), result.getErrors());
+		assertEquals("Mixed", userRepository.findByEmail("mixed.case@json.com").orElseThrow().getFullName());
+	}
+
+	private static ByteArrayInputStream stream(String body) {
+		return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+	}
+}
@@ -0,0 +1,15 @@
+-- ProgressBatchInsertTest.IdentityProgress: progress as mapped before the switch to sequence ids
+
+create table if not exists progress_identity (
+    completed boolean,
+    percent_complete integer,
+    content_id bigint not null references contents (id),
+    enrollment_id bigint not null references enrollments (id),
+    id bigint generated by default as identity,
+    last_accessed_at timestamp(6),
+    primary key (id),
+    unique (enrollment_id, content_id)
+);
+
+create index if not exists idx_progress_identity_enrollment_accessed
+    on progress_identity (enrollment_id, last_accessed_at);
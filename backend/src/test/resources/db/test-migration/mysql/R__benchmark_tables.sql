@@ -0,0 +1,15 @@
+-- ProgressBatchInsertTest.IdentityProgress: progress as mapped before the switch to sequence ids
+
+create table if not exists progress_identity (
+    completed bit,
+    percent_complete integer,
+    content_id bigint not null,
+    enrollment_id bigint not null,
+    id bigint not null auto_increment,
+    last_accessed_at datetime(6),
+    primary key (id),
+    unique (enrollment_id, content_id),
+    index idx_progress_identity_enrollment_accessed (enrollment_id, last_accessed_at),
+    foreign key (content_id) references contents (id),
+    foreign key (enrollment_id) references enrollments (id)
+) engine=InnoDB;
@@ -43,10 +43,8 @@ export default function CourseDetails() {
 
   const fetchProgress = async () => {
     try {
-      const email = localStorage.getItem("email");
       const res = await api.get(`/progress`, {
         params: {
-          studentEmail: email,
           courseId: id,
         },
         headers: { Authorization: `Bearer ${localStorage.getItem("token")}` },
@@ -86,11 +84,9 @@ export default function CourseDetails() {
 
     // Save to backend
     try {
-      const email = localStorage.getItem("email");
       await api.post(
         `/progress/update`,
         {
-          studentEmail: email,
           courseId: parseInt(id),
           contentId: contentId,
           percentComplete: newPercentComplete,
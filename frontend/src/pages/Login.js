@@ -26,8 +26,9 @@ export default function Login() {
         headers: { "Content-Type": "application/json" },
       });
 
-      const token = res.data;
+      const token = res.data.accessToken;
       localStorage.setItem("token", token);
+      localStorage.setItem("refreshToken", res.data.refreshToken);
       localStorage.setItem("email", form.email);
 
       // decode token to check role
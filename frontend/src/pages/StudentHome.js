@@ -19,8 +19,7 @@ export default function StudentHome() {
 
   const fetchEnrollments = async () => {
     try {
-      const email = localStorage.getItem("email");
-      const res = await api.get(`/enrollments/student?email=${email}`, {
+      const res = await api.get(`/enrollments/student`, {
         headers: { Authorization: `Bearer ${localStorage.getItem("token")}` },
       });
       setEnrollments(res.data);
@@ -45,9 +44,8 @@ export default function StudentHome() {
     setMessage("");
 
     try {
-      const email = localStorage.getItem("email");
       await api.post(
-        `/enrollments?studentEmail=${email}&courseId=${courseId}`,
+        `/enrollments?courseId=${courseId}`,
         {},
         {
           headers: { Authorization: `Bearer ${localStorage.getItem("token")}` },
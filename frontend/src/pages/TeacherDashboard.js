@@ -42,8 +42,7 @@ export default function TeacherDashboard() {
     setMessage("");
 
     try {
-      const email = localStorage.getItem("email");
-      await api.post(`/courses?instructorEmail=${email}`, newCourse);
+      await api.post(`/courses`, newCourse);
       setNewCourse({ title: "", description: "", category: "" });
       setMessage("Course created successfully!");
       fetchCourses();
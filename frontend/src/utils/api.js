@@ -10,4 +10,36 @@ api.interceptors.request.use((config) => {
   return config;
 });
 
+// Access tokens are short-lived: on 401, swap the refresh token for a new pair once and retry
+let refreshing = null;
+
+api.interceptors.response.use(
+  (res) => res,
+  async (error) => {
+    const original = error.config;
+    const refreshToken = localStorage.getItem("refreshToken");
+    if (error.response?.status !== 401 || original._retried || !refreshToken) {
+      return Promise.reject(error);
+    }
+    original._retried = true;
+    try {
+      // Concurrent 401s share one refresh; reusing a refresh token would revoke the session
+      refreshing =
+        refreshing ||
+        axios
+          .post(`${api.defaults.baseURL}/auth/refresh`, { refreshToken })
+          .finally(() => (refreshing = null));
+      const { data } = await refreshing;
+      localStorage.setItem("token", data.accessToken);
+      localStorage.setItem("refreshToken", data.refreshToken);
+      original.headers.Authorization = `Bearer ${data.accessToken}`;
+      return api(original);
+    } catch (refreshError) {
+      localStorage.removeItem("token");
+      localStorage.removeItem("refreshToken");
+      return Promise.reject(error);
+    }
+  }
+);
+
 export default api;